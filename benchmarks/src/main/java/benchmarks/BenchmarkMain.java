@@ -0,0 +1,99 @@
+package benchmarks;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatFactory;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar. Accepts the usual JMH command line and
+ * stores the results as JSON in <code>benchmarks/results</code>, named after
+ * the current commit, so runs on different commits can be compared with
+ * <code>compare</code>:
+ *
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar [JMH options] [benchmark regexps]
+ * java -Dbench.threads=1,2,4,8,16,32,64 -jar benchmarks/target/benchmarks.jar Concurrent
+ * java -jar benchmarks/target/benchmarks.jar compare [baseline.json current.json]
+ * </pre>
+ *
+ * Without files, <code>compare</code> takes the two most recent results.
+ */
+public class BenchmarkMain {
+
+	static final File RESULTS = new File("benchmarks", "results");
+
+	public static void main(String[] args) throws Exception {
+		if (args.length > 0 && "compare".equals(args[0])) {
+			CompareResults.main(Arrays.copyOfRange(args, 1, args.length));
+			return;
+		}
+		if (!new File("src/main/java/rest/ApiUtil.java").isFile()) {
+			System.err.println(
+					"Run the benchmarks from the repository root, ApiUtil.java and TestData.xlsx are read from there");
+		}
+		CommandLineOptions options = new CommandLineOptions(args);
+		File result = options.getResult().hasValue() ? new File(options.getResult().get())
+				: new File(RESULTS, commit() + "-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".json");
+		ResultFormatType format = options.getResultFormat().orElse(ResultFormatType.JSON);
+
+		// -Dbench.threads=1,2,4 runs everything once per thread count; the
+		// concurrency benchmarks are meant to be swept this way
+		List<RunResult> results = new ArrayList<>();
+		String threads = System.getProperty("bench.threads");
+		if (threads == null || threads.trim().isEmpty()) {
+			results.addAll(new Runner(options).run());
+		} else {
+			for (String count : threads.split(",")) {
+				results.addAll(
+						new Runner(new OptionsBuilder().parent(options).threads(Integer.parseInt(count.trim())).build())
+								.run());
+			}
+		}
+
+		if (result.getParentFile() != null) {
+			result.getParentFile().mkdirs();
+		}
+		try (PrintStream out = new PrintStream(result, "UTF-8")) {
+			ResultFormatFactory.getInstance(format, out).writeOut(results);
+		}
+		System.out.println("Results: " + result.getPath());
+	}
+
+	/**
+	 * @return <code>-Dbench.commit</code>, else the short hash of HEAD, else
+	 *         <code>unknown</code>
+	 */
+	static String commit() {
+		String commit = System.getProperty("bench.commit");
+		if (commit != null && !commit.isEmpty()) {
+			return commit;
+		}
+		try {
+			Process git = new ProcessBuilder("git", "rev-parse", "--short", "HEAD").redirectErrorStream(true).start();
+			try (BufferedReader reader = new BufferedReader(
+					new InputStreamReader(git.getInputStream(), StandardCharsets.UTF_8))) {
+				String line = reader.readLine();
+				if (git.waitFor() == 0 && line != null && !line.isEmpty()) {
+					return line.trim();
+				}
+			}
+		} catch (Exception e) {
+			// not a git checkout or git not installed
+		}
+		return "unknown";
+	}
+}
@@ -0,0 +1,105 @@
+package benchmarks;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares two JMH JSON result files benchmark by benchmark. A change counts
+ * only when the two confidence intervals do not overlap; everything else is
+ * reported as noise.
+ */
+public class CompareResults {
+
+	private static class Score {
+		final double score;
+		final double error;
+		final String unit;
+
+		Score(double score, double error, String unit) {
+			this.score = score;
+			this.error = Double.isNaN(error) ? 0 : error;
+			this.unit = unit;
+		}
+	}
+
+	/**
+	 * @param args baseline and current result file; without arguments the two
+	 *             most recent files in benchmarks/results
+	 */
+	public static void main(String[] args) throws Exception {
+		File baseline;
+		File current;
+		if (args.length >= 2) {
+			baseline = new File(args[0]);
+			current = new File(args[1]);
+		} else {
+			File[] files = BenchmarkMain.RESULTS.listFiles((dir, name) -> name.endsWith(".json"));
+			if (files == null || files.length < 2) {
+				System.err.println("Need two result files in " + BenchmarkMain.RESULTS + " or on the command line");
+				return;
+			}
+			Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+			baseline = files[files.length - 2];
+			current = files[files.length - 1];
+		}
+		System.out.println("Baseline: " + baseline + "\nCurrent:  " + current + "\n");
+
+		Map<String, Score> before = read(baseline);
+		Map<String, Score> after = read(current);
+		List<String> missing = new ArrayList<>();
+		for (Map.Entry<String, Score> entry : after.entrySet()) {
+			Score old = before.get(entry.getKey());
+			Score now = entry.getValue();
+			if (old == null) {
+				System.out.println(String.format("%-90s %12s -> %10.3f %s  (new)", entry.getKey(), "",
+						now.score, now.unit));
+				continue;
+			}
+			double change = old.score == 0 ? 0 : (now.score - old.score) / old.score * 100;
+			boolean significant = Math.abs(now.score - old.score) > old.error + now.error;
+			String verdict = !significant ? "noise" : (change > 0) == lowerIsBetter(now.unit) ? "WORSE" : "better";
+			System.out.println(String.format("%-90s %10.3f -> %10.3f %s  %+7.1f%%  %s", entry.getKey(), old.score,
+					now.score, now.unit, change, verdict));
+		}
+		for (String key : before.keySet()) {
+			if (!after.containsKey(key)) {
+				missing.add(key);
+			}
+		}
+		for (String key : missing) {
+			System.out.println(String.format("%-90s (not in current run)", key));
+		}
+	}
+
+	private static boolean lowerIsBetter(String unit) {
+		return !unit.startsWith("ops/");
+	}
+
+	private static Map<String, Score> read(File file) throws Exception {
+		Map<String, Score> scores = new LinkedHashMap<>();
+		for (JsonNode run : new ObjectMapper().readTree(file)) {
+			StringBuilder key = new StringBuilder(run.path("benchmark").asText().replace("benchmarks.", ""));
+			JsonNode params = run.path("params");
+			for (Iterator<Map.Entry<String, JsonNode>> it = params.fields(); it.hasNext();) {
+				Map.Entry<String, JsonNode> param = it.next();
+				key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+			}
+			if (run.path("threads").asInt(1) != 1) {
+				key.append(" threads=").append(run.path("threads").asInt());
+			}
+			JsonNode metric = run.path("primaryMetric");
+			scores.put(key.toString(), new Score(metric.path("score").asDouble(),
+					metric.path("scoreError").asDouble(Double.NaN), metric.path("scoreUnit").asText()));
+		}
+		return scores;
+	}
+}
@@ -0,0 +1,213 @@
+package benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Proxy;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.testng.ITestClass;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+
+import coreUtilities.testlisteners.TestListener;
+import coreUtilities.testutils.TestUtils;
+
+/**
+ * One test lifecycle per operation through the real TestListener, from
+ * onTestStart to onTestSuccess or onTestFailure, with ITestResults stubbed by
+ * dynamic proxies. Three threads pass tests and one fails them.
+ *
+ * <ul>
+ * <li><code>synchronizedCallbacks</code>: every callback holds the listener
+ * lock, as TestListener did.</li>
+ * <li><code>unsynchronizedCallbacks</code>: TestListener as it is now, where
+ * only the passed-test retention takes a lock of its own.</li>
+ * </ul>
+ *
+ * The result that TestUtils.yakshaAssert pushes after every test is answered
+ * in-process by a stub <code>https</code> handler instead of the results
+ * service, so the numbers include building the push but no network. The report is never flushed and keeps only
+ * the last {@value #RETAINED} passed tests; failed tests stay in it, as they do
+ * in a suite run. Thread counts from <code>-Dbench.threads</code> are rounded up
+ * to whole groups of four.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Dlog.level=WARN", "-Dlog.console=false",
+		"-Dextent.max.passed.tests=" + ConcurrentListenerBenchmark.RETAINED })
+public class ConcurrentListenerBenchmark {
+
+	static final int RETAINED = 200;
+	private static final AssertionError FAILURE = new AssertionError("expected status 200 but was 500");
+
+	private static boolean resultsStubbed;
+
+	private TestListener listener;
+	private ITestResult passing;
+	private ITestResult failing;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		stubResultsService();
+		listener = new TestListener();
+		passing = result("passingTest", null);
+		failing = result("failingTest", FAILURE);
+	}
+
+	// Both groups share the stub; the factory can be set only once per JVM
+	private static synchronized void stubResultsService() {
+		if (!resultsStubbed) {
+			URL.setURLStreamHandlerFactory(protocol -> "https".equals(protocol) ? new ResultsHandler() : null);
+			resultsStubbed = true;
+		}
+	}
+
+	/**
+	 * Accepts the result push with 200 and discards it; other https URLs are
+	 * refused so nothing in the fork reaches the network.
+	 */
+	private static final class ResultsHandler extends URLStreamHandler {
+		@Override
+		protected URLConnection openConnection(URL url) throws IOException {
+			if (!url.toExternalForm().equals(TestUtils.URL)) {
+				throw new IOException("Only the results push is stubbed: " + url);
+			}
+			return new HttpURLConnection(url) {
+				@Override
+				public void connect() {
+					connected = true;
+				}
+
+				@Override
+				public OutputStream getOutputStream() {
+					return new ByteArrayOutputStream();
+				}
+
+				@Override
+				public int getResponseCode() {
+					return HTTP_OK;
+				}
+
+				@Override
+				public void disconnect() {
+				}
+
+				@Override
+				public boolean usingProxy() {
+					return false;
+				}
+			};
+		}
+	}
+
+	@Benchmark
+	@Group("synchronizedCallbacks")
+	@GroupThreads(3)
+	public void synchronizedPass() {
+		synchronized (listener) {
+			listener.onTestStart(passing);
+		}
+		synchronized (listener) {
+			listener.onTestSuccess(passing);
+		}
+	}
+
+	@Benchmark
+	@Group("synchronizedCallbacks")
+	@GroupThreads(1)
+	public void synchronizedFail() {
+		synchronized (listener) {
+			listener.onTestStart(failing);
+		}
+		synchronized (listener) {
+			listener.onTestFailure(failing);
+		}
+	}
+
+	@Benchmark
+	@Group("unsynchronizedCallbacks")
+	@GroupThreads(3)
+	public void unsynchronizedPass() {
+		listener.onTestStart(passing);
+		listener.onTestSuccess(passing);
+	}
+
+	@Benchmark
+	@Group("unsynchronizedCallbacks")
+	@GroupThreads(1)
+	public void unsynchronizedFail() {
+		listener.onTestStart(failing);
+		listener.onTestFailure(failing);
+	}
+
+	/**
+	 * A finished test of this class; the listener only reads results, so one
+	 * instance serves every call.
+	 */
+	private static ITestResult result(String methodName, Throwable failure) {
+		Map<String, Object> clazz = new HashMap<>();
+		clazz.put("getName", ConcurrentListenerBenchmark.class.getName());
+		Map<String, Object> method = new HashMap<>();
+		method.put("getMethodName", methodName);
+		method.put("getDescription", "benchmark");
+		Map<String, Object> result = new HashMap<>();
+		result.put("getMethod", stub(ITestNGMethod.class, method));
+		result.put("getTestClass", stub(ITestClass.class, clazz));
+		result.put("getThrowable", failure);
+		result.put("getName", methodName);
+		result.put("getStatus", failure == null ? ITestResult.SUCCESS : ITestResult.FAILURE);
+		return stub(ITestResult.class, result);
+	}
+
+	// Methods without an answer return null, 0 or false
+	private static <T> T stub(Class<T> type, Map<String, Object> answers) {
+		Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (self, method, args) -> {
+			if (answers.containsKey(method.getName())) {
+				return answers.get(method.getName());
+			}
+			switch (method.getName()) {
+			case "hashCode":
+				return System.identityHashCode(self);
+			case "equals":
+				return self == args[0];
+			case "toString":
+				return type.getSimpleName() + answers;
+			}
+			Class<?> returns = method.getReturnType();
+			if (returns == boolean.class) {
+				return false;
+			}
+			if (returns == long.class) {
+				return 0L;
+			}
+			if (returns == int.class) {
+				return 0;
+			}
+			return null;
+		});
+		return type.cast(proxy);
+	}
+}
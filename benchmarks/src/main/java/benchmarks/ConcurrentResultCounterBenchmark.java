@@ -0,0 +1,160 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The passed/failed/total counters of TestUtils under parallel reporting: three
+ * threads record results (one in five fails) while one reads the totals now and
+ * then, as TestUtils.yakshaAssert and testReport do. The reader spends
+ * {@value #READ_INTERVAL_TOKENS} CPU tokens between reads so it samples rather
+ * than spins.
+ *
+ * <ul>
+ * <li><code>plainInt</code>: the previous static ints. Increments are lost
+ * under contention, so it is only a lower bound on the cost.</li>
+ * <li><code>synchronizedInt</code>, <code>atomicInteger</code>: the usual
+ * fixes.</li>
+ * <li><code>longAdder</code>: what TestUtils uses now.</li>
+ * </ul>
+ *
+ * Thread counts from <code>-Dbench.threads</code> are rounded up to whole
+ * groups of four.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlog.level=WARN")
+public class ConcurrentResultCounterBenchmark {
+
+	private static final long READ_INTERVAL_TOKENS = 1000;
+
+	private int plainTotal;
+	private int plainPassed;
+	private int plainFailed;
+
+	private int lockedTotal;
+	private int lockedPassed;
+	private int lockedFailed;
+
+	private final AtomicInteger atomicTotal = new AtomicInteger();
+	private final AtomicInteger atomicPassed = new AtomicInteger();
+	private final AtomicInteger atomicFailed = new AtomicInteger();
+
+	private final LongAdder adderTotal = new LongAdder();
+	private final LongAdder adderPassed = new LongAdder();
+	private final LongAdder adderFailed = new LongAdder();
+
+	/**
+	 * Which result the next record of this thread is.
+	 */
+	@State(Scope.Thread)
+	public static class Outcome {
+		private int next;
+
+		boolean passed() {
+			return ++next % 5 != 0;
+		}
+	}
+
+	@Benchmark
+	@Group("plainInt")
+	@GroupThreads(3)
+	public void plainIntRecord(Outcome outcome) {
+		plainTotal++;
+		if (outcome.passed()) {
+			plainPassed++;
+		} else {
+			plainFailed++;
+		}
+	}
+
+	@Benchmark
+	@Group("plainInt")
+	@GroupThreads(1)
+	public int plainIntReport() {
+		Blackhole.consumeCPU(READ_INTERVAL_TOKENS);
+		return plainTotal + plainPassed + plainFailed;
+	}
+
+	@Benchmark
+	@Group("synchronizedInt")
+	@GroupThreads(3)
+	public void synchronizedIntRecord(Outcome outcome) {
+		boolean passed = outcome.passed();
+		synchronized (this) {
+			lockedTotal++;
+			if (passed) {
+				lockedPassed++;
+			} else {
+				lockedFailed++;
+			}
+		}
+	}
+
+	@Benchmark
+	@Group("synchronizedInt")
+	@GroupThreads(1)
+	public int synchronizedIntReport() {
+		Blackhole.consumeCPU(READ_INTERVAL_TOKENS);
+		synchronized (this) {
+			return lockedTotal + lockedPassed + lockedFailed;
+		}
+	}
+
+	@Benchmark
+	@Group("atomicInteger")
+	@GroupThreads(3)
+	public void atomicIntegerRecord(Outcome outcome) {
+		atomicTotal.incrementAndGet();
+		if (outcome.passed()) {
+			atomicPassed.incrementAndGet();
+		} else {
+			atomicFailed.incrementAndGet();
+		}
+	}
+
+	@Benchmark
+	@Group("atomicInteger")
+	@GroupThreads(1)
+	public int atomicIntegerReport() {
+		Blackhole.consumeCPU(READ_INTERVAL_TOKENS);
+		return atomicTotal.get() + atomicPassed.get() + atomicFailed.get();
+	}
+
+	@Benchmark
+	@Group("longAdder")
+	@GroupThreads(3)
+	public void longAdderRecord(Outcome outcome) {
+		adderTotal.increment();
+		if (outcome.passed()) {
+			adderPassed.increment();
+		} else {
+			adderFailed.increment();
+		}
+	}
+
+	@Benchmark
+	@Group("longAdder")
+	@GroupThreads(1)
+	public long longAdderReport() {
+		Blackhole.consumeCPU(READ_INTERVAL_TOKENS);
+		return adderTotal.sum() + adderPassed.sum() + adderFailed.sum();
+	}
+}
@@ -0,0 +1,98 @@
+package benchmarks;
+
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rest.ApiUtil;
+
+/**
+ * Throughput of unique name generation with many test threads.
+ *
+ * <ul>
+ * <li><code>hashSetLocked</code>: the previous HashSet + Random design with
+ * the smallest thread-safe fix, one lock around it. Without the lock it
+ * corrupts the set under parallel use, so that variant is not measured.</li>
+ * <li><code>concurrentSet</code>: the same design ported to concurrent
+ * collections and ThreadLocalRandom.</li>
+ * <li><code>apiUtil</code>: ApiUtil.generateUniqueName as it is now, a walk
+ * over the 9000 numbers driven by one atomic counter.</li>
+ * </ul>
+ *
+ * Sweep thread counts with <code>-Dbench.threads=1,2,4,8,16,32,64</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlog.level=WARN")
+@Threads(8)
+public class ConcurrentUniqueNameBenchmark {
+
+	private static final int RECENT_NUMBERS_LIMIT = 4500;
+
+	private final Set<Integer> usedNumbers = new HashSet<>();
+	private final ArrayDeque<Integer> usedOrder = new ArrayDeque<>();
+	private final Random random = new Random();
+
+	private final Set<Integer> concurrentUsed = ConcurrentHashMap.newKeySet();
+	private final Queue<Integer> concurrentOrder = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger concurrentSize = new AtomicInteger();
+
+	@Benchmark
+	public String hashSetLocked() {
+		int uniqueNumber;
+		synchronized (usedNumbers) {
+			do {
+				uniqueNumber = 1000 + random.nextInt(9000);
+			} while (usedNumbers.contains(uniqueNumber));
+			usedNumbers.add(uniqueNumber);
+			usedOrder.addLast(uniqueNumber);
+			if (usedOrder.size() > RECENT_NUMBERS_LIMIT) {
+				usedNumbers.remove(usedOrder.removeFirst());
+			}
+		}
+		return "bench" + uniqueNumber;
+	}
+
+	@Benchmark
+	public String concurrentSet() {
+		int uniqueNumber;
+		do {
+			uniqueNumber = 1000 + ThreadLocalRandom.current().nextInt(9000);
+		} while (!concurrentUsed.add(uniqueNumber));
+		concurrentOrder.add(uniqueNumber);
+		if (concurrentSize.incrementAndGet() > RECENT_NUMBERS_LIMIT) {
+			Integer oldest = concurrentOrder.poll();
+			if (oldest != null) {
+				concurrentUsed.remove(oldest);
+				concurrentSize.decrementAndGet();
+			}
+		}
+		return "bench" + uniqueNumber;
+	}
+
+	@Benchmark
+	public String apiUtil() {
+		return ApiUtil.generateUniqueName("bench");
+	}
+}
@@ -0,0 +1,98 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rest.ApiUtil;
+import rest.CustomResponse;
+
+/**
+ * One ApiUtil call per endpoint shape, answered from memory: request building,
+ * JsonPath extraction and CustomResponse construction, without the network.
+ * The framework's filters are replaced by the in-memory answer (see
+ * {@link Payloads#serve}), and the fork also switches off the metrics and
+ * tracing that ApiUtil records around the parsing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Dlog.level=WARN", "-Dapi.metrics.enabled=false", "-Dtracing.enabled=false" })
+public class CustomResponseBenchmark {
+
+	@Param({ "GetHolidayData", "GetLeaveType", "GetEmpData", "GetEmpCount", "GetUsageReport", "GetVacancies",
+			"GetJobTitles", "GetLeaveWorkWeek" })
+	public String endpoint;
+
+	@Param({ "10", "100", "1000" })
+	public int rows;
+
+	private ApiUtil api;
+	private String url;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		api = new ApiUtil();
+		api.getBaseUrl();
+		url = endpointUrl(endpoint);
+		Payloads.serve(Payloads.body(url, rows));
+	}
+
+	@Benchmark
+	public CustomResponse call() {
+		switch (endpoint) {
+		case "GetHolidayData":
+			return api.GetHolidayData(url, "bench", null);
+		case "GetLeaveType":
+			return api.GetLeaveType(url, "bench", null);
+		case "GetEmpData":
+			return api.GetEmpData(url, "bench", null);
+		case "GetEmpCount":
+			return api.GetEmpCount(url, "bench", null);
+		case "GetUsageReport":
+			return api.GetUsageReport(url, "bench", null);
+		case "GetVacancies":
+			return api.GetVacancies(url, "bench", null);
+		case "GetJobTitles":
+			return api.GetJobTitles(url, "bench", null);
+		default:
+			return api.GetLeaveWorkWeek(url, "bench");
+		}
+	}
+
+	static String endpointUrl(String method) {
+		switch (method) {
+		case "GetHolidayData":
+			return Payloads.HOLIDAYS;
+		case "GetLeaveType":
+			return Payloads.LEAVE_TYPES;
+		case "GetEmpData":
+			return Payloads.EMPLOYEES;
+		case "GetEmpCount":
+			return Payloads.EMPLOYEE_COUNT;
+		case "GetUsageReport":
+			return Payloads.USAGE_REPORT;
+		case "GetVacancies":
+			return Payloads.VACANCIES;
+		case "GetJobTitles":
+			return Payloads.JOB_TITLES;
+		case "GetLeaveWorkWeek":
+			return Payloads.WORKWEEK;
+		default:
+			throw new IllegalArgumentException("Unknown endpoint " + method);
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package benchmarks;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import coreUtilities.utils.FileOperations;
+
+/**
+ * FileOperations.readExcelPOI on the repository's TestData.xlsx and on
+ * generated key/value sheets of several sizes. Opening the workbook dominates
+ * for small sheets, so the generated ones show how the cost grows with rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlog.level=WARN")
+public class ExcelBenchmark {
+
+	private static final String SHEET = "PostPimEmp";
+
+	/**
+	 * <code>TestData</code> for src/main/resources/TestData.xlsx, otherwise the
+	 * number of rows of a generated sheet.
+	 */
+	@Param({ "TestData", "10", "100", "1000" })
+	public String workbook;
+
+	private String path;
+	private File generated;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		if ("TestData".equals(workbook)) {
+			path = Paths.get(System.getProperty("user.dir"), "src", "main", "resources", "TestData.xlsx").toString();
+			if (!new File(path).isFile()) {
+				throw new IllegalStateException(path + " not found; run the benchmarks from the repository root");
+			}
+			return;
+		}
+		generated = Files.createTempFile("bench-", ".xlsx").toFile();
+		try (XSSFWorkbook book = new XSSFWorkbook(); FileOutputStream out = new FileOutputStream(generated)) {
+			Sheet sheet = book.createSheet(SHEET);
+			int rows = Integer.parseInt(workbook);
+			for (int i = 0; i < rows; i++) {
+				Row row = sheet.createRow(i);
+				row.createCell(0).setCellValue("key" + i);
+				// mix of text and numeric cells, as in TestData.xlsx
+				if (i % 2 == 0) {
+					row.createCell(1).setCellValue("value " + i);
+				} else {
+					row.createCell(1).setCellValue(i);
+				}
+			}
+			book.write(out);
+		}
+		path = generated.getPath();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		if (generated != null) {
+			generated.delete();
+		}
+	}
+
+	@Benchmark
+	public Map<String, String> readExcelPOI() throws Exception {
+		return FileOperations.readExcelPOI(path, SHEET);
+	}
+}
@@ -0,0 +1,104 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.restassured.path.json.JsonPath;
+
+/**
+ * The JsonPath extraction of GetVacancies and GetUsageReport on its own, from
+ * the response body to the extracted lists. Every <code>getList</code> path is
+ * evaluated as a Groovy expression, so
+ * {@link #vacanciesSinglePath} shows what reading <code>data</code> once and
+ * walking the maps in Java would save.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlog.level=WARN")
+public class JsonPathExtractionBenchmark {
+
+	@Param({ "10", "100", "1000" })
+	public int rows;
+
+	private String vacancies;
+	private String usageReport;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		vacancies = Payloads.body(Payloads.VACANCIES, rows);
+		usageReport = Payloads.body(Payloads.USAGE_REPORT, rows);
+	}
+
+	/**
+	 * Same paths as ApiUtil.GetVacancies.
+	 */
+	@Benchmark
+	public void vacancies(Blackhole blackhole) {
+		JsonPath jsonPath = new JsonPath(vacancies);
+		blackhole.consume(jsonPath.getList("data"));
+		blackhole.consume(jsonPath.getList("data.id"));
+		blackhole.consume(jsonPath.getList("data.name"));
+		blackhole.consume(jsonPath.getList("data.description"));
+		blackhole.consume(jsonPath.getList("data.numOfPositions"));
+		blackhole.consume(jsonPath.getList("data.status"));
+		blackhole.consume(jsonPath.getList("data.isPublished"));
+		blackhole.consume(jsonPath.getList("data.jobTitle"));
+	}
+
+	@Benchmark
+	public void vacanciesSinglePath(Blackhole blackhole) {
+		List<Map<String, Object>> data = new JsonPath(vacancies).getList("data");
+		String[] fields = { "id", "name", "description", "numOfPositions", "status", "isPublished", "jobTitle" };
+		for (String field : fields) {
+			List<Object> values = new ArrayList<>(data.size());
+			for (Map<String, Object> vacancy : data) {
+				values.add(vacancy.get(field));
+			}
+			blackhole.consume(values);
+		}
+	}
+
+	/**
+	 * Same path and header walk as ApiUtil.GetUsageReport.
+	 */
+	@Benchmark
+	public void usageReport(Blackhole blackhole) {
+		List<Map<String, Object>> headers = new JsonPath(usageReport).getList("data.headers");
+		List<Object> names = new ArrayList<>();
+		List<Object> props = new ArrayList<>();
+		List<Object> sizes = new ArrayList<>();
+		List<Object> pins = new ArrayList<>();
+		List<Object> cellProperties = new ArrayList<>();
+		for (Map<String, Object> header : headers) {
+			names.add(header.get("name"));
+			props.add(header.get("prop"));
+			sizes.add(header.get("size"));
+			pins.add(header.get("pin"));
+			cellProperties.add(header.get("cellProperties"));
+		}
+		blackhole.consume(names);
+		blackhole.consume(props);
+		blackhole.consume(sizes);
+		blackhole.consume(pins);
+		blackhole.consume(cellProperties);
+	}
+}
@@ -0,0 +1,75 @@
+package benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import coreUtilities.testutils.TestCaseResultDto;
+import coreUtilities.testutils.TestResults;
+import coreUtilities.testutils.TestUtils;
+
+/**
+ * TestUtils.asJsonString on what TestUtils publishes: the map of test case
+ * results, and the TestResults envelope that carries it together with the
+ * custom data.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlog.level=WARN")
+public class JsonSerializationBenchmark {
+
+	/**
+	 * Number of test case results.
+	 */
+	@Param({ "1", "10", "100", "1000" })
+	public int results;
+
+	private Map<String, TestCaseResultDto> testCaseResults;
+	private TestResults testResults;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		testCaseResults = new HashMap<>();
+		for (int i = 0; i < results; i++) {
+			testCaseResults.put(TestUtils.GUID + "-" + i, new TestCaseResultDto("testCase" + i,
+					i % 3 == 0 ? "boundary" : "functional", 1, i % 5 == 0 ? 0 : 1, i % 5 == 0 ? "Failed" : "Passed",
+					true, ""));
+		}
+		testResults = new TestResults();
+		testResults.setTestCaseResults(TestUtils.asJsonString(testCaseResults));
+		StringBuilder customData = new StringBuilder();
+		for (int i = 0; i < results; i++) {
+			customData.append("testCase").append(i).append(": ok\n");
+		}
+		testResults.setCustomData(customData.toString());
+		testResults.setHostName("bench");
+		testResults.setAttemptId("1");
+		testResults.setFilePath("/bench/target/classes/");
+	}
+
+	@Benchmark
+	public String testCaseResults() {
+		return TestUtils.asJsonString(testCaseResults);
+	}
+
+	@Benchmark
+	public String testResults() {
+		return TestUtils.asJsonString(testResults);
+	}
+}
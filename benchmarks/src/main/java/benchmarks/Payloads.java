@@ -0,0 +1,99 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+
+import io.restassured.RestAssured;
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.filter.Filter;
+
+import coreUtilities.mock.FaultProfile;
+import coreUtilities.mock.OrangeHrmStub;
+import coreUtilities.mock.StubRequest;
+import coreUtilities.mock.SyntheticDataset;
+import rest.CaptureFile;
+import rest.CaptureRecord;
+
+/**
+ * Response payloads for the benchmarks.
+ *
+ * <p>
+ * By default payloads are generated by the OrangeHRM stub from a synthetic
+ * dataset with the requested number of rows, so they have the same shape as the
+ * real API at any size. With <code>-Dbench.capture=&lt;capture file&gt;</code>
+ * (recorded with <code>api.mode=record</code>) the size parameter
+ * <code>0</code> selects the captured response instead.
+ */
+final class Payloads {
+
+	static final String HOLIDAYS = "/web/index.php/api/v2/leave/holidays?fromDate=2025-01-01&toDate=2025-12-31";
+	static final String EMPLOYEES = "/web/index.php/api/v2/pim/employees?limit=0";
+	static final String EMPLOYEE_COUNT = "/web/index.php/api/v2/pim/employees/count";
+	static final String LEAVE_TYPES = "/web/index.php/api/v2/leave/leave-types?limit=0";
+	static final String USAGE_REPORT = "/web/index.php/api/v2/leave/reports?name=my_leave_entitlements_and_usage";
+	static final String VACANCIES = "/web/index.php/api/v2/recruitment/vacancies?limit=0";
+	static final String JOB_TITLES = "/web/index.php/api/v2/admin/job-titles?limit=0";
+	static final String WORKWEEK = "/web/index.php/api/v2/leave/workweek?model=indexed";
+
+	private static final long SEED = 42;
+	private static volatile String served;
+	private static boolean installed;
+
+	private Payloads() {
+	}
+
+	/**
+	 * @param endpoint one of the endpoint constants
+	 * @param rows     dataset size, or 0 for the captured response
+	 * @return the JSON body the endpoint returns
+	 */
+	static String body(String endpoint, int rows) throws Exception {
+		if (rows == 0) {
+			return captured(endpoint);
+		}
+		int query = endpoint.indexOf('?');
+		String path = "/orangehrm-5.7" + (query < 0 ? endpoint : endpoint.substring(0, query));
+		StubRequest request = new StubRequest("GET", path, query < 0 ? null : endpoint.substring(query + 1),
+				Collections.singletonMap("cookie", "orangehrm=bench"), new byte[0]);
+		byte[] body = new OrangeHrmStub(new SyntheticDataset(rows, SEED), FaultProfile.none()).handle(request)
+				.getBody();
+		return new String(body, StandardCharsets.UTF_8);
+	}
+
+	private static String captured(String endpoint) throws IOException {
+		String capture = System.getProperty("bench.capture");
+		if (capture == null) {
+			throw new IllegalStateException("Size 0 selects captured payloads; set -Dbench.capture=<capture file>");
+		}
+		int query = endpoint.indexOf('?');
+		String path = query < 0 ? endpoint : endpoint.substring(0, query);
+		List<CaptureRecord> records = CaptureFile.readAll(Paths.get(capture));
+		for (CaptureRecord record : records) {
+			if (record.statusCode == 200 && record.path.endsWith(path)) {
+				return new String(record.responseBody, StandardCharsets.UTF_8);
+			}
+		}
+		throw new IllegalStateException("No captured 200 response for " + path + " in " + capture);
+	}
+
+	/**
+	 * Makes every RestAssured request answer with the given body instead of
+	 * going to the network, so ApiUtil methods can be benchmarked without I/O.
+	 * The filter replaces ApiUtil's global filters (tracing, capture, sessions
+	 * and metrics), so the numbers are the request and the parsing rather than
+	 * the instrumentation; create an ApiUtil first, as its static setup adds
+	 * them.
+	 */
+	static synchronized void serve(String body) {
+		served = body;
+		if (!installed) {
+			RestAssured.replaceFiltersWith((Filter) (request, response, context) -> new ResponseBuilder()
+					.setStatusCode(200).setStatusLine("HTTP/1.1 200 OK").setContentType("application/json")
+					.setBody(served).build());
+			installed = true;
+		}
+	}
+}
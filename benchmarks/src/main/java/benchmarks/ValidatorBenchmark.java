@@ -0,0 +1,106 @@
+package benchmarks;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rest.ApiUtil;
+import rest.CustomResponse;
+import testcases.TestCodeValidator;
+
+/**
+ * TestCodeValidator as the test cases use it: reading a method body out of
+ * ApiUtil.java, and checking the fields of a response.
+ *
+ * <p>
+ * <code>fetchBody</code> reads the source file from the working directory, so
+ * run from the repository root. The methods chosen sit near the top, the
+ * middle and the end of ApiUtil.java. The validator prints its findings, so
+ * <code>System.out</code> is discarded while the benchmark runs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlog.level=WARN")
+public class ValidatorBenchmark {
+
+	/**
+	 * Method validated by <code>validateResponseFields</code>; its body is also
+	 * the one fetched.
+	 */
+	@Param({ "GetHolidayData", "GetVacancies", "GetUsageReport" })
+	public String method;
+
+	@Param({ "10", "100", "1000" })
+	public int rows;
+
+	private String apiUtilPath;
+	private CustomResponse response;
+	private PrintStream out;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		apiUtilPath = Paths.get(System.getProperty("user.dir"), "src", "main", "java", "rest", "ApiUtil.java")
+				.toString();
+		if (TestCodeValidator.fetchBody(apiUtilPath, method).isEmpty()) {
+			throw new IllegalStateException("No body found for " + method + " in " + apiUtilPath
+					+ "; run the benchmarks from the repository root");
+		}
+		ApiUtil api = new ApiUtil();
+		api.getBaseUrl();
+		String url = CustomResponseBenchmark.endpointUrl(method);
+		Payloads.serve(Payloads.body(url, rows));
+		switch (method) {
+		case "GetHolidayData":
+			response = api.GetHolidayData(url, "bench", null);
+			break;
+		case "GetVacancies":
+			response = api.GetVacancies(url, "bench", null);
+			break;
+		default:
+			response = api.GetUsageReport(url, "bench", null);
+		}
+		out = System.out;
+		System.setOut(new PrintStream(new OutputStream() {
+			@Override
+			public void write(int b) {
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) {
+			}
+		}));
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		System.setOut(out);
+	}
+
+	@Benchmark
+	public String fetchBody() {
+		return TestCodeValidator.fetchBody(apiUtilPath, method);
+	}
+
+	@Benchmark
+	public boolean validateResponseFields() {
+		return TestCodeValidator.validateResponseFields(method, response);
+	}
+}
@@ -0,0 +1,18 @@
+package coreUtilities.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One HTTP exchange made through RestAssured, from handing the request to the
+ * client until the response has been read. The payload is the response body.
+ */
+@Name(ApiCallEvent.NAME)
+@Label("API Call")
+public class ApiCallEvent extends FrameworkEvent {
+
+	public static final String NAME = "orangehrm.ApiCall";
+
+	@Label("Method")
+	public String method;
+}
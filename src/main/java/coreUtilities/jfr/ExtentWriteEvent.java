@@ -0,0 +1,19 @@
+package coreUtilities.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A write to the Extent report: the flush of the HTML file, or the API
+ * metrics node added when the suite ends. The endpoint is the report file and
+ * the payload its size after the write.
+ */
+@Name(ExtentWriteEvent.NAME)
+@Label("Extent Write")
+public class ExtentWriteEvent extends FrameworkEvent {
+
+	public static final String NAME = "orangehrm.ExtentWrite";
+
+	@Label("Operation")
+	public String operation;
+}
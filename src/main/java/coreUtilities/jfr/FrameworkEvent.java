@@ -0,0 +1,37 @@
+package coreUtilities.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Fields shared by the framework's Flight Recorder events. The duration is the
+ * event's own, from <code>begin()</code> to <code>end()</code> or
+ * <code>commit()</code>.
+ *
+ * <p>
+ * The events cost next to nothing unless a recording is running, e.g. with
+ * <code>-XX:StartFlightRecording=filename=target/run.jfr</code>; fill them in
+ * only when <code>shouldCommit()</code> is true. {@link JfrSummary} turns the
+ * recording into a time breakdown per phase.
+ */
+@Category("OrangeHRM Tests")
+@StackTrace(false)
+public abstract class FrameworkEvent extends Event {
+
+	@Label("Endpoint")
+	@Description("Endpoint template, URL or report file the phase worked on")
+	public String endpoint;
+
+	@Label("Status")
+	@Description("HTTP status code, 0 where there is none")
+	public int status;
+
+	@Label("Payload Size")
+	@Description("Bytes of the body or file the phase read or wrote")
+	@DataAmount
+	public long payloadBytes;
+}
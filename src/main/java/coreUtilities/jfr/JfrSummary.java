@@ -0,0 +1,144 @@
+package coreUtilities.jfr;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.HdrHistogram.Histogram;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Offline time breakdown of a Flight Recorder file: how long the run spent in
+ * API calls, response parsing, validation, result publishing and Extent writes,
+ * in total and per endpoint. Only the framework's own events are read, so a
+ * recording taken with the default settings is enough.
+ *
+ * <pre>
+ * java -cp &lt;test classpath&gt; coreUtilities.jfr.JfrSummary target/run.jfr [--csv breakdown.csv]
+ * </pre>
+ */
+public class JfrSummary {
+
+	private static final String PREFIX = "orangehrm.";
+
+	/**
+	 * Count, duration histogram and payload of one phase, or one phase and
+	 * endpoint.
+	 */
+	static class Phase {
+		final String phase;
+		final String endpoint;
+		final Histogram micros = new Histogram(3);
+		long totalNanos;
+		long payloadBytes;
+
+		Phase(String phase, String endpoint) {
+			this.phase = phase;
+			this.endpoint = endpoint;
+		}
+
+		void add(long nanos, long payload) {
+			micros.recordValue(Math.max(0, nanos / 1_000));
+			totalNanos += nanos;
+			payloadBytes += payload;
+		}
+	}
+
+	/**
+	 * @param args recording file, optionally followed by <code>--csv</code> and
+	 *             an output file for the per-endpoint rows
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length == 0) {
+			System.err.println("Usage: JfrSummary <recording.jfr> [--csv <file>]");
+			System.exit(2);
+		}
+		Path recording = Paths.get(args[0]);
+		Map<String, Phase> phases = new LinkedHashMap<>();
+		Map<String, Phase> endpoints = new TreeMap<>();
+		long events = read(recording, phases, endpoints);
+
+		System.out.println("Recording: " + recording + " (" + events + " framework events)\n");
+		long sum = 0;
+		for (Phase phase : phases.values()) {
+			sum += phase.totalNanos;
+		}
+		print("Phase", new ArrayList<>(phases.values()), sum);
+
+		List<Phase> byEndpoint = new ArrayList<>(endpoints.values());
+		byEndpoint.sort(Comparator.comparingLong((Phase phase) -> phase.totalNanos).reversed());
+		System.out.println();
+		print("Phase / endpoint", byEndpoint, sum);
+
+		if (args.length >= 3 && "--csv".equals(args[1])) {
+			List<String> lines = new ArrayList<>();
+			lines.add("phase,endpoint,count,total_ms,share,mean_ms,p50_ms,p95_ms,p99_ms,max_ms,payload_kb");
+			for (Phase phase : byEndpoint) {
+				lines.add(String.format("%s,\"%s\",%d,%.3f,%.4f,%.3f,%.3f,%.3f,%.3f,%.3f,%.1f", phase.phase,
+						phase.endpoint, phase.micros.getTotalCount(), phase.totalNanos / 1e6,
+						share(phase.totalNanos, sum), phase.micros.getMean() / 1000.0,
+						phase.micros.getValueAtPercentile(50) / 1000.0, phase.micros.getValueAtPercentile(95) / 1000.0,
+						phase.micros.getValueAtPercentile(99) / 1000.0, phase.micros.getMaxValue() / 1000.0,
+						phase.payloadBytes / 1e3));
+			}
+			Files.write(Paths.get(args[2]), lines);
+			System.out.println("\nWritten to " + args[2]);
+		}
+	}
+
+	/**
+	 * Adds up the framework events of the recording per phase and per phase and
+	 * endpoint.
+	 *
+	 * @return number of framework events read
+	 */
+	static long read(Path recording, Map<String, Phase> phases, Map<String, Phase> endpoints) throws IOException {
+		long events = 0;
+		try (RecordingFile file = new RecordingFile(recording)) {
+			while (file.hasMoreEvents()) {
+				RecordedEvent event = file.readEvent();
+				String name = event.getEventType().getName();
+				if (!name.startsWith(PREFIX)) {
+					continue;
+				}
+				events++;
+				String phase = event.getEventType().getLabel();
+				String endpoint = event.hasField("endpoint") && event.getString("endpoint") != null
+						? event.getString("endpoint")
+						: "-";
+				long nanos = event.getDuration().toNanos();
+				long payload = event.hasField("payloadBytes") ? event.getLong("payloadBytes") : 0;
+				phases.computeIfAbsent(phase, key -> new Phase(phase, null)).add(nanos, payload);
+				endpoints.computeIfAbsent(phase + " " + endpoint, key -> new Phase(phase, endpoint)).add(nanos,
+						payload);
+			}
+		}
+		return events;
+	}
+
+	private static void print(String title, List<Phase> rows, long sum) {
+		System.out.println(String.format("%-70s %8s %11s %7s %9s %9s %9s %9s %11s", title, "Count", "Total ms",
+				"Share", "Mean ms", "p50 ms", "p95 ms", "Max ms", "Payload kB"));
+		for (Phase phase : rows) {
+			String name = phase.endpoint == null ? phase.phase : phase.phase + "  " + phase.endpoint;
+			System.out.println(String.format("%-70s %8d %11.1f %6.1f%% %9.2f %9.2f %9.2f %9.2f %11.1f",
+					name.length() > 70 ? name.substring(0, 67) + "..." : name, phase.micros.getTotalCount(),
+					phase.totalNanos / 1e6, share(phase.totalNanos, sum) * 100, phase.micros.getMean() / 1000.0,
+					phase.micros.getValueAtPercentile(50) / 1000.0, phase.micros.getValueAtPercentile(95) / 1000.0,
+					phase.micros.getMaxValue() / 1000.0, phase.payloadBytes / 1e3));
+		}
+	}
+
+	private static double share(long nanos, long sum) {
+		return sum == 0 ? 0 : (double) nanos / sum;
+	}
+}
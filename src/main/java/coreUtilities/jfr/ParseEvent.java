@@ -0,0 +1,15 @@
+package coreUtilities.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * ApiUtil turning a response into a CustomResponse: JsonPath extraction and
+ * mapping, from the end of the exchange until the CustomResponse is built.
+ */
+@Name(ParseEvent.NAME)
+@Label("Response Parse")
+public class ParseEvent extends FrameworkEvent {
+
+	public static final String NAME = "orangehrm.ResponseParse";
+}
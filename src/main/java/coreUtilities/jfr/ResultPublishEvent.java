@@ -0,0 +1,18 @@
+package coreUtilities.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * TestUtils posting one test result to the results service. The payload is
+ * the posted JSON.
+ */
+@Name(ResultPublishEvent.NAME)
+@Label("Result Publish")
+public class ResultPublishEvent extends FrameworkEvent {
+
+	public static final String NAME = "orangehrm.ResultPublish";
+
+	@Label("Test")
+	public String test;
+}
@@ -0,0 +1,20 @@
+package coreUtilities.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One check of a CustomResponse by TestCodeValidator.
+ */
+@Name(ValidationEvent.NAME)
+@Label("Response Validation")
+public class ValidationEvent extends FrameworkEvent {
+
+	public static final String NAME = "orangehrm.Validation";
+
+	@Label("Check")
+	public String check;
+
+	@Label("Valid")
+	public boolean valid;
+}
@@ -0,0 +1,297 @@
+package coreUtilities.load;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import coreUtilities.utils.Log;
+import rest.ApiUtil;
+import restConfig.ConfigManager;
+
+/**
+ * Step-ramp capacity search: runs a workload at increasing load levels, holds
+ * each level long enough to reach steady state, and stops at the first level
+ * that breaks the SLO.
+ *
+ * <p>
+ * The level is either the arrival rate (open model, {@link LoadGenerator}) or
+ * the number of concurrent users without think time (closed model,
+ * {@link VirtualUserRunner}). Every call goes through {@link ApiUtil} and is
+ * checked like in the functional suite, so a level that returns wrong data
+ * fails on error rate just like one that returns errors.
+ *
+ * <p>
+ * A level breaks the SLO when its p99 response time or error rate is above the
+ * limit, when the open model achieves less than 90% of the offered rate, or
+ * when the worker queue keeps growing during the hold.
+ */
+public class CapacitySearch {
+
+	/**
+	 * Runs the workload once at the given level.
+	 */
+	public interface Stage {
+		LoadResult run(String name, double level);
+	}
+
+	/**
+	 * One level of the search.
+	 */
+	public static class Level {
+		public final double level;
+		public final LoadResult result;
+		public final double p99Millis;
+		/**
+		 * Why the level broke the SLO, <code>null</code> if it did not.
+		 */
+		public final String breach;
+
+		Level(double level, LoadResult result, String breach) {
+			this.level = level;
+			this.result = result;
+			this.p99Millis = result.getCombinedResponseTime().getValueAtPercentile(99) / 1000.0;
+			this.breach = breach;
+		}
+
+		public boolean isSustainable() {
+			return breach == null;
+		}
+	}
+
+	/**
+	 * Outcome of the search.
+	 */
+	public static class Result {
+		private final String name;
+		private final String unit;
+		private final List<Level> levels;
+		private final Level maxSustainable;
+		private final Level knee;
+		private final Map<String, Object> slo;
+
+		Result(String name, String unit, List<Level> levels, Level maxSustainable, Level knee,
+				Map<String, Object> slo) {
+			this.name = name;
+			this.unit = unit;
+			this.levels = Collections.unmodifiableList(levels);
+			this.maxSustainable = maxSustainable;
+			this.knee = knee;
+			this.slo = slo;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return <code>calls/s</code> or <code>users</code>
+		 */
+		public String getUnit() {
+			return unit;
+		}
+
+		public List<Level> getLevels() {
+			return levels;
+		}
+
+		/**
+		 * @return the sustainable level with the highest achieved throughput, or
+		 *         <code>null</code> if even the first level broke the SLO
+		 */
+		public Level getMaxSustainable() {
+			return maxSustainable;
+		}
+
+		/**
+		 * @return the last sustainable level before the first one whose p99
+		 *         latency grew by more than the knee factor over the lightest
+		 *         level, or <code>null</code>
+		 */
+		public Level getKnee() {
+			return knee;
+		}
+
+		public Map<String, Object> getSlo() {
+			return slo;
+		}
+	}
+
+	private final Stage stage;
+	private final String unit;
+	private final boolean openModel;
+	private double start = 5;
+	private double factor = 1.5;
+	private int maxSteps = 10;
+	private double sloP99Millis = 2000;
+	private double sloErrorRate = 0.01;
+	private double kneeFactor = 2;
+
+	CapacitySearch(Stage stage, String unit, boolean openModel) {
+		this.stage = stage;
+		this.unit = unit;
+		this.openModel = openModel;
+	}
+
+	/**
+	 * Ramps the arrival rate of an operation mix.
+	 */
+	public static CapacitySearch forRate(WorkloadMix mix, ApiUtil api, String cookieValue) {
+		return new CapacitySearch((name, level) -> new LoadGenerator(mix, api, cookieValue).configure()
+				.duration(holdSeconds(), TimeUnit.SECONDS).rate(level).run(name), "calls/s", true);
+	}
+
+	/**
+	 * Ramps the number of concurrent users running an operation mix back to
+	 * back, each with its own session.
+	 */
+	public static CapacitySearch forConcurrency(WorkloadMix mix, SessionFactory sessions) {
+		Map<Transaction, Double> transactions = new LinkedHashMap<>();
+		for (LoadOperation operation : mix.getOperations()) {
+			transactions.put(Transaction.of(operation), mix.getShares().get(operation.getName()));
+		}
+		return new CapacitySearch((name, level) -> new VirtualUserRunner(transactions, sessions).configure()
+				.duration(holdSeconds(), TimeUnit.SECONDS).thinkTime(0, TimeUnit.MILLISECONDS)
+				.run(name, (int) level), "users", false);
+	}
+
+	private static int holdSeconds() {
+		return ConfigManager.getIntProperty("capacity.hold.seconds", 30);
+	}
+
+	/**
+	 * Applies <code>capacity.start</code>, <code>capacity.step.factor</code>,
+	 * <code>capacity.max.steps</code>, <code>capacity.knee.factor</code>,
+	 * <code>load.slo.p99.ms</code> and <code>load.slo.error.rate</code>. The hold
+	 * time of each level is <code>capacity.hold.seconds</code>, preceded by
+	 * <code>load.warmup.seconds</code>.
+	 */
+	public CapacitySearch configure() {
+		start = Double.parseDouble(ConfigManager.getProperty("capacity.start", String.valueOf(start)));
+		factor = Double.parseDouble(ConfigManager.getProperty("capacity.step.factor", String.valueOf(factor)));
+		maxSteps = ConfigManager.getIntProperty("capacity.max.steps", maxSteps);
+		kneeFactor = Double.parseDouble(ConfigManager.getProperty("capacity.knee.factor", String.valueOf(kneeFactor)));
+		slo(Double.parseDouble(ConfigManager.getProperty("load.slo.p99.ms", String.valueOf(sloP99Millis))),
+				Double.parseDouble(ConfigManager.getProperty("load.slo.error.rate", String.valueOf(sloErrorRate))));
+		return this;
+	}
+
+	/**
+	 * @param start  first level
+	 * @param factor multiplier from one level to the next, greater than 1
+	 */
+	public CapacitySearch steps(double start, double factor, int maxSteps) {
+		if (start <= 0 || factor <= 1) {
+			throw new IllegalArgumentException("Capacity steps need a positive start and a factor above 1");
+		}
+		this.start = start;
+		this.factor = factor;
+		this.maxSteps = Math.max(maxSteps, 1);
+		return this;
+	}
+
+	public CapacitySearch slo(double p99Millis, double errorRate) {
+		this.sloP99Millis = p99Millis;
+		this.sloErrorRate = errorRate;
+		return this;
+	}
+
+	/**
+	 * Runs levels until one breaks the SLO or <code>capacity.max.steps</code> is
+	 * reached.
+	 */
+	public Result run(String name) {
+		steps(start, factor, maxSteps);
+		List<Level> levels = new ArrayList<>();
+		double level = openModel ? start : Math.ceil(start);
+		for (int step = 1; step <= maxSteps; step++) {
+			LoadResult result = stage.run(String.format("%s-step%d-%s", name, step, format(level)), level);
+			Level outcome = new Level(level, result, breach(level, result));
+			levels.add(outcome);
+			Log.info("Capacity '{}' step {}: {} {} -> {} calls/s, p99={}ms, errors={}%{}", name, step, format(level),
+					unit, String.format("%.1f", result.getThroughput()), outcome.p99Millis,
+					String.format("%.2f", result.getErrorRate() * 100),
+					outcome.isSustainable() ? "" : ", SLO broken: " + outcome.breach);
+			if (!outcome.isSustainable()) {
+				break;
+			}
+			level = openModel ? level * factor : Math.max(Math.ceil(level * factor), level + 1);
+		}
+
+		Level maxSustainable = null;
+		Level knee = null;
+		double baseline = levels.get(0).p99Millis;
+		boolean pastKnee = false;
+		for (Level outcome : levels) {
+			if (!outcome.isSustainable()) {
+				break;
+			}
+			if (maxSustainable == null || outcome.result.getThroughput() > maxSustainable.result.getThroughput()) {
+				maxSustainable = outcome;
+			}
+			// A later level that happens to be fast again does not move the knee
+			if (!pastKnee && outcome.p99Millis <= Math.max(baseline, 1) * kneeFactor) {
+				knee = outcome;
+			} else {
+				pastKnee = true;
+			}
+		}
+		if (maxSustainable == null) {
+			Log.warn("⚠️ Capacity '{}': the first level ({} {}) already breaks the SLO", name, format(start), unit);
+		} else {
+			Log.info("Capacity '{}': max sustainable {} calls/s at {} {}, knee at {} {}", name,
+					String.format("%.1f", maxSustainable.result.getThroughput()), format(maxSustainable.level), unit,
+					knee == null ? "-" : format(knee.level), unit);
+		}
+		Map<String, Object> slo = new LinkedHashMap<>();
+		slo.put("p99Millis", sloP99Millis);
+		slo.put("errorRate", sloErrorRate);
+		slo.put("kneeFactor", kneeFactor);
+		return new Result(name, unit, levels, maxSustainable, knee, slo);
+	}
+
+	private String breach(double level, LoadResult result) {
+		double p99 = result.getCombinedResponseTime().getValueAtPercentile(99) / 1000.0;
+		if (result.getTotalCount() == 0) {
+			return "no calls completed";
+		}
+		if (p99 > sloP99Millis) {
+			return String.format("p99 %.1fms > %.1fms", p99, sloP99Millis);
+		}
+		if (result.getErrorRate() > sloErrorRate) {
+			return String.format("error rate %.2f%% > %.2f%%", result.getErrorRate() * 100, sloErrorRate * 100);
+		}
+		if (result.getIncomplete() > 0) {
+			return result.getIncomplete() + " calls incomplete";
+		}
+		if (openModel && result.getThroughput() < level * 0.9) {
+			return String.format("achieved %.1f of %.1f calls/s", result.getThroughput(), level);
+		}
+		if (queueGrowing(result.getIntervals())) {
+			return "worker queue kept growing";
+		}
+		return null;
+	}
+
+	/**
+	 * A queue that grows over every interval of the hold means the level was
+	 * never in steady state, even if the percentiles still look fine.
+	 */
+	private static boolean queueGrowing(List<LoadResult.Interval> intervals) {
+		if (intervals.size() < 3) {
+			return false;
+		}
+		for (int i = 1; i < intervals.size(); i++) {
+			if (intervals.get(i).queued <= intervals.get(i - 1).queued) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	static String format(double level) {
+		return level == Math.rint(level) ? String.valueOf((long) level) : String.format("%.1f", level);
+	}
+}
@@ -0,0 +1,195 @@
+package coreUtilities.load;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * Looks for steady growth in a series of {@link ResourceSampler.Sample}s and
+ * names the component most likely responsible.
+ *
+ * <p>
+ * A metric counts as growing when the mean of each third of the samples is
+ * higher than the one before, at least 70% of the steps between samples do not
+ * go down, and the total growth is above the metric's noise floor. GC timing
+ * makes single heap samples jumpy, so the thirds matter more than individual
+ * steps.
+ *
+ * <p>
+ * Heap growth is attributed to the registered component whose size grew and
+ * follows the heap most closely; thread growth to the thread names that
+ * multiplied; file descriptor growth to sockets (HTTP connections that are not
+ * released) when those grew too, otherwise to unclosed file streams.
+ */
+public class LeakDetector {
+
+	/**
+	 * A metric that kept growing.
+	 */
+	public static class Finding {
+		public final String metric;
+		public final long first;
+		public final long last;
+		/**
+		 * Least-squares growth per 1000 workload iterations.
+		 */
+		public final double growthPer1000;
+		public final String suspect;
+
+		Finding(String metric, long first, long last, double growthPer1000, String suspect) {
+			this.metric = metric;
+			this.first = first;
+			this.last = last;
+			this.growthPer1000 = growthPer1000;
+			this.suspect = suspect;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s grew from %d to %d (%.1f per 1000 iterations), likely %s", metric, first, last,
+					growthPer1000, suspect);
+		}
+	}
+
+	static final int MIN_SAMPLES = 5;
+	private static final long HEAP_NOISE_BYTES = 4L * 1024 * 1024;
+
+	private LeakDetector() {
+	}
+
+	/**
+	 * @return one finding per growing resource; empty if nothing grew or there
+	 *         are fewer than {@value #MIN_SAMPLES} samples
+	 */
+	public static List<Finding> analyse(List<ResourceSampler.Sample> samples) {
+		List<Finding> findings = new ArrayList<>();
+		if (samples.size() < MIN_SAMPLES) {
+			return findings;
+		}
+		Map<String, long[]> components = new LinkedHashMap<>();
+		for (String component : samples.get(samples.size() - 1).components.keySet()) {
+			components.put(component, series(samples, s -> s.components.getOrDefault(component, 0L)));
+		}
+
+		long[] heap = series(samples, s -> s.heapAfterGcBytes);
+		if (growing(heap, Math.max(HEAP_NOISE_BYTES, heap[0] / 10))) {
+			String suspect = "an unregistered component; take a heap histogram (jmap -histo:live <pid>)";
+			double best = 0.5;
+			for (Map.Entry<String, long[]> component : components.entrySet()) {
+				double correlation = correlation(heap, component.getValue());
+				if (growing(component.getValue(), 1) && correlation > best) {
+					best = correlation;
+					suspect = component.getKey() + String.format(" (correlation %.2f)", correlation);
+				}
+			}
+			findings.add(finding(samples, "heap after GC (bytes)", heap, suspect));
+		}
+
+		long[] sockets = series(samples, s -> s.sockets);
+		boolean socketsGrowing = sockets[0] >= 0 && growing(sockets, 5);
+		if (socketsGrowing) {
+			findings.add(finding(samples, "live sockets", sockets,
+					"HTTP connections that are never released (responses not consumed or clients not closed)"));
+		}
+		long[] fds = series(samples, s -> s.openFileDescriptors);
+		if (fds[0] >= 0 && growing(fds, 10) && !socketsGrowing) {
+			findings.add(finding(samples, "open file descriptors", fds,
+					"file streams that are not closed (FileInputStream/Workbook without try-with-resources)"));
+		}
+
+		long[] threads = series(samples, s -> s.threads);
+		if (growing(threads, 5)) {
+			List<String> groups = new ArrayList<>();
+			for (String group : samples.get(samples.size() - 1).threadGroups.keySet()) {
+				if (growing(series(samples, s -> s.threadGroups.getOrDefault(group, 0L)), 2)) {
+					groups.add("'" + group + "*'");
+				}
+			}
+			findings.add(finding(samples, "threads", threads, groups.isEmpty()
+					? "executors that are not shut down" : "threads named " + String.join(", ", groups)));
+		}
+
+		for (Map.Entry<String, long[]> component : components.entrySet()) {
+			if (growing(component.getValue(), 100)) {
+				findings.add(finding(samples, component.getKey() + " (entries)", component.getValue(),
+						component.getKey() + " itself, which has no upper bound"));
+			}
+		}
+		return findings;
+	}
+
+	static boolean growing(long[] values, long noiseFloor) {
+		int n = values.length;
+		if (n < MIN_SAMPLES || values[n - 1] - values[0] < noiseFloor) {
+			return false;
+		}
+		int third = n / 3;
+		double first = mean(values, 0, third);
+		double middle = mean(values, third, n - third);
+		double last = mean(values, n - third, n);
+		if (!(first < middle && middle < last)) {
+			return false;
+		}
+		int notDown = 0;
+		for (int i = 1; i < n; i++) {
+			if (values[i] >= values[i - 1]) {
+				notDown++;
+			}
+		}
+		return notDown >= 0.7 * (n - 1);
+	}
+
+	private static Finding finding(List<ResourceSampler.Sample> samples, String metric, long[] values,
+			String suspect) {
+		double[] x = new double[values.length];
+		for (int i = 0; i < x.length; i++) {
+			x[i] = samples.get(i).iteration;
+		}
+		double meanX = 0;
+		double meanY = 0;
+		for (int i = 0; i < x.length; i++) {
+			meanX += x[i] / x.length;
+			meanY += (double) values[i] / x.length;
+		}
+		double numerator = 0;
+		double denominator = 0;
+		for (int i = 0; i < x.length; i++) {
+			numerator += (x[i] - meanX) * (values[i] - meanY);
+			denominator += (x[i] - meanX) * (x[i] - meanX);
+		}
+		double slope = denominator == 0 ? 0 : numerator / denominator;
+		return new Finding(metric, values[0], values[values.length - 1], slope * 1000, suspect);
+	}
+
+	private static double correlation(long[] a, long[] b) {
+		double meanA = mean(a, 0, a.length);
+		double meanB = mean(b, 0, b.length);
+		double covariance = 0;
+		double varianceA = 0;
+		double varianceB = 0;
+		for (int i = 0; i < a.length; i++) {
+			covariance += (a[i] - meanA) * (b[i] - meanB);
+			varianceA += (a[i] - meanA) * (a[i] - meanA);
+			varianceB += (b[i] - meanB) * (b[i] - meanB);
+		}
+		return varianceA == 0 || varianceB == 0 ? 0 : covariance / Math.sqrt(varianceA * varianceB);
+	}
+
+	private static double mean(long[] values, int from, int to) {
+		double sum = 0;
+		for (int i = from; i < to; i++) {
+			sum += values[i];
+		}
+		return to > from ? sum / (to - from) : 0;
+	}
+
+	private static long[] series(List<ResourceSampler.Sample> samples, ToLongFunction<ResourceSampler.Sample> metric) {
+		long[] values = new long[samples.size()];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = metric.applyAsLong(samples.get(i));
+		}
+		return values;
+	}
+}
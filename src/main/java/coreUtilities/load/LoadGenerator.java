@@ -0,0 +1,198 @@
+package coreUtilities.load;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.Histogram;
+
+import coreUtilities.utils.Log;
+import rest.ApiUtil;
+import restConfig.ConfigManager;
+
+/**
+ * Open-model load generator: calls arrive at a target rate regardless of how
+ * fast earlier calls complete, as real users would.
+ *
+ * <p>
+ * A single dispatcher computes the intended start time of every call from the
+ * arrival rate (constant spacing or Poisson) and hands the call to a worker
+ * pool. Latency is measured from the intended start, not from when a worker
+ * picked the call up, so when the server slows down the waiting time is
+ * counted instead of silently lowering the offered load (coordinated omission).
+ *
+ * <p>
+ * Calls scheduled during the warm-up period run but are not recorded.
+ */
+public class LoadGenerator {
+
+	private final WorkloadMix mix;
+	private final ApiUtil api;
+	private final String cookieValue;
+	private double rate = 10;
+	private long durationNanos = TimeUnit.SECONDS.toNanos(60);
+	private long warmupNanos = TimeUnit.SECONDS.toNanos(10);
+	private long reportIntervalNanos = TimeUnit.SECONDS.toNanos(5);
+	private long drainNanos = TimeUnit.SECONDS.toNanos(30);
+	private boolean poisson = true;
+	private int maxConcurrency = 200;
+
+	public LoadGenerator(WorkloadMix mix, ApiUtil api, String cookieValue) {
+		this.mix = mix;
+		this.api = api;
+		this.cookieValue = cookieValue;
+	}
+
+	/**
+	 * Applies the <code>load.*</code> settings: <code>load.rate</code> (calls per
+	 * second), <code>load.duration.seconds</code>,
+	 * <code>load.warmup.seconds</code>, <code>load.arrival</code>
+	 * (<code>poisson</code> or <code>constant</code>),
+	 * <code>load.max.concurrency</code> and
+	 * <code>load.report.interval.seconds</code>.
+	 */
+	public LoadGenerator configure() {
+		rate(Double.parseDouble(ConfigManager.getProperty("load.rate", String.valueOf(rate))));
+		duration(ConfigManager.getIntProperty("load.duration.seconds", 60), TimeUnit.SECONDS);
+		warmup(ConfigManager.getIntProperty("load.warmup.seconds", 10), TimeUnit.SECONDS);
+		poisson(!"constant".equalsIgnoreCase(ConfigManager.getProperty("load.arrival", "poisson")));
+		maxConcurrency(ConfigManager.getIntProperty("load.max.concurrency", maxConcurrency));
+		reportInterval(ConfigManager.getIntProperty("load.report.interval.seconds", 5), TimeUnit.SECONDS);
+		return this;
+	}
+
+	public LoadGenerator rate(double callsPerSecond) {
+		if (callsPerSecond <= 0) {
+			throw new IllegalArgumentException("Arrival rate must be positive: " + callsPerSecond);
+		}
+		this.rate = callsPerSecond;
+		return this;
+	}
+
+	public LoadGenerator duration(long duration, TimeUnit unit) {
+		this.durationNanos = unit.toNanos(duration);
+		return this;
+	}
+
+	public LoadGenerator warmup(long warmup, TimeUnit unit) {
+		this.warmupNanos = unit.toNanos(warmup);
+		return this;
+	}
+
+	public LoadGenerator reportInterval(long interval, TimeUnit unit) {
+		this.reportIntervalNanos = Math.max(unit.toNanos(interval), TimeUnit.MILLISECONDS.toNanos(100));
+		return this;
+	}
+
+	public LoadGenerator poisson(boolean poisson) {
+		this.poisson = poisson;
+		return this;
+	}
+
+	public LoadGenerator maxConcurrency(int maxConcurrency) {
+		this.maxConcurrency = Math.max(maxConcurrency, 1);
+		return this;
+	}
+
+	public double getRate() {
+		return rate;
+	}
+
+	/**
+	 * Runs the workload and blocks until it completes.
+	 *
+	 * @param name name of the run, used in logs and reports
+	 * @return the collected statistics
+	 */
+	public LoadResult run(String name) {
+		List<OperationStats> stats = new ArrayList<>();
+		LoadResult result = new LoadResult(name, mix.getShares(), rate, System.currentTimeMillis());
+		for (LoadOperation operation : mix.getOperations()) {
+			OperationStats operationStats = new OperationStats(operation.getName());
+			stats.add(operationStats);
+			result.addOperation(operationStats);
+		}
+
+		AtomicInteger workerIds = new AtomicInteger();
+		ThreadPoolExecutor workers = new ThreadPoolExecutor(maxConcurrency, maxConcurrency, 60, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(), r -> {
+					Thread t = new Thread(r, "load-worker-" + workerIds.incrementAndGet());
+					t.setDaemon(true);
+					return t;
+				});
+		ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "load-reporter");
+			t.setDaemon(true);
+			return t;
+		});
+
+		long start = System.nanoTime();
+		long measureFrom = start + warmupNanos;
+		long end = measureFrom + durationNanos;
+		Log.info("Load run '{}': {} calls/s ({} arrivals) for {}s after {}s warm-up, mix {}", name, rate,
+				poisson ? "Poisson" : "constant", TimeUnit.NANOSECONDS.toSeconds(durationNanos),
+				TimeUnit.NANOSECONDS.toSeconds(warmupNanos), mix);
+
+		reporter.scheduleAtFixedRate(() -> result.sampleInterval(start, measureFrom, workers.getQueue().size()),
+				warmupNanos + reportIntervalNanos, reportIntervalNanos, TimeUnit.NANOSECONDS);
+
+		long intended = start;
+		while (intended < end) {
+			long now;
+			while ((now = System.nanoTime()) < intended) {
+				LockSupport.parkNanos(intended - now);
+			}
+			LoadOperation operation = mix.next();
+			OperationStats operationStats = intended >= measureFrom ? stats.get(mix.getOperations().indexOf(operation))
+					: null;
+			long intendedStart = intended;
+			workers.execute(() -> {
+				long actualStart = System.nanoTime();
+				String failure = operation.execute(api, cookieValue);
+				if (operationStats != null) {
+					operationStats.record(intendedStart, actualStart, System.nanoTime(), failure);
+				}
+			});
+			intended += nextGapNanos();
+		}
+
+		workers.shutdown();
+		long incomplete = 0;
+		try {
+			if (!workers.awaitTermination(drainNanos, TimeUnit.NANOSECONDS)) {
+				incomplete = workers.shutdownNow().size() + workers.getActiveCount();
+				Log.warn("⚠️ Load run '{}': {} calls still pending after drain timeout", name, incomplete);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			incomplete = workers.shutdownNow().size();
+		}
+		reporter.shutdownNow();
+		result.sampleInterval(start, measureFrom, workers.getQueue().size());
+		result.finish(durationNanos / 1e9, incomplete);
+
+		Histogram combined = result.getCombinedResponseTime();
+		Log.info("Load run '{}' finished: {} calls, {} errors, {} calls/s, p50={}ms p99={}ms max={}ms", name,
+				result.getTotalCount(), result.getTotalErrors(), String.format("%.1f", result.getThroughput()),
+				combined.getValueAtPercentile(50) / 1000.0, combined.getValueAtPercentile(99) / 1000.0,
+				combined.getMaxValue() / 1000.0);
+		if (result.getMaxQueued() > maxConcurrency) {
+			Log.warn("⚠️ Load run '{}' could not keep up with {} calls/s (up to {} calls queued); compare response "
+					+ "and service times to see whether the server or client-side parsing is the bottleneck", name, rate,
+					result.getMaxQueued());
+		}
+		return result;
+	}
+
+	private long nextGapNanos() {
+		double gapSeconds = poisson ? -Math.log(1 - ThreadLocalRandom.current().nextDouble()) / rate : 1 / rate;
+		return Math.max((long) (gapSeconds * 1e9), 1);
+	}
+}
@@ -0,0 +1,67 @@
+package coreUtilities.load;
+
+import java.util.function.Predicate;
+
+import rest.ApiUtil;
+import rest.CustomResponse;
+
+/**
+ * One workload operation: an {@link ApiUtil} call plus the check that decides
+ * whether its response counts as a success.
+ */
+public class LoadOperation {
+
+	/**
+	 * Performs the request through {@link ApiUtil}.
+	 */
+	public interface Call {
+		CustomResponse call(ApiUtil api, String cookieValue) throws Exception;
+	}
+
+	private final String name;
+	private final Call call;
+	private final Predicate<CustomResponse> check;
+
+	public LoadOperation(String name, Call call, Predicate<CustomResponse> check) {
+		this.name = name;
+		this.call = call;
+		this.check = check;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	Call getCall() {
+		return call;
+	}
+
+	Predicate<CustomResponse> getCheck() {
+		return check;
+	}
+
+	/**
+	 * Runs the operation once.
+	 *
+	 * @return <code>null</code> on success, otherwise a short failure reason
+	 */
+	public String execute(ApiUtil api, String cookieValue) {
+		try {
+			CustomResponse response = call.call(api, cookieValue);
+			if (response == null) {
+				return "no response";
+			}
+			if (!check.test(response)) {
+				return "check failed (HTTP " + response.getStatusCode() + ")";
+			}
+			return null;
+		} catch (Exception | AssertionError e) {
+			return OperationStats.reason(e);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+}
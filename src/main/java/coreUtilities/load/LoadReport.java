@@ -0,0 +1,352 @@
+package coreUtilities.load;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.markuputils.MarkupHelper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import coreUtilities.utils.ExtentReportManager;
+import coreUtilities.utils.Log;
+import restConfig.ConfigManager;
+
+/**
+ * Writes a {@link LoadResult} as a JSON report and as a node in the Extent
+ * report, and does the same for capacity searches and soak runs.
+ *
+ * <p>
+ * The JSON report holds, per operation, counts, throughput and the response
+ * and service time percentiles in milliseconds, plus the compressed HdrHistogram
+ * (base64) so runs can be compared or re-analysed later. Reports go to
+ * <code>load.report.dir</code> (default <code>target/load</code>).
+ */
+public class LoadReport {
+
+	private static final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+	private static final double[] PERCENTILES = { 50, 90, 95, 99, 99.9 };
+
+	private LoadReport() {
+	}
+
+	/**
+	 * Writes the JSON report and adds the result to the Extent report.
+	 *
+	 * @return the JSON report file, or <code>null</code> if it could not be
+	 *         written
+	 */
+	public static Path publish(LoadResult result) {
+		Path file = null;
+		try {
+			file = writeJson(result, Paths.get(ConfigManager.getProperty("load.report.dir", "target/load")));
+			Log.info("Load report written to {}", file.toAbsolutePath());
+		} catch (IOException e) {
+			Log.error("❌ Could not write load report for '{}': {}", result.getName(), e);
+		}
+		addToExtent(result);
+		return file;
+	}
+
+	/**
+	 * Writes the JSON report of a capacity search and adds its step table to the
+	 * Extent report. The individual levels are published by the caller.
+	 */
+	public static Path publish(CapacitySearch.Result result) {
+		Path file = null;
+		try {
+			Path directory = Paths.get(ConfigManager.getProperty("load.report.dir", "target/load"));
+			Files.createDirectories(directory);
+			String stamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+			file = directory.resolve(result.getName().replaceAll("[^A-Za-z0-9._-]", "_") + "-capacity-" + stamp + ".json");
+			mapper.writeValue(file.toFile(), toMap(result));
+			Log.info("Capacity report written to {}", file.toAbsolutePath());
+		} catch (IOException e) {
+			Log.error("❌ Could not write capacity report for '{}': {}", result.getName(), e);
+		}
+		addToExtent(result);
+		return file;
+	}
+
+	/**
+	 * Publishes the load statistics of a soak run, writes its resource samples as
+	 * CSV and adds the leak findings to the Extent report.
+	 *
+	 * @return the CSV file, or <code>null</code> if it could not be written
+	 */
+	public static Path publish(SoakRunner.Result result) {
+		publish(result.getLoad());
+		Path file = null;
+		try {
+			file = writeSamples(result, Paths.get(ConfigManager.getProperty("load.report.dir", "target/load")));
+			Log.info("Soak samples written to {}", file.toAbsolutePath());
+		} catch (IOException e) {
+			Log.error("❌ Could not write soak samples for '{}': {}", result.getLoad().getName(), e);
+		}
+
+		ExtentTest test = ExtentReportManager.getInstance().createTest("Soak: " + result.getLoad().getName(),
+				String.format("%d calls over %.0f min, %d resource samples", result.getLoad().getTotalCount(),
+						result.getLoad().getMeasuredSeconds() / 60, result.getSamples().size()));
+		if (!result.getSamples().isEmpty()) {
+			ResourceSampler.Sample first = result.getSamples().get(0);
+			ResourceSampler.Sample last = result.getSamples().get(result.getSamples().size() - 1);
+			test.info(MarkupHelper.createTable(new String[][] {
+					{ "Resource", "First sample", "Last sample" },
+					{ "Heap after GC MB", String.valueOf(first.heapAfterGcBytes / (1024 * 1024)),
+							String.valueOf(last.heapAfterGcBytes / (1024 * 1024)) },
+					{ "Open file descriptors", String.valueOf(first.openFileDescriptors),
+							String.valueOf(last.openFileDescriptors) },
+					{ "Sockets", String.valueOf(first.sockets), String.valueOf(last.sockets) },
+					{ "Threads", String.valueOf(first.threads), String.valueOf(last.threads) } }));
+		}
+		if (result.getFindings().isEmpty()) {
+			test.pass("No resource kept growing");
+		}
+		for (LeakDetector.Finding finding : result.getFindings()) {
+			test.warning(finding.toString());
+		}
+		ExtentReportManager.getInstance().flush();
+		return file;
+	}
+
+	static Path writeSamples(SoakRunner.Result result, Path directory) throws IOException {
+		Files.createDirectories(directory);
+		String stamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date(result.getLoad().getStartMillis()));
+		Path file = directory.resolve(
+				result.getLoad().getName().replaceAll("[^A-Za-z0-9._-]", "_") + "-soak-" + stamp + ".csv");
+		List<String> lines = new ArrayList<>();
+		List<String> components = result.getSamples().isEmpty() ? new ArrayList<>()
+				: new ArrayList<>(result.getSamples().get(0).components.keySet());
+		StringBuilder header = new StringBuilder("iteration,elapsedSeconds,heapAfterGcBytes,openFds,sockets,threads");
+		for (String component : components) {
+			header.append(',').append(component);
+		}
+		lines.add(header.toString());
+		for (ResourceSampler.Sample sample : result.getSamples()) {
+			StringBuilder line = new StringBuilder().append(sample.iteration).append(',')
+					.append(round(sample.elapsedSeconds)).append(',').append(sample.heapAfterGcBytes).append(',')
+					.append(sample.openFileDescriptors).append(',').append(sample.sockets).append(',')
+					.append(sample.threads);
+			for (String component : components) {
+				line.append(',').append(sample.components.get(component));
+			}
+			lines.add(line.toString());
+		}
+		return Files.write(file, lines);
+	}
+
+	public static Path writeJson(LoadResult result, Path directory) throws IOException {
+		Files.createDirectories(directory);
+		String stamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date(result.getStartMillis()));
+		Path file = directory.resolve(result.getName().replaceAll("[^A-Za-z0-9._-]", "_") + "-" + stamp + ".json");
+		mapper.writeValue(file.toFile(), toMap(result));
+		return file;
+	}
+
+	public static Map<String, Object> toMap(LoadResult result) {
+		Map<String, Object> report = new LinkedHashMap<>();
+		report.put("name", result.getName());
+		report.put("start", result.getStartMillis());
+		report.put("targetRate", result.getTargetRate());
+		report.put("virtualUsers", result.getVirtualUsers());
+		report.put("measuredSeconds", result.getMeasuredSeconds());
+		report.put("mix", result.getMix());
+		report.put("count", result.getTotalCount());
+		report.put("errors", result.getTotalErrors());
+		report.put("throughput", round(result.getThroughput()));
+		report.put("incomplete", result.getIncomplete());
+		report.put("maxQueued", result.getMaxQueued());
+		report.put("responseTimeMillis", percentiles(result.getCombinedResponseTime()));
+
+		Map<String, Object> operations = new LinkedHashMap<>();
+		for (OperationStats stats : result.getOperations().values()) {
+			Map<String, Object> operation = new LinkedHashMap<>();
+			long count = stats.getSuccessCount() + stats.getErrorCount();
+			operation.put("step", result.isSecondary(stats.getName()));
+			operation.put("count", count);
+			operation.put("errors", stats.getErrorCount());
+			operation.put("throughput",
+					round(result.getMeasuredSeconds() <= 0 ? 0 : count / result.getMeasuredSeconds()));
+			Histogram responseTime = stats.getResponseTime();
+			operation.put("responseTimeMillis", percentiles(responseTime));
+			operation.put("serviceTimeMillis", percentiles(stats.getServiceTime()));
+			Map<String, Long> reasons = new LinkedHashMap<>();
+			for (Map.Entry<String, LongAdder> reason : stats.getErrorReasons().entrySet()) {
+				reasons.put(reason.getKey(), reason.getValue().sum());
+			}
+			operation.put("errorReasons", reasons);
+			operation.put("histogram", encode(responseTime));
+			operations.put(stats.getName(), operation);
+		}
+		report.put("operations", operations);
+
+		List<Map<String, Object>> timeline = new ArrayList<>();
+		for (LoadResult.Interval interval : result.getIntervals()) {
+			Map<String, Object> point = new LinkedHashMap<>();
+			point.put("elapsedSeconds", round(interval.elapsedSeconds));
+			point.put("count", interval.count);
+			point.put("errors", interval.errors);
+			point.put("throughput", round(interval.throughput));
+			point.put("p50Millis", interval.p50Millis);
+			point.put("p99Millis", interval.p99Millis);
+			point.put("queued", interval.queued);
+			timeline.add(point);
+		}
+		report.put("intervals", timeline);
+		return report;
+	}
+
+	public static Map<String, Object> toMap(CapacitySearch.Result result) {
+		Map<String, Object> report = new LinkedHashMap<>();
+		report.put("name", result.getName());
+		report.put("unit", result.getUnit());
+		report.put("slo", result.getSlo());
+		report.put("maxSustainableLevel", result.getMaxSustainable() == null ? null : result.getMaxSustainable().level);
+		report.put("maxSustainableThroughput",
+				result.getMaxSustainable() == null ? null : round(result.getMaxSustainable().result.getThroughput()));
+		report.put("kneeLevel", result.getKnee() == null ? null : result.getKnee().level);
+		report.put("kneeThroughput", result.getKnee() == null ? null : round(result.getKnee().result.getThroughput()));
+		List<Map<String, Object>> levels = new ArrayList<>();
+		for (CapacitySearch.Level level : result.getLevels()) {
+			Map<String, Object> entry = new LinkedHashMap<>();
+			entry.put("level", level.level);
+			entry.put("run", level.result.getName());
+			entry.put("throughput", round(level.result.getThroughput()));
+			entry.put("errorRate", level.result.getErrorRate());
+			entry.put("responseTimeMillis", percentiles(level.result.getCombinedResponseTime()));
+			entry.put("breach", level.breach);
+			levels.add(entry);
+		}
+		report.put("levels", levels);
+		return report;
+	}
+
+	/**
+	 * Adds a node with the per-operation percentile table to the Extent report.
+	 * Inside a TestNG run the listener flushes the report at the end of the suite.
+	 */
+	public static void addToExtent(LoadResult result) {
+		String description = result.getVirtualUsers() > 0
+				? String.format("%d virtual users, %.1f transactions/s over %.0fs, mix %s", result.getVirtualUsers(),
+						result.getThroughput(), result.getMeasuredSeconds(), result.getMix())
+				: String.format("Target %.1f calls/s, achieved %.1f calls/s over %.0fs, mix %s", result.getTargetRate(),
+						result.getThroughput(), result.getMeasuredSeconds(), result.getMix());
+		ExtentTest test = ExtentReportManager.getInstance().createTest("Load: " + result.getName(), description);
+
+		List<String[]> rows = new ArrayList<>();
+		rows.add(new String[] { "Operation", "Count", "Errors", "Calls/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms",
+				"Max ms" });
+		for (OperationStats stats : result.getOperations().values()) {
+			rows.add(row(stats.getName(), stats.getSuccessCount() + stats.getErrorCount(), stats.getErrorCount(),
+					result.getMeasuredSeconds(), stats.getResponseTime()));
+		}
+		rows.add(row("All", result.getTotalCount(), result.getTotalErrors(), result.getMeasuredSeconds(),
+				result.getCombinedResponseTime()));
+		test.info(MarkupHelper.createTable(rows.toArray(new String[0][])));
+
+		if (result.getTotalErrors() > 0 || result.getIncomplete() > 0) {
+			test.warning(String.format("%d errors (%.2f%%), %d calls incomplete", result.getTotalErrors(),
+					result.getErrorRate() * 100, result.getIncomplete()));
+		} else {
+			test.pass("No errors");
+		}
+		ExtentReportManager.getInstance().flush();
+	}
+
+	/**
+	 * Adds one node comparing throughput and latency across runs of the same
+	 * workload at different virtual user counts.
+	 */
+	public static void addScalingSummary(String name, List<LoadResult> results) {
+		ExtentTest test = ExtentReportManager.getInstance().createTest("Load: " + name,
+				"Throughput and end-to-end latency per virtual user count");
+		List<String[]> rows = new ArrayList<>();
+		rows.add(new String[] { "Virtual users", "Transactions", "Errors", "Tx/s", "p50 ms", "p90 ms", "p99 ms",
+				"p99.9 ms", "Max ms" });
+		for (LoadResult result : results) {
+			rows.add(row(String.valueOf(result.getVirtualUsers()), result.getTotalCount(), result.getTotalErrors(),
+					result.getMeasuredSeconds(), result.getCombinedResponseTime()));
+			Log.info("Scaling '{}': {} users -> {} tx/s, p99={}ms, {} errors", name, result.getVirtualUsers(),
+					String.format("%.1f", result.getThroughput()),
+					result.getCombinedResponseTime().getValueAtPercentile(99) / 1000.0, result.getTotalErrors());
+		}
+		test.info(MarkupHelper.createTable(rows.toArray(new String[0][])));
+		ExtentReportManager.getInstance().flush();
+	}
+
+	/**
+	 * Adds a node with one row per capacity level and the search verdict.
+	 */
+	public static void addToExtent(CapacitySearch.Result result) {
+		ExtentTest test = ExtentReportManager.getInstance().createTest("Capacity: " + result.getName(),
+				"Step ramp in " + result.getUnit() + " against SLO " + result.getSlo());
+		List<String[]> rows = new ArrayList<>();
+		rows.add(new String[] { "Level (" + result.getUnit() + ")", "Calls/s", "Errors %", "p50 ms", "p99 ms",
+				"SLO" });
+		for (CapacitySearch.Level level : result.getLevels()) {
+			Histogram histogram = level.result.getCombinedResponseTime();
+			rows.add(new String[] { CapacitySearch.format(level.level),
+					String.format("%.1f", level.result.getThroughput()),
+					String.format("%.2f", level.result.getErrorRate() * 100), millis(histogram, 50),
+					millis(histogram, 99), level.isSustainable() ? "met" : level.breach });
+		}
+		test.info(MarkupHelper.createTable(rows.toArray(new String[0][])));
+		if (result.getMaxSustainable() == null) {
+			test.fail("The first level already breaks the SLO");
+		} else {
+			test.pass(String.format("Max sustainable throughput %.1f calls/s at %s %s; knee at %s %s",
+					result.getMaxSustainable().result.getThroughput(),
+					CapacitySearch.format(result.getMaxSustainable().level), result.getUnit(),
+					result.getKnee() == null ? "-" : CapacitySearch.format(result.getKnee().level), result.getUnit()));
+			if (result.getLevels().get(result.getLevels().size() - 1).isSustainable()) {
+				test.warning("The SLO was never broken; raise capacity.max.steps to find the limit");
+			}
+		}
+		ExtentReportManager.getInstance().flush();
+	}
+
+	private static String[] row(String name, long count, long errors, double seconds, Histogram histogram) {
+		return new String[] { name, String.valueOf(count), String.valueOf(errors),
+				String.format("%.1f", seconds <= 0 ? 0 : count / seconds), millis(histogram, 50), millis(histogram, 90),
+				millis(histogram, 99), millis(histogram, 99.9), String.format("%.1f", histogram.getMaxValue() / 1000.0) };
+	}
+
+	private static String millis(Histogram histogram, double percentile) {
+		return String.format("%.1f", histogram.getValueAtPercentile(percentile) / 1000.0);
+	}
+
+	static Map<String, Object> percentiles(Histogram histogram) {
+		Map<String, Object> values = new LinkedHashMap<>();
+		values.put("mean", round(histogram.getMean() / 1000.0));
+		for (double percentile : PERCENTILES) {
+			values.put("p" + (percentile == Math.floor(percentile) ? String.valueOf((int) percentile)
+					: String.valueOf(percentile)), histogram.getValueAtPercentile(percentile) / 1000.0);
+		}
+		values.put("max", histogram.getMaxValue() / 1000.0);
+		return values;
+	}
+
+	private static String encode(Histogram histogram) {
+		ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+		int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+		return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+	}
+
+	private static double round(double value) {
+		return Math.round(value * 100) / 100.0;
+	}
+}
@@ -0,0 +1,219 @@
+package coreUtilities.load;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.HdrHistogram.Histogram;
+
+import coreUtilities.utils.Log;
+
+/**
+ * Outcome of one load run: per-operation statistics plus a per-interval
+ * timeline of the whole workload.
+ *
+ * <p>
+ * Totals, throughput and the timeline are computed from the primary
+ * operations only. Secondary operations (the steps of a lifecycle transaction)
+ * are reported individually but are not counted twice.
+ */
+public class LoadResult {
+
+	/**
+	 * Throughput and latency of all operations during one reporting interval.
+	 */
+	public static class Interval {
+		public final double elapsedSeconds;
+		public final long count;
+		public final long errors;
+		public final double throughput;
+		public final double p50Millis;
+		public final double p99Millis;
+		public final int queued;
+
+		Interval(double elapsedSeconds, long count, long errors, double throughput, Histogram histogram, int queued) {
+			this.elapsedSeconds = elapsedSeconds;
+			this.count = count;
+			this.errors = errors;
+			this.throughput = throughput;
+			this.p50Millis = histogram.getValueAtPercentile(50) / 1000.0;
+			this.p99Millis = histogram.getValueAtPercentile(99) / 1000.0;
+			this.queued = queued;
+		}
+	}
+
+	private final String name;
+	private final Map<String, Double> mix;
+	private final double targetRate;
+	private final long startMillis;
+	private final Map<String, OperationStats> operations = new LinkedHashMap<>();
+	private final Set<String> secondary = new HashSet<>();
+	private final List<Interval> intervals = new ArrayList<>();
+	private double measuredSeconds;
+	private long incomplete;
+	private int maxQueued;
+	private int virtualUsers;
+	private long errorsAtLastInterval;
+
+	public LoadResult(String name, Map<String, Double> mix, double targetRate, long startMillis) {
+		this.name = name;
+		this.mix = mix;
+		this.targetRate = targetRate;
+		this.startMillis = startMillis;
+	}
+
+	void addOperation(OperationStats stats) {
+		operations.put(stats.getName(), stats);
+	}
+
+	void addSecondaryOperation(OperationStats stats) {
+		operations.put(stats.getName(), stats);
+		secondary.add(stats.getName());
+	}
+
+	void setVirtualUsers(int virtualUsers) {
+		this.virtualUsers = virtualUsers;
+	}
+
+	/**
+	 * Moves the samples recorded since the previous interval into the run totals
+	 * and appends a timeline entry for the primary operations.
+	 *
+	 * @param startNanos       when the run started
+	 * @param measureFromNanos end of the warm-up period
+	 * @param queued           calls waiting for a worker right now
+	 */
+	synchronized Interval sampleInterval(long startNanos, long measureFromNanos, int queued) {
+		Histogram histogram = OperationStats.newHistogram();
+		for (OperationStats stats : operations.values()) {
+			Histogram sample = stats.sampleInterval();
+			if (!secondary.contains(stats.getName())) {
+				histogram.add(sample);
+			}
+		}
+		long errors = getTotalErrors() - errorsAtLastInterval;
+		errorsAtLastInterval += errors;
+
+		double previousElapsed = intervals.isEmpty() ? (measureFromNanos - startNanos) / 1e9
+				: intervals.get(intervals.size() - 1).elapsedSeconds;
+		double elapsed = (System.nanoTime() - startNanos) / 1e9;
+		double seconds = Math.max(elapsed - previousElapsed, 1e-3);
+		Interval interval = new Interval(elapsed, histogram.getTotalCount(), errors,
+				histogram.getTotalCount() / seconds, histogram, queued);
+		intervals.add(interval);
+		maxQueued = Math.max(maxQueued, queued);
+		Log.info("Load '{}' t={}s: {}/s, p50={}ms p99={}ms, queued={}", name, String.format("%.0f", elapsed),
+				String.format("%.1f", interval.throughput), interval.p50Millis, interval.p99Millis, queued);
+		return interval;
+	}
+
+	void finish(double measuredSeconds, long incomplete) {
+		this.measuredSeconds = measuredSeconds;
+		this.incomplete = incomplete;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public Map<String, Double> getMix() {
+		return mix;
+	}
+
+	public double getTargetRate() {
+		return targetRate;
+	}
+
+	public long getStartMillis() {
+		return startMillis;
+	}
+
+	public double getMeasuredSeconds() {
+		return measuredSeconds;
+	}
+
+	/**
+	 * @return calls still queued or running when the run was stopped
+	 */
+	public long getIncomplete() {
+		return incomplete;
+	}
+
+	/**
+	 * @return the deepest worker queue seen; a growing queue means the generator
+	 *         or the server could not keep up with the target rate
+	 */
+	public int getMaxQueued() {
+		return maxQueued;
+	}
+
+	/**
+	 * @return number of virtual users for closed-model runs, 0 for open-model
+	 *         runs
+	 */
+	public int getVirtualUsers() {
+		return virtualUsers;
+	}
+
+	public boolean isSecondary(String operation) {
+		return secondary.contains(operation);
+	}
+
+	public Map<String, OperationStats> getOperations() {
+		return Collections.unmodifiableMap(operations);
+	}
+
+	public List<Interval> getIntervals() {
+		return Collections.unmodifiableList(intervals);
+	}
+
+	public long getTotalCount() {
+		long total = 0;
+		for (OperationStats stats : primaryOperations()) {
+			total += stats.getSuccessCount() + stats.getErrorCount();
+		}
+		return total;
+	}
+
+	public long getTotalErrors() {
+		long total = 0;
+		for (OperationStats stats : primaryOperations()) {
+			total += stats.getErrorCount();
+		}
+		return total;
+	}
+
+	public double getErrorRate() {
+		long count = getTotalCount();
+		return count == 0 ? 0 : (double) getTotalErrors() / count;
+	}
+
+	public double getThroughput() {
+		return measuredSeconds <= 0 ? 0 : getTotalCount() / measuredSeconds;
+	}
+
+	/**
+	 * @return response times of all primary operations combined
+	 */
+	public Histogram getCombinedResponseTime() {
+		Histogram combined = OperationStats.newHistogram();
+		for (OperationStats stats : primaryOperations()) {
+			combined.add(stats.getResponseTime());
+		}
+		return combined;
+	}
+
+	private List<OperationStats> primaryOperations() {
+		List<OperationStats> primary = new ArrayList<>();
+		for (OperationStats stats : operations.values()) {
+			if (!secondary.contains(stats.getName())) {
+				primary.add(stats);
+			}
+		}
+		return primary;
+	}
+}
@@ -0,0 +1,152 @@
+package coreUtilities.load;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import coreUtilities.utils.Log;
+import rest.ApiUtil;
+import rest.CustomResponse;
+
+/**
+ * The {@link ApiUtil} operations available to load workloads, keyed by the
+ * ApiUtil method name, using the same endpoints as RestAssured_TestCases.
+ *
+ * <p>
+ * Each check mirrors the core assertions of the matching functional test: HTTP
+ * 200 and non-empty parsed fields. Operations that need an existing employee
+ * pick one of the employee numbers loaded by {@link #prepare}.
+ */
+public class OperationCatalog {
+
+	public static final String HOLIDAYS = "/web/index.php/api/v2/leave/holidays?fromDate=2025-01-01&toDate=2025-12-31";
+	public static final String EMPLOYEES = "/web/index.php/api/v2/pim/employees";
+	public static final String EMPLOYEE_COUNT = "/web/index.php/api/v2/pim/employees/count";
+	public static final String LEAVE_TYPES = "/web/index.php/api/v2/leave/leave-types?limit=0";
+	public static final String USAGE_REPORT = "/web/index.php/api/v2/leave/reports?name=my_leave_entitlements_and_usage";
+	public static final String VACANCIES = "/web/index.php/api/v2/recruitment/vacancies?limit=50&offset=0&sortField=vacancy.name&sortOrder=ASC&model=detailed";
+	public static final String JOB_TITLES = "/web/index.php/api/v2/admin/job-titles?limit=0";
+	public static final String WORKWEEK = "/web/index.php/api/v2/leave/workweek?model=indexed";
+	public static final String CANDIDATES = "/web/index.php/api/v2/recruitment/candidates";
+
+	private final Map<String, LoadOperation> operations = new LinkedHashMap<>();
+	private volatile List<Integer> empNumbers = Collections.emptyList();
+
+	/**
+	 * @return a catalog with every read operation of the functional suite plus
+	 *         PostEmployee and PostCandidate
+	 */
+	public static OperationCatalog standard() {
+		OperationCatalog catalog = new OperationCatalog();
+		catalog.register(new LoadOperation("GetHolidayData", (api, cookie) -> api.GetHolidayData(HOLIDAYS, cookie, null),
+				r -> ok(r) && notEmpty(r.getIds())));
+		catalog.register(new LoadOperation("GetLeaveData", (api, cookie) -> api.GetLeaveData(HOLIDAYS, cookie, null),
+				r -> ok(r) && notEmpty(r.getIds())));
+		catalog.register(new LoadOperation("GetEmpCount", (api, cookie) -> api.GetEmpCount(EMPLOYEE_COUNT, cookie, null),
+				r -> ok(r) && r.getEmpCount() > 0));
+		catalog.register(new LoadOperation("GetLeaveType", (api, cookie) -> api.GetLeaveType(LEAVE_TYPES, cookie, null),
+				r -> ok(r) && notEmpty(r.getIds())));
+		catalog.register(new LoadOperation("GetUsageReport",
+				(api, cookie) -> api.GetUsageReport(USAGE_REPORT, cookie, null), r -> ok(r) && notEmpty(r.getNames())));
+		catalog.register(new LoadOperation("GetVacancies", (api, cookie) -> api.GetVacancies(VACANCIES, cookie, null),
+				r -> ok(r) && notEmpty(r.getIds())));
+		catalog.register(new LoadOperation("GetJobTitles", (api, cookie) -> api.GetJobTitles(JOB_TITLES, cookie, null),
+				r -> ok(r) && notEmpty(r.getTitles())));
+		catalog.register(new LoadOperation("GetLeaveWorkWeek", (api, cookie) -> api.GetLeaveWorkWeek(WORKWEEK, cookie),
+				r -> ok(r) && r.getWorkweekData() != null && r.getWorkweekData().size() == 7));
+		catalog.register(new LoadOperation("GetEmpData",
+				(api, cookie) -> api.GetEmpData(EMPLOYEES + "/" + catalog.randomEmpNumber(), cookie, null),
+				r -> ok(r) && notEmpty(r.getEmpNumbers())));
+		catalog.register(new LoadOperation("GetEmpPersonalDetails",
+				(api, cookie) -> api.GetEmpPersonalDetails(
+						EMPLOYEES + "/" + catalog.randomEmpNumber() + "/personal-details", cookie, null),
+				r -> ok(r) && r.getEmpNumber() != null && r.getFirstName() != null));
+		catalog.register(new LoadOperation("PostEmployee", (api, cookie) -> {
+			String firstName = "Employee_" + uniqueSuffix();
+			CustomResponse response = api.PostEmployee(EMPLOYEES, cookie,
+					"{\"empPicture\":null,\"firstName\":\"" + firstName + "\",\"lastName\":\"Load\",\"middleName\":\"\"}");
+			return echoed(response, firstName);
+		}, OperationCatalog::ok));
+		catalog.register(new LoadOperation("PostCandidate", (api, cookie) -> {
+			String suffix = uniqueSuffix();
+			CustomResponse response = api.PostCandidate(CANDIDATES, cookie, "{\"firstName\":\"First_" + suffix
+					+ "\",\"lastName\":\"Last_" + suffix + "\",\"email\":\"candidate_" + suffix + "@example.com\"}");
+			return echoed(response, "First_" + suffix);
+		}, OperationCatalog::ok));
+		return catalog;
+	}
+
+	public OperationCatalog register(LoadOperation operation) {
+		operations.put(operation.getName(), operation);
+		return this;
+	}
+
+	/**
+	 * @throws IllegalArgumentException if no operation has the given name
+	 */
+	public LoadOperation get(String name) {
+		LoadOperation operation = operations.get(name);
+		if (operation == null) {
+			throw new IllegalArgumentException("Unknown load operation '" + name + "', expected one of "
+					+ operations.keySet());
+		}
+		return operation;
+	}
+
+	public Collection<LoadOperation> all() {
+		return operations.values();
+	}
+
+	/**
+	 * Loads the first page of employee numbers used by the employee operations.
+	 */
+	public void prepare(ApiUtil api, String cookieValue) {
+		CustomResponse employees = api.GetEmpData(EMPLOYEES + "?limit=50&offset=0", cookieValue, null);
+		List<Integer> numbers = new ArrayList<>();
+		if (employees.getEmpNumbers() != null) {
+			for (Integer number : employees.getEmpNumbers()) {
+				if (number != null) {
+					numbers.add(number);
+				}
+			}
+		}
+		empNumbers = numbers;
+		Log.info("Load workload prepared with {} employee numbers", numbers.size());
+	}
+
+	int randomEmpNumber() {
+		List<Integer> numbers = empNumbers;
+		if (numbers.isEmpty()) {
+			throw new IllegalStateException("No employee numbers loaded; call prepare() first");
+		}
+		return numbers.get(ThreadLocalRandom.current().nextInt(numbers.size()));
+	}
+
+	static boolean ok(CustomResponse response) {
+		return response.getStatusCode() == 200;
+	}
+
+	/**
+	 * Fails the operation when a create call does not echo the generated name,
+	 * which is what PostEmployee and PostCandidate assert.
+	 */
+	private static CustomResponse echoed(CustomResponse response, String name) {
+		if (ok(response) && !response.containsText(name)) {
+			throw new IllegalStateException("response does not contain " + name);
+		}
+		return response;
+	}
+
+	private static boolean notEmpty(Collection<?> values) {
+		return values != null && !values.isEmpty();
+	}
+
+	static String uniqueSuffix() {
+		return System.currentTimeMillis() + UUID.randomUUID().toString().substring(0, 5);
+	}
+}
@@ -0,0 +1,142 @@
+package coreUtilities.load;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import coreUtilities.utils.Log;
+
+/**
+ * Latency and error counts for one operation of a load run.
+ *
+ * <p>
+ * Two latencies are recorded per call, in microseconds:
+ * <ul>
+ * <li><b>response time</b> - from the time the request was <i>scheduled</i> to
+ * start until it completed. This includes any time spent waiting for a free
+ * worker, so it does not hide queueing when the system falls behind
+ * (coordinated omission).</li>
+ * <li><b>service time</b> - from the actual start of the call until it
+ * completed. The gap between the two shows how much of the latency is
+ * queueing.</li>
+ * </ul>
+ * Samples go to HdrHistogram {@link Recorder}s, so they can be read per interval
+ * while the run continues.
+ *
+ * <p>
+ * Failures are counted per reason. Reasons should not carry per-call details
+ * such as ids or messages (see {@link #reason(Throwable)}); after
+ * {@value #MAX_ERROR_REASONS} distinct reasons, further new ones are counted
+ * as {@value #OTHER_ERRORS} so a long run cannot grow the map without bound.
+ */
+public class OperationStats {
+
+	static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.HOURS.toMicros(1);
+	static final int SIGNIFICANT_DIGITS = 3;
+	static final int MAX_ERROR_REASONS = 20;
+	static final String OTHER_ERRORS = "other";
+
+	private final String name;
+	private final Recorder responseTime = new Recorder(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+	private final Recorder serviceTime = new Recorder(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+	private final Histogram totalResponseTime = newHistogram();
+	private final Histogram totalServiceTime = newHistogram();
+	private final LongAdder successes = new LongAdder();
+	private final LongAdder errors = new LongAdder();
+	private final Map<String, LongAdder> errorReasons = new ConcurrentHashMap<>();
+	private Histogram intervalResponseTime;
+	private Histogram intervalServiceTime;
+
+	public OperationStats(String name) {
+		this.name = name;
+	}
+
+	static Histogram newHistogram() {
+		return new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+	}
+
+	/**
+	 * Records one completed call.
+	 *
+	 * @param intendedStartNanos when the call was scheduled to start
+	 * @param actualStartNanos   when it actually started
+	 * @param endNanos           when it completed
+	 * @param failure            <code>null</code> on success, else the reason
+	 */
+	public void record(long intendedStartNanos, long actualStartNanos, long endNanos, String failure) {
+		responseTime.recordValue(clamp((endNanos - intendedStartNanos) / 1_000));
+		serviceTime.recordValue(clamp((endNanos - actualStartNanos) / 1_000));
+		if (failure == null) {
+			successes.increment();
+		} else {
+			errors.increment();
+			LongAdder count = errorReasons.get(failure);
+			if (count == null) {
+				// The check and the insert race, so the cap may be passed by a few
+				String key = errorReasons.size() < MAX_ERROR_REASONS ? failure : OTHER_ERRORS;
+				count = errorReasons.computeIfAbsent(key, k -> new LongAdder());
+			}
+			count.increment();
+		}
+	}
+
+	/**
+	 * The failure reason for an exception thrown by a call: its type, without
+	 * the message, which often differs per call. The message is logged at debug
+	 * level instead.
+	 */
+	public static String reason(Throwable e) {
+		Log.debug("Load call failed: {}", e.toString());
+		return e.getClass().getSimpleName();
+	}
+
+	/**
+	 * Moves the samples recorded since the last call into the run totals and
+	 * returns them as the latest interval.
+	 *
+	 * @return response time histogram of the interval
+	 */
+	public synchronized Histogram sampleInterval() {
+		intervalResponseTime = responseTime.getIntervalHistogram(intervalResponseTime);
+		intervalServiceTime = serviceTime.getIntervalHistogram(intervalServiceTime);
+		totalResponseTime.add(intervalResponseTime);
+		totalServiceTime.add(intervalServiceTime);
+		return intervalResponseTime.copy();
+	}
+
+	/**
+	 * @return response times over the whole run (call {@link #sampleInterval}
+	 *         first to include the latest samples)
+	 */
+	public synchronized Histogram getResponseTime() {
+		return totalResponseTime.copy();
+	}
+
+	public synchronized Histogram getServiceTime() {
+		return totalServiceTime.copy();
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public long getSuccessCount() {
+		return successes.sum();
+	}
+
+	public long getErrorCount() {
+		return errors.sum();
+	}
+
+	public Map<String, LongAdder> getErrorReasons() {
+		return errorReasons;
+	}
+
+	private static long clamp(long micros) {
+		return Math.min(Math.max(micros, 0), HIGHEST_TRACKABLE_MICROS);
+	}
+}
@@ -0,0 +1,143 @@
+package coreUtilities.load;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.LongSupplier;
+
+import com.sun.management.UnixOperatingSystemMXBean;
+
+import coreUtilities.utils.StringInterner;
+import rest.ResponseCapture;
+
+/**
+ * Takes snapshots of the process resources that leak in long runs: heap after
+ * a full GC, open file descriptors, live sockets and threads, plus the size of
+ * framework components that hold state for the whole run.
+ *
+ * <p>
+ * File descriptors and sockets are read from <code>/proc/self/fd</code> where
+ * available (Linux); elsewhere the file descriptor count comes from the
+ * operating system MXBean and sockets are reported as -1.
+ */
+public class ResourceSampler {
+
+	/**
+	 * One snapshot.
+	 */
+	public static class Sample {
+		public final long iteration;
+		public final double elapsedSeconds;
+		public final long heapAfterGcBytes;
+		public final long openFileDescriptors;
+		public final long sockets;
+		public final long threads;
+		/**
+		 * Size of each registered component, e.g. entries of a cache.
+		 */
+		public final Map<String, Long> components;
+		/**
+		 * Live threads per name with numbers removed, e.g.
+		 * <code>load-worker</code>.
+		 */
+		public final Map<String, Long> threadGroups;
+
+		Sample(long iteration, double elapsedSeconds, long heapAfterGcBytes, long openFileDescriptors, long sockets,
+				long threads, Map<String, Long> components, Map<String, Long> threadGroups) {
+			this.iteration = iteration;
+			this.elapsedSeconds = elapsedSeconds;
+			this.heapAfterGcBytes = heapAfterGcBytes;
+			this.openFileDescriptors = openFileDescriptors;
+			this.sockets = sockets;
+			this.threads = threads;
+			this.components = Collections.unmodifiableMap(components);
+			this.threadGroups = Collections.unmodifiableMap(threadGroups);
+		}
+	}
+
+	private static final Path PROC_FD = Paths.get("/proc/self/fd");
+
+	private final Map<String, LongSupplier> components = new LinkedHashMap<>();
+	private final long startNanos = System.nanoTime();
+
+	/**
+	 * @return a sampler that tracks the framework's long-lived state: the shared
+	 *         StringInterner and the per-thread ResponseCapture rings
+	 */
+	public static ResourceSampler standard() {
+		return new ResourceSampler().component("StringInterner.shared", () -> StringInterner.shared().size())
+				.component("ResponseCapture.rings", ResponseCapture::ringCount);
+	}
+
+	/**
+	 * Registers a component whose size is recorded with every sample, so growth
+	 * of a resource can be attributed to it.
+	 */
+	public ResourceSampler component(String name, LongSupplier size) {
+		components.put(name, size);
+		return this;
+	}
+
+	/**
+	 * Runs a full GC and takes a snapshot.
+	 *
+	 * @param iteration workload iterations completed so far
+	 */
+	public Sample sample(long iteration) {
+		System.gc();
+		long heap = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			MemoryUsage afterGc = pool.getCollectionUsage();
+			if (pool.getType() == MemoryType.HEAP && afterGc != null) {
+				heap += afterGc.getUsed();
+			}
+		}
+		long fds = -1;
+		long sockets = -1;
+		if (Files.isDirectory(PROC_FD)) {
+			fds = 0;
+			sockets = 0;
+			try (DirectoryStream<Path> entries = Files.newDirectoryStream(PROC_FD)) {
+				for (Path entry : entries) {
+					fds++;
+					try {
+						if (Files.readSymbolicLink(entry).toString().startsWith("socket:")) {
+							sockets++;
+						}
+					} catch (IOException e) {
+						// closed while listing
+					}
+				}
+			} catch (IOException e) {
+				fds = -1;
+				sockets = -1;
+			}
+		}
+		OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+		if (fds < 0 && os instanceof UnixOperatingSystemMXBean) {
+			fds = ((UnixOperatingSystemMXBean) os).getOpenFileDescriptorCount();
+		}
+
+		Map<String, Long> sizes = new LinkedHashMap<>();
+		for (Map.Entry<String, LongSupplier> component : components.entrySet()) {
+			sizes.put(component.getKey(), component.getValue().getAsLong());
+		}
+		Map<String, Long> groups = new TreeMap<>();
+		for (Thread thread : Thread.getAllStackTraces().keySet()) {
+			groups.merge(thread.getName().replaceAll("[-_ ]?\\d+", ""), 1L, Long::sum);
+		}
+		return new Sample(iteration, (System.nanoTime() - startNanos) / 1e9, heap, fds, sockets,
+				ManagementFactory.getThreadMXBean().getThreadCount(), sizes, groups);
+	}
+}
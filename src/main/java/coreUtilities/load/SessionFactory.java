@@ -0,0 +1,73 @@
+package coreUtilities.load;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import coreUtilities.utils.Log;
+import rest.ApiMode;
+import rest.ApiUtil;
+import rest.SessionPool;
+import restConfig.ConfigManager;
+
+/**
+ * Opens the <code>orangehrm</code> session a virtual user runs its transactions
+ * with.
+ */
+public interface SessionFactory {
+
+	/**
+	 * @param virtualUser index of the virtual user, starting at 0
+	 * @return the <code>orangehrm</code> cookie value for that user
+	 */
+	String open(int virtualUser) throws Exception;
+
+	/**
+	 * Sessions from the configuration:
+	 * <ul>
+	 * <li>replay and stub mode - a distinct dummy cookie per virtual user</li>
+	 * <li>live mode - a session of its own per virtual user, logged in over HTTP
+	 * through the shared {@link SessionPool} (started with the configured
+	 * credentials if no test started it), so an expired one is logged in
+	 * again</li>
+	 * <li>live mode with <code>load.cookies</code> (comma separated) or
+	 * <code>load.cookie</code> - those cookies instead, handed out
+	 * round-robin</li>
+	 * </ul>
+	 */
+	static SessionFactory fromConfig() {
+		ApiMode mode = ApiMode.current();
+		if (mode.isOffline()) {
+			String prefix = mode.name().toLowerCase() + "-vu-";
+			return virtualUser -> prefix + virtualUser;
+		}
+		List<String> cookies = new ArrayList<>();
+		for (String cookie : ConfigManager.getProperty("load.cookies", "").split(",")) {
+			if (!cookie.trim().isEmpty()) {
+				cookies.add(cookie.trim());
+			}
+		}
+		String shared = ConfigManager.getProperty("load.cookie", "");
+		if (cookies.isEmpty() && !shared.isEmpty()) {
+			Log.warn("⚠️ All virtual users share the load.cookie session; unset it for one session per user");
+			cookies.add(shared);
+		}
+		if (!cookies.isEmpty()) {
+			return virtualUser -> cookies.get(virtualUser % cookies.size());
+		}
+		SessionPool pool = sharedPool();
+		return virtualUser -> pool.open();
+	}
+
+	/**
+	 * @return the session pool of the suite, started from the configured base URL
+	 *         and credentials if there is none yet
+	 */
+	static SessionPool sharedPool() {
+		SessionPool pool = SessionPool.shared();
+		if (pool != null) {
+			return pool;
+		}
+		ApiUtil api = new ApiUtil();
+		return SessionPool.start(api.getBaseUrl(), api.getUsername(), api.getPassword());
+	}
+}
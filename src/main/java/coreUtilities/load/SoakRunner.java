@@ -0,0 +1,181 @@
+package coreUtilities.load;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import coreUtilities.utils.Log;
+import rest.ApiUtil;
+import restConfig.ConfigManager;
+
+/**
+ * Soak mode: loops an operation mix through {@link ApiUtil} for a long time
+ * and samples process resources every <code>soak.sample.every</code>
+ * iterations, then runs the {@link LeakDetector} over the samples.
+ *
+ * <p>
+ * Calls run back to back on <code>soak.threads</code> threads; one iteration is
+ * one call. The first sample is taken after the first interval so class loading
+ * and JIT warm-up are not mistaken for growth.
+ */
+public class SoakRunner {
+
+	/**
+	 * Outcome of a soak run.
+	 */
+	public static class Result {
+		private final LoadResult load;
+		private final List<ResourceSampler.Sample> samples;
+		private final List<LeakDetector.Finding> findings;
+
+		Result(LoadResult load, List<ResourceSampler.Sample> samples, List<LeakDetector.Finding> findings) {
+			this.load = load;
+			this.samples = Collections.unmodifiableList(samples);
+			this.findings = Collections.unmodifiableList(findings);
+		}
+
+		public LoadResult getLoad() {
+			return load;
+		}
+
+		public List<ResourceSampler.Sample> getSamples() {
+			return samples;
+		}
+
+		public List<LeakDetector.Finding> getFindings() {
+			return findings;
+		}
+	}
+
+	private final WorkloadMix mix;
+	private final ApiUtil api;
+	private final String cookieValue;
+	private ResourceSampler sampler = ResourceSampler.standard();
+	private long durationNanos = TimeUnit.MINUTES.toNanos(120);
+	private long maxIterations;
+	private int sampleEvery = 500;
+	private int threads = 1;
+
+	public SoakRunner(WorkloadMix mix, ApiUtil api, String cookieValue) {
+		this.mix = mix;
+		this.api = api;
+		this.cookieValue = cookieValue;
+	}
+
+	/**
+	 * Applies <code>soak.duration.minutes</code>, <code>soak.iterations</code> (0
+	 * for no limit), <code>soak.sample.every</code> and
+	 * <code>soak.threads</code>.
+	 */
+	public SoakRunner configure() {
+		duration(ConfigManager.getIntProperty("soak.duration.minutes", 120), TimeUnit.MINUTES);
+		iterations(ConfigManager.getIntProperty("soak.iterations", 0));
+		sampleEvery(ConfigManager.getIntProperty("soak.sample.every", sampleEvery));
+		threads(ConfigManager.getIntProperty("soak.threads", threads));
+		return this;
+	}
+
+	public SoakRunner duration(long duration, TimeUnit unit) {
+		this.durationNanos = unit.toNanos(duration);
+		return this;
+	}
+
+	/**
+	 * @param maxIterations stop after this many calls, 0 for no limit
+	 */
+	public SoakRunner iterations(long maxIterations) {
+		this.maxIterations = Math.max(maxIterations, 0);
+		return this;
+	}
+
+	public SoakRunner sampleEvery(int iterations) {
+		this.sampleEvery = Math.max(iterations, 1);
+		return this;
+	}
+
+	public SoakRunner threads(int threads) {
+		this.threads = Math.max(threads, 1);
+		return this;
+	}
+
+	public SoakRunner sampler(ResourceSampler sampler) {
+		this.sampler = sampler;
+		return this;
+	}
+
+	/**
+	 * Runs until the duration or iteration limit is reached.
+	 *
+	 * @param name name of the run, used in logs and reports
+	 */
+	public Result run(String name) {
+		LoadResult result = new LoadResult(name, mix.getShares(), 0, System.currentTimeMillis());
+		List<OperationStats> stats = new ArrayList<>();
+		for (LoadOperation operation : mix.getOperations()) {
+			OperationStats operationStats = new OperationStats(operation.getName());
+			stats.add(operationStats);
+			result.addOperation(operationStats);
+		}
+		List<ResourceSampler.Sample> samples = Collections.synchronizedList(new ArrayList<>());
+		AtomicLong iterations = new AtomicLong();
+		long start = System.nanoTime();
+		long end = start + durationNanos;
+		Log.info("Soak run '{}': {} threads for {} min{}, sampling every {} iterations, mix {}", name, threads,
+				TimeUnit.NANOSECONDS.toMinutes(durationNanos),
+				maxIterations > 0 ? " or " + maxIterations + " iterations" : "", sampleEvery, mix);
+
+		List<Thread> workers = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			Thread worker = new Thread(() -> {
+				while (System.nanoTime() < end) {
+					long iteration = iterations.incrementAndGet();
+					if (maxIterations > 0 && iteration > maxIterations) {
+						break;
+					}
+					LoadOperation operation = mix.next();
+					long callStart = System.nanoTime();
+					String failure = operation.execute(api, cookieValue);
+					stats.get(mix.getOperations().indexOf(operation)).record(callStart, callStart, System.nanoTime(),
+							failure);
+					if (iteration % sampleEvery == 0) {
+						ResourceSampler.Sample sample = sampler.sample(iteration);
+						samples.add(sample);
+						result.sampleInterval(start, start, 0);
+						Log.info("Soak '{}' iteration {}: heap after GC {} MB, {} fds, {} sockets, {} threads, {}", name,
+								iteration, sample.heapAfterGcBytes / (1024 * 1024), sample.openFileDescriptors,
+								sample.sockets, sample.threads, sample.components);
+					}
+				}
+			}, "soak-worker-" + (t + 1));
+			worker.setDaemon(true);
+			workers.add(worker);
+			worker.start();
+		}
+		for (Thread worker : workers) {
+			try {
+				worker.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+		}
+		result.sampleInterval(start, start, 0);
+		result.finish((System.nanoTime() - start) / 1e9, 0);
+
+		List<ResourceSampler.Sample> ordered = new ArrayList<>(samples);
+		ordered.sort((a, b) -> Long.compare(a.iteration, b.iteration));
+		List<LeakDetector.Finding> findings = LeakDetector.analyse(ordered);
+		if (ordered.size() < LeakDetector.MIN_SAMPLES) {
+			Log.warn("⚠️ Soak run '{}' took only {} resource samples; at least {} are needed to look for growth", name,
+					ordered.size(), LeakDetector.MIN_SAMPLES);
+		}
+		for (LeakDetector.Finding finding : findings) {
+			Log.warn("⚠️ Soak run '{}': {}", name, finding);
+		}
+		Log.info("Soak run '{}' finished: {} calls, {} errors, {} resource samples, {} growing resources", name,
+				result.getTotalCount(), result.getTotalErrors(), ordered.size(), findings.size());
+		return new Result(result, ordered, findings);
+	}
+}
@@ -0,0 +1,205 @@
+package coreUtilities.load;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import rest.ApiUtil;
+import rest.CustomResponse;
+
+/**
+ * A business transaction: a chain of {@link ApiUtil} calls where later steps
+ * use what earlier steps created, e.g. create an employee, update it, read it
+ * back and delete it.
+ *
+ * <p>
+ * Steps share a variable map for the duration of one execution. When a step
+ * fails the remaining regular steps are skipped, but cleanup steps still run if
+ * the variable they need was set, so a failed run does not leave records
+ * behind.
+ */
+public class Transaction {
+
+	/**
+	 * Performs one step through {@link ApiUtil}.
+	 */
+	public interface StepCall {
+		CustomResponse call(ApiUtil api, String cookieValue, Map<String, Object> vars) throws Exception;
+	}
+
+	/**
+	 * One call of the chain plus the check that decides whether it succeeded.
+	 */
+	public static class Step {
+		private final String name;
+		private final StepCall call;
+		private final Predicate<CustomResponse> check;
+		private final String requires;
+
+		Step(String name, StepCall call, Predicate<CustomResponse> check, String requires) {
+			this.name = name;
+			this.call = call;
+			this.check = check;
+			this.requires = requires;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return <code>true</code> for cleanup steps, which run even after an
+		 *         earlier step failed
+		 */
+		public boolean isCleanup() {
+			return requires != null;
+		}
+
+		boolean canRun(Map<String, Object> vars, boolean failed) {
+			return !failed || (isCleanup() && vars.containsKey(requires));
+		}
+
+		/**
+		 * @return <code>null</code> on success, otherwise a short failure reason
+		 */
+		String execute(ApiUtil api, String cookieValue, Map<String, Object> vars) {
+			try {
+				CustomResponse response = call.call(api, cookieValue, vars);
+				if (response == null) {
+					return "no response";
+				}
+				if (!check.test(response)) {
+					return "check failed (HTTP " + response.getStatusCode() + ")";
+				}
+				return null;
+			} catch (Exception | AssertionError e) {
+				return OperationStats.reason(e);
+			}
+		}
+	}
+
+	private static final ObjectMapper mapper = new ObjectMapper();
+
+	private final String name;
+	private final List<Step> steps = new ArrayList<>();
+
+	public Transaction(String name) {
+		this.name = name;
+	}
+
+	public Transaction step(String stepName, StepCall call, Predicate<CustomResponse> check) {
+		steps.add(new Step(stepName, call, check, null));
+		return this;
+	}
+
+	/**
+	 * Adds a cleanup step that runs whenever <code>requires</code> was set, even
+	 * if an earlier step failed.
+	 */
+	public Transaction cleanup(String stepName, String requires, StepCall call, Predicate<CustomResponse> check) {
+		steps.add(new Step(stepName, call, check, requires));
+		return this;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public List<Step> getSteps() {
+		return Collections.unmodifiableList(steps);
+	}
+
+	/**
+	 * @return a transaction consisting of the single operation, for running
+	 *         operation mixes with virtual users
+	 */
+	public static Transaction of(LoadOperation operation) {
+		return new Transaction(operation.getName()).step(operation.getName(),
+				(api, cookie, vars) -> operation.getCall().call(api, cookie), operation.getCheck());
+	}
+
+	/**
+	 * @return the employee and candidate lifecycles, keyed by name
+	 */
+	public static Map<String, Transaction> standard() {
+		Map<String, Transaction> transactions = new LinkedHashMap<>();
+		Transaction employee = employeeLifecycle();
+		Transaction candidate = candidateLifecycle();
+		transactions.put(employee.getName(), employee);
+		transactions.put(candidate.getName(), candidate);
+		return transactions;
+	}
+
+	/**
+	 * PostEmployee, putEmployeeDetails, GetEmpPersonalDetails and DeletePimEmp on
+	 * the same new employee.
+	 */
+	public static Transaction employeeLifecycle() {
+		return new Transaction("employee").step("PostEmployee", (api, cookie, vars) -> {
+			String suffix = OperationCatalog.uniqueSuffix();
+			CustomResponse response = api.PostEmployee(OperationCatalog.EMPLOYEES, cookie,
+					"{\"empPicture\":null,\"firstName\":\"Employee_" + suffix
+							+ "\",\"lastName\":\"Load\",\"middleName\":\"\"}");
+			if (OperationCatalog.ok(response)) {
+				vars.put("empNumber", data(response).path("empNumber").asInt());
+				vars.put("suffix", suffix);
+			}
+			return response;
+		}, OperationCatalog::ok).step("putEmployeeDetails", (api, cookie, vars) -> {
+			return api.putEmployeeDetails(personalDetails(vars), cookie,
+					"{\"firstName\":\"Updated_" + vars.get("suffix") + "\",\"lastName\":\"Load\",\"middleName\":\"\"}");
+		}, r -> OperationCatalog.ok(r) && r.getFirstNames() != null && !r.getFirstNames().isEmpty())
+				.step("GetEmpPersonalDetails",
+						(api, cookie, vars) -> api.GetEmpPersonalDetails(personalDetails(vars), cookie, null),
+						r -> OperationCatalog.ok(r) && r.getEmpNumber() != null)
+				.cleanup("DeletePimEmp", "empNumber", (api, cookie, vars) -> api.DeletePimEmp(
+						OperationCatalog.EMPLOYEES, cookie, "{\"ids\":[" + vars.get("empNumber") + "]}"),
+						OperationCatalog::ok);
+	}
+
+	/**
+	 * PostCandidate followed by DeleterecruitmentCad on the new candidate.
+	 */
+	public static Transaction candidateLifecycle() {
+		return new Transaction("candidate").step("PostCandidate", (api, cookie, vars) -> {
+			String suffix = OperationCatalog.uniqueSuffix();
+			CustomResponse response = api.PostCandidate(OperationCatalog.CANDIDATES, cookie, "{\"firstName\":\"First_"
+					+ suffix + "\",\"lastName\":\"Last_" + suffix + "\",\"email\":\"candidate_" + suffix
+					+ "@example.com\"}");
+			if (OperationCatalog.ok(response)) {
+				vars.put("candidateId", data(response).path("id").asInt());
+			}
+			return response;
+		}, OperationCatalog::ok).cleanup("DeleterecruitmentCad", "candidateId",
+				(api, cookie, vars) -> api.DeleterecruitmentCad(OperationCatalog.CANDIDATES, cookie,
+						"{\"ids\":[" + vars.get("candidateId") + "]}"),
+				OperationCatalog::ok);
+	}
+
+	private static String personalDetails(Map<String, Object> vars) {
+		return OperationCatalog.EMPLOYEES + "/" + vars.get("empNumber") + "/personal-details";
+	}
+
+	/**
+	 * Reads the created id with Jackson; the create calls do not expose it in
+	 * CustomResponse.
+	 */
+	private static JsonNode data(CustomResponse response) throws Exception {
+		JsonNode data = mapper.readTree(response.getResponseBody()).path("data");
+		if (data.isMissingNode()) {
+			throw new IllegalStateException("response has no data node");
+		}
+		return data;
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+}
@@ -0,0 +1,305 @@
+package coreUtilities.load;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.Histogram;
+
+import coreUtilities.utils.Log;
+import rest.ApiUtil;
+import restConfig.ConfigManager;
+
+/**
+ * Closed-model runner: a fixed number of virtual users, each with its own
+ * session and {@link ApiUtil}, loop over {@link Transaction}s with think time
+ * between calls.
+ *
+ * <p>
+ * Every transaction is recorded twice: end to end under its own name (the
+ * primary operations of the {@link LoadResult}) and per step as
+ * <code>transaction.step</code>. End-to-end latency is the time spent in the
+ * calls only; think time is excluded. Users start evenly spread over the
+ * ramp-up period, and transactions started during warm-up are not recorded.
+ */
+public class VirtualUserRunner {
+
+	private final Map<Transaction, Double> mix;
+	private final SessionFactory sessions;
+	private long durationNanos = TimeUnit.SECONDS.toNanos(60);
+	private long warmupNanos = TimeUnit.SECONDS.toNanos(10);
+	private long rampUpNanos = TimeUnit.SECONDS.toNanos(10);
+	private long reportIntervalNanos = TimeUnit.SECONDS.toNanos(5);
+	private long drainNanos = TimeUnit.SECONDS.toNanos(30);
+	private long thinkMillis = 1000;
+
+	/**
+	 * @param mix      relative weight of each transaction
+	 * @param sessions opens one session per virtual user
+	 */
+	public VirtualUserRunner(Map<Transaction, Double> mix, SessionFactory sessions) {
+		if (mix.isEmpty()) {
+			throw new IllegalArgumentException("Transaction mix needs at least one transaction");
+		}
+		this.mix = mix;
+		this.sessions = sessions;
+	}
+
+	/**
+	 * Parses a transaction mix such as <code>employee:70,candidate:30</code>; a
+	 * missing weight counts as 1.
+	 *
+	 * @throws IllegalArgumentException for unknown transactions or non-positive
+	 *                                  weights
+	 */
+	public static Map<Transaction, Double> parseMix(String spec, Map<String, Transaction> transactions) {
+		Map<Transaction, Double> weights = new LinkedHashMap<>();
+		for (String entry : spec.split(",")) {
+			if (entry.trim().isEmpty()) {
+				continue;
+			}
+			String[] parts = entry.trim().split(":");
+			Transaction transaction = transactions.get(parts[0].trim());
+			if (transaction == null) {
+				throw new IllegalArgumentException("Unknown transaction '" + parts[0].trim() + "', expected one of "
+						+ transactions.keySet());
+			}
+			double weight = parts.length > 1 ? Double.parseDouble(parts[1].trim()) : 1.0;
+			if (weight <= 0) {
+				throw new IllegalArgumentException("Transaction weights must be positive: " + spec);
+			}
+			weights.merge(transaction, weight, Double::sum);
+		}
+		return weights;
+	}
+
+	/**
+	 * Applies <code>load.duration.seconds</code>, <code>load.warmup.seconds</code>,
+	 * <code>load.rampup.seconds</code>, <code>load.think.ms</code> and
+	 * <code>load.report.interval.seconds</code>.
+	 */
+	public VirtualUserRunner configure() {
+		duration(ConfigManager.getIntProperty("load.duration.seconds", 60), TimeUnit.SECONDS);
+		warmup(ConfigManager.getIntProperty("load.warmup.seconds", 10), TimeUnit.SECONDS);
+		rampUp(ConfigManager.getIntProperty("load.rampup.seconds", 10), TimeUnit.SECONDS);
+		thinkTime(ConfigManager.getIntProperty("load.think.ms", (int) thinkMillis), TimeUnit.MILLISECONDS);
+		reportInterval(ConfigManager.getIntProperty("load.report.interval.seconds", 5), TimeUnit.SECONDS);
+		return this;
+	}
+
+	public VirtualUserRunner duration(long duration, TimeUnit unit) {
+		this.durationNanos = unit.toNanos(duration);
+		return this;
+	}
+
+	public VirtualUserRunner warmup(long warmup, TimeUnit unit) {
+		this.warmupNanos = unit.toNanos(warmup);
+		return this;
+	}
+
+	public VirtualUserRunner rampUp(long rampUp, TimeUnit unit) {
+		this.rampUpNanos = unit.toNanos(rampUp);
+		return this;
+	}
+
+	/**
+	 * @param think mean think time between calls; each pause is drawn from an
+	 *              exponential distribution capped at five times the mean
+	 */
+	public VirtualUserRunner thinkTime(long think, TimeUnit unit) {
+		this.thinkMillis = Math.max(unit.toMillis(think), 0);
+		return this;
+	}
+
+	public VirtualUserRunner reportInterval(long interval, TimeUnit unit) {
+		this.reportIntervalNanos = Math.max(unit.toNanos(interval), TimeUnit.MILLISECONDS.toNanos(100));
+		return this;
+	}
+
+	/**
+	 * Runs the virtual users and blocks until they finish.
+	 *
+	 * @param name         name of the run, used in logs and reports
+	 * @param virtualUsers number of concurrent users
+	 * @return the collected statistics
+	 */
+	public LoadResult run(String name, int virtualUsers) {
+		Map<String, Double> shares = new LinkedHashMap<>();
+		double totalWeight = 0;
+		for (double weight : mix.values()) {
+			totalWeight += weight;
+		}
+		List<Transaction> transactions = new ArrayList<>(mix.keySet());
+		double[] cumulative = new double[transactions.size()];
+		double running = 0;
+		LoadResult result = new LoadResult(name, shares, 0, System.currentTimeMillis());
+		result.setVirtualUsers(virtualUsers);
+		Map<Transaction, OperationStats> transactionStats = new HashMap<>();
+		Map<Transaction.Step, OperationStats> stepStats = new HashMap<>();
+		for (int i = 0; i < transactions.size(); i++) {
+			Transaction transaction = transactions.get(i);
+			running += mix.get(transaction) / totalWeight;
+			cumulative[i] = running;
+			shares.put(transaction.getName(), mix.get(transaction) / totalWeight);
+			OperationStats stats = new OperationStats(transaction.getName());
+			transactionStats.put(transaction, stats);
+			result.addOperation(stats);
+		}
+		for (Transaction transaction : transactions) {
+			for (Transaction.Step step : transaction.getSteps()) {
+				OperationStats stats = new OperationStats(transaction.getName() + "." + step.getName());
+				stepStats.put(step, stats);
+				result.addSecondaryOperation(stats);
+			}
+		}
+
+		long start = System.nanoTime();
+		long measureFrom = start + warmupNanos;
+		long end = measureFrom + durationNanos;
+		Log.info("Virtual user run '{}': {} users over {}s ramp-up, {}ms think time, for {}s after {}s warm-up, mix {}",
+				name, virtualUsers, TimeUnit.NANOSECONDS.toSeconds(rampUpNanos), thinkMillis,
+				TimeUnit.NANOSECONDS.toSeconds(durationNanos), TimeUnit.NANOSECONDS.toSeconds(warmupNanos), shares);
+
+		AtomicInteger active = new AtomicInteger();
+		ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "load-reporter");
+			t.setDaemon(true);
+			return t;
+		});
+		reporter.scheduleAtFixedRate(() -> result.sampleInterval(start, measureFrom, 0),
+				warmupNanos + reportIntervalNanos, reportIntervalNanos, TimeUnit.NANOSECONDS);
+
+		OperationStats sessionStats = new OperationStats("session.open");
+		result.addSecondaryOperation(sessionStats);
+		List<Thread> users = new ArrayList<>();
+		for (int i = 0; i < virtualUsers; i++) {
+			int user = i;
+			long startAt = start + (virtualUsers <= 1 ? 0 : rampUpNanos * i / virtualUsers);
+			Thread thread = new Thread(() -> {
+				sleepUntil(startAt);
+				ApiUtil api = new ApiUtil();
+				String cookie;
+				long openStart = System.nanoTime();
+				try {
+					cookie = sessions.open(user);
+					sessionStats.record(openStart, openStart, System.nanoTime(), null);
+				} catch (Exception e) {
+					sessionStats.record(openStart, openStart, System.nanoTime(), e.getClass().getSimpleName());
+					Log.warn("⚠️ Virtual user {} could not open a session: {}", user, e.getMessage());
+					return;
+				}
+				active.incrementAndGet();
+				try {
+					while (System.nanoTime() < end) {
+						Transaction transaction = transactions.get(pick(cumulative));
+						runTransaction(transaction, api, cookie, measureFrom, end, transactionStats.get(transaction),
+								stepStats);
+						think();
+					}
+				} finally {
+					active.decrementAndGet();
+				}
+			}, "load-vu-" + (i + 1));
+			thread.setDaemon(true);
+			users.add(thread);
+			thread.start();
+		}
+
+		long incomplete = 0;
+		long drainUntil = end + drainNanos;
+		for (Thread thread : users) {
+			try {
+				thread.join(Math.max(TimeUnit.NANOSECONDS.toMillis(drainUntil - System.nanoTime()), 1));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+			if (thread.isAlive()) {
+				incomplete++;
+			}
+		}
+		if (incomplete > 0) {
+			Log.warn("⚠️ Virtual user run '{}': {} users still busy after drain timeout", name, incomplete);
+		}
+		reporter.shutdownNow();
+		result.sampleInterval(start, measureFrom, 0);
+		result.finish(durationNanos / 1e9, incomplete);
+
+		Histogram combined = result.getCombinedResponseTime();
+		Log.info("Virtual user run '{}' finished: {} users, {} transactions, {} errors, {} tx/s, p50={}ms p99={}ms",
+				name, virtualUsers, result.getTotalCount(), result.getTotalErrors(),
+				String.format("%.1f", result.getThroughput()), combined.getValueAtPercentile(50) / 1000.0,
+				combined.getValueAtPercentile(99) / 1000.0);
+		return result;
+	}
+
+	/**
+	 * Runs every step of one transaction. After a failure only cleanup steps
+	 * whose variable is set still run.
+	 */
+	private void runTransaction(Transaction transaction, ApiUtil api, String cookie, long measureFrom, long end,
+			OperationStats stats, Map<Transaction.Step, OperationStats> stepStats) {
+		Map<String, Object> vars = new HashMap<>();
+		long transactionStart = System.nanoTime();
+		boolean measured = transactionStart >= measureFrom && transactionStart < end;
+		long activeNanos = 0;
+		String failure = null;
+		boolean first = true;
+		for (Transaction.Step step : transaction.getSteps()) {
+			if (!step.canRun(vars, failure != null)) {
+				continue;
+			}
+			if (!first && failure == null) {
+				think();
+			}
+			first = false;
+			long stepStart = System.nanoTime();
+			String stepFailure = step.execute(api, cookie, vars);
+			long stepEnd = System.nanoTime();
+			activeNanos += stepEnd - stepStart;
+			if (measured) {
+				stepStats.get(step).record(stepStart, stepStart, stepEnd, stepFailure);
+			}
+			if (stepFailure != null && failure == null) {
+				failure = step.getName() + ": " + stepFailure;
+			}
+		}
+		if (measured) {
+			long transactionEnd = System.nanoTime();
+			stats.record(transactionEnd - activeNanos, transactionEnd - activeNanos, transactionEnd, failure);
+		}
+	}
+
+	private void think() {
+		if (thinkMillis <= 0) {
+			return;
+		}
+		double pause = -Math.log(1 - ThreadLocalRandom.current().nextDouble()) * thinkMillis;
+		sleepUntil(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos((long) Math.min(pause, thinkMillis * 5.0)));
+	}
+
+	private static void sleepUntil(long deadline) {
+		long now;
+		while ((now = System.nanoTime()) < deadline) {
+			LockSupport.parkNanos(deadline - now);
+		}
+	}
+
+	private static int pick(double[] cumulative) {
+		double pick = ThreadLocalRandom.current().nextDouble();
+		for (int i = 0; i < cumulative.length; i++) {
+			if (pick < cumulative[i]) {
+				return i;
+			}
+		}
+		return cumulative.length - 1;
+	}
+}
@@ -0,0 +1,87 @@
+package coreUtilities.load;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Weighted mix of {@link LoadOperation}s, e.g.
+ * <code>GetEmpData:60,GetVacancies:20,PostCandidate:20</code>. Weights are
+ * relative and need not add up to 100.
+ */
+public class WorkloadMix {
+
+	private final List<LoadOperation> operations = new ArrayList<>();
+	private final double[] cumulative;
+	private final Map<String, Double> shares = new LinkedHashMap<>();
+
+	public WorkloadMix(Map<LoadOperation, Double> weights) {
+		if (weights.isEmpty()) {
+			throw new IllegalArgumentException("Workload mix needs at least one operation");
+		}
+		double total = 0;
+		for (double weight : weights.values()) {
+			if (weight <= 0) {
+				throw new IllegalArgumentException("Workload weights must be positive: " + weights);
+			}
+			total += weight;
+		}
+		cumulative = new double[weights.size()];
+		double running = 0;
+		int i = 0;
+		for (Map.Entry<LoadOperation, Double> entry : weights.entrySet()) {
+			operations.add(entry.getKey());
+			running += entry.getValue() / total;
+			cumulative[i++] = running;
+			shares.put(entry.getKey().getName(), entry.getValue() / total);
+		}
+	}
+
+	/**
+	 * Parses a mix specification against a catalog.
+	 *
+	 * @param spec    comma separated <code>operation:weight</code> pairs; a
+	 *                missing weight counts as 1
+	 * @param catalog operations to resolve names against
+	 */
+	public static WorkloadMix parse(String spec, OperationCatalog catalog) {
+		Map<LoadOperation, Double> weights = new LinkedHashMap<>();
+		for (String entry : spec.split(",")) {
+			if (entry.trim().isEmpty()) {
+				continue;
+			}
+			String[] parts = entry.trim().split(":");
+			weights.merge(catalog.get(parts[0].trim()), parts.length > 1 ? Double.parseDouble(parts[1].trim()) : 1.0,
+					Double::sum);
+		}
+		return new WorkloadMix(weights);
+	}
+
+	public LoadOperation next() {
+		double pick = ThreadLocalRandom.current().nextDouble();
+		for (int i = 0; i < cumulative.length; i++) {
+			if (pick < cumulative[i]) {
+				return operations.get(i);
+			}
+		}
+		return operations.get(operations.size() - 1);
+	}
+
+	public List<LoadOperation> getOperations() {
+		return operations;
+	}
+
+	/**
+	 * @return each operation's share of the mix, between 0 and 1
+	 */
+	public Map<String, Double> getShares() {
+		return shares;
+	}
+
+	@Override
+	public String toString() {
+		return shares.toString();
+	}
+}
@@ -0,0 +1,98 @@
+package coreUtilities.mock;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import restConfig.ConfigManager;
+
+/**
+ * Latency and error distribution injected by {@link OrangeHrmStub}.
+ *
+ * <p>
+ * Latency is log-normal, described by its median and p99 in milliseconds, which
+ * matches the long right tail of real server latency better than a fixed delay.
+ * A p99 at or below the median gives a fixed delay; a median of 0 disables it.
+ *
+ * <p>
+ * Errors are returned for a fraction of requests (<code>errorRate</code>), with
+ * the status code drawn from a weighted list such as
+ * <code>500:0.6,503:0.3,429:0.1</code>.
+ */
+public class FaultProfile {
+
+	private static final double Z_99 = 2.3263478740408408;
+
+	private final double medianMillis;
+	private final double sigma;
+	private final double errorRate;
+	private final int[] errorStatuses;
+	private final double[] cumulativeWeights;
+
+	public FaultProfile(double medianMillis, double p99Millis, double errorRate, String errorStatuses) {
+		this.medianMillis = Math.max(medianMillis, 0);
+		this.sigma = medianMillis > 0 && p99Millis > medianMillis ? Math.log(p99Millis / medianMillis) / Z_99 : 0;
+		this.errorRate = Math.min(Math.max(errorRate, 0), 1);
+
+		String[] entries = errorStatuses == null || errorStatuses.trim().isEmpty() ? new String[] { "500" }
+				: errorStatuses.split(",");
+		this.errorStatuses = new int[entries.length];
+		this.cumulativeWeights = new double[entries.length];
+		double total = 0;
+		for (int i = 0; i < entries.length; i++) {
+			String[] parts = entries[i].trim().split(":");
+			this.errorStatuses[i] = Integer.parseInt(parts[0].trim());
+			total += parts.length > 1 ? Double.parseDouble(parts[1].trim()) : 1;
+			this.cumulativeWeights[i] = total;
+		}
+		for (int i = 0; i < cumulativeWeights.length; i++) {
+			cumulativeWeights[i] /= total;
+		}
+	}
+
+	/**
+	 * @return a profile with no latency and no errors
+	 */
+	public static FaultProfile none() {
+		return new FaultProfile(0, 0, 0, null);
+	}
+
+	/**
+	 * Reads <code>stub.latency.median.ms</code>, <code>stub.latency.p99.ms</code>,
+	 * <code>stub.error.rate</code> and <code>stub.error.statuses</code>.
+	 */
+	public static FaultProfile fromConfig() {
+		return new FaultProfile(Double.parseDouble(ConfigManager.getProperty("stub.latency.median.ms", "0")),
+				Double.parseDouble(ConfigManager.getProperty("stub.latency.p99.ms", "0")),
+				Double.parseDouble(ConfigManager.getProperty("stub.error.rate", "0")),
+				ConfigManager.getProperty("stub.error.statuses", "500"));
+	}
+
+	/**
+	 * @return a latency sample in microseconds
+	 */
+	public long sampleLatencyMicros() {
+		if (medianMillis <= 0) {
+			return 0;
+		}
+		double millis = sigma == 0 ? medianMillis
+				: medianMillis * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian());
+		return (long) (millis * 1_000);
+	}
+
+	/**
+	 * @return an error status to return instead of the real response, or 0 for
+	 *         none
+	 */
+	public int sampleErrorStatus() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		if (errorRate <= 0 || random.nextDouble() >= errorRate) {
+			return 0;
+		}
+		double pick = random.nextDouble();
+		for (int i = 0; i < cumulativeWeights.length; i++) {
+			if (pick < cumulativeWeights[i]) {
+				return errorStatuses[i];
+			}
+		}
+		return errorStatuses[errorStatuses.length - 1];
+	}
+}
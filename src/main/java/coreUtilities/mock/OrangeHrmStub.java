@@ -0,0 +1,336 @@
+package coreUtilities.mock;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import coreUtilities.utils.Log;
+import restConfig.ConfigManager;
+
+/**
+ * Local stand-in for the OrangeHRM v2 API endpoints used by the suite, backed by
+ * a {@link SyntheticDataset} of configurable size.
+ *
+ * <p>
+ * Supported routes (under any context path ending in <code>/api/v2/</code>):
+ * <ul>
+ * <li>GET leave/holidays, leave/leave-types, leave/reports, leave/workweek</li>
+ * <li>GET/POST/DELETE pim/employees, GET pim/employees/count,
+ * GET pim/employees/{id}, GET/PUT pim/employees/{id}/personal-details,
+ * POST pim/reports/defined</li>
+ * <li>GET recruitment/vacancies, GET/POST/DELETE recruitment/candidates</li>
+ * <li>GET admin/job-titles, GET/POST/DELETE admin/employment-statuses,
+ * GET/PUT admin/employment-statuses/{id}</li>
+ * </ul>
+ *
+ * <p>
+ * Lists honour <code>limit</code> (0 = all) and <code>offset</code> like the
+ * real server. Requests without an <code>orangehrm</code> cookie get a 401.
+ * The login form is there too: GET <code>auth/login</code> hands out a session
+ * cookie and a CSRF token, and POST <code>auth/validate</code> accepts the
+ * configured <code>username</code> and <code>password</code> with that token.
+ * Sessions it logs in expire after <code>stub.session.ttl.seconds</code>
+ * (default 0, never) and then get a 401; other cookies are always accepted.
+ * Latency and errors are injected per request from a {@link FaultProfile};
+ * profiles can be set per route prefix (e.g. <code>pim/employees</code>).
+ */
+public class OrangeHrmStub implements StubHttpServer.Handler {
+
+	private static final ObjectMapper mapper = new ObjectMapper();
+	private static final TypeReference<Map<String, Object>> JSON_OBJECT = new TypeReference<Map<String, Object>>() {
+	};
+	private static final String API_PREFIX = "/api/v2/";
+	private static final String AUTH_PREFIX = "/auth/";
+	private static final int DEFAULT_LIMIT = 50;
+
+	private final SyntheticDataset dataset;
+	private final Map<String, FaultProfile> routeFaults = new ConcurrentHashMap<>();
+	private volatile FaultProfile faults;
+	private final LongAdder requests = new LongAdder();
+	private final LongAdder injectedErrors = new LongAdder();
+	private final String loginToken = UUID.randomUUID().toString().replace("-", "");
+	private final long sessionTtlNanos = TimeUnit.SECONDS
+			.toNanos(ConfigManager.getIntProperty("stub.session.ttl.seconds", 0));
+	// Expiry of the sessions logged in through auth/validate
+	private final Map<String, Long> sessions = new ConcurrentHashMap<>();
+
+	public OrangeHrmStub(SyntheticDataset dataset, FaultProfile faults) {
+		this.dataset = dataset;
+		this.faults = faults;
+	}
+
+	/**
+	 * Starts a stub on a free loopback port using <code>stub.dataset.size</code>,
+	 * <code>stub.seed</code> and the <code>stub.latency.*</code> /
+	 * <code>stub.error.*</code> settings.
+	 *
+	 * @return the running server
+	 */
+	public static StubHttpServer start() throws IOException {
+		int size = ConfigManager.getIntProperty("stub.dataset.size", 100);
+		long seed = ConfigManager.getIntProperty("stub.seed", 42);
+		Log.info("Starting OrangeHRM stub with {} rows per table", size);
+		return start(new OrangeHrmStub(new SyntheticDataset(size, seed), FaultProfile.fromConfig()));
+	}
+
+	public static StubHttpServer start(OrangeHrmStub stub) throws IOException {
+		return new StubHttpServer("orangehrm-stub", stub).start(0);
+	}
+
+	/**
+	 * Replaces the default fault profile used for routes without their own.
+	 */
+	public OrangeHrmStub faults(FaultProfile profile) {
+		this.faults = profile;
+		return this;
+	}
+
+	/**
+	 * Sets the fault profile for every route starting with the given prefix, e.g.
+	 * <code>pim/employees</code>. The longest matching prefix wins.
+	 */
+	public OrangeHrmStub faults(String routePrefix, FaultProfile profile) {
+		routeFaults.put(routePrefix, profile);
+		return this;
+	}
+
+	public SyntheticDataset getDataset() {
+		return dataset;
+	}
+
+	public long getRequestCount() {
+		return requests.sum();
+	}
+
+	public long getInjectedErrorCount() {
+		return injectedErrors.sum();
+	}
+
+	@Override
+	public StubResponse handle(StubRequest request) throws Exception {
+		requests.increment();
+		int api = request.getPath().indexOf(API_PREFIX);
+		if (api < 0 && request.getPath().contains(AUTH_PREFIX)) {
+			return auth(request);
+		}
+		if (api < 0) {
+			return error(404, "Not Found");
+		}
+		String route = request.getPath().substring(api + API_PREFIX.length());
+		FaultProfile profile = faultsFor(route);
+
+		StubResponse response;
+		int injected = profile.sampleErrorStatus();
+		if (injected != 0) {
+			injectedErrors.increment();
+			response = error(injected, "Injected fault");
+		} else if (request.getCookie("orangehrm") == null || request.getCookie("orangehrm").isEmpty()
+				|| expired(request.getCookie("orangehrm"))) {
+			response = error(401, "Session expired");
+		} else {
+			response = route(request, route);
+		}
+		return response.delayMicros(profile.sampleLatencyMicros());
+	}
+
+	private StubResponse auth(StubRequest request) {
+		String path = request.getPath();
+		String web = path.substring(0, path.indexOf(AUTH_PREFIX));
+		if ("GET".equals(request.getMethod()) && path.endsWith(AUTH_PREFIX + "login")) {
+			String page = "<!DOCTYPE html><html><body><auth-login :token=\"&quot;" + loginToken
+					+ "&quot;\"></auth-login></body></html>";
+			return new StubResponse("HTTP/1.0 200 OK", "text/html; charset=UTF-8",
+					page.getBytes(StandardCharsets.UTF_8)).header("Set-Cookie", sessionCookie());
+		}
+		if ("POST".equals(request.getMethod()) && path.endsWith(AUTH_PREFIX + "validate")) {
+			Map<String, String> form = request.getFormParams();
+			boolean valid = request.getCookie("orangehrm") != null && loginToken.equals(form.get("_token"))
+					&& ConfigManager.getProperty("username", "").equals(form.get("username"))
+					&& ConfigManager.getProperty("password", "").equals(form.get("password"));
+			StubResponse redirect = new StubResponse("HTTP/1.0 302 Found", null, null).header("Location",
+					web + (valid ? "/dashboard/index" : AUTH_PREFIX + "login"));
+			if (!valid) {
+				return redirect;
+			}
+			String session = UUID.randomUUID().toString().replace("-", "");
+			if (sessionTtlNanos > 0) {
+				sessions.put(session, System.nanoTime() + sessionTtlNanos);
+			}
+			return redirect.header("Set-Cookie", sessionCookie(session));
+		}
+		return error(404, "Not Found");
+	}
+
+	private static String sessionCookie() {
+		return sessionCookie(UUID.randomUUID().toString().replace("-", ""));
+	}
+
+	private static String sessionCookie(String session) {
+		return "orangehrm=" + session + "; path=/; HttpOnly";
+	}
+
+	private boolean expired(String session) {
+		Long expiry = sessions.get(session);
+		return expiry != null && System.nanoTime() - expiry > 0;
+	}
+
+	private StubResponse route(StubRequest request, String route) throws IOException {
+		String[] segments = route.split("/");
+		String method = request.getMethod();
+		Map<String, String> query = request.getQueryParams();
+		String resource = segments.length >= 2 ? segments[0] + "/" + segments[1] : route;
+		Integer id = segments.length >= 3 ? parseId(segments[2]) : null;
+
+		switch (resource) {
+		case "leave/holidays":
+			return list(dataset.holidays(), query, 0);
+		case "leave/leave-types":
+			return list(dataset.leaveTypes(), query, 0);
+		case "leave/workweek":
+			return ok(dataset.workweek(), meta(0));
+		case "leave/reports":
+			return ok(dataset.leaveUsageReport(), Collections.singletonMap("name", query.get("name")));
+		case "recruitment/vacancies":
+			return list(dataset.vacancies(), query, DEFAULT_LIMIT);
+		case "admin/job-titles":
+			return list(dataset.jobTitles(), query, DEFAULT_LIMIT);
+		case "pim/reports":
+			if ("POST".equals(method) && segments.length == 3 && "defined".equals(segments[2])) {
+				return ok(dataset.definedReports().create("id", body(request)), meta(0));
+			}
+			break;
+		case "pim/employees":
+			if (segments.length == 3 && "count".equals(segments[2])) {
+				return ok(Collections.singletonMap("count", dataset.employees().size()), meta(0));
+			}
+			return crud(request, dataset.employees(), "empNumber", id, segments, query);
+		case "recruitment/candidates":
+			return crud(request, dataset.candidates(), "id", id, segments, query);
+		case "admin/employment-statuses":
+			return crud(request, dataset.employmentStatuses(), "id", id, segments, query);
+		default:
+			break;
+		}
+		return error(404, "Not Found");
+	}
+
+	/**
+	 * Collection and item routes shared by employees, candidates and employment
+	 * statuses. <code>pim/employees/{id}/personal-details</code> is treated as the
+	 * employee item itself.
+	 */
+	private StubResponse crud(StubRequest request, SyntheticTable table, String idField, Integer id,
+			String[] segments, Map<String, String> query) throws IOException {
+		String method = request.getMethod();
+		if (segments.length == 2) {
+			switch (method) {
+			case "GET":
+				return list(table, query, DEFAULT_LIMIT);
+			case "POST":
+				return ok(table.create(idField, body(request)), meta(0));
+			case "DELETE":
+				List<Integer> ids = new ArrayList<>();
+				Object requested = body(request).get("ids");
+				if (requested instanceof List) {
+					for (Object value : (List<?>) requested) {
+						ids.add(value instanceof Number ? ((Number) value).intValue() : parseId(String.valueOf(value)));
+					}
+				}
+				List<Integer> deleted = table.delete(ids);
+				return deleted.isEmpty() ? error(404, "Records Not Found") : ok(deleted, meta(0));
+			default:
+				return error(405, "Method Not Allowed");
+			}
+		}
+		if (id == null || (segments.length == 4 && !"personal-details".equals(segments[3])) || segments.length > 4) {
+			return error(404, "Not Found");
+		}
+		Map<String, Object> row;
+		if ("PUT".equals(method)) {
+			Map<String, Object> fields = body(request);
+			fields.remove(idField);
+			row = table.update(id, fields);
+		} else if ("GET".equals(method)) {
+			row = table.get(id);
+		} else {
+			return error(405, "Method Not Allowed");
+		}
+		return row == null ? error(404, "Record Not Found") : ok(row, meta(0));
+	}
+
+	private StubResponse list(SyntheticTable table, Map<String, String> query, int defaultLimit) throws IOException {
+		int limit = parseInt(query.get("limit"), defaultLimit);
+		int offset = parseInt(query.get("offset"), 0);
+		return ok(table.page(offset, limit), meta(table.size()));
+	}
+
+	private static StubResponse ok(Object data, Map<String, ?> meta) throws IOException {
+		Map<String, Object> envelope = new LinkedHashMap<>();
+		envelope.put("data", data);
+		envelope.put("meta", meta);
+		envelope.put("rels", Collections.emptyList());
+		return new StubResponse("HTTP/1.0 200 OK", "application/json", mapper.writeValueAsBytes(envelope));
+	}
+
+	private static StubResponse error(int status, String message) {
+		return StubResponse.json(status,
+				"{\"error\":{\"status\":\"" + status + "\",\"message\":\"" + message + "\"}}");
+	}
+
+	private static Map<String, Object> meta(int total) {
+		return Collections.singletonMap("total", total);
+	}
+
+	private static Map<String, Object> body(StubRequest request) throws IOException {
+		if (request.getBody().length == 0) {
+			return new LinkedHashMap<>();
+		}
+		Map<String, Object> body = mapper.readValue(request.getBody(), JSON_OBJECT);
+		return body == null ? new LinkedHashMap<>() : body;
+	}
+
+	private FaultProfile faultsFor(String route) {
+		if (routeFaults.isEmpty()) {
+			return faults;
+		}
+		FaultProfile match = faults;
+		int matchLength = -1;
+		for (Map.Entry<String, FaultProfile> entry : routeFaults.entrySet()) {
+			if (route.startsWith(entry.getKey()) && entry.getKey().length() > matchLength) {
+				match = entry.getValue();
+				matchLength = entry.getKey().length();
+			}
+		}
+		return match;
+	}
+
+	private static Integer parseId(String segment) {
+		try {
+			return Integer.valueOf(segment);
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	private static int parseInt(String value, int defaultValue) {
+		if (value == null || value.isEmpty()) {
+			return defaultValue;
+		}
+		try {
+			return Integer.parseInt(value);
+		} catch (NumberFormatException e) {
+			return defaultValue;
+		}
+	}
+}
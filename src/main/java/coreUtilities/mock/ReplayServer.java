@@ -0,0 +1,129 @@
+package coreUtilities.mock;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import coreUtilities.utils.Log;
+import rest.CaptureFile;
+import rest.CaptureRecord;
+
+/**
+ * Serves a recorded {@link CaptureFile} over HTTP so the suite can run without
+ * network access.
+ *
+ * <p>
+ * Requests are matched on method, path and normalized query. When an endpoint
+ * was recorded several times the recordings are served in order and the last
+ * one is repeated. Recorded latency is replayed when
+ * <code>replayLatency</code> is set; otherwise responses are immediate.
+ *
+ * <p>
+ * Tests that create data with generated names (PostEmployee, PostCandidate)
+ * assert that the response echoes those names. For POST/PUT requests, each
+ * top-level JSON string field whose value differs from the recorded request is
+ * therefore substituted into the recorded response body.
+ */
+public class ReplayServer implements StubHttpServer.Handler {
+
+	private static final ObjectMapper mapper = new ObjectMapper();
+
+	private final Map<String, List<CaptureRecord>> recordings = new HashMap<>();
+	private final Map<String, AtomicInteger> cursors = new HashMap<>();
+	private final boolean replayLatency;
+	private final AtomicInteger misses = new AtomicInteger();
+
+	public ReplayServer(List<CaptureRecord> records, boolean replayLatency) {
+		this.replayLatency = replayLatency;
+		for (CaptureRecord record : records) {
+			recordings.computeIfAbsent(record.key(), k -> new ArrayList<>()).add(record);
+			cursors.putIfAbsent(record.key(), new AtomicInteger());
+		}
+	}
+
+	/**
+	 * Loads a capture file and starts serving it on a free loopback port.
+	 *
+	 * @param captureFile   file written in record mode
+	 * @param replayLatency whether to delay responses by the recorded latency
+	 * @return the running server
+	 */
+	public static StubHttpServer start(Path captureFile, boolean replayLatency) throws IOException {
+		List<CaptureRecord> records = CaptureFile.readAll(captureFile);
+		Log.info("Replaying {} recorded exchanges from {}", records.size(), captureFile);
+		return new StubHttpServer("replay-server", new ReplayServer(records, replayLatency)).start(0);
+	}
+
+	@Override
+	public StubResponse handle(StubRequest request) {
+		String key = CaptureRecord.key(request.getMethod(), request.getPath(),
+				StubRequest.normalizeQuery(request.getQuery()));
+		List<CaptureRecord> candidates = recordings.get(key);
+		if (candidates == null) {
+			misses.incrementAndGet();
+			Log.warn("No recording for {}", key);
+			return StubResponse.json(404, "{\"error\":{\"status\":\"404\",\"message\":\"Not recorded: "
+					+ key.replace("\"", "'") + "\"}}");
+		}
+		int index = Math.min(cursors.get(key).getAndIncrement(), candidates.size() - 1);
+		CaptureRecord record = candidates.get(index);
+
+		byte[] body = record.responseBody;
+		if (request.getBody().length > 0 && record.requestBody.length > 0) {
+			body = substituteEchoedFields(record.requestBody, request.getBody(), body);
+		}
+		StubResponse response = new StubResponse(record.statusLine.isEmpty() ? "HTTP/1.0 " + record.statusCode
+				+ " " + StubResponse.reason(record.statusCode) : record.statusLine, record.contentType, body);
+		if (replayLatency) {
+			response.delayMicros(record.latencyMicros);
+		}
+		return response;
+	}
+
+	public int getMissCount() {
+		return misses.get();
+	}
+
+	private static byte[] substituteEchoedFields(byte[] recordedRequest, byte[] liveRequest, byte[] responseBody) {
+		try {
+			JsonNode recorded = mapper.readTree(recordedRequest);
+			JsonNode live = mapper.readTree(liveRequest);
+			if (recorded == null || live == null || !recorded.isObject() || !live.isObject()) {
+				return responseBody;
+			}
+			List<String[]> replacements = new ArrayList<>();
+			Iterator<Map.Entry<String, JsonNode>> fields = recorded.fields();
+			while (fields.hasNext()) {
+				Map.Entry<String, JsonNode> field = fields.next();
+				JsonNode liveValue = live.get(field.getKey());
+				if (field.getValue().isTextual() && liveValue != null && liveValue.isTextual()
+						&& !field.getValue().asText().isEmpty()
+						&& !field.getValue().asText().equals(liveValue.asText())) {
+					replacements.add(new String[] { field.getValue().asText(), liveValue.asText() });
+				}
+			}
+			if (replacements.isEmpty()) {
+				return responseBody;
+			}
+			// Longest first, so a value that is a prefix of another (firstName inside
+			// middleName) does not break the longer replacement
+			replacements.sort((a, b) -> b[0].length() - a[0].length());
+			String body = new String(responseBody, StandardCharsets.UTF_8);
+			for (String[] replacement : replacements) {
+				body = body.replace(replacement[0], replacement[1]);
+			}
+			return body.getBytes(StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			return responseBody;
+		}
+	}
+}
@@ -0,0 +1,231 @@
+package coreUtilities.mock;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import coreUtilities.utils.Log;
+
+/**
+ * Minimal embedded HTTP server used for offline runs (replay, the OrangeHRM
+ * stand-in and the token endpoint stub).
+ *
+ * <p>
+ * It only supports what RestAssured needs: a request line, headers and a
+ * <code>Content-Length</code> body, with keep-alive connections. Each
+ * connection is served by its own thread so parallel TestNG workers and load
+ * generators are not serialized. Status lines are written verbatim from the
+ * {@link StubResponse}.
+ */
+public class StubHttpServer implements Closeable {
+
+	/**
+	 * Produces the response for one request. Exceptions are turned into a 500.
+	 */
+	public interface Handler {
+		StubResponse handle(StubRequest request) throws Exception;
+	}
+
+	private static final int IDLE_TIMEOUT_MILLIS = 30_000;
+
+	private final Handler handler;
+	private final String name;
+	private final AtomicInteger threadIds = new AtomicInteger();
+	private ServerSocket serverSocket;
+	private ExecutorService workers;
+	private volatile boolean running;
+
+	public StubHttpServer(String name, Handler handler) {
+		this.name = name;
+		this.handler = handler;
+	}
+
+	/**
+	 * Binds to the loopback interface and starts accepting connections.
+	 *
+	 * @param port port to bind, or 0 for any free port
+	 * @return this server, for chaining
+	 */
+	public StubHttpServer start(int port) throws IOException {
+		serverSocket = new ServerSocket();
+		serverSocket.setReuseAddress(true);
+		serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 512);
+		workers = Executors.newCachedThreadPool(r -> {
+			Thread t = new Thread(r, name + "-" + threadIds.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		});
+		running = true;
+		Thread acceptor = new Thread(this::acceptLoop, name + "-acceptor");
+		acceptor.setDaemon(true);
+		acceptor.start();
+		Log.info("{} listening on {}", name, getBaseUrl());
+		return this;
+	}
+
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	/**
+	 * @return <code>http://127.0.0.1:{port}</code>
+	 */
+	public String getBaseUrl() {
+		return "http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" + getPort();
+	}
+
+	@Override
+	public void close() {
+		running = false;
+		try {
+			serverSocket.close();
+		} catch (IOException e) {
+			// already closed
+		}
+		workers.shutdownNow();
+		try {
+			workers.awaitTermination(2, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void acceptLoop() {
+		while (running) {
+			try {
+				Socket socket = serverSocket.accept();
+				workers.execute(() -> serve(socket));
+			} catch (IOException e) {
+				if (running) {
+					Log.warn("{} accept failed: {}", name, e.getMessage());
+				}
+			}
+		}
+	}
+
+	private void serve(Socket socket) {
+		try (Socket s = socket) {
+			s.setTcpNoDelay(true);
+			s.setSoTimeout(IDLE_TIMEOUT_MILLIS);
+			InputStream in = new BufferedInputStream(s.getInputStream());
+			OutputStream out = s.getOutputStream();
+			boolean keepAlive = true;
+			while (keepAlive && running) {
+				StubRequest request = readRequest(in);
+				if (request == null) {
+					return;
+				}
+				keepAlive = wantsKeepAlive(request);
+				StubResponse response;
+				try {
+					response = handler.handle(request);
+				} catch (Exception e) {
+					Log.error("{} handler failed for {} {}: {}", name, request.getMethod(), request.getPath(), e);
+					response = StubResponse.json(500, "{\"error\":{\"status\":\"500\",\"message\":\"stub failure\"}}");
+				}
+				if (response.getDelayMicros() > 0) {
+					TimeUnit.MICROSECONDS.sleep(response.getDelayMicros());
+				}
+				writeResponse(out, response, keepAlive);
+			}
+		} catch (SocketTimeoutException | SocketException | EOFException e) {
+			// idle or closed by client
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (IOException e) {
+			Log.warn("{} connection error: {}", name, e.getMessage());
+		}
+	}
+
+	private static boolean wantsKeepAlive(StubRequest request) {
+		String connection = request.getHeader("connection");
+		return connection == null || !connection.equalsIgnoreCase("close");
+	}
+
+	private static StubRequest readRequest(InputStream in) throws IOException {
+		String requestLine = readLine(in);
+		while (requestLine != null && requestLine.isEmpty()) {
+			requestLine = readLine(in);
+		}
+		if (requestLine == null) {
+			return null;
+		}
+		String[] parts = requestLine.split(" ");
+		if (parts.length < 2) {
+			throw new IOException("Malformed request line: " + requestLine);
+		}
+		Map<String, String> headers = new HashMap<>();
+		String line;
+		while ((line = readLine(in)) != null && !line.isEmpty()) {
+			int colon = line.indexOf(':');
+			if (colon > 0) {
+				headers.put(line.substring(0, colon).trim().toLowerCase(), line.substring(colon + 1).trim());
+			}
+		}
+		byte[] body = new byte[0];
+		String contentLength = headers.get("content-length");
+		if (contentLength != null) {
+			body = new byte[Integer.parseInt(contentLength)];
+			int read = 0;
+			while (read < body.length) {
+				int n = in.read(body, read, body.length - read);
+				if (n < 0) {
+					throw new EOFException();
+				}
+				read += n;
+			}
+		}
+		String target = parts[1];
+		int q = target.indexOf('?');
+		String path = q < 0 ? target : target.substring(0, q);
+		String query = q < 0 ? "" : target.substring(q + 1);
+		return new StubRequest(parts[0], path, query, headers, body);
+	}
+
+	private static String readLine(InputStream in) throws IOException {
+		ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+		int b;
+		while ((b = in.read()) != -1) {
+			if (b == '\n') {
+				break;
+			}
+			if (b != '\r') {
+				line.write(b);
+			}
+		}
+		if (b == -1 && line.size() == 0) {
+			return null;
+		}
+		return new String(line.toByteArray(), StandardCharsets.ISO_8859_1);
+	}
+
+	private static void writeResponse(OutputStream out, StubResponse response, boolean keepAlive) throws IOException {
+		StringBuilder head = new StringBuilder(256);
+		head.append(response.getStatusLine()).append("\r\n");
+		for (Map.Entry<String, String> header : response.getHeaders().entrySet()) {
+			head.append(header.getKey()).append(": ").append(header.getValue()).append("\r\n");
+		}
+		head.append("Content-Length: ").append(response.getBody().length).append("\r\n");
+		head.append("Connection: ").append(keepAlive ? "keep-alive" : "close").append("\r\n\r\n");
+		out.write(head.toString().getBytes(StandardCharsets.ISO_8859_1));
+		out.write(response.getBody());
+		out.flush();
+	}
+}
@@ -0,0 +1,138 @@
+package coreUtilities.mock;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A request received by {@link StubHttpServer}.
+ */
+public class StubRequest {
+
+	private final String method;
+	private final String path;
+	private final String query;
+	private final Map<String, String> headers;
+	private final byte[] body;
+
+	public StubRequest(String method, String path, String query, Map<String, String> headers, byte[] body) {
+		this.method = method;
+		this.path = path;
+		this.query = query == null ? "" : query;
+		this.headers = headers;
+		this.body = body == null ? new byte[0] : body;
+	}
+
+	public String getMethod() {
+		return method;
+	}
+
+	public String getPath() {
+		return path;
+	}
+
+	/**
+	 * @return the raw query string without the leading '?', or "" if none
+	 */
+	public String getQuery() {
+		return query;
+	}
+
+	/**
+	 * @param name header name, case-insensitive
+	 * @return the header value or null
+	 */
+	public String getHeader(String name) {
+		return headers.get(name.toLowerCase());
+	}
+
+	public byte[] getBody() {
+		return body;
+	}
+
+	public String getBodyAsString() {
+		return new String(body, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Decoded query parameters; the last value wins for repeated names.
+	 */
+	public Map<String, String> getQueryParams() {
+		return parseParams(query);
+	}
+
+	/**
+	 * Decoded fields of an <code>application/x-www-form-urlencoded</code> body;
+	 * the last value wins for repeated names.
+	 */
+	public Map<String, String> getFormParams() {
+		return parseParams(getBodyAsString());
+	}
+
+	private static Map<String, String> parseParams(String query) {
+		Map<String, String> params = new LinkedHashMap<>();
+		for (String pair : splitQuery(query)) {
+			int eq = pair.indexOf('=');
+			params.put(decode(eq < 0 ? pair : pair.substring(0, eq)), eq < 0 ? "" : decode(pair.substring(eq + 1)));
+		}
+		return params;
+	}
+
+	/**
+	 * Returns the value of the named cookie from the Cookie header.
+	 */
+	public String getCookie(String name) {
+		String cookies = getHeader("cookie");
+		if (cookies == null) {
+			return null;
+		}
+		for (String cookie : cookies.split(";")) {
+			String trimmed = cookie.trim();
+			if (trimmed.startsWith(name + "=")) {
+				return trimmed.substring(name.length() + 1);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Builds a canonical form of a query string: pairs are decoded and sorted so
+	 * that <code>b=2&amp;a=1</code> and <code>a=1&amp;b=2</code> compare equal.
+	 *
+	 * @param query raw query string (may be null)
+	 * @return the normalized query
+	 */
+	public static String normalizeQuery(String query) {
+		List<String> pairs = new ArrayList<>();
+		for (String pair : splitQuery(query)) {
+			pairs.add(decode(pair));
+		}
+		Collections.sort(pairs);
+		return String.join("&", pairs);
+	}
+
+	private static List<String> splitQuery(String query) {
+		List<String> pairs = new ArrayList<>();
+		if (query != null) {
+			for (String pair : query.split("&")) {
+				if (!pair.isEmpty()) {
+					pairs.add(pair);
+				}
+			}
+		}
+		return pairs;
+	}
+
+	private static String decode(String value) {
+		try {
+			return URLDecoder.decode(value, "UTF-8");
+		} catch (UnsupportedEncodingException | IllegalArgumentException e) {
+			return value;
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package coreUtilities.mock;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A response returned by a {@link StubHttpServer.Handler}.
+ *
+ * <p>
+ * The status line is sent exactly as given so stubs can mimic the
+ * <code>HTTP/1.0 200 OK</code> line the OrangeHRM server returns, which the
+ * tests assert on.
+ */
+public class StubResponse {
+
+	private final String statusLine;
+	private final int statusCode;
+	private final Map<String, String> headers = new LinkedHashMap<>();
+	private final byte[] body;
+	private long delayMicros;
+
+	public StubResponse(String statusLine, String contentType, byte[] body) {
+		this.statusLine = statusLine;
+		this.statusCode = parseStatusCode(statusLine);
+		this.body = body == null ? new byte[0] : body;
+		if (contentType != null) {
+			headers.put("Content-Type", contentType);
+		}
+	}
+
+	public static StubResponse json(int statusCode, String json) {
+		return new StubResponse("HTTP/1.0 " + statusCode + " " + reason(statusCode), "application/json",
+				json.getBytes(StandardCharsets.UTF_8));
+	}
+
+	public StubResponse header(String name, String value) {
+		headers.put(name, value);
+		return this;
+	}
+
+	/**
+	 * Delays the response by the given time before it is written, to simulate
+	 * server latency.
+	 */
+	public StubResponse delayMicros(long delayMicros) {
+		this.delayMicros = delayMicros;
+		return this;
+	}
+
+	public String getStatusLine() {
+		return statusLine;
+	}
+
+	public int getStatusCode() {
+		return statusCode;
+	}
+
+	public Map<String, String> getHeaders() {
+		return headers;
+	}
+
+	public byte[] getBody() {
+		return body;
+	}
+
+	public long getDelayMicros() {
+		return delayMicros;
+	}
+
+	public static String reason(int statusCode) {
+		switch (statusCode) {
+		case 200:
+			return "OK";
+		case 201:
+			return "Created";
+		case 204:
+			return "No Content";
+		case 302:
+			return "Found";
+		case 400:
+			return "Bad Request";
+		case 401:
+			return "Unauthorized";
+		case 404:
+			return "Not Found";
+		case 405:
+			return "Method Not Allowed";
+		case 422:
+			return "Unprocessable Entity";
+		case 429:
+			return "Too Many Requests";
+		case 500:
+			return "Internal Server Error";
+		case 502:
+			return "Bad Gateway";
+		case 503:
+			return "Service Unavailable";
+		case 504:
+			return "Gateway Timeout";
+		default:
+			return "Status";
+		}
+	}
+
+	private static int parseStatusCode(String statusLine) {
+		String[] parts = statusLine.split(" ");
+		try {
+			return parts.length > 1 ? Integer.parseInt(parts[1]) : 500;
+		} catch (NumberFormatException e) {
+			return 500;
+		}
+	}
+}
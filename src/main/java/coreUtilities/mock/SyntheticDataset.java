@@ -0,0 +1,291 @@
+package coreUtilities.mock;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic synthetic OrangeHRM data: employees, holidays, leave types,
+ * vacancies, job titles, candidates and employment statuses.
+ *
+ * <p>
+ * Every table has <code>size</code> rows. Rows are derived from the seed and
+ * their id, so the same size and seed always produce the same responses, and a
+ * row is only built when it is served.
+ */
+public class SyntheticDataset {
+
+	private static final String[] FIRST_NAMES = { "Aarav", "Linda", "Odis", "Peter", "Rebecca", "Garry", "Charlie",
+			"Fiona", "Joe", "Kevin", "Lisa", "Russel", "Sara", "Thomas", "Anthony", "Dominic", "Jasmine", "Nina",
+			"Orlando", "Priya" };
+	private static final String[] LAST_NAMES = { "Anderson", "Adalwin", "Baker", "Carter", "Mathews", "White",
+			"Hamilton", "Jones", "Cooper", "Abbey", "Nguyen", "Patel", "Ramirez", "Smith", "Turner", "Walker",
+			"Yamada", "Zimmer", "Fernando", "Kowalski" };
+	private static final String[] NATIONALITIES = { "American", "Australian", "British", "Canadian", "French",
+			"German", "Indian", "Japanese", "Singaporean", "Sri Lankan" };
+	private static final String[] LEAVE_TYPES = { "CAN - Bereavement", "CAN - FMLA", "CAN - Matternity",
+			"CAN - Personal", "CAN - Vacation", "US - Bereavement", "US - FMLA", "US - Personal", "US - Vacation" };
+	private static final String[] JOB_TITLES = { "Account Assistant", "Chief Executive Officer",
+			"Chief Financial Officer", "Content Specialist", "Customer Success Manager", "Database Administrator",
+			"Finance Manager", "HR Manager", "IT Manager", "Network Administrator", "QA Engineer", "QA Lead",
+			"Sales Representative", "Social Media Marketer", "Software Architect", "Software Engineer" };
+	private static final String[] EMPLOYMENT_STATUSES = { "Freelance", "Full-Time Contract", "Full-Time Permanent",
+			"Full-Time Probation", "Part-Time Contract", "Part-Time Internship" };
+	private static final String[] CANDIDATE_STATUSES = { "Application Initiated", "Shortlisted", "Interview Scheduled",
+			"Interview Passed", "Job Offered", "Hired", "Rejected" };
+	private static final LocalDate HOLIDAY_START = LocalDate.of(2025, 1, 1);
+
+	private final int size;
+	private final long seed;
+	private final SyntheticTable employees;
+	private final SyntheticTable holidays;
+	private final SyntheticTable leaveTypes;
+	private final SyntheticTable vacancies;
+	private final SyntheticTable jobTitles;
+	private final SyntheticTable candidates;
+	private final SyntheticTable employmentStatuses;
+	private final SyntheticTable definedReports;
+
+	public SyntheticDataset(int size, long seed) {
+		this.size = size;
+		this.seed = seed;
+		this.employees = new SyntheticTable(size, this::employee);
+		this.holidays = new SyntheticTable(size, this::holiday);
+		this.leaveTypes = new SyntheticTable(size, this::leaveType);
+		this.vacancies = new SyntheticTable(size, this::vacancy);
+		this.jobTitles = new SyntheticTable(size, this::jobTitle);
+		this.candidates = new SyntheticTable(size, this::candidate);
+		this.employmentStatuses = new SyntheticTable(size, this::employmentStatus);
+		this.definedReports = new SyntheticTable(0, id -> null);
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public SyntheticTable employees() {
+		return employees;
+	}
+
+	public SyntheticTable holidays() {
+		return holidays;
+	}
+
+	public SyntheticTable leaveTypes() {
+		return leaveTypes;
+	}
+
+	public SyntheticTable vacancies() {
+		return vacancies;
+	}
+
+	public SyntheticTable jobTitles() {
+		return jobTitles;
+	}
+
+	public SyntheticTable candidates() {
+		return candidates;
+	}
+
+	public SyntheticTable employmentStatuses() {
+		return employmentStatuses;
+	}
+
+	public SyntheticTable definedReports() {
+		return definedReports;
+	}
+
+	/**
+	 * @return the indexed workweek: day of week (0 = Sunday) to length, where 0 is
+	 *         a full working day, 4 half a day and 8 a non-working day
+	 */
+	public Map<String, Object> workweek() {
+		Map<String, Object> days = new LinkedHashMap<>();
+		for (int day = 0; day <= 6; day++) {
+			days.put(String.valueOf(day), day == 0 || day == 6 ? 8 : 0);
+		}
+		return days;
+	}
+
+	/**
+	 * @return the headers of the <code>my_leave_entitlements_and_usage</code>
+	 *         report
+	 */
+	public Map<String, Object> leaveUsageReport() {
+		List<Map<String, Object>> headers = new ArrayList<>();
+		headers.add(reportHeader("Leave Type", "leaveType", 20, null));
+		headers.add(reportHeader("Leave Entitlements (Days)", "entitlementDays", 16, "link"));
+		headers.add(reportHeader("Leave Pending Approval (Days)", "pendingApprovalDays", 16, "link"));
+		headers.add(reportHeader("Leave Scheduled (Days)", "scheduledDays", 16, "link"));
+		headers.add(reportHeader("Leave Taken (Days)", "takenDays", 16, "link"));
+		headers.add(reportHeader("Leave Balance (Days)", "balance", 16, null));
+
+		Map<String, Object> report = new LinkedHashMap<>();
+		report.put("headers", headers);
+		report.put("filters", Collections.emptyMap());
+		return report;
+	}
+
+	private Map<String, Object> employee(int id) {
+		SplittableRandom random = random(1, id);
+		String firstName = pick(FIRST_NAMES, random);
+		String lastName = pick(LAST_NAMES, random);
+		Map<String, Object> row = new LinkedHashMap<>();
+		row.put("empNumber", id);
+		row.put("lastName", lastName);
+		row.put("firstName", firstName);
+		row.put("middleName", "");
+		row.put("employeeId", String.format("%04d", id));
+		row.put("terminationId", null);
+		row.put("otherId", "");
+		row.put("drivingLicenseNo", "");
+		row.put("drivingLicenseExpiredDate", null);
+		row.put("gender", 1 + random.nextInt(2));
+		row.put("maritalStatus", random.nextBoolean() ? "Single" : "Married");
+		row.put("birthday", LocalDate.of(1970 + random.nextInt(35), 1 + random.nextInt(12), 1 + random.nextInt(28))
+				.toString());
+		int nationality = random.nextInt(NATIONALITIES.length);
+		row.put("nationality", named("id", nationality + 1, "name", NATIONALITIES[nationality]));
+		int jobTitle = random.nextInt(JOB_TITLES.length);
+		row.put("jobTitle", named("id", jobTitle + 1, "title", JOB_TITLES[jobTitle]));
+		int status = random.nextInt(EMPLOYMENT_STATUSES.length);
+		row.put("empStatus", named("id", status + 1, "name", EMPLOYMENT_STATUSES[status]));
+		return row;
+	}
+
+	private Map<String, Object> holiday(int id) {
+		SplittableRandom random = random(2, id);
+		boolean halfDay = random.nextInt(5) == 0;
+		Map<String, Object> row = new LinkedHashMap<>();
+		row.put("id", id);
+		row.put("name", "Holiday " + id);
+		row.put("date", HOLIDAY_START.plusDays((id - 1) % 365).toString());
+		row.put("recurring", random.nextBoolean());
+		row.put("length", halfDay ? 4 : 0);
+		row.put("lengthName", halfDay ? "Half Day" : "Full Day");
+		return row;
+	}
+
+	private Map<String, Object> leaveType(int id) {
+		SplittableRandom random = random(3, id);
+		Map<String, Object> row = new LinkedHashMap<>();
+		row.put("id", id);
+		row.put("name", indexedName(LEAVE_TYPES, id));
+		row.put("deleted", false);
+		row.put("situational", random.nextInt(4) == 0);
+		return row;
+	}
+
+	private Map<String, Object> vacancy(int id) {
+		SplittableRandom random = random(4, id);
+		int jobTitle = random.nextInt(JOB_TITLES.length);
+		Map<String, Object> hiringManager = new LinkedHashMap<>();
+		hiringManager.put("empNumber", 1 + random.nextInt(Math.max(size, 1)));
+		hiringManager.put("firstName", pick(FIRST_NAMES, random));
+		hiringManager.put("lastName", pick(LAST_NAMES, random));
+		hiringManager.put("middleName", "");
+		hiringManager.put("terminationId", null);
+
+		Map<String, Object> title = named("id", jobTitle + 1, "title", JOB_TITLES[jobTitle]);
+		title.put("isDeleted", false);
+
+		Map<String, Object> row = new LinkedHashMap<>();
+		row.put("id", id);
+		row.put("name", JOB_TITLES[jobTitle] + " " + id);
+		row.put("description", "Opening for a " + JOB_TITLES[jobTitle]);
+		row.put("numOfPositions", 1 + random.nextInt(5));
+		row.put("status", random.nextInt(5) != 0);
+		row.put("isPublished", random.nextBoolean());
+		row.put("jobTitle", title);
+		row.put("hiringManager", hiringManager);
+		return row;
+	}
+
+	private Map<String, Object> jobTitle(int id) {
+		Map<String, Object> specification = new LinkedHashMap<>();
+		specification.put("id", null);
+		specification.put("filename", null);
+		specification.put("fileType", null);
+		specification.put("fileSize", null);
+
+		String title = indexedName(JOB_TITLES, id);
+		Map<String, Object> row = new LinkedHashMap<>();
+		row.put("id", id);
+		row.put("title", title);
+		row.put("description", title + " role");
+		row.put("note", "Synthetic job title " + id);
+		row.put("jobSpecification", specification);
+		return row;
+	}
+
+	private Map<String, Object> candidate(int id) {
+		SplittableRandom random = random(5, id);
+		String firstName = pick(FIRST_NAMES, random);
+		String lastName = pick(LAST_NAMES, random);
+		int status = random.nextInt(CANDIDATE_STATUSES.length);
+		int vacancy = 1 + random.nextInt(Math.max(size, 1));
+
+		Map<String, Object> row = new LinkedHashMap<>();
+		row.put("id", id);
+		row.put("firstName", firstName);
+		row.put("middleName", null);
+		row.put("lastName", lastName);
+		row.put("email", firstName.toLowerCase() + "." + lastName.toLowerCase() + id + "@example.com");
+		row.put("contactNumber", null);
+		row.put("keywords", null);
+		row.put("comment", null);
+		row.put("dateOfApplication", HOLIDAY_START.plusDays(random.nextInt(365)).toString());
+		row.put("consentToKeepData", random.nextBoolean());
+		row.put("modeOfApplication", 1);
+		row.put("status", named("id", status + 1, "label", CANDIDATE_STATUSES[status]));
+		row.put("vacancy", named("id", vacancy, "name", "Vacancy " + vacancy));
+		return row;
+	}
+
+	private Map<String, Object> employmentStatus(int id) {
+		return named("id", id, "name", indexedName(EMPLOYMENT_STATUSES, id));
+	}
+
+	private static Map<String, Object> reportHeader(String name, String prop, int size, String cellType) {
+		Map<String, Object> cellProperties = new LinkedHashMap<>();
+		if (cellType != null) {
+			cellProperties.put("type", cellType);
+		}
+		Map<String, Object> header = new LinkedHashMap<>();
+		header.put("name", name);
+		header.put("prop", prop);
+		header.put("size", size);
+		header.put("pin", null);
+		header.put("cellProperties", cellProperties);
+		return header;
+	}
+
+	private static Map<String, Object> named(String idField, int id, String nameField, String name) {
+		Map<String, Object> row = new LinkedHashMap<>();
+		row.put(idField, id);
+		row.put(nameField, name);
+		return row;
+	}
+
+	/**
+	 * Uses the real OrangeHRM names first, then numbered variants, so small
+	 * datasets look like the demo instance and large ones stay unique.
+	 */
+	private static String indexedName(String[] names, int id) {
+		int index = (id - 1) % names.length;
+		int round = (id - 1) / names.length;
+		return round == 0 ? names[index] : names[index] + " " + (round + 1);
+	}
+
+	private static String pick(String[] values, SplittableRandom random) {
+		return values[random.nextInt(values.length)];
+	}
+
+	private SplittableRandom random(int table, int id) {
+		return new SplittableRandom(seed * 31 + table * 0x9E3779B97F4A7C15L + id);
+	}
+}
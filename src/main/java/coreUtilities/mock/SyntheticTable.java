@@ -0,0 +1,147 @@
+package coreUtilities.mock;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * A table of JSON-like rows whose first <code>baseSize</code> rows are
+ * generated on demand from their id, so a dataset of 100k+ rows costs no memory
+ * until it is served.
+ *
+ * <p>
+ * Rows created, updated or deleted through the stub are kept in an overlay on
+ * top of the generated rows. Ids start at 1; created rows get ids after the
+ * generated range.
+ */
+public class SyntheticTable {
+
+	private final int baseSize;
+	private final IntFunction<Map<String, Object>> generator;
+	private final Map<Integer, Map<String, Object>> overrides = new ConcurrentSkipListMap<>();
+	// Sorted, so a page can find its first id without walking the rows before it
+	private final NavigableSet<Integer> deleted = new ConcurrentSkipListSet<>();
+	private final AtomicInteger nextId;
+	private final AtomicInteger size;
+
+	public SyntheticTable(int baseSize, IntFunction<Map<String, Object>> generator) {
+		this.baseSize = baseSize;
+		this.generator = generator;
+		this.nextId = new AtomicInteger(baseSize + 1);
+		this.size = new AtomicInteger(baseSize);
+	}
+
+	/**
+	 * @return the row with the given id, or <code>null</code> if it does not exist
+	 */
+	public Map<String, Object> get(int id) {
+		if (deleted.contains(id)) {
+			return null;
+		}
+		Map<String, Object> row = overrides.get(id);
+		if (row != null) {
+			return row;
+		}
+		return id >= 1 && id <= baseSize ? generator.apply(id) : null;
+	}
+
+	/**
+	 * Returns rows in id order, skipping deleted ones.
+	 *
+	 * @param offset number of rows to skip
+	 * @param limit  maximum number of rows, or 0 for all remaining rows
+	 * @return the requested page
+	 */
+	public List<Map<String, Object>> page(int offset, int limit) {
+		int max = limit <= 0 ? Integer.MAX_VALUE : limit;
+		List<Map<String, Object>> rows = new ArrayList<>(Math.min(max, Math.max(size.get() - offset, 0)));
+		int last = nextId.get() - 1;
+		for (int id = firstId(Math.max(offset, 0)); id <= last && rows.size() < max; id++) {
+			Map<String, Object> row = get(id);
+			if (row != null) {
+				rows.add(row);
+			}
+		}
+		return rows;
+	}
+
+	/**
+	 * Ids are handed out without gaps, so the row at <code>offset</code> has id
+	 * <code>offset + 1</code> plus one for every deleted id up to it.
+	 */
+	private int firstId(int offset) {
+		long id = offset + 1L;
+		for (int gone : deleted) {
+			if (gone > id) {
+				break;
+			}
+			id++;
+		}
+		return (int) Math.min(id, Integer.MAX_VALUE);
+	}
+
+	public int size() {
+		return size.get();
+	}
+
+	/**
+	 * Creates a row from the given fields and assigns it the next free id.
+	 *
+	 * @param idField name of the id field in the row (<code>id</code>,
+	 *                <code>empNumber</code>)
+	 * @param fields  fields of the new row
+	 * @return the stored row, including its id
+	 */
+	public Map<String, Object> create(String idField, Map<String, Object> fields) {
+		int id = nextId.getAndIncrement();
+		Map<String, Object> row = new LinkedHashMap<>();
+		// Id first, as OrangeHRM returns it; an id sent by the client is ignored
+		row.put(idField, id);
+		row.putAll(fields);
+		row.put(idField, id);
+		overrides.put(id, row);
+		size.incrementAndGet();
+		return row;
+	}
+
+	/**
+	 * Merges the given fields into an existing row.
+	 *
+	 * @return the updated row, or <code>null</code> if the id does not exist
+	 */
+	public synchronized Map<String, Object> update(int id, Map<String, Object> fields) {
+		Map<String, Object> current = get(id);
+		if (current == null) {
+			return null;
+		}
+		Map<String, Object> row = new LinkedHashMap<>(current);
+		row.putAll(fields);
+		overrides.put(id, row);
+		return row;
+	}
+
+	/**
+	 * Deletes the given ids.
+	 *
+	 * @return the ids that existed and were deleted
+	 */
+	public synchronized List<Integer> delete(Collection<Integer> ids) {
+		List<Integer> removed = new ArrayList<>();
+		for (Integer id : ids) {
+			if (id != null && get(id) != null) {
+				deleted.add(id);
+				overrides.remove(id);
+				size.decrementAndGet();
+				removed.add(id);
+			}
+		}
+		return removed;
+	}
+}
@@ -0,0 +1,129 @@
+package coreUtilities.mock;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import coreUtilities.utils.Log;
+import restConfig.ConfigManager;
+
+/**
+ * Local OAuth 2 token endpoint for the client credentials grant, used by
+ * {@link rest.ClientCredentialsProvider} in replay and stub mode.
+ *
+ * <p>
+ * POST to any path ending in <code>/token</code> with the client id and secret
+ * as HTTP Basic credentials (or <code>client_id</code> and
+ * <code>client_secret</code> form fields) and
+ * <code>grant_type=client_credentials</code> returns a random bearer token
+ * valid for <code>stub.token.ttl.seconds</code> (default 300). Other
+ * credentials get a 401 <code>invalid_client</code>, other grants a 400
+ * <code>unsupported_grant_type</code>. <code>stub.token.latency.ms</code>
+ * (default 0) delays every answer, to show that a slow refresh does not hold
+ * up the callers. {@link #isValid} tells whether a token was issued here and
+ * has not expired.
+ */
+public class TokenEndpointStub implements StubHttpServer.Handler {
+
+	public static final String PATH = "/oauth2/token";
+
+	private final String clientId;
+	private final String clientSecret;
+	private final long ttlSeconds;
+	private final long latencyMicros;
+	// Expiry of the tokens issued so far
+	private final Map<String, Long> issued = new ConcurrentHashMap<>();
+	private final LongAdder requests = new LongAdder();
+
+	public TokenEndpointStub(String clientId, String clientSecret, long ttlSeconds, long latencyMillis) {
+		this.clientId = clientId;
+		this.clientSecret = clientSecret;
+		this.ttlSeconds = ttlSeconds;
+		this.latencyMicros = TimeUnit.MILLISECONDS.toMicros(latencyMillis);
+	}
+
+	/**
+	 * Starts a token endpoint on a free loopback port for
+	 * <code>auth.client.id</code> and <code>auth.client.secret</code>, using the
+	 * <code>stub.token.*</code> settings.
+	 *
+	 * @return the running server
+	 */
+	public static StubHttpServer start() throws IOException {
+		long ttl = ConfigManager.getIntProperty("stub.token.ttl.seconds", 300);
+		Log.info("Starting token endpoint stub, tokens valid for {} s", ttl);
+		return start(new TokenEndpointStub(ConfigManager.getProperty("auth.client.id", ""),
+				ConfigManager.getProperty("auth.client.secret", ""), ttl,
+				ConfigManager.getIntProperty("stub.token.latency.ms", 0)));
+	}
+
+	public static StubHttpServer start(TokenEndpointStub stub) throws IOException {
+		return new StubHttpServer("token-stub", stub).start(0);
+	}
+
+	/**
+	 * @return whether the token was issued by this endpoint and has not expired
+	 */
+	public boolean isValid(String token) {
+		Long expiry = token == null ? null : issued.get(token);
+		return expiry != null && System.nanoTime() - expiry < 0;
+	}
+
+	public long getRequestCount() {
+		return requests.sum();
+	}
+
+	@Override
+	public StubResponse handle(StubRequest request) {
+		requests.increment();
+		if (!request.getPath().endsWith("/token")) {
+			return error(404, "not_found");
+		}
+		if (!"POST".equals(request.getMethod())) {
+			return error(405, "invalid_request");
+		}
+		Map<String, String> form = request.getFormParams();
+		String[] credentials = basicCredentials(request.getHeader("authorization"));
+		if (credentials == null) {
+			credentials = new String[] { form.get("client_id"), form.get("client_secret") };
+		}
+		StubResponse response;
+		if (!clientId.equals(credentials[0]) || !clientSecret.equals(credentials[1])) {
+			response = error(401, "invalid_client");
+		} else if (!"client_credentials".equals(form.get("grant_type"))) {
+			response = error(400, "unsupported_grant_type");
+		} else {
+			long now = System.nanoTime();
+			issued.values().removeIf(expiry -> now - expiry >= 0);
+			String token = UUID.randomUUID().toString().replace("-", "");
+			issued.put(token, now + TimeUnit.SECONDS.toNanos(ttlSeconds));
+			response = StubResponse.json(200, "{\"access_token\":\"" + token
+					+ "\",\"token_type\":\"Bearer\",\"expires_in\":" + ttlSeconds + "}");
+		}
+		return response.header("Cache-Control", "no-store").delayMicros(latencyMicros);
+	}
+
+	private static String[] basicCredentials(String authorization) {
+		if (authorization == null || !authorization.regionMatches(true, 0, "Basic ", 0, 6)) {
+			return null;
+		}
+		String decoded;
+		try {
+			decoded = new String(Base64.getDecoder().decode(authorization.substring(6).trim()),
+					StandardCharsets.UTF_8);
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+		int colon = decoded.indexOf(':');
+		return colon < 0 ? null : new String[] { decoded.substring(0, colon), decoded.substring(colon + 1) };
+	}
+
+	private static StubResponse error(int status, String error) {
+		return StubResponse.json(status, "{\"error\":\"" + error + "\"}");
+	}
+}
@@ -0,0 +1,177 @@
+package coreUtilities.profiling;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Writes collapsed stacks as a text file and renders them as a flame graph,
+ * in the layout of Brendan Gregg's <code>flamegraph.pl</code>: each box is a
+ * frame, its width the share of samples it appears in, callers below callees
+ * and siblings in alphabetical order. Frames are coloured by origin: framework
+ * and tests orange, RestAssured and Groovy yellow, Selenium green, Extent
+ * blue, the JDK red.
+ *
+ * <p>
+ * The collapsed file can be fed to <code>flamegraph.pl</code> or speedscope
+ * as well.
+ */
+public final class FlameGraph {
+
+	private static final int WIDTH = 1200;
+	private static final int FRAME_HEIGHT = 16;
+	private static final int PADDING = 10;
+	private static final int TOP = 40;
+	private static final double MIN_WIDTH = 0.3;
+	private static final double CHAR_WIDTH = 6.5;
+
+	/**
+	 * Frames with the same caller path merged, with their sample counts.
+	 */
+	static class Node {
+		final String name;
+		long samples;
+		final Map<String, Node> children = new TreeMap<>();
+
+		Node(String name) {
+			this.name = name;
+		}
+
+		int depth() {
+			int depth = 0;
+			for (Node child : children.values()) {
+				depth = Math.max(depth, child.depth());
+			}
+			return depth + 1;
+		}
+	}
+
+	private FlameGraph() {
+	}
+
+	/**
+	 * Writes <code>name.collapsed</code>, <code>name.svg</code> and
+	 * <code>name.html</code> to the directory.
+	 *
+	 * @return the HTML file
+	 */
+	public static Path write(Map<String, Long> stacks, Path directory, String name, String title)
+			throws IOException {
+		Files.createDirectories(directory);
+		Files.write(directory.resolve(name + ".collapsed"), collapsed(stacks), StandardCharsets.UTF_8);
+		String svg = svg(stacks, title);
+		Files.write(directory.resolve(name + ".svg"), svg.getBytes(StandardCharsets.UTF_8));
+		Path html = directory.resolve(name + ".html");
+		Files.write(html, html(svg, title).getBytes(StandardCharsets.UTF_8));
+		return html;
+	}
+
+	/**
+	 * @return one line per stack, <code>frame;frame;frame count</code>, sorted
+	 */
+	static List<String> collapsed(Map<String, Long> stacks) {
+		List<String> lines = new ArrayList<>();
+		for (Map.Entry<String, Long> stack : new TreeMap<>(stacks).entrySet()) {
+			lines.add(stack.getKey() + " " + stack.getValue());
+		}
+		return lines;
+	}
+
+	static Node tree(Map<String, Long> stacks) {
+		Node root = new Node("all");
+		for (Map.Entry<String, Long> stack : stacks.entrySet()) {
+			Node node = root;
+			node.samples += stack.getValue();
+			for (String frame : stack.getKey().split(";")) {
+				node = node.children.computeIfAbsent(frame, Node::new);
+				node.samples += stack.getValue();
+			}
+		}
+		return root;
+	}
+
+	static String svg(Map<String, Long> stacks, String title) {
+		Node root = tree(stacks);
+		int depth = root.depth();
+		int height = TOP + depth * FRAME_HEIGHT + PADDING * 2;
+		StringBuilder svg = new StringBuilder();
+		svg.append("<svg xmlns='http://www.w3.org/2000/svg' width='").append(WIDTH).append("' height='")
+				.append(height).append("' viewBox='0 0 ").append(WIDTH).append(' ').append(height)
+				.append("' style='font:11px Verdana,sans-serif'>");
+		svg.append("<rect width='100%' height='100%' fill='#f8f8f8'/>");
+		svg.append("<text x='").append(WIDTH / 2).append("' y='24' text-anchor='middle' style='font-size:16px'>")
+				.append(escape(title)).append("</text>");
+		if (root.samples > 0) {
+			double scale = (WIDTH - 2.0 * PADDING) / root.samples;
+			frame(svg, root, root.samples, PADDING, height - PADDING - FRAME_HEIGHT, scale);
+		} else {
+			svg.append("<text x='").append(PADDING).append("' y='").append(TOP + 12)
+					.append("'>No samples were taken</text>");
+		}
+		return svg.append("</svg>").toString();
+	}
+
+	private static void frame(StringBuilder svg, Node node, long total, double x, double y, double scale) {
+		double width = node.samples * scale;
+		if (width < MIN_WIDTH) {
+			return;
+		}
+		String tooltip = String.format("%s (%d samples, %.2f%%)", node.name, node.samples,
+				100.0 * node.samples / total);
+		svg.append("<g><title>").append(escape(tooltip)).append("</title>");
+		svg.append(String.format("<rect x='%.1f' y='%.1f' width='%.1f' height='%d' rx='2' fill='%s'/>", x, y,
+				width, FRAME_HEIGHT - 1, color(node.name)));
+		int chars = (int) ((width - 6) / CHAR_WIDTH);
+		if (chars >= 3) {
+			String label = node.name.length() <= chars ? node.name : node.name.substring(0, chars - 2) + "..";
+			svg.append(String.format("<text x='%.1f' y='%.1f'>%s</text>", x + 3, y + FRAME_HEIGHT - 4,
+					escape(label)));
+		}
+		svg.append("</g>");
+		double childX = x;
+		for (Node child : node.children.values()) {
+			frame(svg, child, total, childX, y - FRAME_HEIGHT, scale);
+			childX += child.samples * scale;
+		}
+	}
+
+	static String color(String frame) {
+		int hash = Math.abs(frame.hashCode() % 40);
+		if (frame.startsWith("rest.") || frame.startsWith("coreUtilities.") || frame.startsWith("testcases.")
+				|| frame.startsWith("restConfig.")) {
+			return String.format("rgb(%d,%d,%d)", 230 + hash % 25, 120 + hash, 40);
+		}
+		if (frame.startsWith("io.restassured.") || frame.startsWith("groovy") || frame.startsWith("org.codehaus.groovy")
+				|| frame.startsWith("org.apache.groovy")) {
+			return String.format("rgb(%d,%d,%d)", 215 + hash % 30, 200 + hash % 40, 60);
+		}
+		if (frame.startsWith("org.openqa.")) {
+			return String.format("rgb(%d,%d,%d)", 90 + hash, 190 + hash % 50, 90);
+		}
+		if (frame.startsWith("com.aventstack.")) {
+			return String.format("rgb(%d,%d,%d)", 90 + hash, 150 + hash, 220);
+		}
+		if (frame.startsWith("java.") || frame.startsWith("javax.") || frame.startsWith("sun.")
+				|| frame.startsWith("jdk.") || frame.startsWith("com.sun.")) {
+			return String.format("rgb(%d,%d,%d)", 210 + hash % 40, 80 + hash, 80 + hash);
+		}
+		return String.format("rgb(%d,%d,%d)", 80 + hash, 190 + hash % 50, 190 + hash % 50);
+	}
+
+	private static String html(String svg, String title) {
+		return "<!DOCTYPE html>\n<html><head><meta charset='utf-8'><title>" + escape(title) + "</title></head>\n"
+				+ "<body style='margin:0;font:13px sans-serif'>\n"
+				+ "<p style='margin:8px 10px'>Hover a frame for its sample count. Orange: framework and tests,"
+				+ " yellow: RestAssured and Groovy, green: Selenium, blue: Extent, red: JDK.</p>\n" + svg
+				+ "\n</body></html>\n";
+	}
+
+	private static String escape(String text) {
+		return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("'", "&#39;");
+	}
+}
@@ -0,0 +1,191 @@
+package coreUtilities.profiling;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import coreUtilities.utils.Log;
+import restConfig.ConfigManager;
+
+/**
+ * Samples the stacks of the test threads at a fixed rate and counts them in
+ * collapsed-stack form: frames from the thread's entry point to the sampled
+ * method, separated by <code>;</code>. {@link FlameGraph} renders the counts.
+ *
+ * <p>
+ * Only threads whose name matches <code>profiler.threads</code> (default the
+ * TestNG workers and <code>main</code>) are sampled, every
+ * <code>profiler.interval.ms</code> milliseconds. Samples are wall-clock: a
+ * thread waiting for a response or sleeping is counted where it waits, so
+ * network time shows up next to CPU time. Pool threads idling for their next
+ * test, and the main thread waiting for them, are skipped.
+ *
+ * <p>
+ * The listener starts the sampler when a test context starts and stops it
+ * when the last running context finishes; counts add up over the whole suite.
+ * Off unless <code>profiler.enabled=true</code>.
+ */
+public class StackSampler {
+
+	private static final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+	private static final Pattern LAMBDA = Pattern.compile("\\$\\$Lambda\\$\\d+/(0x)?[0-9a-fA-F]+");
+	// A worker parked in getTask has no test to run; TestNG's main thread waits in
+	// awaitTermination while the workers run the tests
+	private static final Set<String> IDLE_FRAMES = new HashSet<>(
+			Arrays.asList("java.util.concurrent.ThreadPoolExecutor.getTask",
+					"java.util.concurrent.ThreadPoolExecutor.awaitTermination"));
+
+	private final Pattern threadNames;
+	private final long intervalMillis;
+	private final int maxDepth;
+	private final Map<String, Long> stacks = new HashMap<>();
+	private long samples;
+	private int running;
+	private ScheduledExecutorService scheduler;
+
+	/**
+	 * @param threadNames    names of the threads to sample
+	 * @param intervalMillis time between samples
+	 * @param maxDepth       frames kept per stack, counted from the sampled method
+	 */
+	public StackSampler(Pattern threadNames, long intervalMillis, int maxDepth) {
+		this.threadNames = threadNames;
+		this.intervalMillis = intervalMillis;
+		this.maxDepth = maxDepth;
+	}
+
+	/**
+	 * @return a sampler configured from config.properties, or <code>null</code>
+	 *         if <code>profiler.enabled</code> is not true
+	 */
+	public static StackSampler fromConfig() {
+		if (!ConfigManager.getBooleanProperty("profiler.enabled", false)) {
+			return null;
+		}
+		return new StackSampler(Pattern.compile(ConfigManager.getProperty("profiler.threads", "TestNG.*|main")),
+				ConfigManager.getIntProperty("profiler.interval.ms", 20),
+				ConfigManager.getIntProperty("profiler.max.depth", 256));
+	}
+
+	/**
+	 * Starts sampling, or counts one more user if it is already running.
+	 */
+	public synchronized void start() {
+		if (running++ > 0) {
+			return;
+		}
+		scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "stack-sampler");
+			thread.setDaemon(true);
+			return thread;
+		});
+		scheduler.scheduleAtFixedRate(this::sample, 0, intervalMillis, TimeUnit.MILLISECONDS);
+		Log.info("Stack sampler started: threads '{}' every {} ms", threadNames.pattern(), intervalMillis);
+	}
+
+	/**
+	 * Stops sampling once every user that started it has stopped it.
+	 */
+	public synchronized void stop() {
+		if (running == 0 || --running > 0) {
+			return;
+		}
+		scheduler.shutdownNow();
+		scheduler = null;
+		Log.info("Stack sampler stopped after {} samples", samples);
+	}
+
+	/**
+	 * Takes one sample of every matching thread.
+	 */
+	void sample() {
+		try {
+			Thread[] all = allThreads();
+			long[] ids = new long[all.length];
+			int count = 0;
+			for (Thread thread : all) {
+				if (thread != null && thread != Thread.currentThread()
+						&& threadNames.matcher(thread.getName()).matches()) {
+					ids[count++] = thread.getId();
+				}
+			}
+			if (count == 0) {
+				return;
+			}
+			long[] matching = new long[count];
+			System.arraycopy(ids, 0, matching, 0, count);
+			ThreadInfo[] infos = threads.getThreadInfo(matching, maxDepth);
+			for (ThreadInfo info : infos) {
+				if (info != null) {
+					record(info.getStackTrace());
+				}
+			}
+		} catch (RuntimeException e) {
+			// keep the schedule alive; a failed sample is only a missing sample
+			Log.warn("⚠️ Stack sample failed: {}", e.toString());
+		}
+	}
+
+	private void record(StackTraceElement[] frames) {
+		if (frames.length == 0) {
+			return;
+		}
+		StringBuilder stack = new StringBuilder();
+		for (int i = frames.length - 1; i >= 0; i--) {
+			String frame = frames[i].getClassName() + "." + frames[i].getMethodName();
+			if (IDLE_FRAMES.contains(frame)) {
+				return;
+			}
+			if (stack.length() > 0) {
+				stack.append(';');
+			}
+			stack.append(LAMBDA.matcher(frame).replaceAll(Matcher.quoteReplacement("$$Lambda")));
+		}
+		String key = stack.toString();
+		synchronized (this) {
+			stacks.merge(key, 1L, Long::sum);
+			samples++;
+		}
+	}
+
+	/**
+	 * @return sample counts per collapsed stack so far
+	 */
+	public synchronized Map<String, Long> getStacks() {
+		return new HashMap<>(stacks);
+	}
+
+	/**
+	 * @return stacks sampled so far, one per matching thread per tick
+	 */
+	public synchronized long getSamples() {
+		return samples;
+	}
+
+	/**
+	 * @return the sampling interval in milliseconds
+	 */
+	public long getIntervalMillis() {
+		return intervalMillis;
+	}
+
+	private static Thread[] allThreads() {
+		ThreadGroup root = Thread.currentThread().getThreadGroup();
+		while (root.getParent() != null) {
+			root = root.getParent();
+		}
+		Thread[] all = new Thread[root.activeCount() + 16];
+		int count = root.enumerate(all, true);
+		return count == all.length ? Thread.getAllStackTraces().keySet().toArray(new Thread[0]) : all;
+	}
+}
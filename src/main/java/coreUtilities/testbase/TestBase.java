@@ -5,6 +5,12 @@ import java.net.URL;
 import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.io.File;
 
 import org.openqa.selenium.PageLoadStrategy;
@@ -15,17 +21,28 @@ import org.openqa.selenium.firefox.FirefoxDriver;
 import org.openqa.selenium.firefox.FirefoxOptions;
 import org.openqa.selenium.safari.SafariDriver;
 
+import coreUtilities.utils.Poll;
 import io.github.bonigarcia.wdm.WebDriverManager;
+import restConfig.ConfigManager;
 
 public class TestBase 
 {
 	public WebDriver driver;
 	private String downloadDir;
+	// Headless browsers are borrowed from a pool per browser and download location
+	// (webdriver.pool.enabled, see WebDriverPool) instead of being started per test.
+	// A pool is created by the first thread that needs it, outside the map, while
+	// the others wait for that one pool
+	private static final Map<String, FutureTask<WebDriverPool>> pools = new ConcurrentHashMap<>();
+	// Driver binaries already resolved by WebDriverManager in this JVM
+	private static final Set<String> driversSetUp = ConcurrentHashMap.newKeySet();
+	private WebDriverPool pool;
 	
 	public void initialize(Map<String, String> map) throws Exception
 	{
 		
 			String browser = map.get("browser");
+			pool = null;
 			downloadDir = System.getProperty("user.dir")+"\\downloads";
 			if(browser.equalsIgnoreCase("Chrome"))
 			{	
@@ -38,75 +55,149 @@ public class TestBase
 			    prefs.put("download.directory_upgrade", true);
 			    prefs.put("safebrowsing.enabled", false);
 			    options.setExperimentalOption("prefs", prefs);
-			    WebDriverManager.chromedriver().setup();
+			    setUpDriver("chrome");
 			    driver = new ChromeDriver(options);
 				driver.manage().window().maximize();
 			}
 			else if(browser.equalsIgnoreCase("Firefox"))
 			{
-				WebDriverManager.firefoxdriver().setup(); 
+				setUpDriver("firefox");
 				driver = new FirefoxDriver();
 			}
 			else if(browser.equalsIgnoreCase("ChromeHeadless"))
 			{
-				Map<String, Object> prefs = new HashMap<String, Object>();
-				prefs.put("intl.accept_languages", "qps-ploc,en-us,en");
-				prefs.put("download.default_directory", map.get("downloadlocation"));
-				ChromeOptions options = new ChromeOptions();
-				options.setExperimentalOption("prefs", prefs);
-				options.addArguments("--headless=new");
-				options.addArguments("--start-maximized");
-				options.addArguments("--window-size=1920, 1080");
-				options.addArguments("--test-type");
-				options.addArguments("--disable-gpu");
-				options.addArguments("--no-first-run");
-				options.addArguments("--no-default-browser-check");
-				options.addArguments("--ignore-certificate-errors");
-				options.addArguments("--disable-extensions");
-			    options.addArguments("--proxy-server='direct://'");
-			    options.addArguments("--proxy-bypass-list=*");
-				options.addArguments("--no-sandbox");
-				options.addArguments("--allow-insecure-localhost");
-				options.setCapability("acceptInsecureCerts", true);
-				options.addArguments("--disable-dev-shm-usage");
-				options.addArguments("user-agent=Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/60.0.3112.113 Safari/537.36");
-				options.addArguments("enable-automation");
-				options.addArguments("--dns-prefetch-disable");
-				options.addArguments("--remote-allow-origins=*");//Allowing for remote access
-				options.setPageLoadStrategy(PageLoadStrategy.EAGER);
-				WebDriverManager.chromedriver().setup();
-				driver = new ChromeDriver(options);
+				String downloadLocation = map.get("downloadlocation");
+				driver = borrow(browser + "|" + downloadLocation, () ->
+				{
+					setUpDriver("chrome");
+					return new ChromeDriver(chromeHeadlessOptions(downloadLocation));
+				});
 			}
 			else if(browser.equalsIgnoreCase("FirefoxHeadless"))
 			{
-				FirefoxOptions options = new FirefoxOptions();
-				options.addPreference("intl.accept_languages", "qps-ploc,en-us,en");
-				options.addArguments("--headless");
-				options.addArguments("--disable-gpu");
-				options.addArguments("--no-sandbox");
-				options.addArguments("--allow-insecure-localhost");
-				options.addArguments("--window-size=1440, 900");
-				options.setCapability("acceptInsecureCerts", true);
-				driver = WebDriverManager.firefoxdriver().capabilities(options).create();
+				driver = borrow(browser, () -> WebDriverManager.firefoxdriver().capabilities(firefoxHeadlessOptions()).create());
 			}
 			else if(browser.equalsIgnoreCase("Safari"))
 			{
-				WebDriverManager.safaridriver().setup();
+				setUpDriver("safari");
 				driver = new SafariDriver();
 			}
 			else
 				throw new Exception("Not a valid browser. Select a valid browser like Chrome, Firefox, ChromeHeadless");
 			
-			driver.manage().window().maximize();
-			driver.manage().deleteAllCookies();
+			if(pool == null)
+			{
+				// Pooled browsers come reset and sized by their options
+				driver.manage().window().maximize();
+				driver.manage().deleteAllCookies();
+			}
 			driver.get(map.get("url"));
 			driver.manage().timeouts().pageLoadTimeout(Duration.ofSeconds(Long.parseLong(map.get("pageloadtimeout"))));
 			driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(Long.parseLong(map.get("implicitwaittime"))));
 		}
-		
+	
+	private WebDriver borrow(String key, Supplier<WebDriver> factory) throws InterruptedException
+	{
+		if(!ConfigManager.getBooleanProperty("webdriver.pool.enabled", true))
+			return factory.get();
+		FutureTask<WebDriverPool> creation = new FutureTask<>(() ->
+		{
+			WebDriverPool created = WebDriverPool.fromConfig(key.split("\\|")[0], factory);
+			Runtime.getRuntime().addShutdownHook(new Thread(created::close, "webdriver-pool-close"));
+			return created;
+		});
+		FutureTask<WebDriverPool> existing = pools.putIfAbsent(key, creation);
+		if(existing == null)
+		{
+			existing = creation;
+			creation.run();
+		}
+		try
+		{
+			pool = existing.get();
+		}
+		catch(ExecutionException e)
+		{
+			// The next test tries again
+			pools.remove(key, existing);
+			Throwable cause = e.getCause();
+			throw cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+		}
+		return pool.borrow();
+	}
+	
+	private static void setUpDriver(String browser)
+	{
+		if(!driversSetUp.add(browser))
+			return;
+		if(browser.equals("chrome"))
+			WebDriverManager.chromedriver().setup();
+		else if(browser.equals("firefox"))
+			WebDriverManager.firefoxdriver().setup();
+		else
+			WebDriverManager.safaridriver().setup();
+	}
+	
+	private static ChromeOptions chromeHeadlessOptions(String downloadLocation)
+	{
+		Map<String, Object> prefs = new HashMap<String, Object>();
+		prefs.put("intl.accept_languages", "qps-ploc,en-us,en");
+		prefs.put("download.default_directory", downloadLocation);
+		ChromeOptions options = new ChromeOptions();
+		options.setExperimentalOption("prefs", prefs);
+		options.addArguments("--headless=new");
+		options.addArguments("--start-maximized");
+		options.addArguments("--window-size=1920, 1080");
+		options.addArguments("--test-type");
+		options.addArguments("--disable-gpu");
+		options.addArguments("--no-first-run");
+		options.addArguments("--no-default-browser-check");
+		options.addArguments("--ignore-certificate-errors");
+		options.addArguments("--disable-extensions");
+		options.addArguments("--proxy-server='direct://'");
+		options.addArguments("--proxy-bypass-list=*");
+		options.addArguments("--no-sandbox");
+		options.addArguments("--allow-insecure-localhost");
+		options.setCapability("acceptInsecureCerts", true);
+		options.addArguments("--disable-dev-shm-usage");
+		options.addArguments("user-agent=Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/60.0.3112.113 Safari/537.36");
+		options.addArguments("enable-automation");
+		options.addArguments("--dns-prefetch-disable");
+		options.addArguments("--remote-allow-origins=*");//Allowing for remote access
+		options.setPageLoadStrategy(PageLoadStrategy.EAGER);
+		return options;
+	}
+	
+	private static FirefoxOptions firefoxHeadlessOptions()
+	{
+		FirefoxOptions options = new FirefoxOptions();
+		options.addPreference("intl.accept_languages", "qps-ploc,en-us,en");
+		options.addArguments("--headless");
+		options.addArguments("--disable-gpu");
+		options.addArguments("--no-sandbox");
+		options.addArguments("--allow-insecure-localhost");
+		options.addArguments("--window-size=1440, 900");
+		options.setCapability("acceptInsecureCerts", true);
+		return options;
+	}
+	
+	// Waits until the condition, e.g. a Selenium ExpectedCondition, returns a value
+	// other than null or false, polling with backoff (wait.* settings, see Poll)
+	// instead of sleeping for a fixed time
+	public <T> T waitFor(String description, Function<? super WebDriver, T> condition)
+	{
+		return Poll.until(driver, description, condition);
+	}
 	
 	public void browserTearDown()
 	{
+		if(pool != null)
+		{
+			// Reset and keep the browser for the next test
+			pool.release(driver);
+			pool = null;
+			return;
+		}
 		System.out.println("before closing the browser");
 		driver.quit();
 		System.out.println("after closing the browser");
@@ -0,0 +1,374 @@
+package coreUtilities.testbase;
+
+import java.io.Closeable;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chromium.ChromiumDriver;
+
+import coreUtilities.utils.Log;
+import restConfig.ConfigManager;
+
+/**
+ * Started browsers handed from test to test, so a UI step does not pay for a
+ * browser start each time.
+ *
+ * <p>
+ * <code>webdriver.pool.warm</code> browsers (default 2) are started in
+ * parallel when the pool is created. {@link #borrow()} returns an idle browser
+ * after checking that its session still answers, or starts a new one, and
+ * waits up to <code>webdriver.pool.wait.seconds</code> (default 120) once
+ * <code>webdriver.pool.max</code> browsers (default 4) are running.
+ * {@link #release} clears cookies and the storage of the last page, closes
+ * extra windows and opens <code>about:blank</code> before the next borrower
+ * gets the browser. A browser that fails the check or the reset, or has been
+ * borrowed <code>webdriver.pool.max.uses</code> times (default 50), is quit
+ * and replaced in the background.
+ *
+ * <p>
+ * The time borrowers waited, including browser starts, and how often browsers
+ * were recycled are kept per pool and logged by {@link #close()}.
+ */
+public class WebDriverPool implements Closeable {
+
+	private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.HOURS.toMicros(1);
+	private static final long POLL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+	private final String name;
+	private final Supplier<WebDriver> factory;
+	private final int warm;
+	private final int max;
+	private final int maxUses;
+	private final long waitNanos;
+	// One permit per browser that may be borrowed at the same time
+	private final Semaphore permits;
+	// Most recently released first, so the browsers in use stay warm
+	private final BlockingDeque<Pooled> idle = new LinkedBlockingDeque<>();
+	private final Map<WebDriver, Pooled> borrowed = new ConcurrentHashMap<>();
+	// Browsers running or being started
+	private final AtomicInteger live = new AtomicInteger();
+	private final ExecutorService starter;
+	private final Histogram waits = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+	private final LongAdder started = new LongAdder();
+	private final LongAdder unhealthy = new LongAdder();
+	private final LongAdder resetFailed = new LongAdder();
+	private final LongAdder wornOut = new LongAdder();
+
+	/**
+	 * A browser of the pool and how often it was borrowed.
+	 */
+	private static final class Pooled {
+		final WebDriver driver;
+		int uses;
+
+		Pooled(WebDriver driver) {
+			this.driver = driver;
+		}
+	}
+
+	public WebDriverPool(String name, Supplier<WebDriver> factory, int warm, int max, int maxUses, long waitSeconds) {
+		this.name = name;
+		this.factory = factory;
+		this.max = Math.max(1, max);
+		this.warm = Math.min(Math.max(0, warm), this.max);
+		this.maxUses = Math.max(1, maxUses);
+		this.waitNanos = TimeUnit.SECONDS.toNanos(waitSeconds);
+		this.permits = new Semaphore(this.max, true);
+		AtomicInteger threads = new AtomicInteger();
+		this.starter = Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, name + "-start-" + threads.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		warmUp();
+	}
+
+	/**
+	 * Creates a pool with the <code>webdriver.pool.*</code> settings.
+	 *
+	 * @param name    used in thread names and the log, e.g. the browser
+	 * @param factory starts one browser
+	 */
+	public static WebDriverPool fromConfig(String name, Supplier<WebDriver> factory) {
+		return new WebDriverPool(name, factory, ConfigManager.getIntProperty("webdriver.pool.warm", 2),
+				ConfigManager.getIntProperty("webdriver.pool.max", 4),
+				ConfigManager.getIntProperty("webdriver.pool.max.uses", 50),
+				ConfigManager.getIntProperty("webdriver.pool.wait.seconds", 120));
+	}
+
+	/**
+	 * @return a browser for the caller alone until it is given to
+	 *         {@link #release}
+	 * @throws IllegalStateException if no browser became free in time, or a new
+	 *                               one could not be started
+	 */
+	public WebDriver borrow() {
+		long start = System.nanoTime();
+		long deadline = start + waitNanos;
+		try {
+			if (!permits.tryAcquire(waitNanos, TimeUnit.NANOSECONDS)) {
+				throw timeout();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for a browser of pool " + name, e);
+		}
+		try {
+			while (true) {
+				Pooled pooled = idle.pollFirst();
+				if (pooled == null && reserve()) {
+					pooled = startBrowser();
+				} else if (pooled == null) {
+					long left = deadline - System.nanoTime();
+					if (left <= 0) {
+						throw timeout();
+					}
+					// Wake up now and then in case a browser that was being started failed
+					pooled = idle.pollFirst(Math.min(left, POLL_NANOS), TimeUnit.NANOSECONDS);
+					if (pooled == null) {
+						continue;
+					}
+				}
+				if (!isHealthy(pooled.driver)) {
+					recycle(pooled, "its session does not answer", unhealthy);
+					continue;
+				}
+				pooled.uses++;
+				borrowed.put(pooled.driver, pooled);
+				waits.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start),
+						HIGHEST_TRACKABLE_MICROS));
+				return pooled.driver;
+			}
+		} catch (InterruptedException e) {
+			permits.release();
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for a browser of pool " + name, e);
+		} catch (RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	/**
+	 * Resets the browser and makes it available to the next borrower; a
+	 * browser that is not from this pool is quit.
+	 */
+	public void release(WebDriver driver) {
+		Pooled pooled = borrowed.remove(driver);
+		if (pooled == null) {
+			quit(driver);
+			return;
+		}
+		try {
+			if (pooled.uses >= maxUses) {
+				recycle(pooled, "it was borrowed " + pooled.uses + " times", wornOut);
+			} else if (!reset(pooled.driver)) {
+				recycle(pooled, "it could not be reset", resetFailed);
+			} else {
+				idle.offerFirst(pooled);
+			}
+		} finally {
+			permits.release();
+		}
+	}
+
+	/**
+	 * @return the time borrowers waited for a browser, in microseconds
+	 */
+	public Histogram getWaitHistogram() {
+		return waits;
+	}
+
+	/**
+	 * @return how many browsers were started, including the warm ones
+	 */
+	public long getStartedCount() {
+		return started.sum();
+	}
+
+	/**
+	 * @return how many browsers were quit and replaced
+	 */
+	public long getRecycledCount() {
+		return unhealthy.sum() + resetFailed.sum() + wornOut.sum();
+	}
+
+	/**
+	 * @return borrows, wait percentiles and recycling counts in one line
+	 */
+	public String summary() {
+		Histogram snapshot = waits.copy();
+		return String.format(
+				"WebDriver pool %s: %d borrows, wait p50 %.1f ms p99 %.1f ms max %.1f ms; %d browsers started, "
+						+ "%d recycled (%d unhealthy, %d reset failed, %d worn out)",
+				name, snapshot.getTotalCount(), snapshot.getValueAtPercentile(50) / 1000.0,
+				snapshot.getValueAtPercentile(99) / 1000.0, snapshot.getMaxValue() / 1000.0, getStartedCount(),
+				getRecycledCount(), unhealthy.sum(), resetFailed.sum(), wornOut.sum());
+	}
+
+	/**
+	 * Quits every browser of the pool, borrowed or not, and logs the
+	 * {@link #summary()}.
+	 */
+	@Override
+	public void close() {
+		starter.shutdownNow();
+		List<Pooled> all = new ArrayList<>(borrowed.values());
+		idle.drainTo(all);
+		borrowed.clear();
+		for (Pooled pooled : all) {
+			quit(pooled.driver);
+		}
+		live.addAndGet(-all.size());
+		Log.info(summary());
+	}
+
+	private void warmUp() {
+		List<CompletableFuture<Void>> starts = new ArrayList<>();
+		for (int i = 0; i < warm && reserve(); i++) {
+			starts.add(CompletableFuture.runAsync(() -> idle.offerLast(startBrowser()), starter));
+		}
+		long start = System.nanoTime();
+		try {
+			CompletableFuture.allOf(starts.toArray(new CompletableFuture<?>[0])).join();
+		} catch (CompletionException e) {
+			// Borrowers start their own browser and report the error if it persists
+			Log.warn("⚠️ Could not start every warm browser of pool {}: {}", name, e.getCause().getMessage());
+		}
+		Log.info("WebDriver pool {} started {} warm browsers in {} ms", name, idle.size(),
+				TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+	}
+
+	// Claims room for one more browser under the cap
+	private boolean reserve() {
+		int running;
+		do {
+			running = live.get();
+			if (running >= max) {
+				return false;
+			}
+		} while (!live.compareAndSet(running, running + 1));
+		return true;
+	}
+
+	// Starts a browser for a reserved place
+	private Pooled startBrowser() {
+		try {
+			Pooled pooled = new Pooled(factory.get());
+			started.increment();
+			return pooled;
+		} catch (RuntimeException e) {
+			live.decrementAndGet();
+			throw e;
+		}
+	}
+
+	private void recycle(Pooled pooled, String reason, LongAdder counter) {
+		counter.increment();
+		Log.info("Replacing a browser of pool {} because {}", name, reason);
+		quit(pooled.driver);
+		live.decrementAndGet();
+		if (live.get() < warm && reserve()) {
+			starter.execute(() -> {
+				try {
+					idle.offerLast(startBrowser());
+				} catch (RuntimeException e) {
+					Log.warn("⚠️ Could not start a replacement browser for pool {}: {}", name, e.getMessage());
+				}
+			});
+		}
+	}
+
+	private IllegalStateException timeout() {
+		return new IllegalStateException("No browser of pool " + name + " became free within "
+				+ TimeUnit.NANOSECONDS.toSeconds(waitNanos) + " s; " + max + " are running");
+	}
+
+	private static boolean isHealthy(WebDriver driver) {
+		try {
+			driver.getWindowHandle();
+			return true;
+		} catch (WebDriverException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Clears cookies and the storage of the page the borrower left open, closes
+	 * every window but one and opens <code>about:blank</code>.
+	 */
+	static boolean reset(WebDriver driver) {
+		try {
+			if (driver instanceof ChromiumDriver) {
+				// Cookies of every site, not only the current one
+				ChromiumDriver chromium = (ChromiumDriver) driver;
+				chromium.executeCdpCommand("Network.clearBrowserCookies", Collections.emptyMap());
+				String origin = origin(driver.getCurrentUrl());
+				if (origin != null) {
+					Map<String, Object> storage = new HashMap<>();
+					storage.put("origin", origin);
+					storage.put("storageTypes", "all");
+					chromium.executeCdpCommand("Storage.clearDataForOrigin", storage);
+				}
+			} else {
+				driver.manage().deleteAllCookies();
+				if (driver instanceof JavascriptExecutor) {
+					((JavascriptExecutor) driver).executeScript(
+							"try { window.localStorage.clear(); window.sessionStorage.clear(); } catch (e) {}");
+				}
+			}
+			List<String> windows = new ArrayList<>(driver.getWindowHandles());
+			for (int i = 1; i < windows.size(); i++) {
+				driver.switchTo().window(windows.get(i));
+				driver.close();
+			}
+			driver.switchTo().window(windows.get(0));
+			driver.get("about:blank");
+			return true;
+		} catch (WebDriverException e) {
+			Log.warn("⚠️ Could not reset browser: {}", e.getMessage());
+			return false;
+		}
+	}
+
+	private static String origin(String url) {
+		try {
+			URI uri = URI.create(url);
+			if (uri.getHost() == null || uri.getScheme() == null || !uri.getScheme().startsWith("http")) {
+				return null;
+			}
+			return uri.getScheme() + "://" + uri.getHost() + (uri.getPort() < 0 ? "" : ":" + uri.getPort());
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	private static void quit(WebDriver driver) {
+		try {
+			driver.quit();
+		} catch (WebDriverException e) {
+			// already gone
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package coreUtilities.testlisteners;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Service level objective for the API calls a test method makes, enforced by
+ * {@link SloListener}.
+ *
+ * <p>
+ * Each limit applies per call, at {@link #percentile()} over all calls the
+ * method made on its test thread. A method run once with a single call is
+ * therefore held to that call; a method run with <code>invocationCount</code>
+ * is judged once its last invocation has finished, over the calls of all its
+ * invocations. Limits left at -1 are not checked.
+ *
+ * <pre>
+ * &#64;Slo(latencyMillis = 800, responseBytes = 64_000)
+ * &#64;Test(invocationCount = 50, threadPoolSize = 5)
+ * public void GetVacancies() { ... }
+ * </pre>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Slo {
+
+	/**
+	 * @return the percentile the limits apply to, default 95
+	 */
+	double percentile() default 95;
+
+	/**
+	 * @return maximum latency of a call in milliseconds, from sending the
+	 *         request until the CustomResponse was built
+	 */
+	long latencyMillis() default -1;
+
+	/**
+	 * @return maximum size of a response body in bytes
+	 */
+	long responseBytes() default -1;
+
+	/**
+	 * @return maximum bytes the test thread may allocate for a call, parsing
+	 *         included
+	 */
+	long allocatedBytes() default -1;
+}
@@ -0,0 +1,155 @@
+package coreUtilities.testlisteners;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ITestResult;
+import org.testng.annotations.Test;
+
+import coreUtilities.utils.Log;
+import rest.ApiMetrics;
+import restConfig.ConfigManager;
+
+/**
+ * Enforces the {@link Slo} of test methods with the per-call figures from
+ * {@link ApiMetrics}.
+ *
+ * <p>
+ * While an annotated method runs, every API call its thread completes is
+ * recorded for the method. After the last invocation the percentile of each
+ * limit is compared with the limit. A violation is only logged by default
+ * (<code>slo.mode=warn</code>), as the suite runs against a shared server;
+ * <code>slo.mode=fail</code> fails that invocation with an AssertionError, so
+ * it is reported with the functional failures. The measured figures are left
+ * on the test result as {@link #RESULT_ATTRIBUTE} for TestListener to add to
+ * the Extent report.
+ */
+public class SloListener implements IInvokedMethodListener {
+
+	public static final String RESULT_ATTRIBUTE = "slo.summary";
+	public static final String VIOLATED_ATTRIBUTE = "slo.violated";
+
+	private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.HOURS.toMicros(1);
+	private static final long HIGHEST_TRACKABLE_BYTES = 1L << 40;
+	private static final boolean ENFORCE = "fail"
+			.equalsIgnoreCase(ConfigManager.getProperty("slo.mode", "warn").trim());
+
+	// Keyed by the Java method: with threadPoolSize TestNG runs each invocation
+	// as a separate ITestNGMethod
+	private final Map<Method, Samples> samples = new ConcurrentHashMap<>();
+
+	/**
+	 * Calls of one test method over its invocations so far.
+	 */
+	static class Samples implements ApiMetrics.CallObserver {
+		final Histogram latency = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+		final Histogram response = new ConcurrentHistogram(HIGHEST_TRACKABLE_BYTES, 2);
+		final Histogram allocated = new ConcurrentHistogram(HIGHEST_TRACKABLE_BYTES, 2);
+		final AtomicInteger invocations = new AtomicInteger();
+
+		@Override
+		public void call(ApiMetrics.Endpoint endpoint, long latencyNanos, long allocatedBytes, long responseBytes) {
+			latency.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_MICROS));
+			response.recordValue(Math.min(Math.max(responseBytes, 0), HIGHEST_TRACKABLE_BYTES));
+			allocated.recordValue(Math.min(Math.max(allocatedBytes, 0), HIGHEST_TRACKABLE_BYTES));
+		}
+	}
+
+	@Override
+	public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+		Slo slo = slo(method);
+		if (slo == null) {
+			return;
+		}
+		ApiMetrics.observe(samples.computeIfAbsent(javaMethod(method), key -> new Samples()));
+	}
+
+	@Override
+	public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+		Slo slo = slo(method);
+		if (slo == null) {
+			return;
+		}
+		ApiMetrics.observe(null);
+		Method testMethod = javaMethod(method);
+		Samples recorded = samples.get(testMethod);
+		if (recorded == null) {
+			return;
+		}
+		int invocations = recorded.invocations.incrementAndGet();
+		Test test = testMethod.getAnnotation(Test.class);
+		int expected = Math.max(1, test == null ? 1 : test.invocationCount());
+		long calls = recorded.latency.getTotalCount();
+		if (invocations < expected) {
+			testResult.setAttribute(RESULT_ATTRIBUTE,
+					String.format("SLO: invocation %d of %d, %d calls so far", invocations, expected, calls));
+			return;
+		}
+		samples.remove(testMethod);
+		if (calls == 0) {
+			testResult.setAttribute(RESULT_ATTRIBUTE, "SLO: no API calls were measured");
+			return;
+		}
+
+		String percentile = "p" + (slo.percentile() == Math.floor(slo.percentile())
+				? String.valueOf((long) slo.percentile())
+				: String.valueOf(slo.percentile()));
+		List<String> checks = new ArrayList<>();
+		List<String> violations = new ArrayList<>();
+		check(checks, violations, "latency", recorded.latency, slo.percentile(), slo.latencyMillis() * 1000,
+				1000.0, "ms");
+		check(checks, violations, "response", recorded.response, slo.percentile(), slo.responseBytes(), 1000.0,
+				"kB");
+		check(checks, violations, "allocated", recorded.allocated, slo.percentile(), slo.allocatedBytes(), 1000.0,
+				"kB");
+		String summary = String.format("SLO %s over %d calls in %d invocations: %s", percentile, calls, invocations,
+				String.join(", ", checks));
+		testResult.setAttribute(RESULT_ATTRIBUTE, summary);
+		if (violations.isEmpty()) {
+			Log.info("{}: {}", testMethod.getName(), summary);
+			return;
+		}
+		testResult.setAttribute(VIOLATED_ATTRIBUTE, Boolean.TRUE);
+		String message = String.format("SLO violated for %s: %s %s", testMethod.getName(), percentile,
+				String.join(", ", violations));
+		Log.warn("⚠️ {}", message);
+		if (ENFORCE && testResult.getStatus() == ITestResult.SUCCESS) {
+			testResult.setStatus(ITestResult.FAILURE);
+			testResult.setThrowable(new AssertionError(message));
+		}
+	}
+
+	private static void check(List<String> checks, List<String> violations, String name, Histogram histogram,
+			double percentile, long limit, double scale, String unit) {
+		if (limit < 0) {
+			return;
+		}
+		long value = histogram.getValueAtPercentile(percentile);
+		String line = String.format("%s %.1f %s (max %.1f)", name, value / scale, unit, limit / scale);
+		checks.add(line);
+		// The histogram rounds up; only a value whose whole bucket is over counts
+		if (histogram.lowestEquivalentValue(value) > limit) {
+			violations.add(line);
+		}
+	}
+
+	private static Slo slo(IInvokedMethod method) {
+		if (!method.isTestMethod()) {
+			return null;
+		}
+		return javaMethod(method).getAnnotation(Slo.class);
+	}
+
+	private static Method javaMethod(IInvokedMethod method) {
+		return method.getTestMethod().getConstructorOrMethod().getMethod();
+	}
+}
@@ -1,57 +1,123 @@
 package coreUtilities.testlisteners;
 
+import org.testng.IExecutionListener;
 import org.testng.ITestContext;
 import org.testng.ITestListener;
 import org.testng.ITestResult;
+import org.testng.TestNGException;
 
 import com.aventstack.extentreports.ExtentReports;
 import com.aventstack.extentreports.ExtentTest;
 
+import coreUtilities.jfr.ExtentWriteEvent;
+import coreUtilities.profiling.FlameGraph;
+import coreUtilities.profiling.StackSampler;
+import coreUtilities.tracing.Tracing;
 import coreUtilities.utils.ExtentReportManager;
+import coreUtilities.utils.Log;
+import coreUtilities.utils.StringInterner;
+import rest.ApiMetrics;
+import rest.PerformanceGate;
+import rest.ResponseCapture;
+import restConfig.ConfigManager;
 import static coreUtilities.testutils.TestUtils.businessTestFile;
 import static coreUtilities.testutils.TestUtils.currentTest;
 import static coreUtilities.testutils.TestUtils.yakshaAssert;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
 
 
 
-public class TestListener implements ITestListener
+public class TestListener implements ITestListener, IExecutionListener
 {
 
 	//Extent Report Declarations
     private static ExtentReports extent = ExtentReportManager.createInstance();
     private static ThreadLocal<ExtentTest> test = new ThreadLocal<ExtentTest>();
+
+    // Passed tests kept in the report (0 keeps all); long soak or invocationCount
+    // runs would otherwise hold every test in memory until the suite ends
+    private static final int maxPassedTests = ConfigManager.getIntProperty("extent.max.passed.tests", 0);
+    private static final Deque<ExtentTest> passedTests = new ArrayDeque<>();
+
+    // Opt-in sampling profiler of the test threads (profiler.enabled)
+    private static final StackSampler sampler = StackSampler.fromConfig();
+
+    // The per-test callbacks are not synchronized: parallel tests would queue on
+    // the listener for every start and result. ExtentReports and ExtentTest lock
+    // internally, the current test is thread-local, the result counters are
+    // LongAdders and passedTests has its own lock.
  
     public synchronized void onStart(ITestContext context) {
-        System.out.println("Extent Reports Version 3 Test Suite started!");
+        Log.startTestSuite(context);
+        Log.info("Extent Reports Version 3 Test Suite started!");
+        if (sampler != null) {
+            sampler.start();
+        }
     }
  
     public synchronized void onFinish(ITestContext context) {
-        System.out.println(("Extent Reports Version 3  Test Suite is ending!"));
-        extent.flush();
+        Log.info("Extent Reports Version 3  Test Suite is ending!");
+        Log.info(StringInterner.shared().stats());
+        writeReport("api-metrics", () -> ApiMetrics.publish(extent));
+        writeReport("flush", extent::flush);
+        writeProfile();
+        Tracing.flush();
+        Log.endTestSuite();
+    }
+
+    // The performance gate runs once, when every <test> is over, and fails the run
+    // in perf.gate=fail mode once every listener and reporter has run, the way
+    // TestNG itself fails a run in which every test was skipped
+    @Override
+    public void onExecutionFinish() {
+        List<PerformanceGate.Finding> regressions = PerformanceGate.check(extent);
+        writeReport("flush", extent::flush);
+        String failure = PerformanceGate.failure(regressions);
+        if (failure != null) {
+            Log.error("❌ Performance gate failed: {}", failure);
+            throw new TestNGException(failure);
+        }
     }
  
-    public synchronized void onTestStart(ITestResult result) {
-        System.out.println((result.getMethod().getMethodName() + " started!"));
+    public void onTestStart(ITestResult result) {
+        Log.startTestCase(result.getMethod().getMethodName());
         ExtentTest extentTest = extent.createTest(result.getMethod().getMethodName(),result.getMethod().getDescription());
         test.set(extentTest);
+        ResponseCapture.reset();
+        ApiMetrics.testStarted();
+        Tracing.testStarted(result.getTestClass().getName(), result.getMethod().getMethodName());
     }
  
-    public synchronized void onTestSuccess(ITestResult result) {
-       System.out.println((result.getMethod().getMethodName() + " passed!"));
+    public void onTestSuccess(ITestResult result) {
+        Log.info("{} passed!", result.getMethod().getMethodName());
+        reportCost(result);
+        reportSlo(result);
+        endTrace("passed", null);
         test.get().pass("Test passed");
+        retainPassed(test.get());
         try {
             yakshaAssert(result.getMethod().getMethodName(), true, businessTestFile);
         } catch (IOException e) {
             // TODO Auto-generated catch block
             e.printStackTrace();
         }
+        test.remove();
+        Log.endTestCase();
     }
  
-    public synchronized void onTestFailure(ITestResult result) {
-        System.out.println((result.getMethod().getMethodName() + " failed!"));
-        System.out.println(result.getThrowable().toString());
+    public void onTestFailure(ITestResult result) {
+        Log.error("{} failed! {}", result.getMethod().getMethodName(), result.getThrowable());
+        dumpCapturedCalls(result);
+        reportCost(result);
+        reportSlo(result);
+        endTrace("failed", result.getThrowable());
         try {
             yakshaAssert(result.getMethod().getMethodName(), false, businessTestFile);
         } catch (IOException e) {
@@ -59,10 +125,15 @@ public class TestListener implements ITestListener
             e.printStackTrace();
         }
         test.get().fail(result.getThrowable());
+        test.remove();
+        Log.endTestCase();
     }
  
-    public synchronized void onTestSkipped(ITestResult result) {
-        System.out.println((result.getMethod().getMethodName() + " skipped!"));
+    public void onTestSkipped(ITestResult result) {
+        Log.info("{} skipped!", result.getMethod().getMethodName());
+        reportCost(result);
+        reportSlo(result);
+        endTrace("skipped", result.getThrowable());
         try {
             yakshaAssert(result.getMethod().getMethodName(), false, businessTestFile);
         } catch (IOException e) {
@@ -70,10 +141,109 @@ public class TestListener implements ITestListener
             e.printStackTrace();
         }
         test.get().skip(result.getThrowable());
+        test.remove();
+        Log.endTestCase();
     }
  
+    // Drop the oldest passed test once more than extent.max.passed.tests are kept;
+    // failures and skips always stay in the report
+    private void retainPassed(ExtentTest passed) {
+        if (maxPassedTests <= 0) {
+            return;
+        }
+        ExtentTest oldest = null;
+        synchronized (passedTests) {
+            passedTests.addLast(passed);
+            if (passedTests.size() > maxPassedTests) {
+                oldest = passedTests.removeFirst();
+            }
+        }
+        if (oldest != null) {
+            extent.removeTest(oldest);
+        }
+    }
+
+    // The trace id lets a slow test be looked up in the server's traces
+    private void endTrace(String status, Throwable failure) {
+        String traceId = Tracing.testFinished(status, failure);
+        if (traceId != null) {
+            test.get().info("Trace id: " + traceId);
+        }
+    }
+
+    // Flame graph of everything sampled so far, next to the Extent report
+    private void writeProfile() {
+        if (sampler == null) {
+            return;
+        }
+        sampler.stop();
+        String reportFile = ExtentReportManager.getReportFile();
+        Path directory = reportFile == null ? Paths.get("TestReport") : Paths.get(reportFile).getParent();
+        try {
+            Path html = FlameGraph.write(sampler.getStacks(), directory, "profile-flamegraph",
+                    String.format("Test threads, %d samples every %d ms", sampler.getSamples(),
+                            sampler.getIntervalMillis()));
+            Log.info("Flame graph written to {}", html.toAbsolutePath());
+        } catch (IOException e) {
+            Log.error("❌ Could not write flame graph to {}: {}", directory, e);
+        }
+    }
+
+    // Report writes show up as Flight Recorder events when a recording is running
+    private void writeReport(String operation, Runnable write) {
+        ExtentWriteEvent event = new ExtentWriteEvent();
+        event.begin();
+        write.run();
+        event.end();
+        if (event.shouldCommit()) {
+            String reportFile = ExtentReportManager.getReportFile();
+            event.operation = operation;
+            event.endpoint = reportFile;
+            event.payloadBytes = reportFile == null ? 0 : new File(reportFile).length();
+            event.commit();
+        }
+    }
+
+    // API latency, allocation and CPU time of the test, next to its result
+    private void reportCost(ITestResult result) {
+        ApiMetrics.TestCost cost = ApiMetrics.testFinished(result.getMethod().getMethodName());
+        if (cost != null) {
+            Log.info(cost.summary());
+            test.get().info(cost.summary());
+        }
+    }
+
+    // Measured SLO figures, set by SloListener on annotated tests
+    private void reportSlo(ITestResult result) {
+        Object summary = result.getAttribute(SloListener.RESULT_ATTRIBUTE);
+        if (summary == null) {
+            return;
+        }
+        if (Boolean.TRUE.equals(result.getAttribute(SloListener.VIOLATED_ATTRIBUTE))) {
+            test.get().warning(summary.toString());
+        } else {
+            test.get().info(summary.toString());
+        }
+    }
+
+    // Print the API calls the failing test made; passing tests never print bodies
+    private void dumpCapturedCalls(ITestResult result) {
+        String calls = ResponseCapture.dump(result.getStartMillis(), isTimedOut(result));
+        if (!calls.isEmpty()) {
+            Log.error("Recent API calls:\n{}", calls);
+            test.get().info("<pre>" + calls.replace("&", "&amp;").replace("<", "&lt;") + "</pre>");
+        }
+    }
+
+    // A timed-out method ran on a TestNG worker thread, not the listener's; the
+    // time-out is set on the method and the run lasted at least that long
+    private static boolean isTimedOut(ITestResult result) {
+        long timeOut = result.getMethod().getTimeOut();
+        return timeOut > 0 && result.getEndMillis() - result.getStartMillis() >= timeOut;
+    }
+
     public void onTestFailedButWithinSuccessPercentage(ITestResult result) {
-        System.out.println(("onTestFailedButWithinSuccessPercentage for " + result.getMethod().getMethodName()));
+        Log.info("onTestFailedButWithinSuccessPercentage for {}", result.getMethod().getMethodName());
     }	
 
 }
\ No newline at end of file
@@ -11,11 +11,15 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Stream;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import coreUtilities.jfr.ResultPublishEvent;
+import coreUtilities.utils.Log;
+
 // boiler-plate code
 
 public class TestUtils {
@@ -28,9 +32,11 @@ public class TestUtils {
 
 	public static String testResult;
 
-	public static int total;
-	public static int passed;
-	public static int failed;
+	// Tests run in parallel report from many threads at once; LongAdder keeps the
+	// counts exact without making the reporting threads contend on one field
+	private static final LongAdder total = new LongAdder();
+	private static final LongAdder passed = new LongAdder();
+	private static final LongAdder failed = new LongAdder();
 
 	public static File businessTestFile;
 	public static File boundaryTestFile;
@@ -42,10 +48,6 @@ public class TestUtils {
 	public static final String URL = "https://compiler.techademy.com/v1/mfa-results/push";
 
 	static {
-		total = 0;
-		passed = 0;
-		failed = 0;
-
 		testResult = "";
 
 		businessTestFile = new File("./output_revised.txt");
@@ -65,7 +67,7 @@ public class TestUtils {
 			stream.forEach(s -> contentBuilder.append(s).append("\n"));
 		} catch (IOException e) {
 			e.printStackTrace();
-			System.out.println(e.getMessage());
+			Log.error(e.getMessage());
 		}
 
 		return contentBuilder.toString();
@@ -75,11 +77,13 @@ public class TestUtils {
 		TestResults testResults = new TestResults();
 		Map<String, TestCaseResultDto> testCaseResults = new HashMap<String, TestCaseResultDto>();
 
-		customData = "";
+		// Read into a local; customData is shared by every thread that reports
+		String data = "";
 		try {
-			customData = readData("../custom.ih");
+			data = readData("../custom.ih");
 		} catch (Exception e) {
 		}
+		customData = data;
 
 		String resultStatus = "Failed";
 		int resultScore = 0;
@@ -98,7 +102,7 @@ public class TestUtils {
 		} catch (Exception e) {
 
 			e.printStackTrace();
-			System.out.println(e.getMessage());
+			Log.error(e.getMessage());
 		}
 
 		String hostName = System.getenv("HOSTNAME");
@@ -106,16 +110,18 @@ public class TestUtils {
 		String filePath = TestUtils.class.getProtectionDomain().getCodeSource().getLocation().getPath();
 
 		testResults.setTestCaseResults(asJsonString(testCaseResults));
-		testResults.setCustomData(customData);
+		testResults.setCustomData(data);
 		testResults.setHostName(hostName);
 		testResults.setAttemptId(AttemptId);
 		testResults.setFilePath(filePath);
 
 		int length = 0;
-		if (customData != null) {
-			length = customData.length();
+		if (data != null) {
+			length = data.length();
 		}
 
+		ResultPublishEvent event = new ResultPublishEvent();
+		event.begin();
 		try {
 
 			URL url = new URL(URL);
@@ -132,9 +138,11 @@ public class TestUtils {
 			os.close();
 
 			int responseCode = conn.getResponseCode();
+			event.status = responseCode;
+			event.payloadBytes = input.length();
 			if (!(responseCode == HttpURLConnection.HTTP_OK || responseCode == HttpURLConnection.HTTP_CREATED)) {
-				System.out.println(RED_BOLD_BRIGHT + "⚠️ Unable to push test cases,please try again! [" + responseCode
-						+ "|" + hostName + "|" + AttemptId + "|" + length + "]" + TEXT_RESET);
+				Log.warn(RED_BOLD_BRIGHT + "⚠️ Unable to push test cases,please try again! [{}|{}|{}|{}]" + TEXT_RESET,
+						responseCode, hostName, AttemptId, length);
 			}
 
 			// BufferedReader br = new BufferedReader(new
@@ -155,34 +163,50 @@ public class TestUtils {
 
 			e.printStackTrace();
 
+		} finally {
+			event.end();
+			if (event.shouldCommit()) {
+				event.endpoint = URL;
+				event.test = testName;
+				event.commit();
+			}
 		}
 
-		total++;
+		total.increment();
 		String[] r = testName.split("(?=\\p{Upper})");
-		System.out.print("\n" + BLUE_BOLD_BRIGHT + "=>");
-
-		System.out.print(YELLOW_BOLD_BRIGHT + "Test For : ");
-
+		StringBuilder line = new StringBuilder(BLUE_BOLD_BRIGHT + "=>" + YELLOW_BOLD_BRIGHT + "Test For : ");
 		for (int i = 1; i < r.length; i++) {
-			System.out.print(YELLOW_BOLD_BRIGHT + r[i] + " ");
-
+			line.append(r[i]).append(' ');
 		}
-		System.out.print(" : ");
+		line.append(" : ");
 
 		if (result.toString().equals("true")) {
-			System.out.println(GREEN_BOLD_BRIGHT + "PASSED" + TEXT_RESET);
-			passed++;
+			line.append(GREEN_BOLD_BRIGHT + "PASSED" + TEXT_RESET);
+			passed.increment();
 		} else {
-			System.out.println(RED_BOLD_BRIGHT + "FAILED" + TEXT_RESET);
-			failed++;
+			line.append(RED_BOLD_BRIGHT + "FAILED" + TEXT_RESET);
+			failed.increment();
 		}
+		Log.info(line.toString());
+	}
+
+	public static int getTotal() {
+		return total.intValue();
+	}
+
+	public static int getPassed() {
+		return passed.intValue();
+	}
+
+	public static int getFailed() {
+		return failed.intValue();
 	}
 
 	public static void testReport() {
 
-		System.out.print("\n" + BLUE_BOLD_BRIGHT + "TEST CASES EVALUATED : " + total + TEXT_RESET);
-		System.out.print("\n" + GREEN_BOLD_BRIGHT + "PASSED : " + passed + TEXT_RESET);
-		System.out.println("\n" + RED_BOLD_BRIGHT + "FAILED : " + failed + TEXT_RESET);
+		Log.info(BLUE_BOLD_BRIGHT + "TEST CASES EVALUATED : {}" + TEXT_RESET, total.sum());
+		Log.info(GREEN_BOLD_BRIGHT + "PASSED : {}" + TEXT_RESET, passed.sum());
+		Log.info(RED_BOLD_BRIGHT + "FAILED : {}" + TEXT_RESET, failed.sum());
 
 	}
 
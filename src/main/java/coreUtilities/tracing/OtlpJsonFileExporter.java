@@ -0,0 +1,189 @@
+package coreUtilities.tracing;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.common.InstrumentationScopeInfo;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.data.EventData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+import coreUtilities.utils.Log;
+
+/**
+ * Appends finished spans to a file in the OTLP/JSON encoding, one
+ * <code>ExportTraceServiceRequest</code> per line, the layout the
+ * OpenTelemetry Collector's file exporter writes and its
+ * <code>otlpjsonfile</code> receiver reads. Jaeger and Tempo import it through
+ * the Collector.
+ */
+public class OtlpJsonFileExporter implements SpanExporter {
+
+	private static final ObjectMapper mapper = new ObjectMapper();
+
+	private final Path file;
+
+	/**
+	 * @param file the file to append to; parent directories are created
+	 */
+	public OtlpJsonFileExporter(Path file) throws IOException {
+		this.file = file;
+		if (file.getParent() != null) {
+			Files.createDirectories(file.getParent());
+		}
+	}
+
+	@Override
+	public synchronized CompletableResultCode export(Collection<SpanData> spans) {
+		if (spans.isEmpty()) {
+			return CompletableResultCode.ofSuccess();
+		}
+		try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+				StandardOpenOption.APPEND)) {
+			writer.write(mapper.writeValueAsString(toRequest(spans)));
+			writer.write('\n');
+			return CompletableResultCode.ofSuccess();
+		} catch (IOException e) {
+			Log.error("❌ Could not write {} spans to {}: {}", spans.size(), file, e);
+			return CompletableResultCode.ofFailure();
+		}
+	}
+
+	@Override
+	public CompletableResultCode flush() {
+		return CompletableResultCode.ofSuccess();
+	}
+
+	@Override
+	public CompletableResultCode shutdown() {
+		return CompletableResultCode.ofSuccess();
+	}
+
+	/**
+	 * @return the spans grouped by resource and instrumentation scope
+	 */
+	static Map<String, Object> toRequest(Collection<SpanData> spans) {
+		Map<Resource, Map<InstrumentationScopeInfo, List<Object>>> grouped = new LinkedHashMap<>();
+		for (SpanData span : spans) {
+			grouped.computeIfAbsent(span.getResource(), resource -> new LinkedHashMap<>())
+					.computeIfAbsent(span.getInstrumentationScopeInfo(), scope -> new ArrayList<>()).add(toSpan(span));
+		}
+		List<Object> resourceSpans = new ArrayList<>();
+		for (Map.Entry<Resource, Map<InstrumentationScopeInfo, List<Object>>> resource : grouped.entrySet()) {
+			List<Object> scopeSpans = new ArrayList<>();
+			for (Map.Entry<InstrumentationScopeInfo, List<Object>> scope : resource.getValue().entrySet()) {
+				Map<String, Object> scopeInfo = new LinkedHashMap<>();
+				scopeInfo.put("name", scope.getKey().getName());
+				if (scope.getKey().getVersion() != null) {
+					scopeInfo.put("version", scope.getKey().getVersion());
+				}
+				Map<String, Object> entry = new LinkedHashMap<>();
+				entry.put("scope", scopeInfo);
+				entry.put("spans", scope.getValue());
+				scopeSpans.add(entry);
+			}
+			Map<String, Object> resourceInfo = new LinkedHashMap<>();
+			resourceInfo.put("attributes", attributes(resource.getKey().getAttributes()));
+			Map<String, Object> entry = new LinkedHashMap<>();
+			entry.put("resource", resourceInfo);
+			entry.put("scopeSpans", scopeSpans);
+			resourceSpans.add(entry);
+		}
+		Map<String, Object> request = new LinkedHashMap<>();
+		request.put("resourceSpans", resourceSpans);
+		return request;
+	}
+
+	private static Map<String, Object> toSpan(SpanData span) {
+		Map<String, Object> json = new LinkedHashMap<>();
+		json.put("traceId", span.getTraceId());
+		json.put("spanId", span.getSpanId());
+		if (span.getParentSpanContext().isValid()) {
+			json.put("parentSpanId", span.getParentSpanId());
+		}
+		json.put("name", span.getName());
+		// OTLP numbers the kinds from 1, in the order of the SpanKind enum
+		json.put("kind", span.getKind().ordinal() + 1);
+		json.put("startTimeUnixNano", String.valueOf(span.getStartEpochNanos()));
+		json.put("endTimeUnixNano", String.valueOf(span.getEndEpochNanos()));
+		json.put("attributes", attributes(span.getAttributes()));
+		if (!span.getEvents().isEmpty()) {
+			List<Object> events = new ArrayList<>();
+			for (EventData event : span.getEvents()) {
+				Map<String, Object> entry = new LinkedHashMap<>();
+				entry.put("timeUnixNano", String.valueOf(event.getEpochNanos()));
+				entry.put("name", event.getName());
+				entry.put("attributes", attributes(event.getAttributes()));
+				events.add(entry);
+			}
+			json.put("events", events);
+		}
+		Map<String, Object> status = new LinkedHashMap<>();
+		// UNSET, OK, ERROR are 0, 1, 2 in OTLP as in StatusCode
+		status.put("code", span.getStatus().getStatusCode().ordinal());
+		if (!span.getStatus().getDescription().isEmpty()) {
+			status.put("message", span.getStatus().getDescription());
+		}
+		json.put("status", status);
+		return json;
+	}
+
+	private static List<Object> attributes(Attributes attributes) {
+		List<Object> list = new ArrayList<>();
+		attributes.forEach((key, value) -> {
+			Map<String, Object> entry = new LinkedHashMap<>();
+			entry.put("key", key.getKey());
+			entry.put("value", value(key, value));
+			list.add(entry);
+		});
+		return list;
+	}
+
+	private static Map<String, Object> value(AttributeKey<?> key, Object value) {
+		Map<String, Object> json = new LinkedHashMap<>();
+		switch (key.getType()) {
+		case BOOLEAN:
+			json.put("boolValue", value);
+			break;
+		case LONG:
+			// int64 is a string in OTLP/JSON
+			json.put("intValue", String.valueOf(value));
+			break;
+		case DOUBLE:
+			json.put("doubleValue", value);
+			break;
+		case STRING:
+			json.put("stringValue", value);
+			break;
+		default:
+			List<Object> values = new ArrayList<>();
+			for (Object element : (List<?>) value) {
+				Map<String, Object> entry = new LinkedHashMap<>();
+				entry.put(element instanceof Boolean ? "boolValue"
+						: element instanceof Long ? "intValue" : element instanceof Double ? "doubleValue" : "stringValue",
+						element instanceof Long ? String.valueOf(element) : element);
+				values.add(entry);
+			}
+			Map<String, Object> array = new LinkedHashMap<>();
+			array.put("values", values);
+			json.put("arrayValue", array);
+			break;
+		}
+		return json;
+	}
+}
@@ -0,0 +1,146 @@
+package coreUtilities.tracing;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+
+import coreUtilities.utils.Log;
+import restConfig.ConfigManager;
+
+/**
+ * Spans of the test run, with W3C trace context for the API calls.
+ *
+ * <p>
+ * TestListener opens a span per test and makes it current on the test thread.
+ * Every API call is a client span under it whose <code>traceparent</code>
+ * header carries the trace to the server, and the parsing of the response and
+ * its validation are further spans under the test. A test that makes a GET and
+ * then a DELETE therefore shows as one trace with both calls side by side.
+ *
+ * <p>
+ * Finished spans are batched and appended as OTLP/JSON lines to
+ * <code>tracing.file</code> (default <code>target/traces/spans.jsonl</code>),
+ * which is cleared when the run starts. The tracer provider is private to the
+ * framework, so Selenium's own tracing is not affected. Off unless
+ * <code>tracing.enabled=true</code>; spans are then no-ops and no header is
+ * sent.
+ */
+public final class Tracing {
+
+	private static final String SCOPE = "orangehrm-api-tests";
+	private static final boolean ENABLED = ConfigManager.getBooleanProperty("tracing.enabled", false);
+	private static final SdkTracerProvider provider = ENABLED ? createProvider() : null;
+	private static final Tracer tracer = provider != null ? provider.get(SCOPE)
+			: OpenTelemetry.noop().getTracer(SCOPE);
+
+	// Test span and its scope on this thread, between testStarted and testFinished
+	private static final ThreadLocal<Span> testSpan = new ThreadLocal<>();
+	private static final ThreadLocal<Scope> testScope = new ThreadLocal<>();
+
+	private Tracing() {
+	}
+
+	private static SdkTracerProvider createProvider() {
+		Path file = Paths.get(ConfigManager.getProperty("tracing.file", "target/traces/spans.jsonl"));
+		try {
+			Files.deleteIfExists(file);
+			SdkTracerProvider created = SdkTracerProvider.builder()
+					.setResource(Resource.getDefault()
+							.merge(Resource.create(Attributes.of(AttributeKey.stringKey("service.name"), SCOPE))))
+					.addSpanProcessor(BatchSpanProcessor.builder(new OtlpJsonFileExporter(file)).build()).build();
+			Runtime.getRuntime().addShutdownHook(new Thread(created::close, "tracing-close"));
+			Log.info("Spans are written to {}", file.toAbsolutePath());
+			return created;
+		} catch (IOException e) {
+			Log.error("❌ Tracing disabled, cannot write {}: {}", file, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Opens the span of a test and makes it the parent of every span this
+	 * thread starts until {@link #testFinished}.
+	 */
+	public static void testStarted(String className, String methodName) {
+		Span span = tracer.spanBuilder(methodName).setNoParent().setSpanKind(SpanKind.INTERNAL)
+				.setAttribute("test.class", className).setAttribute("test.method", methodName).startSpan();
+		testSpan.set(span);
+		testScope.set(span.makeCurrent());
+	}
+
+	/**
+	 * Ends the test span of this thread.
+	 *
+	 * @param status  passed, failed or skipped
+	 * @param failure the failure, or <code>null</code>
+	 * @return the trace id of the test, or <code>null</code> if no test span was
+	 *         open or tracing is off
+	 */
+	public static String testFinished(String status, Throwable failure) {
+		Span span = testSpan.get();
+		if (span == null) {
+			return null;
+		}
+		testSpan.remove();
+		Scope scope = testScope.get();
+		testScope.remove();
+		if (scope != null) {
+			scope.close();
+		}
+		span.setAttribute("test.status", status);
+		if (failure != null) {
+			span.recordException(failure);
+			span.setStatus(StatusCode.ERROR, String.valueOf(failure.getMessage()));
+		}
+		span.end();
+		return span.getSpanContext().isValid() ? span.getSpanContext().getTraceId() : null;
+	}
+
+	/**
+	 * Starts a span under the span current on this thread, normally the test.
+	 */
+	public static Span startSpan(String name, SpanKind kind) {
+		return tracer.spanBuilder(name).setSpanKind(kind).startSpan();
+	}
+
+	/**
+	 * @return the W3C <code>traceparent</code> header value that makes the span
+	 *         the parent of the server's spans, or <code>null</code> when the
+	 *         span is not recorded
+	 */
+	public static String traceparent(Span span) {
+		String[] header = new String[1];
+		W3CTraceContextPropagator.getInstance().inject(Context.current().with(span), header,
+				(carrier, key, value) -> {
+					if ("traceparent".equals(key)) {
+						carrier[0] = value;
+					}
+				});
+		return header[0];
+	}
+
+	/**
+	 * Writes the spans finished so far.
+	 */
+	public static void flush() {
+		if (provider != null) {
+			provider.forceFlush().join(10, TimeUnit.SECONDS);
+		}
+	}
+}
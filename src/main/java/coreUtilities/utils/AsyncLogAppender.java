@@ -0,0 +1,211 @@
+package coreUtilities.utils;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Lock-free, bounded ring buffer between the threads that log and a single
+ * background writer.
+ *
+ * <p>
+ * Producers claim a slot with a CAS on the tail sequence and never block or
+ * take a lock, so logging from many TestNG workers does not add to request
+ * latency. The writer thread formats each {@link LogEvent} and hands it to
+ * log4j and/or the console.
+ *
+ * <p>
+ * Loss policy: when the buffer is full, events below {@link Level#WARN} are
+ * dropped and counted (see {@link #getDroppedCount()}); WARN and above are
+ * written synchronously by the caller instead, so problems are never lost.
+ */
+public class AsyncLogAppender {
+
+	private final int capacity;
+	private final int mask;
+	private final AtomicReferenceArray<LogEvent> slots;
+	private final AtomicLongArray sequences;
+	private final AtomicLong tail = new AtomicLong();
+	// Next sequence to take, writer thread only
+	private long next;
+	// Events written so far; advanced after the write so flush sees it finished
+	private volatile long head;
+
+	private final LongAdder dropped = new LongAdder();
+	private final Logger logger;
+	private final boolean console;
+	private final Object writeLock = new Object();
+	private final SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss.SSS");
+	private final Thread writer;
+	private volatile boolean running = true;
+	// Set while the writer is parked with nothing to write; producers unpark it
+	private volatile boolean idle;
+
+	/**
+	 * @param requestedCapacity buffer size, rounded up to a power of two
+	 * @param logger            log4j logger to forward to, or null for console only
+	 * @param console           whether formatted lines are also printed to
+	 *                          System.out
+	 */
+	public AsyncLogAppender(int requestedCapacity, Logger logger, boolean console) {
+		int size = Integer.highestOneBit(Math.max(requestedCapacity, 2) - 1) << 1;
+		this.capacity = size;
+		this.mask = size - 1;
+		this.slots = new AtomicReferenceArray<>(size);
+		this.sequences = new AtomicLongArray(size);
+		for (int i = 0; i < size; i++) {
+			sequences.set(i, i);
+		}
+		this.logger = logger;
+		this.console = console;
+
+		writer = new Thread(this::drainLoop, "async-log-writer");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	/**
+	 * Queues an event without blocking.
+	 *
+	 * @param event the event to append
+	 * @return true if the event was queued or written, false if it was dropped
+	 */
+	public boolean append(LogEvent event) {
+		if (offer(event)) {
+			if (idle) {
+				LockSupport.unpark(writer);
+			}
+			return true;
+		}
+		if (event.level.isMoreSpecificThan(Level.WARN)) {
+			write(event);
+			return true;
+		}
+		dropped.increment();
+		return false;
+	}
+
+	private boolean offer(LogEvent event) {
+		long pos = tail.get();
+		while (true) {
+			int index = (int) (pos & mask);
+			long diff = sequences.get(index) - pos;
+			if (diff == 0) {
+				if (tail.compareAndSet(pos, pos + 1)) {
+					slots.lazySet(index, event);
+					sequences.set(index, pos + 1);
+					return true;
+				}
+				pos = tail.get();
+			} else if (diff < 0) {
+				return false; // full
+			} else {
+				pos = tail.get();
+			}
+		}
+	}
+
+	// Single consumer: only the writer thread takes events
+	private LogEvent poll() {
+		long pos = next;
+		int index = (int) (pos & mask);
+		if (sequences.get(index) != pos + 1) {
+			return null;
+		}
+		LogEvent event = slots.get(index);
+		slots.lazySet(index, null);
+		sequences.set(index, pos + capacity);
+		next = pos + 1;
+		return event;
+	}
+
+	private void drainLoop() {
+		boolean written = false;
+		while (running || head != tail.get()) {
+			LogEvent event = poll();
+			if (event != null) {
+				write(event);
+				head = next;
+				written = true;
+				continue;
+			}
+			if (written && console) {
+				System.out.flush();
+				written = false;
+			}
+			// Announce the park before looking again, so an event offered in between
+			// either is seen here or unparks the writer
+			idle = true;
+			if (running && head == tail.get()) {
+				LockSupport.park(this);
+			}
+			idle = false;
+		}
+		if (written && console) {
+			System.out.flush();
+		}
+	}
+
+	private void write(LogEvent event) {
+		String message = event.formatMessage();
+		synchronized (writeLock) {
+			if (logger != null) {
+				logger.log(event.level, message);
+			}
+			if (console) {
+				System.out.println(timeFormat.format(new Date(event.timestamp)) + " " + event.level + " ["
+						+ event.threadName + "] " + message);
+			}
+		}
+	}
+
+	/**
+	 * Waits until every event queued before this call has been written, or the
+	 * timeout elapses.
+	 *
+	 * @param timeoutMillis maximum time to wait
+	 */
+	public void flush(long timeoutMillis) {
+		long target = tail.get();
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+		while (head < target && System.nanoTime() < deadline && writer.isAlive()) {
+			LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+		}
+	}
+
+	/**
+	 * Drains the buffer and stops the writer thread.
+	 */
+	public void shutdown(long timeoutMillis) {
+		running = false;
+		LockSupport.unpark(writer);
+		try {
+			writer.join(timeoutMillis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	public long getDroppedCount() {
+		return dropped.sum();
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Number of events waiting to be written.
+	 */
+	public long backlog() {
+		return tail.get() - head;
+	}
+}
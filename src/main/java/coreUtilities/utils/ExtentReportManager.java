@@ -20,6 +20,7 @@ public class ExtentReportManager
     private static String macReportFileLoc = macPath + "/" + reportFileName;
     private static String winReportFileLoc = windowsPath + "\\" + reportFileName;
     public static ExtentTest extentTest;
+    private static String reportFile;
  
     public static ExtentReports getInstance() {
         if (extent == null)
@@ -31,6 +32,7 @@ public class ExtentReportManager
     public static ExtentReports createInstance() {
         platform = getCurrentPlatform();
         String fileName = getReportFileLocation(platform);
+        reportFile = fileName;
         ExtentHtmlReporter htmlReporter = new ExtentHtmlReporter(fileName);
         htmlReporter.config().setTestViewChartLocation(ChartLocation.BOTTOM);
         htmlReporter.config().setChartVisibilityOnOpen(true);
@@ -45,6 +47,11 @@ public class ExtentReportManager
         return extent;
     }
  
+    //The HTML file the report is flushed to
+    public static String getReportFile() {
+        return reportFile;
+    }
+ 
     //Select the extent report file location based on platform
     private static String getReportFileLocation (Platform platform) {
         String reportFileLocation = null;
@@ -52,17 +59,17 @@ public class ExtentReportManager
             case MAC:
                 reportFileLocation = macReportFileLoc;
                 createReportPath(macPath);
-                System.out.println("ExtentReport Path for MAC: " + macPath + "\n");
+                Log.info("ExtentReport Path for MAC: {}", macPath);
                 break;
             case WINDOWS:
                 reportFileLocation = winReportFileLoc;
                 createReportPath(windowsPath);
-                System.out.println("ExtentReport Path for WINDOWS: " + windowsPath + "\n");
+                Log.info("ExtentReport Path for WINDOWS: {}", windowsPath);
                 break;
             default:
             	 reportFileLocation = macReportFileLoc;
                  createReportPath(macPath);
-                 System.out.println("ExtentReport Path for Linux: " + macPath + "\n");
+                 Log.info("ExtentReport Path for Linux: {}", macPath);
                 break;
         }
         return reportFileLocation;
@@ -73,12 +80,12 @@ public class ExtentReportManager
         File testDirectory = new File(path);
         if (!testDirectory.exists()) {
             if (testDirectory.mkdir()) {
-                System.out.println("Directory: " + path + " is created!" );
+                Log.info("Directory: {} is created!", path);
             } else {
-                System.out.println("Failed to create directory: " + path);
+                Log.warn("Failed to create directory: {}", path);
             }
         } else {
-            System.out.println("Directory already exists: " + path);
+            Log.info("Directory already exists: {}", path);
         }
     }
  
@@ -62,40 +62,36 @@ public class FileOperations {
 		// Create a Map to store key-value pairs from the Excel file
 		Map<String, String> dataMap = new HashMap<>();
 
-		// Create a FileInputStream object to read the Excel file
-		FileInputStream fileInputStream = new FileInputStream(new File(excelFilePath));
+		// Open the Excel file; both the stream and the workbook are closed even if
+		// reading fails
+		try (FileInputStream fileInputStream = new FileInputStream(new File(excelFilePath));
+				Workbook workbook = WorkbookFactory.create(fileInputStream)) {
 
-		// Create a Workbook object using the WorkbookFactory
-		Workbook workbook = WorkbookFactory.create(fileInputStream);
+			// Get the sheet from the workbook
+			Sheet sheet = workbook.getSheet(sheetName);
 
-		// Get the sheet from the workbook
-		Sheet sheet = workbook.getSheet(sheetName);
+			// Iterate through each row in the sheet
+			for (Row row : sheet) {
+				// Assuming the first column contains the key and the second column contains the
+				// value
+				Cell keyCell = row.getCell(0);
+				Cell valueCell = row.getCell(1);
 
-		// Iterate through each row in the sheet
-		for (Row row : sheet) {
-			// Assuming the first column contains the key and the second column contains the
-			// value
-			Cell keyCell = row.getCell(0);
-			Cell valueCell = row.getCell(1);
+				if (keyCell != null && valueCell != null) {
+					// Convert the cell type to STRING if it is not already STRING
+					if (keyCell.getCellType() != CellType.STRING) {
+						keyCell.setCellType(CellType.STRING);
+					}
+					if (valueCell.getCellType() != CellType.STRING) {
+						valueCell.setCellType(CellType.STRING);
+					}
 
-			if (keyCell != null && valueCell != null) {
-				// Convert the cell type to STRING if it is not already STRING
-				if (keyCell.getCellType() != CellType.STRING) {
-					keyCell.setCellType(CellType.STRING);
+					// Store the key-value pair in the Map
+					dataMap.put(keyCell.getStringCellValue(), valueCell.getStringCellValue());
 				}
-				if (valueCell.getCellType() != CellType.STRING) {
-					valueCell.setCellType(CellType.STRING);
-				}
-
-				// Store the key-value pair in the Map
-				dataMap.put(keyCell.getStringCellValue(), valueCell.getStringCellValue());
 			}
 		}
 
-		// Close the workbook and file stream
-		workbook.close();
-		fileInputStream.close();
-
 		// Return the data map
 		return dataMap;
 	}
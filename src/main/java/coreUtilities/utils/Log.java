@@ -1,149 +1,173 @@
 package coreUtilities.utils;
 
-
-
-
-
 import java.io.File;
-
 import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicBoolean;
 
- 
-
+import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
-
 import org.apache.logging.log4j.Logger;
-
 import org.apache.logging.log4j.core.LoggerContext;
-
 import org.testng.ITestContext;
 
- 
-
+import restConfig.ConfigManager;
+
+/**
+ * Framework logger.
+ *
+ * <p>
+ * Every call is turned into a {@link LogEvent} and queued on an
+ * {@link AsyncLogAppender}; formatting and I/O happen on a background thread.
+ * Messages may use <code>{}</code> placeholders, which are only rendered if the
+ * event is written:
+ *
+ * <pre>
+ * Log.info("Created employee {} in {} ms", empNumber, elapsed);
+ * Log.event("api.call", "endpoint", template, "status", 200, "latencyMs", 42);
+ * </pre>
+ *
+ * <p>
+ * Settings: <code>log.level</code> (default INFO), <code>log.buffer.size</code>
+ * (default 8192 events) and <code>log.console</code> (default true). When a
+ * log4j2 configuration is found at <code>src/test/Resources/log4j2.xml</code>
+ * events are forwarded to log4j as well.
+ */
 public class Log {
 
-    
-
-    public static Logger logger = LogManager.getLogger(Log.class.getName());    
-
- 
-
-    public static void logInitialize() {
-
-        LoggerContext context = (LoggerContext) LogManager.getContext(false);
-
-        File file = new File("src//test//Resources//log4j2.xml");    
-
-        context.setConfigLocation(file.toURI());
-
-    }
-
- 
-
-    public static void startTestSuite(ITestContext testContext) {
-
-        logInitialize();
-
-        logger.info("\n");
-
-        logger.info("-------------------------------------------------------------------------------");
-
-        logger.info(" TEST SUITE : " + testContext.getCurrentXmlTest().getSuite().getName());
-
-        logger.info("-------------------------------------------------------------------------------");
-
-    }
-
- 
-
-    public static void endTestSuite() {
-
-        logger.info("\n");
-
-        logger.info("-------------------------------- TEST SUITE END --------------------------------");
-
-    }
-
- 
-
-    public static void startTestCase(Method method) {
-
-        logger.info("\n");
-
-        logger.info("------------------------------------------------");
-
-        logger.info(" TEST CASE : " + method.getName());
-
-        logger.info("------------------------------------------------");
-
-    }
-
- 
-
-    public static void endTestCase() {
-
-        logger.info("\n");
-
-        logger.info("------------------------------------------------");
-
-    }
-
- 
-
-    public static void info(String message) {
-
-        logger.info("> INFO: " + message);
-
-    }
-
- 
-
-    public static void warn(String message) {
-
-        logger.warn("> WARN: " + message);
-
-    }
-
- 
-
-    public static void error(String message) {
-
-        logger.error("> ERROR: " + message);
-
-    }
-
- 
-
-    public static void fatal(String message) {
-
-        logger.fatal("> FATAL: " + message);
-
-    }
-
- 
-
-    public static void debug(String message) {
-
-        logger.debug("> DEBUG: " + message);
-
-    }
-
- 
-
-    public static void expected(String message) {
-
-        logger.info("> EXPECTED RESULT : " + message);
-
-    }
-
- 
-
-    public static void actual(String message) {
-
-        logger.info("> ACTUAL RESULT : " + message);
-
-    }
-
- 
-
+	private static final File LOG4J_CONFIG = new File("src//test//Resources//log4j2.xml");
+	private static final AtomicBoolean initialized = new AtomicBoolean();
+	private static final ThreadLocal<String> currentTest = new ThreadLocal<>();
+
+	public static Logger logger = LogManager.getLogger(Log.class.getName());
+
+	private static final Level threshold = Level.toLevel(ConfigManager.getProperty("log.level", "INFO"), Level.INFO);
+	private static final AsyncLogAppender appender = new AsyncLogAppender(
+			ConfigManager.getIntProperty("log.buffer.size", 8192), LOG4J_CONFIG.exists() ? logger : null,
+			ConfigManager.getBooleanProperty("log.console", true));
+
+	static {
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> appender.shutdown(2000), "async-log-shutdown"));
+	}
+
+	// Only the first call configures log4j; later suites reuse the context
+	public static void logInitialize() {
+		if (!initialized.compareAndSet(false, true) || !LOG4J_CONFIG.exists()) {
+			return;
+		}
+		LoggerContext context = (LoggerContext) LogManager.getContext(false);
+		context.setConfigLocation(LOG4J_CONFIG.toURI());
+	}
+
+	public static void startTestSuite(ITestContext testContext) {
+		logInitialize();
+		info("-------------------------------------------------------------------------------");
+		info(" TEST SUITE : {}", testContext.getCurrentXmlTest().getSuite().getName());
+		info("-------------------------------------------------------------------------------");
+	}
+
+	public static void endTestSuite() {
+		info("-------------------------------- TEST SUITE END --------------------------------");
+		if (appender.getDroppedCount() > 0) {
+			warn("{} log events were dropped because the log buffer was full", appender.getDroppedCount());
+		}
+		flush();
+	}
+
+	public static void startTestCase(Method method) {
+		startTestCase(method.getName());
+	}
+
+	public static void startTestCase(String testName) {
+		currentTest.set(testName);
+		info("------------------------------------------------");
+		info(" TEST CASE : {}", testName);
+		info("------------------------------------------------");
+	}
+
+	public static void endTestCase() {
+		info("------------------------------------------------");
+		currentTest.remove();
+	}
+
+	/**
+	 * @return the test method the calling thread is running, or null
+	 */
+	public static String currentTest() {
+		return currentTest.get();
+	}
+
+	public static void info(String message, Object... args) {
+		log(Level.INFO, message, args, null);
+	}
+
+	public static void warn(String message, Object... args) {
+		log(Level.WARN, message, args, null);
+	}
+
+	public static void error(String message, Object... args) {
+		log(Level.ERROR, message, args, null);
+	}
+
+	public static void fatal(String message, Object... args) {
+		log(Level.FATAL, message, args, null);
+	}
+
+	public static void debug(String message, Object... args) {
+		log(Level.DEBUG, message, args, null);
+	}
+
+	public static void expected(String message) {
+		log(Level.INFO, "EXPECTED RESULT : {}", new Object[] { message }, null);
+	}
+
+	public static void actual(String message) {
+		log(Level.INFO, "ACTUAL RESULT : {}", new Object[] { message }, null);
+	}
+
+	/**
+	 * Logs a structured INFO event. The current test name is attached
+	 * automatically.
+	 *
+	 * @param name      event name, e.g. <code>api.call</code>
+	 * @param keyValues alternating keys and values
+	 */
+	public static void event(String name, Object... keyValues) {
+		log(Level.INFO, name, null, keyValues);
+	}
+
+	/**
+	 * Logs a structured event at the given level, e.g. DEBUG for events that
+	 * happen on every call.
+	 */
+	public static void event(Level level, String name, Object... keyValues) {
+		log(level, name, null, keyValues);
+	}
+
+	public static boolean isEnabled(Level level) {
+		return level.isMoreSpecificThan(threshold);
+	}
+
+	/**
+	 * Blocks until everything logged so far has been written (max 2 s).
+	 */
+	public static void flush() {
+		appender.flush(2000);
+	}
+
+	public static long getDroppedCount() {
+		return appender.getDroppedCount();
+	}
+
+	private static void log(Level level, String template, Object[] args, Object[] fields) {
+		if (!level.isMoreSpecificThan(threshold)) {
+			return;
+		}
+		LogEvent event = new LogEvent(level, currentTest.get(), template, args, fields);
+		if (appender == null) {
+			// Logged while the appender is being set up, e.g. about a bad log.* setting
+			System.err.println(event.formatMessage());
+			return;
+		}
+		appender.append(event);
+	}
 }
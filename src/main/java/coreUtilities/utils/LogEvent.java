@@ -0,0 +1,66 @@
+package coreUtilities.utils;
+
+import org.apache.logging.log4j.Level;
+
+/**
+ * A single log record queued by {@link Log} for the {@link AsyncLogAppender}.
+ *
+ * <p>
+ * The message is kept as a template plus arguments and is only rendered on the
+ * appender thread, so a caller that logs never pays for string formatting.
+ * Structured events carry alternating key/value pairs (for example
+ * <code>"endpoint", "/pim/employees", "status", 200</code>) that are appended to
+ * the line as <code>key=value</code>.
+ */
+public class LogEvent {
+
+	private static final Object[] NO_ARGS = new Object[0];
+
+	final Level level;
+	final long timestamp;
+	final String threadName;
+	final String testName;
+	final String template;
+	final Object[] args;
+	final Object[] fields;
+
+	LogEvent(Level level, String testName, String template, Object[] args, Object[] fields) {
+		this.level = level;
+		this.timestamp = System.currentTimeMillis();
+		this.threadName = Thread.currentThread().getName();
+		this.testName = testName;
+		this.template = template;
+		this.args = args == null ? NO_ARGS : args;
+		this.fields = fields == null ? NO_ARGS : fields;
+	}
+
+	public Level getLevel() {
+		return level;
+	}
+
+	/**
+	 * Renders the message by substituting each <code>{}</code> in the template with
+	 * the next argument, followed by the structured fields.
+	 *
+	 * @return the formatted message without timestamp or level
+	 */
+	public String formatMessage() {
+		StringBuilder sb = new StringBuilder(template.length() + 16 * (args.length + fields.length));
+		int argIndex = 0;
+		int from = 0;
+		int at;
+		while ((at = template.indexOf("{}", from)) >= 0) {
+			sb.append(template, from, at);
+			sb.append(argIndex < args.length ? String.valueOf(args[argIndex++]) : "{}");
+			from = at + 2;
+		}
+		sb.append(template, from, template.length());
+		if (testName != null) {
+			sb.append(" test=").append(testName);
+		}
+		for (int i = 0; i + 1 < fields.length; i += 2) {
+			sb.append(' ').append(fields[i]).append('=').append(fields[i + 1]);
+		}
+		return sb.toString();
+	}
+}
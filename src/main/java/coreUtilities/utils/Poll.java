@@ -0,0 +1,196 @@
+package coreUtilities.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+
+import restConfig.ConfigManager;
+
+/**
+ * Waits for a condition by polling it, for checks that only hold some time
+ * after the action, such as a count that includes a new record or a list
+ * without a deleted one. The wait ends as soon as the condition holds.
+ *
+ * <p>
+ * The first check is immediate. The pause before each further check starts at
+ * <code>wait.interval.ms</code> (default 100, at least 1), grows by
+ * <code>wait.backoff.factor</code> (default 2, at least 1) up to
+ * <code>wait.max.interval.ms</code> (default 2000) and is varied by
+ * <code>wait.jitter</code> (default 0.2, i.e. ±20%) so parallel tests do not
+ * poll in step. After <code>wait.timeout.seconds</code> (default 30) the wait
+ * fails with an AssertionError naming the condition and the last value seen,
+ * so it is reported like any other failed check.
+ *
+ * <pre>
+ * int count = Poll.of("employee count to grow", () -&gt; employeeCount()).until(c -&gt; c &gt; before);
+ * </pre>
+ */
+public final class Poll<T> {
+
+	// A pause of 0 could never grow, and a factor below 1 would shrink it to 0
+	private static final long MIN_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private final String description;
+	private final Supplier<T> probe;
+	private long timeoutNanos = TimeUnit.SECONDS.toNanos(ConfigManager.getIntProperty("wait.timeout.seconds", 30));
+	private long intervalNanos;
+	private long maxIntervalNanos;
+	private double factor;
+	private double jitter;
+	private final List<Class<? extends Throwable>> ignored = new ArrayList<>();
+
+	private Poll(String description, Supplier<T> probe) {
+		this.description = description;
+		this.probe = probe;
+		backoff(ConfigManager.getIntProperty("wait.interval.ms", 100),
+				ConfigManager.getIntProperty("wait.max.interval.ms", 2000), TimeUnit.MILLISECONDS,
+				ConfigManager.getDoubleProperty("wait.backoff.factor", 2));
+		jitter(ConfigManager.getDoubleProperty("wait.jitter", 0.2));
+	}
+
+	/**
+	 * @param description what is waited for, used in the log and the failure
+	 * @param probe       reads the current value, once per check
+	 */
+	public static <T> Poll<T> of(String description, Supplier<T> probe) {
+		return new Poll<>(description, probe);
+	}
+
+	/**
+	 * Waits until the condition is true.
+	 */
+	public static void until(String description, BooleanSupplier condition) {
+		of(description, condition::getAsBoolean).until(Boolean.TRUE::equals);
+	}
+
+	/**
+	 * Waits for a WebDriver condition, such as a Selenium
+	 * <code>ExpectedCondition</code>, the way <code>WebDriverWait</code> does:
+	 * until it returns something other than <code>null</code> or
+	 * <code>false</code>. Elements that are missing or stale are checked again.
+	 *
+	 * @return the condition's last value
+	 */
+	public static <T> T until(WebDriver driver, String description, Function<? super WebDriver, T> condition) {
+		return of(description, () -> condition.apply(driver))
+				.ignoring(NotFoundException.class, StaleElementReferenceException.class)
+				.until(value -> value != null && !Boolean.FALSE.equals(value));
+	}
+
+	public Poll<T> timeout(long timeout, TimeUnit unit) {
+		this.timeoutNanos = unit.toNanos(timeout);
+		return this;
+	}
+
+	/**
+	 * @param first  pause before the second check, at least 1 ms
+	 * @param max    longest pause
+	 * @param factor growth of the pause after each check, 1 for a fixed pause;
+	 *               less than 1 counts as 1
+	 */
+	public Poll<T> backoff(long first, long max, TimeUnit unit, double factor) {
+		this.intervalNanos = Math.max(MIN_INTERVAL_NANOS, unit.toNanos(first));
+		this.maxIntervalNanos = Math.max(intervalNanos, unit.toNanos(max));
+		this.factor = factor >= 1 ? factor : 1;
+		return this;
+	}
+
+	/**
+	 * @param jitter how much each pause is varied either way, 0 to 1
+	 */
+	public Poll<T> jitter(double jitter) {
+		this.jitter = jitter > 0 ? Math.min(jitter, 1) : 0;
+		return this;
+	}
+
+	/**
+	 * Treats these exceptions from the probe as "not yet" instead of failing the
+	 * wait.
+	 */
+	@SafeVarargs
+	public final Poll<T> ignoring(Class<? extends Throwable>... exceptions) {
+		for (Class<? extends Throwable> exception : exceptions) {
+			ignored.add(exception);
+		}
+		return this;
+	}
+
+	/**
+	 * @return the first value that satisfies the condition
+	 * @throws AssertionError if the condition does not hold before the timeout
+	 */
+	public T until(Predicate<? super T> condition) {
+		long start = System.nanoTime();
+		long deadline = start + timeoutNanos;
+		long pause = intervalNanos;
+		int checks = 0;
+		T last = null;
+		RuntimeException lastError = null;
+		while (true) {
+			checks++;
+			try {
+				last = probe.get();
+				lastError = null;
+				if (condition.test(last)) {
+					if (checks > 1) {
+						Log.info("Waited {} ms over {} checks for {}",
+								TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), checks, description);
+					}
+					return last;
+				}
+			} catch (RuntimeException e) {
+				if (!isIgnored(e)) {
+					throw e;
+				}
+				lastError = e;
+			}
+			long left = deadline - System.nanoTime();
+			if (left <= 0) {
+				AssertionError failure = new AssertionError(String.format(
+						"Timed out after %d ms and %d checks waiting for %s; last %s",
+						TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), checks, description,
+						lastError != null ? "error: " + lastError : "value: " + last));
+				if (lastError != null) {
+					failure.initCause(lastError);
+				}
+				throw failure;
+			}
+			sleep(Math.min(jittered(pause), left));
+			pause = Math.min((long) (pause * factor), maxIntervalNanos);
+		}
+	}
+
+	private boolean isIgnored(RuntimeException e) {
+		for (Class<? extends Throwable> type : ignored) {
+			if (type.isInstance(e)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private long jittered(long pause) {
+		if (jitter <= 0) {
+			return pause;
+		}
+		return (long) (pause * (1 + jitter * (2 * ThreadLocalRandom.current().nextDouble() - 1)));
+	}
+
+	private void sleep(long nanos) {
+		try {
+			TimeUnit.NANOSECONDS.sleep(nanos);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for " + description, e);
+		}
+	}
+}
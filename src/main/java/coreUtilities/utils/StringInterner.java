@@ -0,0 +1,174 @@
+package coreUtilities.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, thread-safe interning table for low-cardinality string values that
+ * repeat across parsed API responses (holiday length names, leave type names,
+ * job titles, ...). Only string values are pooled; booleans and numbers
+ * such as vacancy statuses are passed through unchanged.
+ *
+ * <p>
+ * Unlike {@link String#intern()}, the table is capped at
+ * {@link #DEFAULT_MAX_ENTRIES} entries (or the value of the
+ * <code>intern.max.entries</code> system property). Once the cap is reached new
+ * values are returned as-is instead of being added, so a high-cardinality field
+ * that slips in by mistake cannot grow the table without limit. The cap is a
+ * hard bound: a slot is reserved before a value is added, so concurrent misses
+ * cannot overshoot it.
+ *
+ * <p>
+ * Hits and misses are counted so the suite can report how much duplication was
+ * removed, see {@link #stats()}.
+ */
+public class StringInterner {
+
+	public static final int DEFAULT_MAX_ENTRIES = 4096;
+
+	/** Values longer than this are never pooled; they are unlikely to repeat. */
+	private static final int MAX_VALUE_LENGTH = 64;
+
+	private static final StringInterner shared = new StringInterner(
+			Integer.getInteger("intern.max.entries", DEFAULT_MAX_ENTRIES));
+
+	private final ConcurrentMap<String, String> table = new ConcurrentHashMap<>();
+	private final int maxEntries;
+	private final AtomicInteger entries = new AtomicInteger();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+
+	public StringInterner(int maxEntries) {
+		this.maxEntries = maxEntries;
+	}
+
+	/**
+	 * Returns the shared interner used while extracting fields into
+	 * {@code CustomResponse} objects.
+	 *
+	 * @return the process-wide {@link StringInterner}
+	 */
+	public static StringInterner shared() {
+		return shared;
+	}
+
+	/**
+	 * Returns the canonical instance for the given value.
+	 *
+	 * @param value the string to intern (may be null)
+	 * @return the pooled instance if one exists or could be added; otherwise the
+	 *         value itself
+	 */
+	public String intern(String value) {
+		if (value == null || value.length() > MAX_VALUE_LENGTH) {
+			return value;
+		}
+		String existing = table.get(value);
+		if (existing != null) {
+			hits.increment();
+			return existing;
+		}
+		misses.increment();
+		if (!reserve()) {
+			rejected.increment();
+			return value;
+		}
+		existing = table.putIfAbsent(value, value);
+		if (existing != null) {
+			// Another thread added it first; give the slot back
+			entries.decrementAndGet();
+			return existing;
+		}
+		return value;
+	}
+
+	private boolean reserve() {
+		int count;
+		do {
+			count = entries.get();
+			if (count >= maxEntries) {
+				return false;
+			}
+		} while (!entries.compareAndSet(count, count + 1));
+		return true;
+	}
+
+	/**
+	 * Interns the value if it is a {@link String}; any other object is returned
+	 * unchanged. Convenient for the untyped maps produced by JsonPath.
+	 *
+	 * @param value a parsed JSON value
+	 * @return the canonical string instance, or the value itself
+	 */
+	public Object internValue(Object value) {
+		if (value instanceof String) {
+			return intern((String) value);
+		}
+		return value;
+	}
+
+	/**
+	 * Returns a new list with every string element replaced by its canonical
+	 * instance; the given list is left unchanged, so unmodifiable lists such as
+	 * those of <code>JsonPath.getList(path, Class)</code> work too.
+	 *
+	 * @param values list of parsed JSON values (may be null)
+	 * @return the interned copy, or null
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> List<T> internAll(List<T> values) {
+		if (values == null) {
+			return null;
+		}
+		List<T> interned = new ArrayList<>(values.size());
+		for (T value : values) {
+			interned.add(value instanceof String ? (T) intern((String) value) : value);
+		}
+		return interned;
+	}
+
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	public long getRejectedCount() {
+		return rejected.sum();
+	}
+
+	public int size() {
+		return table.size();
+	}
+
+	/**
+	 * Fraction of lookups that were served from the table.
+	 *
+	 * @return hit ratio between 0 and 1, or 0 when nothing was interned yet
+	 */
+	public double hitRatio() {
+		long h = hits.sum();
+		long total = h + misses.sum();
+		return total == 0 ? 0d : (double) h / total;
+	}
+
+	public void clear() {
+		table.clear();
+		entries.set(0);
+		hits.reset();
+		misses.reset();
+		rejected.reset();
+	}
+
+	public String stats() {
+		return String.format("String interner: %d entries, %d hits, %d misses, %d rejected (hit ratio %.1f%%)",
+				size(), getHitCount(), getMissCount(), getRejectedCount(), hitRatio() * 100);
+	}
+}
@@ -0,0 +1,60 @@
+package rest;
+
+import io.restassured.response.Response;
+
+import coreUtilities.jfr.ApiCallEvent;
+import coreUtilities.jfr.ParseEvent;
+
+/**
+ * Flight Recorder events of the exchange and the response parsing, the same
+ * two phases {@link ApiMetrics} times. The parse event of a call is begun when
+ * its exchange ends and committed when ApiUtil has built the CustomResponse;
+ * calls that never build one leave no parse event.
+ */
+final class ApiEvents {
+
+	// The parse event of this thread's last exchange, while the recording wants it
+	private static final ThreadLocal<ParseEvent> parsing = new ThreadLocal<>();
+
+	private ApiEvents() {
+	}
+
+	static ApiCallEvent callStarted() {
+		ApiCallEvent event = new ApiCallEvent();
+		event.begin();
+		return event;
+	}
+
+	static void callEnded(ApiCallEvent event, String method, String uri, Response response) {
+		event.end();
+		ParseEvent parse = new ParseEvent();
+		parse.begin();
+		boolean commitCall = event.shouldCommit();
+		if (!commitCall && !parse.isEnabled()) {
+			parsing.remove();
+			return;
+		}
+		String endpoint = method.toUpperCase() + " " + ApiMetrics.template(uri);
+		int status = response.getStatusCode();
+		long payload = response.asByteArray().length;
+		if (commitCall) {
+			event.method = method;
+			event.endpoint = endpoint;
+			event.status = status;
+			event.payloadBytes = payload;
+			event.commit();
+		}
+		parse.endpoint = endpoint;
+		parse.status = status;
+		parse.payloadBytes = payload;
+		parsing.set(parse);
+	}
+
+	static void responseBuilt() {
+		ParseEvent parse = parsing.get();
+		if (parse != null) {
+			parsing.remove();
+			parse.commit();
+		}
+	}
+}
@@ -0,0 +1,898 @@
+package rest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.markuputils.MarkupHelper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import coreUtilities.utils.Log;
+import restConfig.ConfigManager;
+
+/**
+ * Latency histograms per endpoint for every call made through RestAssured.
+ *
+ * <p>
+ * Calls are grouped by method and endpoint template: the part of the path after
+ * <code>/api/v2</code> with numeric and UUID segments replaced by
+ * <code>{id}</code>, e.g. <code>GET /pim/employees/{id}</code>. Per call, in
+ * microseconds:
+ * <ul>
+ * <li><b>server</b> - from handing the request to the HTTP client until the
+ * response has been read, measured by {@link CaptureFilter}.</li>
+ * <li><b>parse</b> - from then until ApiUtil has built the
+ * {@link CustomResponse}: JsonPath extraction and mapping.</li>
+ * <li><b>total</b> - the two together.</li>
+ * </ul>
+ * The server time is further split into the phases timed by
+ * {@link TimingHttpClientFactory}: setup (RestAssured and HttpClient before
+ * the connection), DNS, connect, TLS, time to first byte and download. An
+ * endpoint is flagged when one phase, parse included, takes at least
+ * <code>api.metrics.dominant.share</code> (default 0.5) of its time. Calls
+ * that do not end in a CustomResponse, e.g. direct RestAssured calls from a
+ * test, have no parse time.
+ *
+ * <p>
+ * Each ApiUtil call also records the bytes its thread allocated and the CPU
+ * time it used, from the start of the exchange until the CustomResponse was
+ * built ({@link ThreadCost}), leaving out the capture, logging and events of
+ * {@link CaptureFilter}, and so does each response validation reported
+ * through {@link #validated}. The same figures are summed per test between
+ * {@link #testStarted} and {@link #testFinished}, together with the
+ * allocation and CPU time of the whole test thread. A {@link CallObserver}
+ * registered on a thread sees each of its calls individually.
+ *
+ * <p>
+ * {@link #publish} writes the percentile table as JSON and CSV to
+ * <code>api.metrics.dir</code> (default <code>target/api-metrics</code>) and adds
+ * it with a chart to the Extent report; the listener calls it when the suite
+ * ends. Recording is switched off with <code>api.metrics.enabled=false</code>.
+ */
+public class ApiMetrics {
+
+	static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.HOURS.toMicros(1);
+	static final int SIGNIFICANT_DIGITS = 3;
+	// Allocation spans more orders of magnitude than latency; 1% precision keeps
+	// those histograms small
+	static final long HIGHEST_TRACKABLE_BYTES = 1L << 40;
+	static final int BYTES_SIGNIFICANT_DIGITS = 2;
+
+	private static final boolean ENABLED = ConfigManager.getBooleanProperty("api.metrics.enabled", true);
+	private static final double DOMINANT_SHARE = Double
+			.parseDouble(ConfigManager.getProperty("api.metrics.dominant.share", "0.5"));
+	private static final double[] PERCENTILES = { 50, 90, 95, 99, 99.9 };
+	static final String[] PHASES = { "setup", "dns", "connect", "tls", "ttfb", "download", "parse" };
+	private static final String[] PHASE_COLORS = { "#bab0ac", "#76b7b2", "#59a14f", "#edc948", "#4e79a7",
+			"#9c755f", "#f28e2b" };
+	private static final Pattern ID_SEGMENT = Pattern
+			.compile("\\d+|[0-9a-fA-F]{8}-?[0-9a-fA-F]{4}-?[0-9a-fA-F]{4}-?[0-9a-fA-F]{4}-?[0-9a-fA-F]{12}");
+	private static final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+	private static final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+	// The call whose response this thread is currently parsing
+	private static final ThreadLocal<Pending> pending = ThreadLocal.withInitial(Pending::new);
+	private static final Map<String, TestCost> tests = new ConcurrentHashMap<>();
+	// The test running on this thread, between testStarted and testFinished
+	private static final ThreadLocal<TestCost> runningTest = new ThreadLocal<>();
+	private static final ThreadLocal<CallObserver> observer = new ThreadLocal<>();
+	private static ExtentTest extentNode;
+
+	/**
+	 * Histograms of one endpoint template.
+	 */
+	public static class Endpoint {
+		private final String name;
+		private final Histogram total = newHistogram();
+		private final Histogram server = newHistogram();
+		private final Map<String, Histogram> phases = new LinkedHashMap<>();
+		private final Histogram allocated = newBytesHistogram();
+		private final Histogram cpu = newHistogram();
+		private final Histogram validationAllocated = newBytesHistogram();
+		private final Histogram validationCpu = newHistogram();
+
+		Endpoint(String name) {
+			this.name = name;
+			for (String phase : PHASES) {
+				phases.put(phase, newHistogram());
+			}
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public Histogram getTotal() {
+			return total;
+		}
+
+		public Histogram getServer() {
+			return server;
+		}
+
+		public Histogram getParse() {
+			return phases.get("parse");
+		}
+
+		/**
+		 * @return bytes allocated per call, exchange and parse
+		 */
+		public Histogram getAllocated() {
+			return allocated;
+		}
+
+		/**
+		 * @return CPU time per call in microseconds, exchange and parse
+		 */
+		public Histogram getCpu() {
+			return cpu;
+		}
+
+		/**
+		 * @return bytes allocated per validation of a response
+		 */
+		public Histogram getValidationAllocated() {
+			return validationAllocated;
+		}
+
+		/**
+		 * @return CPU time per validation of a response in microseconds
+		 */
+		public Histogram getValidationCpu() {
+			return validationCpu;
+		}
+
+		/**
+		 * @param phase one of setup, dns, connect, tls, ttfb, download, parse
+		 */
+		public Histogram getPhase(String phase) {
+			return phases.get(phase);
+		}
+
+		/**
+		 * @return each phase's share of the time summed over all phases
+		 */
+		public Map<String, Double> getShares() {
+			double sum = 0;
+			Map<String, Double> sums = new LinkedHashMap<>();
+			for (Map.Entry<String, Histogram> phase : phases.entrySet()) {
+				double phaseSum = phase.getValue().getMean() * phase.getValue().getTotalCount();
+				sums.put(phase.getKey(), phaseSum);
+				sum += phaseSum;
+			}
+			Map<String, Double> shares = new LinkedHashMap<>();
+			for (Map.Entry<String, Double> phase : sums.entrySet()) {
+				shares.put(phase.getKey(), sum <= 0 ? 0 : phase.getValue() / sum);
+			}
+			return shares;
+		}
+
+		/**
+		 * @return the phase that takes at least <code>api.metrics.dominant.share</code>
+		 *         of the time, or <code>null</code>
+		 */
+		public String getDominantPhase() {
+			for (Map.Entry<String, Double> share : getShares().entrySet()) {
+				if (share.getValue() >= DOMINANT_SHARE) {
+					return share.getKey();
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * @return mean time per call spent in the phase, in microseconds
+		 */
+		double meanPerCall(String phase) {
+			Histogram histogram = phases.get(phase);
+			long calls = server.getTotalCount();
+			return calls == 0 ? 0 : histogram.getMean() * histogram.getTotalCount() / calls;
+		}
+	}
+
+	private static class Pending {
+		Endpoint endpoint;
+		long startNanos;
+		long serverEndNanos;
+		long responseBytes;
+		ThreadCost cost;
+	}
+
+	/**
+	 * Receives the calls a thread completes while it is observed, see
+	 * {@link ApiMetrics#observe}.
+	 */
+	public interface CallObserver {
+		/**
+		 * @param endpoint       endpoint of the call
+		 * @param latencyNanos   from the start of the exchange until the
+		 *                       CustomResponse was built
+		 * @param allocatedBytes bytes the thread allocated in that time
+		 * @param responseBytes  size of the response body
+		 */
+		void call(Endpoint endpoint, long latencyNanos, long allocatedBytes, long responseBytes);
+	}
+
+	/**
+	 * API calls, validations and thread usage of one test, summed over its
+	 * invocations.
+	 */
+	public static class TestCost {
+		private final String name;
+		private ThreadCost thread;
+		private long invocations;
+		private long calls;
+		private long callNanos;
+		private long callAllocated;
+		private long callCpuNanos;
+		private long validations;
+		private long validationAllocated;
+		private long validationCpuNanos;
+		private long testAllocated;
+		private long testCpuNanos;
+
+		TestCost(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public long getInvocations() {
+			return invocations;
+		}
+
+		public long getCalls() {
+			return calls;
+		}
+
+		public long getCallNanos() {
+			return callNanos;
+		}
+
+		public long getCallAllocatedBytes() {
+			return callAllocated;
+		}
+
+		public long getCallCpuNanos() {
+			return callCpuNanos;
+		}
+
+		public long getValidations() {
+			return validations;
+		}
+
+		public long getValidationAllocatedBytes() {
+			return validationAllocated;
+		}
+
+		public long getValidationCpuNanos() {
+			return validationCpuNanos;
+		}
+
+		/**
+		 * @return bytes the test thread allocated, API calls included
+		 */
+		public long getTestAllocatedBytes() {
+			return testAllocated;
+		}
+
+		/**
+		 * @return CPU time the test thread used, API calls included
+		 */
+		public long getTestCpuNanos() {
+			return testCpuNanos;
+		}
+
+		synchronized void add(TestCost run) {
+			invocations += run.invocations;
+			calls += run.calls;
+			callNanos += run.callNanos;
+			callAllocated += run.callAllocated;
+			callCpuNanos += run.callCpuNanos;
+			validations += run.validations;
+			validationAllocated += run.validationAllocated;
+			validationCpuNanos += run.validationCpuNanos;
+			testAllocated += run.testAllocated;
+			testCpuNanos += run.testCpuNanos;
+		}
+
+		synchronized TestCost copy() {
+			TestCost copy = new TestCost(name);
+			copy.add(this);
+			return copy;
+		}
+
+		/**
+		 * @return one line for the test's report entry
+		 */
+		public String summary() {
+			return String.format(
+					"API calls: %d, %.1f ms, %s allocated, %.1f ms CPU; validation: %s allocated, %.1f ms CPU;"
+							+ " test thread: %s allocated, %.1f ms CPU",
+					calls, callNanos / 1e6, size(callAllocated), callCpuNanos / 1e6, size(validationAllocated),
+					validationCpuNanos / 1e6, size(testAllocated), testCpuNanos / 1e6);
+		}
+
+		private static String size(long bytes) {
+			return bytes >= 1_000_000 ? String.format("%.1f MB", bytes / 1e6)
+					: String.format("%.1f kB", bytes / 1e3);
+		}
+	}
+
+	private ApiMetrics() {
+	}
+
+	static Histogram newHistogram() {
+		return new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+	}
+
+	static Histogram newBytesHistogram() {
+		return new ConcurrentHistogram(HIGHEST_TRACKABLE_BYTES, BYTES_SIGNIFICANT_DIGITS);
+	}
+
+	/**
+	 * Records the server time and connection phases of a call and starts timing
+	 * the parsing of its response on this thread.
+	 *
+	 * @param responseBytes size of the response body
+	 * @param cost          snapshot of this thread taken when the exchange
+	 *                      started
+	 */
+	static void exchange(String method, String uri, long startNanos, long endNanos, long responseBytes,
+			RequestPhases phases, ThreadCost cost) {
+		if (!ENABLED) {
+			return;
+		}
+		Endpoint endpoint = endpoints.computeIfAbsent(method.toUpperCase() + " " + template(uri), Endpoint::new);
+		endpoint.server.recordValue(micros(endNanos - startNanos));
+		if (phases.isTimed()) {
+			endpoint.phases.get("setup").recordValue(micros(phases.setupNanos(startNanos)));
+			endpoint.phases.get("dns").recordValue(micros(phases.dnsNanos));
+			endpoint.phases.get("connect").recordValue(micros(phases.connectNanos));
+			endpoint.phases.get("tls").recordValue(micros(phases.tlsNanos));
+			endpoint.phases.get("ttfb").recordValue(micros(phases.ttfbNanos));
+			endpoint.phases.get("download").recordValue(micros(phases.downloadNanos(endNanos)));
+		}
+		Pending call = pending.get();
+		call.endpoint = endpoint;
+		call.startNanos = startNanos;
+		call.serverEndNanos = endNanos;
+		call.responseBytes = responseBytes;
+		call.cost = cost;
+	}
+
+	/**
+	 * Ends the parse time, allocation and CPU time of this thread's last call;
+	 * called by ApiUtil once it has built a {@link CustomResponse}.
+	 *
+	 * @return the endpoint of the call, or <code>null</code> if no call was
+	 *         pending
+	 */
+	static Endpoint responseBuilt() {
+		if (!ENABLED) {
+			return null;
+		}
+		Pending call = pending.get();
+		Endpoint endpoint = call.endpoint;
+		if (endpoint == null) {
+			return null;
+		}
+		long now = System.nanoTime();
+		long allocated = call.cost.allocatedBytes();
+		long cpuNanos = call.cost.cpuNanos();
+		endpoint.getParse().recordValue(micros(now - call.serverEndNanos));
+		endpoint.total.recordValue(micros(now - call.startNanos));
+		endpoint.allocated.recordValue(bytes(allocated));
+		endpoint.cpu.recordValue(micros(cpuNanos));
+		TestCost test = runningTest.get();
+		if (test != null) {
+			test.calls++;
+			test.callNanos += now - call.startNanos;
+			test.callAllocated += allocated;
+			test.callCpuNanos += cpuNanos;
+		}
+		CallObserver callObserver = observer.get();
+		if (callObserver != null) {
+			callObserver.call(endpoint, now - call.startNanos, allocated, call.responseBytes);
+		}
+		call.endpoint = null;
+		call.cost = null;
+		return endpoint;
+	}
+
+	/**
+	 * Records the allocation and CPU time of validating a response, against the
+	 * endpoint it came from and the running test.
+	 *
+	 * @param response the validated response
+	 * @param cost     snapshot taken on this thread before the validation
+	 */
+	public static void validated(CustomResponse response, ThreadCost cost) {
+		if (!ENABLED) {
+			return;
+		}
+		long allocated = cost.allocatedBytes();
+		long cpuNanos = cost.cpuNanos();
+		Endpoint endpoint = response == null ? null : response.getMetricsEndpoint();
+		if (endpoint != null) {
+			endpoint.validationAllocated.recordValue(bytes(allocated));
+			endpoint.validationCpu.recordValue(micros(cpuNanos));
+		}
+		TestCost test = runningTest.get();
+		if (test != null) {
+			test.validations++;
+			test.validationAllocated += allocated;
+			test.validationCpuNanos += cpuNanos;
+		}
+	}
+
+	/**
+	 * Starts summing API calls, validations and thread usage for a test running
+	 * on this thread.
+	 */
+	public static void testStarted() {
+		if (!ENABLED) {
+			return;
+		}
+		TestCost run = new TestCost(null);
+		runningTest.set(run);
+		run.thread = ThreadCost.start();
+	}
+
+	/**
+	 * Ends the test running on this thread and adds it to the per-test totals.
+	 *
+	 * @param name test method name
+	 * @return the figures of this invocation, or <code>null</code> if no test
+	 *         was started on this thread
+	 */
+	public static TestCost testFinished(String name) {
+		TestCost run = runningTest.get();
+		if (run == null) {
+			return null;
+		}
+		runningTest.remove();
+		run.testAllocated = run.thread.allocatedBytes();
+		run.testCpuNanos = run.thread.cpuNanos();
+		run.invocations = 1;
+		tests.computeIfAbsent(name, TestCost::new).add(run);
+		return run;
+	}
+
+	/**
+	 * Hands every call this thread completes from now on to the observer.
+	 *
+	 * @param callObserver the observer, or <code>null</code> to stop observing
+	 */
+	public static void observe(CallObserver callObserver) {
+		if (callObserver == null) {
+			observer.remove();
+		} else {
+			observer.set(callObserver);
+		}
+	}
+
+	/**
+	 * @param uri request URI or path
+	 * @return the path after <code>/api/v2</code>, with id segments replaced by
+	 *         <code>{id}</code>
+	 */
+	public static String template(String uri) {
+		String path = uri;
+		try {
+			String rawPath = URI.create(uri).getRawPath();
+			if (rawPath != null) {
+				path = rawPath;
+			}
+		} catch (IllegalArgumentException e) {
+			int query = uri.indexOf('?');
+			path = query < 0 ? uri : uri.substring(0, query);
+		}
+		int api = path.indexOf("/api/v2/");
+		if (api >= 0) {
+			path = path.substring(api + "/api/v2".length());
+		}
+		StringBuilder template = new StringBuilder(path.length());
+		for (String segment : path.split("/")) {
+			if (segment.isEmpty()) {
+				continue;
+			}
+			template.append('/').append(ID_SEGMENT.matcher(segment).matches() ? "{id}" : segment);
+		}
+		return template.length() == 0 ? "/" : template.toString();
+	}
+
+	/**
+	 * @return the endpoints seen so far, sorted by name
+	 */
+	public static Map<String, Endpoint> getEndpoints() {
+		return new TreeMap<>(endpoints);
+	}
+
+	/**
+	 * @return copies of the per-test totals so far, sorted by test name
+	 */
+	public static Map<String, TestCost> getTests() {
+		Map<String, TestCost> snapshot = new TreeMap<>();
+		for (Map.Entry<String, TestCost> test : tests.entrySet()) {
+			snapshot.put(test.getKey(), test.getValue().copy());
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Forgets everything recorded so far.
+	 */
+	public static void reset() {
+		endpoints.clear();
+		tests.clear();
+	}
+
+	/**
+	 * Writes the percentile table as JSON and CSV and adds it to the Extent
+	 * report, replacing the table of an earlier call. Does nothing if no calls
+	 * were recorded.
+	 */
+	public static synchronized void publish(ExtentReports extent) {
+		Map<String, Endpoint> snapshot = getEndpoints();
+		if (snapshot.isEmpty()) {
+			return;
+		}
+		Map<String, TestCost> testSnapshot = getTests();
+		Path directory = Paths.get(ConfigManager.getProperty("api.metrics.dir", "target/api-metrics"));
+		try {
+			Files.createDirectories(directory);
+			Path json = directory.resolve("api-latency.json");
+			mapper.writeValue(json.toFile(), toMap(snapshot, testSnapshot));
+			Files.write(directory.resolve("api-latency.csv"), toCsv(snapshot));
+			Files.write(directory.resolve("api-cost.csv"), toCostCsv(snapshot));
+			Files.write(directory.resolve("api-tests.csv"), toTestCsv(testSnapshot));
+			Log.info("API latency per endpoint written to {}", json.toAbsolutePath());
+		} catch (IOException e) {
+			Log.error("❌ Could not write API latency report to {}: {}", directory, e);
+		}
+
+		if (extentNode != null) {
+			extent.removeTest(extentNode);
+		}
+		extentNode = extent.createTest("API latency",
+				"Per endpoint: server time, parse time (JsonPath and CustomResponse) and total, in ms");
+		List<String[]> rows = new ArrayList<>();
+		rows.add(new String[] { "Endpoint", "Calls", "Total p50", "Total p95", "Total p99", "Server p50",
+				"Server p95", "Server p99", "Parse p50", "Parse p95", "Parse p99" });
+		for (Endpoint endpoint : snapshot.values()) {
+			rows.add(new String[] { endpoint.name, String.valueOf(endpoint.server.getTotalCount()),
+					millis(endpoint.total, 50), millis(endpoint.total, 95), millis(endpoint.total, 99),
+					millis(endpoint.server, 50), millis(endpoint.server, 95), millis(endpoint.server, 99),
+					millis(endpoint.getParse(), 50), millis(endpoint.getParse(), 95),
+					millis(endpoint.getParse(), 99) });
+		}
+		extentNode.info(MarkupHelper.createTable(rows.toArray(new String[0][])));
+
+		List<String[]> phaseRows = new ArrayList<>();
+		String[] header = new String[PHASES.length + 2];
+		header[0] = "Endpoint (mean ms per call)";
+		for (int i = 0; i < PHASES.length; i++) {
+			header[i + 1] = PHASES[i];
+		}
+		header[PHASES.length + 1] = "Dominant";
+		phaseRows.add(header);
+		for (Endpoint endpoint : snapshot.values()) {
+			String[] row = new String[PHASES.length + 2];
+			row[0] = endpoint.name;
+			for (int i = 0; i < PHASES.length; i++) {
+				row[i + 1] = String.format("%.2f", endpoint.meanPerCall(PHASES[i]) / 1000.0);
+			}
+			String dominant = endpoint.getDominantPhase();
+			row[PHASES.length + 1] = dominant == null ? "-"
+					: String.format("%s (%.0f%%)", dominant, endpoint.getShares().get(dominant) * 100);
+			phaseRows.add(row);
+			if (dominant != null) {
+				Log.warn("⚠️ {} spends {}% of its time in {}", endpoint.name,
+						Math.round(endpoint.getShares().get(dominant) * 100), dominant);
+				extentNode.warning(String.format("%s spends %.0f%% of its time in %s", endpoint.name,
+						endpoint.getShares().get(dominant) * 100, dominant));
+			}
+		}
+		extentNode.info(MarkupHelper.createTable(phaseRows.toArray(new String[0][])));
+		extentNode.info(chart(snapshot));
+
+		List<String[]> costRows = new ArrayList<>();
+		costRows.add(new String[] { "Endpoint (per call)", "Alloc p50 kB", "Alloc p95 kB", "CPU p50 ms",
+				"CPU p95 ms", "Validation alloc p50 kB", "Validation CPU p50 ms" });
+		for (Endpoint endpoint : snapshot.values()) {
+			costRows.add(new String[] { endpoint.name, kilobytes(endpoint.allocated, 50),
+					kilobytes(endpoint.allocated, 95), millis(endpoint.cpu, 50), millis(endpoint.cpu, 95),
+					kilobytes(endpoint.validationAllocated, 50), millis(endpoint.validationCpu, 50) });
+		}
+		extentNode.info(MarkupHelper.createTable(costRows.toArray(new String[0][])));
+
+		if (!testSnapshot.isEmpty()) {
+			List<String[]> testRows = new ArrayList<>();
+			testRows.add(new String[] { "Test (mean per run)", "Runs", "API calls", "API ms", "API alloc kB",
+					"API CPU ms", "Validation alloc kB", "Validation CPU ms", "Thread alloc kB", "Thread CPU ms" });
+			for (TestCost test : testSnapshot.values()) {
+				double runs = test.invocations;
+				testRows.add(new String[] { test.name, String.valueOf(test.invocations),
+						String.format("%.1f", test.calls / runs), perRun(test.callNanos / 1e6, runs),
+						perRun(test.callAllocated / 1e3, runs), perRun(test.callCpuNanos / 1e6, runs),
+						perRun(test.validationAllocated / 1e3, runs), perRun(test.validationCpuNanos / 1e6, runs),
+						perRun(test.testAllocated / 1e3, runs), perRun(test.testCpuNanos / 1e6, runs) });
+			}
+			extentNode.info(MarkupHelper.createTable(testRows.toArray(new String[0][])));
+		}
+	}
+
+	static Map<String, Object> toMap(Map<String, Endpoint> snapshot, Map<String, TestCost> testSnapshot) {
+		Map<String, Object> report = new LinkedHashMap<>();
+		report.put("generated", new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZ").format(new Date()));
+		report.put("unit", "ms");
+		List<Map<String, Object>> rows = new ArrayList<>();
+		for (Endpoint endpoint : snapshot.values()) {
+			Map<String, Object> row = new LinkedHashMap<>();
+			row.put("endpoint", endpoint.name);
+			row.put("calls", endpoint.server.getTotalCount());
+			row.put("total", endpoint.total.getTotalCount() == 0 ? null : percentiles(endpoint.total));
+			row.put("server", percentiles(endpoint.server));
+			Map<String, Object> phases = new LinkedHashMap<>();
+			for (String phase : PHASES) {
+				Histogram histogram = endpoint.getPhase(phase);
+				phases.put(phase, histogram.getTotalCount() == 0 ? null : percentiles(histogram));
+			}
+			row.put("phases", phases);
+			Map<String, Object> shares = new LinkedHashMap<>();
+			for (Map.Entry<String, Double> share : endpoint.getShares().entrySet()) {
+				shares.put(share.getKey(), round(share.getValue()));
+			}
+			row.put("shares", shares);
+			row.put("dominant", endpoint.getDominantPhase());
+			row.put("allocatedKB", endpoint.allocated.getTotalCount() == 0 ? null : percentiles(endpoint.allocated));
+			row.put("cpu", endpoint.cpu.getTotalCount() == 0 ? null : percentiles(endpoint.cpu));
+			if (endpoint.validationCpu.getTotalCount() > 0) {
+				Map<String, Object> validation = new LinkedHashMap<>();
+				validation.put("count", endpoint.validationCpu.getTotalCount());
+				validation.put("allocatedKB", percentiles(endpoint.validationAllocated));
+				validation.put("cpu", percentiles(endpoint.validationCpu));
+				row.put("validation", validation);
+			}
+			rows.add(row);
+		}
+		report.put("endpoints", rows);
+		List<Map<String, Object>> testRows = new ArrayList<>();
+		for (TestCost test : testSnapshot.values()) {
+			Map<String, Object> row = new LinkedHashMap<>();
+			row.put("test", test.name);
+			row.put("invocations", test.invocations);
+			row.put("calls", test.calls);
+			row.put("callMs", round(test.callNanos / 1e6));
+			row.put("callAllocatedKB", round(test.callAllocated / 1e3));
+			row.put("callCpuMs", round(test.callCpuNanos / 1e6));
+			row.put("validations", test.validations);
+			row.put("validationAllocatedKB", round(test.validationAllocated / 1e3));
+			row.put("validationCpuMs", round(test.validationCpuNanos / 1e6));
+			row.put("threadAllocatedKB", round(test.testAllocated / 1e3));
+			row.put("threadCpuMs", round(test.testCpuNanos / 1e6));
+			testRows.add(row);
+		}
+		report.put("tests", testRows);
+		return report;
+	}
+
+	static List<String> toCsv(Map<String, Endpoint> snapshot) {
+		List<String> lines = new ArrayList<>();
+		StringBuilder header = new StringBuilder("endpoint,phase,count,mean_ms");
+		for (double percentile : PERCENTILES) {
+			header.append(",").append(label(percentile)).append("_ms");
+		}
+		lines.add(header.append(",max_ms,share,dominant").toString());
+		for (Endpoint endpoint : snapshot.values()) {
+			Map<String, Double> shares = endpoint.getShares();
+			String dominant = endpoint.getDominantPhase();
+			Map<String, Histogram> histograms = new LinkedHashMap<>();
+			histograms.put("total", endpoint.total);
+			histograms.put("server", endpoint.server);
+			histograms.putAll(endpoint.phases);
+			for (Map.Entry<String, Histogram> phase : histograms.entrySet()) {
+				Histogram histogram = phase.getValue();
+				if (histogram.getTotalCount() == 0) {
+					continue;
+				}
+				StringBuilder line = new StringBuilder();
+				line.append('"').append(endpoint.name).append("\",").append(phase.getKey()).append(',')
+						.append(histogram.getTotalCount());
+				for (Object value : percentiles(histogram).values()) {
+					line.append(',').append(value);
+				}
+				Double share = shares.get(phase.getKey());
+				line.append(',').append(share == null ? "" : String.valueOf(round(share))).append(',')
+						.append(phase.getKey().equals(dominant));
+				lines.add(line.toString());
+			}
+		}
+		return lines;
+	}
+
+	/**
+	 * Allocation (kB) and CPU time (ms) per call and per validation, one row per
+	 * endpoint and metric.
+	 */
+	static List<String> toCostCsv(Map<String, Endpoint> snapshot) {
+		List<String> lines = new ArrayList<>();
+		StringBuilder header = new StringBuilder("endpoint,metric,count,mean");
+		for (double percentile : PERCENTILES) {
+			header.append(",").append(label(percentile));
+		}
+		lines.add(header.append(",max").toString());
+		for (Endpoint endpoint : snapshot.values()) {
+			Map<String, Histogram> histograms = new LinkedHashMap<>();
+			histograms.put("allocated_kb", endpoint.allocated);
+			histograms.put("cpu_ms", endpoint.cpu);
+			histograms.put("validation_allocated_kb", endpoint.validationAllocated);
+			histograms.put("validation_cpu_ms", endpoint.validationCpu);
+			for (Map.Entry<String, Histogram> metric : histograms.entrySet()) {
+				Histogram histogram = metric.getValue();
+				if (histogram.getTotalCount() == 0) {
+					continue;
+				}
+				StringBuilder line = new StringBuilder();
+				line.append('"').append(endpoint.name).append("\",").append(metric.getKey()).append(',')
+						.append(histogram.getTotalCount());
+				for (Object value : percentiles(histogram).values()) {
+					line.append(',').append(value);
+				}
+				lines.add(line.toString());
+			}
+		}
+		return lines;
+	}
+
+	/**
+	 * Per-test totals, summed over all invocations of the test.
+	 */
+	static List<String> toTestCsv(Map<String, TestCost> testSnapshot) {
+		List<String> lines = new ArrayList<>();
+		lines.add("test,invocations,calls,call_ms,call_allocated_kb,call_cpu_ms,validations,"
+				+ "validation_allocated_kb,validation_cpu_ms,thread_allocated_kb,thread_cpu_ms");
+		for (TestCost test : testSnapshot.values()) {
+			lines.add(String.join(",", test.name, String.valueOf(test.invocations), String.valueOf(test.calls),
+					String.valueOf(round(test.callNanos / 1e6)), String.valueOf(round(test.callAllocated / 1e3)),
+					String.valueOf(round(test.callCpuNanos / 1e6)), String.valueOf(test.validations),
+					String.valueOf(round(test.validationAllocated / 1e3)),
+					String.valueOf(round(test.validationCpuNanos / 1e6)),
+					String.valueOf(round(test.testAllocated / 1e3)), String.valueOf(round(test.testCpuNanos / 1e6))));
+		}
+		return lines;
+	}
+
+	/**
+	 * Horizontal bars per endpoint: the mean time per call of each phase
+	 * stacked, with ticks at the total p95 and p99.
+	 */
+	static String chart(Map<String, Endpoint> snapshot) {
+		int labelWidth = 260;
+		int barWidth = 420;
+		int rowHeight = 22;
+		double scale = 0;
+		for (Endpoint endpoint : snapshot.values()) {
+			double stacked = 0;
+			for (String phase : PHASES) {
+				stacked += endpoint.meanPerCall(phase);
+			}
+			scale = Math.max(scale, Math.max(stacked, endpoint.total.getValueAtPercentile(99)));
+		}
+		scale = scale <= 0 ? 1 : barWidth / scale;
+
+		int height = rowHeight * snapshot.size() + 30;
+		StringBuilder svg = new StringBuilder();
+		svg.append("<svg xmlns='http://www.w3.org/2000/svg' width='").append(labelWidth + barWidth + 80)
+				.append("' height='").append(height).append("' style='font:11px sans-serif'>");
+		int y = 0;
+		for (Endpoint endpoint : snapshot.values()) {
+			svg.append("<text x='0' y='").append(y + 15).append("' fill='currentColor'>").append(escape(endpoint.name))
+					.append("</text>");
+			double x = labelWidth;
+			double stacked = 0;
+			for (int i = 0; i < PHASES.length; i++) {
+				double mean = endpoint.meanPerCall(PHASES[i]);
+				svg.append(rect(x, y + 4, mean * scale, PHASE_COLORS[i]));
+				x += mean * scale;
+				stacked += mean;
+			}
+			if (endpoint.total.getTotalCount() > 0) {
+				svg.append(tick(labelWidth + endpoint.total.getValueAtPercentile(95) * scale, y, "#333333"));
+				svg.append(tick(labelWidth + endpoint.total.getValueAtPercentile(99) * scale, y, "#e15759"));
+			}
+			svg.append("<text x='").append(labelWidth + barWidth + 8).append("' y='").append(y + 15)
+					.append("' fill='currentColor'>").append(String.format("%.1f ms", stacked / 1000.0))
+					.append("</text>");
+			y += rowHeight;
+		}
+		y += 12;
+		double x = 0;
+		for (int i = 0; i < PHASES.length; i++) {
+			svg.append(rect(x, y, 10, PHASE_COLORS[i])).append(legend(x + 14, y, PHASES[i]));
+			x += 75;
+		}
+		svg.append(tick(x, y - 4, "#333333")).append(legend(x + 7, y, "total p95"));
+		svg.append(tick(x + 75, y - 4, "#e15759")).append(legend(x + 82, y, "total p99"));
+		return svg.append("</svg>").toString();
+	}
+
+	private static String rect(double x, double y, double width, String color) {
+		return String.format("<rect x='%.1f' y='%.1f' width='%.1f' height='14' fill='%s'/>", x, y, width, color);
+	}
+
+	private static String tick(double x, double y, String color) {
+		return String.format("<rect x='%.1f' y='%.1f' width='2' height='22' fill='%s'/>", x, y, color);
+	}
+
+	private static String legend(double x, double y, String text) {
+		return String.format("<text x='%.1f' y='%.1f' fill='currentColor'>%s</text>", x, y + 10, text);
+	}
+
+	private static String escape(String text) {
+		return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+	}
+
+	static Map<String, Object> percentiles(Histogram histogram) {
+		Map<String, Object> values = new LinkedHashMap<>();
+		values.put("mean", round(histogram.getMean() / 1000.0));
+		for (double percentile : PERCENTILES) {
+			values.put(label(percentile), histogram.getValueAtPercentile(percentile) / 1000.0);
+		}
+		values.put("max", histogram.getMaxValue() / 1000.0);
+		return values;
+	}
+
+	private static String label(double percentile) {
+		return "p" + (percentile == Math.floor(percentile) ? String.valueOf((int) percentile)
+				: String.valueOf(percentile));
+	}
+
+	private static String millis(Histogram histogram, double percentile) {
+		return histogram.getTotalCount() == 0 ? "-"
+				: String.format("%.1f", histogram.getValueAtPercentile(percentile) / 1000.0);
+	}
+
+	// Allocation histograms hold bytes
+	private static String kilobytes(Histogram histogram, double percentile) {
+		return histogram.getTotalCount() == 0 ? "-"
+				: String.format("%.1f", histogram.getValueAtPercentile(percentile) / 1e3);
+	}
+
+	private static String perRun(double value, double runs) {
+		return String.format("%.1f", value / runs);
+	}
+
+	private static long micros(long nanos) {
+		return Math.min(HIGHEST_TRACKABLE_MICROS, Math.max(0, nanos / 1_000));
+	}
+
+	private static long bytes(long bytes) {
+		return Math.min(HIGHEST_TRACKABLE_BYTES, Math.max(0, bytes));
+	}
+
+	private static double round(double value) {
+		return Math.round(value * 100) / 100.0;
+	}
+}
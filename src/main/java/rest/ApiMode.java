@@ -0,0 +1,47 @@
+package rest;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import restConfig.ConfigManager;
+
+/**
+ * How {@link ApiUtil} reaches OrangeHRM, selected with <code>api.mode</code>
+ * (config.properties or <code>-Dapi.mode=...</code>).
+ *
+ * <ul>
+ * <li><b>live</b> (default) - call the server in <code>base.url</code></li>
+ * <li><b>record</b> - call the live server and append every exchange to the
+ * capture file</li>
+ * <li><b>replay</b> - serve the capture file from a local server instead of
+ * using the network</li>
+ * <li><b>stub</b> - serve synthetic data from a local OrangeHRM stand-in
+ * (<code>stub.*</code> settings)</li>
+ * </ul>
+ *
+ * The capture file is <code>capture.file</code> (default
+ * <code>target/captures/orangehrm.capture</code>).
+ */
+public enum ApiMode {
+	LIVE, RECORD, REPLAY, STUB;
+
+	public static ApiMode current() {
+		String mode = ConfigManager.getProperty("api.mode", "live").trim().toUpperCase();
+		try {
+			return valueOf(mode);
+		} catch (IllegalArgumentException e) {
+			throw new IllegalStateException("Unknown api.mode '" + mode + "', expected live, record, replay or stub");
+		}
+	}
+
+	/**
+	 * @return whether requests are served locally, so no browser login is needed
+	 */
+	public boolean isOffline() {
+		return this == REPLAY || this == STUB;
+	}
+
+	public static Path captureFile() {
+		return Paths.get(ConfigManager.getProperty("capture.file", "target/captures/orangehrm.capture"));
+	}
+}
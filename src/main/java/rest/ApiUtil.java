@@ -2,13 +2,14 @@ package rest;
 
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
-import java.util.Random;
-import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.fasterxml.jackson.databind.JsonSerializable.Base;
 
@@ -17,12 +18,69 @@ import io.restassured.path.json.JsonPath;
 import io.restassured.response.Response;
 import io.restassured.specification.RequestSpecification;
 
+import coreUtilities.mock.OrangeHrmStub;
+import coreUtilities.mock.ReplayServer;
+import coreUtilities.mock.StubHttpServer;
+import coreUtilities.utils.Log;
+import coreUtilities.utils.StringInterner;
+import restConfig.ConfigManager;
+
 public class ApiUtil {
-	private static final Set<Integer> usedNumbers = new HashSet<>();
-	private static final Random random = new Random();
+	// Unique numbers are 4 digits. They are taken from a walk over all 9000 of
+	// them with a random start and a stride coprime to 9000, so no number repeats
+	// within 9000 calls; one atomic counter is the only shared state, which keeps
+	// parallel tests from contending on a lock or corrupting a shared set
+	private static final int UNIQUE_RANGE = 9000;
+	private static final int UNIQUE_STRIDE = 7919;
+	private static final int uniqueStart = ThreadLocalRandom.current().nextInt(UNIQUE_RANGE);
+	private static final AtomicLong uniqueCalls = new AtomicLong();
 	private static String BASE_URL;
+	private static final StringInterner interner = StringInterner.shared();
+	private static final String CONFIG_PATH = Paths
+			.get(System.getProperty("user.dir"), "src", "main", "resources", "config.properties").toString();
+	private static StubHttpServer localServer;
 	Properties prop;
 
+	static {
+		// Send W3C trace context and trace every call under the running test
+		RestAssured.filters(new TraceFilter());
+		// Keep the last few exchanges per thread; they are only printed if a test fails
+		RestAssured.filters(new CaptureFilter());
+		// Swap in live cookies of the session pool and log expired sessions in again
+		RestAssured.filters(new SessionFilter());
+		// Time DNS, connect, TLS and first byte of every request (see ApiMetrics)
+		RestAssured.config = RestAssured.config()
+				.httpClient(RestAssured.config().getHttpClientConfig().httpClientFactory(new TimingHttpClientFactory()));
+		if (ApiMode.current() == ApiMode.RECORD) {
+			try {
+				CaptureFile capture = CaptureFile.openForAppend(ApiMode.captureFile());
+				RestAssured.filters(new RecordFilter(capture));
+				Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+					try {
+						Log.info("Recorded {} exchanges to {}", capture.getRecordCount(), capture.getPath());
+						capture.close();
+					} catch (IOException e) {
+						Log.error("❌ Could not close capture file {}: {}", capture.getPath(), e.getMessage());
+					}
+				}, "capture-close"));
+			} catch (IOException e) {
+				throw new IllegalStateException("Cannot open capture file " + ApiMode.captureFile(), e);
+			}
+		}
+	}
+
+	/**
+	 * Ends the parse phase of this thread's last call, in the API metrics, the
+	 * Flight Recorder events and the trace; every method passes the response it
+	 * built through here, so CustomResponse itself has no side effects.
+	 */
+	private static CustomResponse built(CustomResponse customResponse) {
+		customResponse.setMetricsEndpoint(ApiMetrics.responseBuilt());
+		ApiEvents.responseBuilt();
+		TraceFilter.responseBuilt();
+		return customResponse;
+	}
+
 	/**
 	 * Retrieves the base URL from the configuration properties file.
 	 *
@@ -38,9 +96,10 @@ public class ApiUtil {
 	public String getBaseUrl() {
 		prop = new Properties();
 		try (FileInputStream fis = new FileInputStream(
-				System.getProperty("user.dir") + "\\src\\main\\resources\\config.properties")) {
+				CONFIG_PATH)) {
 			prop.load(fis);
-			BASE_URL = prop.getProperty("base.url");
+			BASE_URL = ApiMode.current().isOffline() ? localBaseUrl(prop.getProperty("base.url"))
+					: prop.getProperty("base.url");
 			return BASE_URL;
 		} catch (IOException e) {
 			e.printStackTrace();
@@ -48,6 +107,25 @@ public class ApiUtil {
 		}
 	}
 
+	/**
+	 * Starts the replay server or OrangeHRM stub on first use and points the
+	 * configured base URL at it, keeping the OrangeHRM context path so recorded
+	 * paths still match.
+	 *
+	 * @param configuredUrl the <code>base.url</code> value from the properties file
+	 * @return the base URL served by the local server
+	 */
+	private static synchronized String localBaseUrl(String configuredUrl) throws IOException {
+		if (localServer == null) {
+			localServer = ApiMode.current() == ApiMode.REPLAY
+					? ReplayServer.start(ApiMode.captureFile(), ConfigManager.getBooleanProperty("replay.latency", false))
+					: OrangeHrmStub.start();
+			Runtime.getRuntime().addShutdownHook(new Thread(localServer::close, "local-server-close"));
+		}
+		String contextPath = URI.create(configuredUrl).getRawPath();
+		return localServer.getBaseUrl() + (contextPath == null ? "" : contextPath);
+	}
+
 	/**
 	 * Retrieves the username from the configuration properties file.
 	 *
@@ -62,7 +140,7 @@ public class ApiUtil {
 	public String getUsername() {
 		prop = new Properties();
 		try (FileInputStream fis = new FileInputStream(
-				System.getProperty("user.dir") + "\\src\\main\\resources\\config.properties")) {
+				CONFIG_PATH)) {
 			prop.load(fis);
 			return prop.getProperty("username");
 		} catch (IOException e) {
@@ -90,7 +168,7 @@ public class ApiUtil {
 	public String getPassword() {
 		prop = new Properties();
 		try (FileInputStream fis = new FileInputStream(
-				System.getProperty("user.dir") + "\\src\\main\\resources\\config.properties")) {
+				CONFIG_PATH)) {
 			prop.load(fis);
 			return prop.getProperty("password");
 		} catch (IOException e) {
@@ -149,13 +227,13 @@ public class ApiUtil {
 				dates.add(holiday.get("date"));
 				recurrings.add(holiday.get("recurring"));
 				lengths.add(holiday.get("length"));
-				lengthNames.add(holiday.get("lengthName"));
+				lengthNames.add(interner.internValue(holiday.get("lengthName")));
 			}
 		} else {
-			System.out.println("⚠️ 'data' field is null in response. Status code: " + statusCode);
+			Log.warn("⚠️ 'data' field is null in response. Status code: {}", statusCode);
 		}
 
-		return new CustomResponse(response, statusCode, status, ids, names, dates, recurrings, lengths, lengthNames);
+		return built(new CustomResponse(response, statusCode, status, ids, names, dates, recurrings, lengths, lengthNames));
 
 	}
 
@@ -206,13 +284,13 @@ public class ApiUtil {
 				dates.add(Leave.get("date"));
 				recurrings.add(Leave.get("recurring"));
 				lengths.add(Leave.get("length"));
-				lengthNames.add(Leave.get("lengthName"));
+				lengthNames.add(interner.internValue(Leave.get("lengthName")));
 			}
 		} else {
-			System.out.println("⚠️ 'data' field is null in response. Status code: " + statusCode);
+			Log.warn("⚠️ 'data' field is null in response. Status code: {}", statusCode);
 		}
 
-		return new CustomResponse(response, statusCode, status, ids, names, dates, recurrings, lengths, lengthNames);
+		return built(new CustomResponse(response, statusCode, status, ids, names, dates, recurrings, lengths, lengthNames));
 	}
 
 	/**
@@ -245,19 +323,19 @@ public class ApiUtil {
 		int statusCode = response.getStatusCode();
 		String status = response.getStatusLine();
 
-		System.out.println("Raw response:");
-		response.prettyPrint(); // ✅ Debug print
-
 		JsonPath jsonPath = response.jsonPath();
 
 		// ✅ Get the "count" directly from the "data" object
 		Map<String, Object> data = jsonPath.getMap("data");
 		int count = 0;
 
-		count = (int) data.get("count");
-		System.out.println("⚠️ 'count' key is missing inside 'data'.");
+		if (data != null && data.get("count") != null) {
+			count = (int) data.get("count");
+		} else {
+			Log.warn("⚠️ 'count' key is missing inside 'data'. Status code: {}", statusCode);
+		}
 
-		return new CustomResponse(response, statusCode, status, count); // ⬅️ return single count
+		return built(new CustomResponse(response, statusCode, status, count)); // ⬅️ return single count
 	}
 
 	/**
@@ -303,16 +381,16 @@ public class ApiUtil {
 		if (data != null) {
 			for (Map<String, Object> Leave : data) {
 				ids.add(Leave.get("id"));
-				names.add(Leave.get("name"));
+				names.add(interner.internValue(Leave.get("name")));
 				situationals.add(Leave.get("situational"));
 				Deletes.add(Leave.get("deleted"));
 
 			}
 		} else {
-			System.out.println("⚠️ 'data' field is null in response. Status code: " + statusCode);
+			Log.warn("⚠️ 'data' field is null in response. Status code: {}", statusCode);
 		}
 
-		return new CustomResponse(response, statusCode, status, ids, names, situationals, Deletes);
+		return built(new CustomResponse(response, statusCode, status, ids, names, situationals, Deletes));
 	}
 
 	/**
@@ -367,15 +445,15 @@ public class ApiUtil {
 				if (cellProp instanceof Map || cellProp == null) {
 					cellProperties.add(cellProp); // add map or null as-is
 				} else {
-					System.out.println("⚠️ Unexpected type for cellProperties: " + cellProp.getClass().getSimpleName());
+					Log.warn("⚠️ Unexpected type for cellProperties: {}", cellProp.getClass().getSimpleName());
 					cellProperties.add(null);
 				}
 			}
 		} else {
-			System.out.println("❌ 'data.headers' is missing or empty in the response. Status code: " + statusCode);
+			Log.warn("❌ 'data.headers' is missing or empty in the response. Status code: {}", statusCode);
 		}
 
-		return new CustomResponse(response, statusCode, status, props, names, sizes, pins, cellProperties);
+		return built(new CustomResponse(response, statusCode, status, props, names, sizes, pins, cellProperties));
 	}
 
 	/**
@@ -419,10 +497,10 @@ public class ApiUtil {
 			id = data.get("id");
 			name = data.get("name");
 		} else {
-			System.out.println("❌ 'data' object is missing or empty in the response. Status code: " + statusCode);
+			Log.warn("❌ 'data' object is missing or empty in the response. Status code: {}", statusCode);
 		}
 
-		return new CustomResponse(response, statusCode, status, id, name);
+		return built(new CustomResponse(response, statusCode, status, id, name));
 	}
 
 	/**
@@ -452,7 +530,6 @@ public class ApiUtil {
 		}
 
 		Response response = request.delete(BASE_URL + deleteEndPoint).then().extract().response();
-		System.out.println(response);
 
 		int statusCode = response.getStatusCode();
 		String status = response.getStatusLine();
@@ -466,10 +543,10 @@ public class ApiUtil {
 		if (dataList != null && !dataList.isEmpty()) {
 			dataValue = dataList.get(0); // only one element expected
 		} else {
-			System.out.println("❌ 'data' array is missing or empty in the response. Status code: " + statusCode);
+			Log.warn("❌ 'data' array is missing or empty in the response. Status code: {}", statusCode);
 		}
 
-		return new CustomResponse(response, statusCode, status, dataValue);
+		return built(new CustomResponse(response, statusCode, status, dataValue));
 	}
 
 	/**
@@ -514,10 +591,10 @@ public class ApiUtil {
 			firstName = data.get("firstName");
 			employeeId = data.get("employeeId");
 		} else {
-			System.out.println("❌ 'data' object is missing or empty in the response. Status code: " + statusCode);
+			Log.warn("❌ 'data' object is missing or empty in the response. Status code: {}", statusCode);
 		}
 
-		return new CustomResponse(response, statusCode, status, employeeId, firstName);
+		return built(new CustomResponse(response, statusCode, status, employeeId, firstName));
 	}
 
 	/**
@@ -572,10 +649,10 @@ public class ApiUtil {
 			name = data.get("firstName");
 			lastName = data.get("lastName");
 		} else {
-			System.out.println("❌ 'data' object is missing or empty in the response. Status code: " + statusCode);
+			Log.warn("❌ 'data' object is missing or empty in the response. Status code: {}", statusCode);
 		}
 
-		return new CustomResponse(response, statusCode, status, id, name, lastName);
+		return built(new CustomResponse(response, statusCode, status, id, name, lastName));
 	}
 
 	/**
@@ -626,10 +703,10 @@ public class ApiUtil {
 		if (dataList != null && !dataList.isEmpty()) {
 			employeeId = dataList.get(0);
 		} else {
-			System.out.println("❌ 'data' object is missing or empty in the response. Status code: " + statusCode);
+			Log.warn("❌ 'data' object is missing or empty in the response. Status code: {}", statusCode);
 		}
 
-		return new CustomResponse(response, statusCode, status, employeeId, employeeId);
+		return built(new CustomResponse(response, statusCode, status, employeeId, employeeId));
 	}
 
 	/**
@@ -644,13 +721,7 @@ public class ApiUtil {
 	 *         {@code null} if an I/O error occurs while reading the file.
 	 */
 	public static String generateUniqueName(String base) {
-		int uniqueNumber;
-		do {
-			uniqueNumber = 1000 + random.nextInt(9000);
-		} while (usedNumbers.contains(uniqueNumber));
-
-		usedNumbers.add(uniqueNumber);
-		return base + uniqueNumber;
+		return base + nextUniqueNumber();
 	}
 
 	/**
@@ -658,10 +729,8 @@ public class ApiUtil {
 	 * to the provided base value.
 	 *
 	 * <p>
-	 * This method generates a random number between 1000 and 9999 and ensures it is
-	 * unique by checking against a maintained list of previously generated numbers
-	 * (<code>usedNumbers</code>). Once a unique number is found, it is added to the
-	 * <code>usedNumbers</code> set to prevent future duplication.
+	 * The number is between 1000 and 9999 and is not handed out again within the
+	 * next 9000 calls, from any thread.
 	 *
 	 * @param base an integer value to which the generated unique 4-digit number
 	 *             will be added
@@ -669,13 +738,16 @@ public class ApiUtil {
 	 *         the unique number
 	 */
 	public static int generateUniqueID(int base) {
-		int uniqueNumber;
-		do {
-			uniqueNumber = 1000 + random.nextInt(9000);
-		} while (usedNumbers.contains(uniqueNumber));
+		return base + nextUniqueNumber();
+	}
 
-		usedNumbers.add(uniqueNumber);
-		return base + uniqueNumber;
+	/**
+	 * Returns the next 4-digit number of the walk; lock-free and safe to call from
+	 * any number of threads.
+	 */
+	private static int nextUniqueNumber() {
+		long call = uniqueCalls.getAndIncrement();
+		return 1000 + (int) ((uniqueStart + call * UNIQUE_STRIDE) % UNIQUE_RANGE);
 	}
 
 	public CustomResponse GetVacancies(String endpoint, String cookieValue, Map<String, Object> queryParams) {
@@ -702,7 +774,7 @@ public class ApiUtil {
 		List<Object> isPublished = jsonPath.getList("data.isPublished");
 		List<Object> jobTitle = jsonPath.getList("data.jobTitle");
 		
-		return new CustomResponse(response, statusCode, statusLine, id, name, description, numOfPositions, statusList, isPublished, jobTitle);
+		return built(new CustomResponse(response, statusCode, statusLine, id, name, description, numOfPositions, statusList, isPublished, jobTitle));
 	}
 	
 	
@@ -746,18 +818,16 @@ public class ApiUtil {
 
     JsonPath jsonPath = response.jsonPath();
 
-    System.out.println("Response Body: " + response.asString());
-
     // ✅ Extract with correct types
     List<Integer> ids = jsonPath.getList("data.id", Integer.class);
-    List<String> titles = jsonPath.getList("data.title", String.class);
+    List<String> titles = interner.internAll(jsonPath.getList("data.title", String.class));
 
     // ✅ Convert to Object lists for flexibility in CustomResponse
     List<Object> idsAsObjects = new ArrayList<>(ids);
     List<Object> titlesAsObjects = new ArrayList<>(titles);
 
     // ✅ Create response object
-    CustomResponse customResponse = new CustomResponse(response, statusCode, status, idsAsObjects, titlesAsObjects);
+    CustomResponse customResponse = built(new CustomResponse(response, statusCode, status, idsAsObjects, titlesAsObjects));
 
     // ✅ Set lists explicitly
     customResponse.setIds(idsAsObjects);
@@ -817,8 +887,6 @@ public class ApiUtil {
 
 	    JsonPath jsonPath = response.jsonPath();
 
-	    System.out.println("Response Body: " + response.asString());
-
 	    // ✅ Safe extraction for empNumber (works if "data" is object or array)
 	    Integer empNumber = null;
 	    String lastName = null;
@@ -838,7 +906,7 @@ public class ApiUtil {
 	        nationalityName = jsonPath.getString("data[0].nationality.name");
 	    }
 
-	    return new CustomResponse(
+	    return built(new CustomResponse(
 	            response,
 	            statusCode,
 	            status,
@@ -846,7 +914,7 @@ public class ApiUtil {
 	            firstName,
 	            lastName,
 	            nationalityName
-	    );
+	    ));
 	}
 
 
@@ -915,7 +983,7 @@ public CustomResponse GetEmpData(String endpoint, String cookieValue, String bod
         lastNames.add(jsonPath.getString("data.lastName"));
         employeeNumbers.add(jsonPath.getString("data.employeeId"));
     }
-	CustomResponse customResponse = new CustomResponse(
+	CustomResponse customResponse = built(new CustomResponse(
 			response,
 			statusCode,
 			statusLine,
@@ -924,7 +992,7 @@ public CustomResponse GetEmpData(String endpoint, String cookieValue, String bod
 			lastNames,
 			employeeNumbers,
 			response.asString()
-	);
+	));
 
     customResponse.setEmpNumbers(empNumbers);
     customResponse.setFirstNames(firstNames);
@@ -975,13 +1043,13 @@ public CustomResponse GetLeaveWorkWeek(String endpoint, String cookieValue) {
     // Extract "data" (workweek schedule per day, where keys are day numbers)
     Map<String, Integer> workweekData = jsonPath.getMap("data", String.class, Integer.class);
 
-	CustomResponse cr = new CustomResponse(
+	CustomResponse cr = built(new CustomResponse(
 			response,
 			statusCode,
 			statusLine,
 			workweekData,
 			response.asString()
-	);
+	));
 
 	cr.setWorkweekData(workweekData);
     // Return in CustomResponse
@@ -1028,13 +1096,13 @@ public CustomResponse PostEmployee(String endpoint, String cookieValue, String b
             .response();
 
     // Wrap response inside CustomResponse (basic version)
-    return new CustomResponse(
+    return built(new CustomResponse(
         response,
         response.getStatusCode(),
         response.getStatusLine(),
         null,   // empStatusIdList not needed here
         null    // empStatusNameList not needed here
-    );
+    ));
 }
 public CustomResponse createReport(String endpoint, String cookieValue, String body) {
     Response response = RestAssured
@@ -1066,13 +1134,13 @@ public CustomResponse createReport(String endpoint, String cookieValue, String b
     }
 
     // Return as CustomResponse
-    return new CustomResponse(
+    return built(new CustomResponse(
         response,
         response.getStatusCode(),
         response.getStatusLine(),
         ids,
         names
-    );
+    ));
 }
 
 
@@ -1124,8 +1192,8 @@ public CustomResponse createReport(String endpoint, String cookieValue, String b
 //        extractEmploymentStatusData(status, empStatusIdList, empStatusNameList);
 		}
 
-		return new CustomResponse(response, response.getStatusCode(), response.getStatusLine(), empStatusIdList,
-				empStatusNameList);
+		return built(new CustomResponse(response, response.getStatusCode(), response.getStatusLine(), empStatusIdList,
+				empStatusNameList));
 	}
 	
 	
@@ -1177,8 +1245,8 @@ public CustomResponse createReport(String endpoint, String cookieValue, String b
 //        extractEmploymentStatusData(status, empStatusIdList, empStatusNameList);
 		}
 
-		return new CustomResponse(response, response.getStatusCode(), response.getStatusLine(), empStatusIdList,
-				empStatusNameList);
+		return built(new CustomResponse(response, response.getStatusCode(), response.getStatusLine(), empStatusIdList,
+				empStatusNameList));
 	}
 
 
@@ -1296,7 +1364,7 @@ public CustomResponse createReport(String endpoint, String cookieValue, String b
 		    }
 
 		    // Create CustomResponse object with lists
-		    CustomResponse customResponse = new CustomResponse(
+		    CustomResponse customResponse = built(new CustomResponse(
 		            response,
 		            statusCode,
 		            statusLine,
@@ -1305,7 +1373,7 @@ public CustomResponse createReport(String endpoint, String cookieValue, String b
 		            lastNames,
 		            employeeIds,
 		            response.asString()
-		    );
+		    ));
 
 		    return customResponse;
 		}
@@ -1357,12 +1425,12 @@ public CustomResponse createReport(String endpoint, String cookieValue, String b
 	    // For DELETE, name list is usually not present — leave empty
 	    List<String> empStatusNameList = new ArrayList<>();
 
-	    return new CustomResponse(
+	    return built(new CustomResponse(
 	            response,
 	            response.getStatusCode(),
 	            response.getStatusLine(),
 	            empStatusIdList,
 	            empStatusNameList
-	    );
+	    ));
 	}
 }
\ No newline at end of file
@@ -1,12 +1,11 @@
 package rest;
 
-import restConfig.ConfigManager;
-
 public class AuthUtil {
 
-	// Method to get Bearer Token from config file
+	// Method to get the current Bearer Token, refreshed in the background before
+	// it expires (see TokenManager)
 	public static String getBearerToken() {
-		return ConfigManager.getProperty("auth.bearer.token"); // Fetch from config
+		return TokenManager.shared().token();
 	}
 
 	// Method to set Authorization header
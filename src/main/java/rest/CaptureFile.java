@@ -0,0 +1,156 @@
+package rest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only, memory-mapped file of {@link CaptureRecord}s.
+ *
+ * <p>
+ * Layout: a 16 byte header (magic <code>OHRC</code>, format version, end
+ * offset of the last complete record) followed by records, each prefixed with
+ * its payload length as an int. The end offset is updated after every append,
+ * so a capture interrupted mid-run is still readable up to the last complete
+ * record; anything past it is unused mapped space.
+ *
+ * <p>
+ * The mapping grows by doubling; writers are serialized on the file, which is
+ * cheap compared to the HTTP call being recorded.
+ */
+public class CaptureFile implements Closeable {
+
+	private static final int MAGIC = 0x4F485243; // "OHRC"
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 16;
+	private static final long INITIAL_SIZE = 1 << 20;
+
+	private final Path path;
+	private final FileChannel channel;
+	private MappedByteBuffer buffer;
+	private long end;
+	private int records;
+
+	private CaptureFile(Path path, FileChannel channel) {
+		this.path = path;
+		this.channel = channel;
+	}
+
+	/**
+	 * Opens a capture for recording, appending to an existing file or creating a
+	 * new one.
+	 *
+	 * @param path capture file location
+	 * @return an open capture file
+	 */
+	public static CaptureFile openForAppend(Path path) throws IOException {
+		if (path.getParent() != null) {
+			Files.createDirectories(path.getParent());
+		}
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		CaptureFile file = new CaptureFile(path, channel);
+		long size = channel.size();
+		file.map(Math.max(INITIAL_SIZE, size));
+		if (size >= HEADER_SIZE && file.buffer.getInt(0) == MAGIC) {
+			checkVersion(file.buffer.getInt(4), path);
+			file.end = file.buffer.getLong(8);
+		} else {
+			file.buffer.putInt(0, MAGIC);
+			file.buffer.putInt(4, VERSION);
+			file.end = HEADER_SIZE;
+			file.buffer.putLong(8, file.end);
+		}
+		return file;
+	}
+
+	/**
+	 * Reads every complete record from a capture file.
+	 *
+	 * @param path capture file location
+	 * @return the records in the order they were recorded
+	 */
+	public static List<CaptureRecord> readAll(Path path) throws IOException {
+		List<CaptureRecord> result = new ArrayList<>();
+		// Read into the heap rather than mapping, so the file is not left locked on
+		// Windows until the mapping is garbage collected
+		ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+		if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+			throw new IOException("Not a capture file: " + path);
+		}
+		checkVersion(buffer.getInt(4), path);
+		long end = Math.min(buffer.getLong(8), buffer.capacity());
+		int position = HEADER_SIZE;
+		while (position + 4 <= end) {
+			int length = buffer.getInt(position);
+			if (length <= 0 || position + 4 + length > end) {
+				break;
+			}
+			byte[] payload = new byte[length];
+			buffer.position(position + 4);
+			buffer.get(payload);
+			result.add(CaptureRecord.decode(payload));
+			position += 4 + length;
+		}
+		return result;
+	}
+
+	/**
+	 * Appends one record and publishes the new end offset in the header.
+	 */
+	public synchronized void append(CaptureRecord record) throws IOException {
+		byte[] payload = record.encode();
+		long needed = end + 4 + payload.length;
+		if (needed > buffer.capacity()) {
+			map(Math.max(needed, (long) buffer.capacity() * 2));
+		}
+		int position = (int) end;
+		buffer.putInt(position, payload.length);
+		buffer.position(position + 4);
+		buffer.put(payload);
+		end = needed;
+		buffer.putLong(8, end);
+		records++;
+	}
+
+	public synchronized int getRecordCount() {
+		return records;
+	}
+
+	public Path getPath() {
+		return path;
+	}
+
+	/**
+	 * Flushes the mapping to disk. The file keeps its mapped size; readers stop
+	 * at the end offset stored in the header.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (!channel.isOpen()) {
+			return;
+		}
+		buffer.force();
+		channel.close();
+	}
+
+	private void map(long size) throws IOException {
+		if (size > Integer.MAX_VALUE) {
+			throw new IOException("Capture file exceeds 2 GB: " + path);
+		}
+		buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+	}
+
+	private static void checkVersion(int version, Path path) throws IOException {
+		if (version != VERSION) {
+			throw new IOException("Unsupported capture format version " + version + " in " + path);
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package rest;
+
+import org.apache.logging.log4j.Level;
+
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import coreUtilities.jfr.ApiCallEvent;
+import coreUtilities.utils.Log;
+
+/**
+ * RestAssured filter that stores every exchange in the calling thread's
+ * {@link ResponseCapture} ring instead of printing it.
+ *
+ * <p>
+ * Registered once as a global filter by {@link ApiUtil}, so it also sees the
+ * direct RestAssured calls made from the test class. Each call is also logged
+ * as a structured DEBUG <code>api.call</code> event, timed in
+ * {@link ApiMetrics} and recorded as a Flight Recorder event
+ * ({@link ApiEvents}).
+ */
+public class CaptureFilter implements Filter {
+
+	@Override
+	public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+			FilterContext ctx) {
+		RequestPhases phases = RequestPhases.begin();
+		ThreadCost cost = ThreadCost.start();
+		ApiCallEvent event = ApiEvents.callStarted();
+		long start = System.nanoTime();
+		Response response = ctx.next(requestSpec, responseSpec);
+		long end = System.nanoTime();
+		// The capture, logging and events below are the framework's own work, not
+		// the call's, so they are left out of its allocation and CPU time
+		ThreadCost bookkeeping = ThreadCost.start();
+		ApiEvents.callEnded(event, requestSpec.getMethod(), requestSpec.getURI(), response);
+		long elapsedMillis = (end - start) / 1_000_000;
+		byte[] body = response.asByteArray();
+		ApiMetrics.exchange(requestSpec.getMethod(), requestSpec.getURI(), start, end, body.length, phases, cost);
+
+		Log.event(Level.DEBUG, "api.call", "method", requestSpec.getMethod(), "endpoint", requestSpec.getDerivedPath(),
+				"status", response.getStatusCode(), "latencyMs", elapsedMillis);
+		// Kept as bytes; the ring decodes them only if a test fails
+		ResponseCapture.record(requestSpec.getMethod(), requestSpec.getURI(), response.getStatusCode(), elapsedMillis,
+				requestSpec.getBody(), body);
+		cost.exclude(bookkeeping);
+		return response;
+	}
+}
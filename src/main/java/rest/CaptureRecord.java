@@ -0,0 +1,91 @@
+package rest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * One recorded request/response exchange stored in a {@link CaptureFile}.
+ *
+ * <p>
+ * Encoded as: timestamp, method, path, normalized query, status code, status
+ * line, content type, latency (µs), request body and response body. Strings use
+ * {@link DataOutputStream#writeUTF}; bodies are length-prefixed byte arrays.
+ */
+public class CaptureRecord {
+
+	public final long timestamp;
+	public final String method;
+	public final String path;
+	public final String query;
+	public final int statusCode;
+	public final String statusLine;
+	public final String contentType;
+	public final long latencyMicros;
+	public final byte[] requestBody;
+	public final byte[] responseBody;
+
+	public CaptureRecord(long timestamp, String method, String path, String query, int statusCode, String statusLine,
+			String contentType, long latencyMicros, byte[] requestBody, byte[] responseBody) {
+		this.timestamp = timestamp;
+		this.method = method;
+		this.path = path;
+		this.query = query == null ? "" : query;
+		this.statusCode = statusCode;
+		this.statusLine = statusLine == null ? "" : statusLine;
+		this.contentType = contentType == null ? "" : contentType;
+		this.latencyMicros = latencyMicros;
+		this.requestBody = requestBody == null ? new byte[0] : requestBody;
+		this.responseBody = responseBody == null ? new byte[0] : responseBody;
+	}
+
+	/**
+	 * @return the replay lookup key: method, path and normalized query
+	 */
+	public String key() {
+		return key(method, path, query);
+	}
+
+	public static String key(String method, String path, String normalizedQuery) {
+		return method.toUpperCase() + " " + path + (normalizedQuery.isEmpty() ? "" : "?" + normalizedQuery);
+	}
+
+	byte[] encode() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(128 + requestBody.length + responseBody.length);
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeLong(timestamp);
+		out.writeUTF(method);
+		out.writeUTF(path);
+		out.writeUTF(query);
+		out.writeInt(statusCode);
+		out.writeUTF(statusLine);
+		out.writeUTF(contentType);
+		out.writeLong(latencyMicros);
+		out.writeInt(requestBody.length);
+		out.write(requestBody);
+		out.writeInt(responseBody.length);
+		out.write(responseBody);
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	static CaptureRecord decode(byte[] payload) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+		long timestamp = in.readLong();
+		String method = in.readUTF();
+		String path = in.readUTF();
+		String query = in.readUTF();
+		int statusCode = in.readInt();
+		String statusLine = in.readUTF();
+		String contentType = in.readUTF();
+		long latencyMicros = in.readLong();
+		byte[] requestBody = new byte[in.readInt()];
+		in.readFully(requestBody);
+		byte[] responseBody = new byte[in.readInt()];
+		in.readFully(responseBody);
+		return new CaptureRecord(timestamp, method, path, query, statusCode, statusLine, contentType, latencyMicros,
+				requestBody, responseBody);
+	}
+}
@@ -0,0 +1,96 @@
+package rest;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
+import io.restassured.path.json.JsonPath;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+
+import coreUtilities.mock.StubHttpServer;
+import coreUtilities.mock.TokenEndpointStub;
+import restConfig.ConfigManager;
+
+/**
+ * {@link TokenManager.Provider} for the OAuth 2 client credentials grant: POST
+ * <code>grant_type=client_credentials</code> to the token endpoint with the
+ * client id and secret as HTTP Basic credentials, and read
+ * <code>access_token</code> and <code>expires_in</code> from the JSON answer.
+ *
+ * <p>
+ * The call bypasses the global filters, so the client secret and the tokens
+ * stay out of captures, recordings and traces.
+ */
+public class ClientCredentialsProvider implements TokenManager.Provider {
+
+	private static StubHttpServer localEndpoint;
+
+	private final String tokenUrl;
+	private final String clientId;
+	private final String clientSecret;
+	private final String scope;
+
+	public ClientCredentialsProvider(String tokenUrl, String clientId, String clientSecret, String scope) {
+		this.tokenUrl = tokenUrl;
+		this.clientId = clientId;
+		this.clientSecret = clientSecret;
+		this.scope = scope;
+	}
+
+	/**
+	 * Uses <code>auth.token.url</code>, <code>auth.client.id</code>,
+	 * <code>auth.client.secret</code> and <code>auth.token.scope</code>. Without a
+	 * URL, replay and stub mode start a local {@link TokenEndpointStub}.
+	 *
+	 * @throws IllegalStateException if no URL is set in live or record mode
+	 */
+	public static ClientCredentialsProvider fromConfig() {
+		String url = ConfigManager.getProperty("auth.token.url", "").trim();
+		if (url.isEmpty()) {
+			if (!ApiMode.current().isOffline()) {
+				throw new IllegalStateException("auth.token.provider=client-credentials needs auth.token.url");
+			}
+			url = localEndpointUrl();
+		}
+		return new ClientCredentialsProvider(url, ConfigManager.getProperty("auth.client.id", ""),
+				ConfigManager.getProperty("auth.client.secret", ""),
+				ConfigManager.getProperty("auth.token.scope", "").trim());
+	}
+
+	@Override
+	public TokenManager.Token fetch() {
+		RequestSpecification request = RestAssured.given().noFilters().relaxedHTTPSValidation().auth().preemptive()
+				.basic(clientId, clientSecret).contentType(ContentType.URLENC)
+				.formParam("grant_type", "client_credentials");
+		if (!scope.isEmpty()) {
+			request.formParam("scope", scope);
+		}
+		Response response = request.post(tokenUrl);
+		if (response.getStatusCode() != 200) {
+			throw new IllegalStateException("Token endpoint returned " + response.getStatusLine() + ": "
+					+ response.asString());
+		}
+		JsonPath json = response.jsonPath();
+		String token = json.getString("access_token");
+		if (token == null || token.isEmpty()) {
+			throw new IllegalStateException("Token endpoint returned no access_token");
+		}
+		Object expiresIn = json.get("expires_in");
+		return new TokenManager.Token(token, expiresIn == null ? 0 : Long.parseLong(String.valueOf(expiresIn)),
+				TimeUnit.SECONDS);
+	}
+
+	private static synchronized String localEndpointUrl() {
+		if (localEndpoint == null) {
+			try {
+				localEndpoint = TokenEndpointStub.start();
+			} catch (IOException e) {
+				throw new IllegalStateException("Cannot start the token endpoint stub", e);
+			}
+			Runtime.getRuntime().addShutdownHook(new Thread(localEndpoint::close, "token-stub-close"));
+		}
+		return localEndpoint.getBaseUrl() + TokenEndpointStub.PATH;
+	}
+}
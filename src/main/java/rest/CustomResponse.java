@@ -48,6 +48,10 @@ public class CustomResponse {
 	@SuppressWarnings("unused")
 	private Object id;
 
+	// Endpoint of the call this response came from, for validation metrics; set
+	// by ApiUtil once it has built the response
+	private ApiMetrics.Endpoint metricsEndpoint;
+
 	public CustomResponse(Response response, Integer statusCode, String status, List<Object> list1, List<Object> list2,
 			List<Object> list3, List<Object> list4, List<Object> list5) {
 
@@ -159,6 +163,23 @@ public CustomResponse(Response response, int statusCode, String status, Object d
 		return response;
 	}
 
+	ApiMetrics.Endpoint getMetricsEndpoint() {
+		return metricsEndpoint;
+	}
+
+	void setMetricsEndpoint(ApiMetrics.Endpoint metricsEndpoint) {
+		this.metricsEndpoint = metricsEndpoint;
+	}
+
+	/**
+	 * @return method and endpoint template of the call this response came from,
+	 *         e.g. <code>GET /pim/employees</code>; <code>null</code> when API
+	 *         metrics are off
+	 */
+	public String getEndpoint() {
+		return metricsEndpoint == null ? null : metricsEndpoint.getName();
+	}
+
 	public int getStatusCode() {
 		return statusCode;
 	}
@@ -0,0 +1,92 @@
+package rest;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+
+import coreUtilities.utils.Log;
+
+/**
+ * Logs in to OrangeHRM over plain HTTP, the way the login form does, and
+ * returns the <code>orangehrm</code> session cookie:
+ * <ol>
+ * <li>GET <code>/web/index.php/auth/login</code> - opens a session and embeds
+ * a CSRF token in the page, as the <code>:token</code> attribute of the
+ * <code>auth-login</code> component.</li>
+ * <li>POST <code>/web/index.php/auth/validate</code> with the session cookie,
+ * <code>_token</code>, <code>username</code> and <code>password</code> - the
+ * server redirects to the dashboard and rotates the session cookie when the
+ * login succeeds, and back to the login page when it does not.</li>
+ * </ol>
+ * Redirects are not followed, so the outcome is read from the
+ * <code>Location</code> header. Both calls go through the global filters and
+ * show up in ApiMetrics and the traces like any other call.
+ */
+public final class HttpLogin {
+
+	static final String COOKIE = "orangehrm";
+	static final String LOGIN_PATH = "/web/index.php/auth/login";
+	static final String VALIDATE_PATH = "/web/index.php/auth/validate";
+
+	// OrangeHRM 5 passes the token to the Vue login component; older themes use a
+	// hidden form field
+	private static final Pattern[] TOKEN_PATTERNS = {
+			Pattern.compile(":token=\"&quot;([^&\"]+)&quot;\""),
+			Pattern.compile("name=\"_token\"[^>]*value=\"([^\"]+)\"") };
+
+	private HttpLogin() {
+	}
+
+	/**
+	 * @param baseUrl  OrangeHRM base URL, e.g. the <code>base.url</code> setting
+	 * @return the value of the <code>orangehrm</code> cookie of the logged in
+	 *         session
+	 * @throws IllegalStateException if the login page has no token or session,
+	 *                               or the credentials are rejected
+	 */
+	public static String login(String baseUrl, String username, String password) {
+		long start = System.nanoTime();
+		Response page = RestAssured.given().relaxedHTTPSValidation().redirects().follow(false)
+				.get(baseUrl + LOGIN_PATH);
+		if (page.getStatusCode() != 200) {
+			throw new IllegalStateException("Login page returned " + page.getStatusLine());
+		}
+		String token = token(page.asString());
+		String cookie = page.getCookie(COOKIE);
+		if (token == null || cookie == null) {
+			throw new IllegalStateException("Login page has no " + (token == null ? "CSRF token" : COOKIE + " cookie"));
+		}
+
+		Response validate = RestAssured.given().relaxedHTTPSValidation().redirects().follow(false)
+				.cookie(COOKIE, cookie).contentType(ContentType.URLENC).formParam("_token", token)
+				.formParam("username", username).formParam("password", password).post(baseUrl + VALIDATE_PATH);
+		String location = validate.getHeader("Location");
+		if (validate.getStatusCode() / 100 != 3 || location == null || location.contains(LOGIN_PATH)) {
+			throw new IllegalStateException("Login as " + username + " was rejected: " + validate.getStatusLine()
+					+ (location == null ? "" : " to " + location));
+		}
+		String session = validate.getCookie(COOKIE);
+		Log.info("Logged in as {} over HTTP in {} ms", username,
+				TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		// The server normally issues a new session id on login; keep the first one
+		// if it did not
+		return session != null ? session : cookie;
+	}
+
+	/**
+	 * @return the CSRF token of the login page, or <code>null</code>
+	 */
+	static String token(String html) {
+		for (Pattern pattern : TOKEN_PATTERNS) {
+			Matcher matcher = pattern.matcher(html);
+			if (matcher.find()) {
+				return matcher.group(1);
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,436 @@
+package rest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.DataFormatException;
+
+import org.HdrHistogram.Histogram;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.markuputils.MarkupHelper;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import coreUtilities.utils.Log;
+import restConfig.ConfigManager;
+
+/**
+ * Compares each endpoint's latency and allocation per call with a baseline
+ * committed for the environment, when the suite ends.
+ *
+ * <p>
+ * The baseline keeps the full histograms of a reference run, not single
+ * numbers, so every percentile is compared as a confidence interval. For the p-th
+ * percentile of n calls, the distribution-free interval runs between the order
+ * statistics at ranks <code>np &plusmn; z&radic;(np(1-p))</code>. A percentile
+ * regresses when the low end of the current interval is still more than
+ * <code>perf.tolerance</code> above the high end of the baseline interval,
+ * i.e. when noise cannot explain the difference. Too few calls for an interval
+ * (p99 needs a few hundred) give no verdict rather than a guess, so the gate
+ * needs the sample counts of a load run (see <code>testng-load.xml</code>): the
+ * functional suite makes about one call per endpoint and only gets
+ * INSUFFICIENT verdicts.
+ *
+ * <p>
+ * Latency is the total of the call, exchange and parse, where the calls build
+ * a CustomResponse, and the server time otherwise; allocation is per
+ * CustomResponse call. Settings:
+ * <ul>
+ * <li><b>perf.gate</b> - <code>off</code>, <code>warn</code> (default, also
+ * used for unknown values) or <code>fail</code>, which fails the run after the
+ * reports are written.</li>
+ * <li><b>perf.tolerance</b> - allowed slowdown, default 0.10.</li>
+ * <li><b>perf.confidence</b> - confidence of the intervals, default 0.95.</li>
+ * <li><b>perf.env</b> - environment name, default the api.mode for stub and
+ * replay and the host of base.url otherwise.</li>
+ * <li><b>perf.baseline.dir</b> - where <code>&lt;env&gt;.json</code> lives,
+ * default <code>src/main/resources/perf-baselines</code>.</li>
+ * <li><b>perf.baseline.update</b> - replace the baseline with this run's
+ * histograms; commit the file to make it the new reference.</li>
+ * </ul>
+ */
+public class PerformanceGate {
+
+	public enum Mode {
+		OFF, WARN, FAIL
+	}
+
+	public enum Verdict {
+		OK, REGRESSED, IMPROVED, INSUFFICIENT
+	}
+
+	static final double[] PERCENTILES = { 50, 95, 99 };
+	private static final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+	private static ExtentTest extentNode;
+
+	/**
+	 * One percentile of one metric of one endpoint.
+	 */
+	public static class Finding {
+		public final String endpoint;
+		public final String metric;
+		public final double percentile;
+		public final double[] baseline;
+		public final double[] current;
+		public final Verdict verdict;
+
+		Finding(String endpoint, String metric, double percentile, double[] baseline, double[] current,
+				Verdict verdict) {
+			this.endpoint = endpoint;
+			this.metric = metric;
+			this.percentile = percentile;
+			this.baseline = baseline;
+			this.current = current;
+			this.verdict = verdict;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s %s p%s: baseline %s, now %s (%s)", endpoint, metric, label(percentile),
+					interval(baseline), interval(current), verdict);
+		}
+	}
+
+	/**
+	 * Histograms of one endpoint as stored in the baseline file.
+	 */
+	static class Recorded {
+		Histogram total;
+		Histogram server;
+		Histogram allocated;
+
+		static Recorded of(ApiMetrics.Endpoint endpoint) {
+			Recorded recorded = new Recorded();
+			recorded.total = endpoint.getTotal().copy();
+			recorded.server = endpoint.getServer().copy();
+			recorded.allocated = endpoint.getAllocated().copy();
+			return recorded;
+		}
+	}
+
+	private PerformanceGate() {
+	}
+
+	static Mode mode() {
+		String value = ConfigManager.getProperty("perf.gate", "warn").trim();
+		for (Mode mode : Mode.values()) {
+			if (mode.name().equalsIgnoreCase(value)) {
+				return mode;
+			}
+		}
+		Log.warn("⚠️ Unknown perf.gate '{}', expected off, warn or fail; using warn", value);
+		return Mode.WARN;
+	}
+
+	/**
+	 * Compares this run with the baseline as configured, adds the result to the
+	 * Extent report and replaces the baseline if asked to. Call it once, when the
+	 * whole run is over: the metrics cover every &lt;test&gt; of the run.
+	 *
+	 * @return the regressed percentiles, empty when there is no baseline
+	 */
+	public static synchronized List<Finding> check(ExtentReports extent) {
+		Mode mode = mode();
+		boolean update = ConfigManager.getBooleanProperty("perf.baseline.update", false);
+		List<Finding> regressions = new ArrayList<>();
+		if (mode == Mode.OFF && !update) {
+			return regressions;
+		}
+		Map<String, ApiMetrics.Endpoint> endpoints = ApiMetrics.getEndpoints();
+		if (endpoints.isEmpty()) {
+			return regressions;
+		}
+		Map<String, Recorded> current = new TreeMap<>();
+		for (ApiMetrics.Endpoint endpoint : endpoints.values()) {
+			current.put(endpoint.getName(), Recorded.of(endpoint));
+		}
+		String environment = environment();
+		Path file = Paths.get(ConfigManager.getProperty("perf.baseline.dir", "src/main/resources/perf-baselines"),
+				environment + ".json");
+		Map<String, Recorded> baseline;
+		try {
+			baseline = Files.exists(file) ? read(file) : null;
+		} catch (IOException | DataFormatException e) {
+			Log.error("❌ Could not read performance baseline {}: {}", file, e);
+			baseline = null;
+		}
+
+		if (mode != Mode.OFF) {
+			if (baseline == null) {
+				Log.info("No performance baseline for '{}' at {}; run with -Dperf.baseline.update=true to record one",
+						environment, file);
+			} else {
+				double tolerance = Double.parseDouble(ConfigManager.getProperty("perf.tolerance", "0.10"));
+				double z = zScore(Double.parseDouble(ConfigManager.getProperty("perf.confidence", "0.95")));
+				List<Finding> findings = compare(baseline, current, tolerance, z);
+				for (Finding finding : findings) {
+					if (finding.verdict == Verdict.REGRESSED) {
+						regressions.add(finding);
+						Log.warn("⚠️ Performance regression: {}", finding);
+					}
+				}
+				report(extent, environment, findings, tolerance, mode);
+			}
+		}
+
+		if (update) {
+			// Replaced, not merged: a merged baseline would never let old samples go and
+			// would slowly absorb a regression
+			try {
+				write(file, environment, current);
+				Log.info("Performance baseline for '{}' updated at {}", environment, file.toAbsolutePath());
+			} catch (IOException e) {
+				Log.error("❌ Could not write performance baseline {}: {}", file, e);
+			}
+		}
+
+		return regressions;
+	}
+
+	/**
+	 * Tells whether the run should fail: only in <code>fail</code> mode, and
+	 * only once the reports are written. The caller fails the run the way its
+	 * test runner supports.
+	 *
+	 * @param regressions as returned by {@link #check}
+	 * @return why the run fails, or <code>null</code> if it does not
+	 */
+	public static String failure(List<Finding> regressions) {
+		if (mode() != Mode.FAIL || regressions.isEmpty()) {
+			return null;
+		}
+		return regressions.size() + " endpoint percentiles regressed against the '" + environment()
+				+ "' baseline, first: " + regressions.get(0);
+	}
+
+	/**
+	 * Compares latency and allocation percentiles of every endpoint present in
+	 * both runs.
+	 *
+	 * @param tolerance allowed relative increase, e.g. 0.1
+	 * @param z         normal quantile of the confidence level, e.g. 1.96
+	 */
+	static List<Finding> compare(Map<String, Recorded> baseline, Map<String, Recorded> current, double tolerance,
+			double z) {
+		List<Finding> findings = new ArrayList<>();
+		for (Map.Entry<String, Recorded> endpoint : current.entrySet()) {
+			Recorded before = baseline.get(endpoint.getKey());
+			if (before == null) {
+				continue;
+			}
+			Recorded now = endpoint.getValue();
+			boolean total = before.total.getTotalCount() > 0 && now.total.getTotalCount() > 0;
+			Map<String, Histogram[]> metrics = new LinkedHashMap<>();
+			metrics.put(total ? "latency ms" : "server ms",
+					new Histogram[] { total ? before.total : before.server, total ? now.total : now.server });
+			metrics.put("allocated kB", new Histogram[] { before.allocated, now.allocated });
+			for (Map.Entry<String, Histogram[]> metric : metrics.entrySet()) {
+				if (metric.getValue()[0].getTotalCount() == 0 || metric.getValue()[1].getTotalCount() == 0) {
+					continue;
+				}
+				for (double percentile : PERCENTILES) {
+					double[] was = bounds(metric.getValue()[0], percentile / 100, z);
+					double[] is = bounds(metric.getValue()[1], percentile / 100, z);
+					Verdict verdict;
+					if (was == null || is == null) {
+						verdict = Verdict.INSUFFICIENT;
+					} else if (is[0] > was[1] * (1 + tolerance)) {
+						verdict = Verdict.REGRESSED;
+					} else if (is[1] < was[0] * (1 - tolerance)) {
+						verdict = Verdict.IMPROVED;
+					} else {
+						verdict = Verdict.OK;
+					}
+					findings.add(new Finding(endpoint.getKey(), metric.getKey(), percentile, was, is, verdict));
+				}
+			}
+		}
+		return findings;
+	}
+
+	/**
+	 * Distribution-free confidence interval of a quantile: the values at the
+	 * order statistics <code>np &plusmn; z&radic;(np(1-p))</code>, in ms for
+	 * latency (recorded in &micro;s) and kB for allocation (recorded in bytes).
+	 *
+	 * @return low and high end, or <code>null</code> when there are too few
+	 *         values for the interval to be bounded
+	 */
+	static double[] bounds(Histogram histogram, double quantile, double z) {
+		long n = histogram.getTotalCount();
+		double mean = n * quantile;
+		double spread = z * Math.sqrt(n * quantile * (1 - quantile));
+		long low = (long) Math.floor(mean - spread);
+		long high = (long) Math.ceil(mean + spread) + 1;
+		if (low < 1 || high > n) {
+			return null;
+		}
+		return new double[] { valueAtRank(histogram, low) / 1000.0, valueAtRank(histogram, high) / 1000.0 };
+	}
+
+	private static long valueAtRank(Histogram histogram, long rank) {
+		return histogram.getValueAtPercentile(100.0 * rank / histogram.getTotalCount());
+	}
+
+	/**
+	 * @return the two-sided standard normal quantile for the confidence level
+	 */
+	static double zScore(double confidence) {
+		double target = 1 - (1 - confidence) / 2;
+		double low = 0;
+		double high = 10;
+		for (int i = 0; i < 60; i++) {
+			double middle = (low + high) / 2;
+			if (normalCdf(middle) < target) {
+				low = middle;
+			} else {
+				high = middle;
+			}
+		}
+		return (low + high) / 2;
+	}
+
+	// Abramowitz and Stegun 7.1.26, good to 1e-7
+	private static double normalCdf(double x) {
+		double t = 1 / (1 + 0.3275911 * Math.abs(x) / Math.sqrt(2));
+		double erf = 1 - t * (0.254829592 + t * (-0.284496736 + t * (1.421413741 + t * (-1.453152027 + t * 1.061405429))))
+				* Math.exp(-x * x / 2);
+		return x >= 0 ? (1 + erf) / 2 : (1 - erf) / 2;
+	}
+
+	static String environment() {
+		String configured = ConfigManager.getProperty("perf.env", "").trim();
+		if (!configured.isEmpty()) {
+			return configured;
+		}
+		ApiMode mode = ApiMode.current();
+		if (mode.isOffline()) {
+			return mode.name().toLowerCase();
+		}
+		try {
+			String host = URI.create(ConfigManager.getProperty("base.url", "")).getHost();
+			return host == null ? "live" : host;
+		} catch (IllegalArgumentException e) {
+			return "live";
+		}
+	}
+
+	private static void report(ExtentReports extent, String environment, List<Finding> findings, double tolerance,
+			Mode mode) {
+		if (extent == null) {
+			return;
+		}
+		if (extentNode != null) {
+			extent.removeTest(extentNode);
+		}
+		extentNode = extent.createTest("Performance gate",
+				String.format("Against the '%s' baseline, tolerance %.0f%%", environment, tolerance * 100));
+		List<String[]> rows = new ArrayList<>();
+		rows.add(new String[] { "Endpoint", "Metric", "Percentile", "Baseline", "Now", "Verdict" });
+		long regressed = 0;
+		long insufficient = 0;
+		for (Finding finding : findings) {
+			if (finding.verdict == Verdict.INSUFFICIENT) {
+				insufficient++;
+				continue;
+			}
+			if (finding.verdict == Verdict.REGRESSED) {
+				regressed++;
+			}
+			rows.add(new String[] { finding.endpoint, finding.metric, "p" + label(finding.percentile),
+					interval(finding.baseline), interval(finding.current), finding.verdict.name() });
+		}
+		if (rows.size() > 1) {
+			extentNode.info(MarkupHelper.createTable(rows.toArray(new String[0][])));
+		}
+		if (insufficient > 0) {
+			extentNode.info(insufficient + " percentiles had too few calls for a confidence interval; the gate needs"
+					+ " load-run sample counts, e.g. a few hundred calls per endpoint for p99");
+		}
+		if (regressed == 0) {
+			extentNode.pass("No regressions");
+		} else if (mode == Mode.FAIL) {
+			extentNode.fail(regressed + " percentiles regressed");
+		} else {
+			extentNode.warning(regressed + " percentiles regressed");
+		}
+	}
+
+	static Map<String, Recorded> read(Path file) throws IOException, DataFormatException {
+		JsonNode root = mapper.readTree(file.toFile());
+		Map<String, Recorded> endpoints = new TreeMap<>();
+		JsonNode list = root.path("endpoints");
+		for (Iterator<Map.Entry<String, JsonNode>> it = list.fields(); it.hasNext();) {
+			Map.Entry<String, JsonNode> entry = it.next();
+			Recorded recorded = new Recorded();
+			recorded.total = decode(entry.getValue().path("total").asText(), ApiMetrics.newHistogram());
+			recorded.server = decode(entry.getValue().path("server").asText(), ApiMetrics.newHistogram());
+			recorded.allocated = decode(entry.getValue().path("allocated").asText(), ApiMetrics.newBytesHistogram());
+			endpoints.put(entry.getKey(), recorded);
+		}
+		return endpoints;
+	}
+
+	static void write(Path file, String environment, Map<String, Recorded> endpoints) throws IOException {
+		Map<String, Object> root = new LinkedHashMap<>();
+		root.put("environment", environment);
+		root.put("updated", new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZ").format(new Date()));
+		root.put("encoding", "HdrHistogram compressed, base64; latency in microseconds, allocation in bytes");
+		Map<String, Object> list = new LinkedHashMap<>();
+		for (Map.Entry<String, Recorded> endpoint : new TreeMap<>(endpoints).entrySet()) {
+			Map<String, Object> entry = new LinkedHashMap<>();
+			entry.put("calls", endpoint.getValue().server.getTotalCount());
+			entry.put("total", encode(endpoint.getValue().total));
+			entry.put("server", encode(endpoint.getValue().server));
+			entry.put("allocated", encode(endpoint.getValue().allocated));
+			list.put(endpoint.getKey(), entry);
+		}
+		root.put("endpoints", list);
+		if (file.getParent() != null) {
+			Files.createDirectories(file.getParent());
+		}
+		mapper.writeValue(file.toFile(), root);
+	}
+
+	private static String encode(Histogram histogram) {
+		ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+		int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+		byte[] bytes = new byte[length];
+		buffer.flip();
+		buffer.get(bytes);
+		return Base64.getEncoder().encodeToString(bytes);
+	}
+
+	private static Histogram decode(String encoded, Histogram into) throws DataFormatException {
+		if (encoded == null || encoded.isEmpty()) {
+			return into;
+		}
+		Histogram decoded = Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(Base64.getDecoder().decode(encoded)),
+				0);
+		into.add(decoded);
+		return into;
+	}
+
+	private static String interval(double[] bounds) {
+		return bounds == null ? "-" : String.format("%.1f..%.1f", bounds[0], bounds[1]);
+	}
+
+	private static String label(double percentile) {
+		return percentile == Math.floor(percentile) ? String.valueOf((int) percentile) : String.valueOf(percentile);
+	}
+}
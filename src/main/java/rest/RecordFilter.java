@@ -0,0 +1,47 @@
+package rest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import coreUtilities.mock.StubRequest;
+import coreUtilities.utils.Log;
+
+/**
+ * RestAssured filter used in {@link ApiMode#RECORD}: every exchange is appended
+ * to a {@link CaptureFile} together with the latency observed by the client.
+ */
+public class RecordFilter implements Filter {
+
+	private final CaptureFile captureFile;
+
+	public RecordFilter(CaptureFile captureFile) {
+		this.captureFile = captureFile;
+	}
+
+	@Override
+	public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+			FilterContext ctx) {
+		long start = System.nanoTime();
+		Response response = ctx.next(requestSpec, responseSpec);
+		long latencyMicros = (System.nanoTime() - start) / 1_000;
+
+		URI uri = URI.create(requestSpec.getURI());
+		Object body = requestSpec.getBody();
+		byte[] requestBody = body == null ? null : String.valueOf(body).getBytes(StandardCharsets.UTF_8);
+		try {
+			captureFile.append(new CaptureRecord(System.currentTimeMillis(), requestSpec.getMethod(), uri.getRawPath(),
+					StubRequest.normalizeQuery(uri.getRawQuery()), response.getStatusCode(), response.getStatusLine(),
+					response.getContentType(), latencyMicros, requestBody, response.asByteArray()));
+		} catch (IOException e) {
+			Log.error("Could not record {} {}: {}", requestSpec.getMethod(), uri, e);
+		}
+		return response;
+	}
+}
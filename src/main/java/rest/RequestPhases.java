@@ -0,0 +1,85 @@
+package rest;
+
+/**
+ * Connection phases of the HTTP exchange running on the current thread, filled
+ * in by the hooks of {@link TimingHttpClientFactory} and read by
+ * {@link CaptureFilter} once the exchange is over.
+ *
+ * <p>
+ * RestAssured runs each request on the calling thread, so one instance per
+ * thread is enough. DNS, connect and TLS stay 0 when a kept-alive connection
+ * is reused. With redirects, time to first byte adds up the hops and the
+ * download is that of the last response.
+ */
+final class RequestPhases {
+
+	private static final ThreadLocal<RequestPhases> current = ThreadLocal.withInitial(RequestPhases::new);
+
+	long dnsNanos;
+	long connectNanos;
+	long tlsNanos;
+	long ttfbNanos;
+	long sendStartNanos;
+	long firstSendNanos;
+	long headersNanos;
+
+	private RequestPhases() {
+	}
+
+	/**
+	 * Clears the phases of this thread before a new exchange.
+	 */
+	static RequestPhases begin() {
+		RequestPhases phases = current.get();
+		phases.dnsNanos = 0;
+		phases.connectNanos = 0;
+		phases.tlsNanos = 0;
+		phases.ttfbNanos = 0;
+		phases.sendStartNanos = 0;
+		phases.firstSendNanos = 0;
+		phases.headersNanos = 0;
+		return phases;
+	}
+
+	static RequestPhases current() {
+		return current.get();
+	}
+
+	void requestSending(long now) {
+		sendStartNanos = now;
+		if (firstSendNanos == 0) {
+			firstSendNanos = now;
+		}
+	}
+
+	void headersReceived(long now) {
+		if (sendStartNanos != 0) {
+			ttfbNanos += now - sendStartNanos;
+		}
+		headersNanos = now;
+	}
+
+	/**
+	 * @return time before the request was sent that is not DNS, connect or TLS:
+	 *         RestAssured and HttpClient setup
+	 */
+	long setupNanos(long exchangeStartNanos) {
+		long beforeSend = (firstSendNanos == 0 ? exchangeStartNanos : firstSendNanos) - exchangeStartNanos;
+		return Math.max(0, beforeSend - dnsNanos - connectNanos - tlsNanos);
+	}
+
+	/**
+	 * @return time from the last response head until the exchange ended
+	 */
+	long downloadNanos(long exchangeEndNanos) {
+		return headersNanos == 0 ? 0 : Math.max(0, exchangeEndNanos - headersNanos);
+	}
+
+	/**
+	 * @return whether the HTTP client hooks saw this exchange; false when a
+	 *         filter answered without going to the network
+	 */
+	boolean isTimed() {
+		return headersNanos != 0;
+	}
+}
@@ -0,0 +1,213 @@
+package rest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import restConfig.ConfigManager;
+
+/**
+ * Per-thread ring buffer holding the last few request/response exchanges in a
+ * compact form.
+ *
+ * <p>
+ * Every call that passes through {@link CaptureFilter} is appended to the ring
+ * of the calling thread, overwriting the oldest entry once the ring is full.
+ * Nothing is printed while a test runs; the listener calls {@link #dump} only
+ * when a test fails or times out, so passing runs do no console I/O for
+ * response bodies.
+ *
+ * <p>
+ * Ring size and the per-body limit come from <code>capture.ring.size</code>
+ * (default 8) and <code>capture.body.limit</code> (default 2048). Response
+ * bodies are kept as raw bytes, at most that many, and only decoded when the
+ * ring is dumped; request bodies are cut to that many characters.
+ */
+public class ResponseCapture {
+
+	private static final int RING_SIZE = Math.max(1, ConfigManager.getIntProperty("capture.ring.size", 8));
+	private static final int BODY_LIMIT = ConfigManager.getIntProperty("capture.body.limit", 2048);
+
+	// Every live thread's ring, so a timed-out test can be dumped from the
+	// listener thread. Threads are held weakly: the ring of a thread that has
+	// ended, e.g. a load worker, goes away with it
+	private static final Map<Thread, ResponseCapture> rings = Collections.synchronizedMap(new WeakHashMap<>());
+
+	private static final ThreadLocal<ResponseCapture> current = ThreadLocal.withInitial(() -> {
+		ResponseCapture ring = new ResponseCapture(Thread.currentThread().getName());
+		rings.put(Thread.currentThread(), ring);
+		return ring;
+	});
+
+	private final String threadName;
+	private final Exchange[] entries = new Exchange[RING_SIZE];
+	private int next;
+	private int count;
+
+	private ResponseCapture(String threadName) {
+		this.threadName = threadName;
+	}
+
+	/**
+	 * One captured request/response pair. Bodies are truncated to
+	 * <code>capture.body.limit</code> at capture time.
+	 */
+	public static class Exchange {
+		public final long timestamp;
+		public final String method;
+		public final String uri;
+		public final int statusCode;
+		public final long elapsedMillis;
+		public final String requestBody;
+		// The first capture.body.limit bytes of the response, decoded on demand
+		private final byte[] responseBytes;
+		private final int responseLength;
+
+		Exchange(long timestamp, String method, String uri, int statusCode, long elapsedMillis, String requestBody,
+				byte[] responseBytes, int responseLength) {
+			this.timestamp = timestamp;
+			this.method = method;
+			this.uri = uri;
+			this.statusCode = statusCode;
+			this.elapsedMillis = elapsedMillis;
+			this.requestBody = requestBody;
+			this.responseBytes = responseBytes;
+			this.responseLength = responseLength;
+		}
+
+		/**
+		 * @return the response body as UTF-8, noting how much was cut off
+		 */
+		public String responseBody() {
+			String body = new String(responseBytes, StandardCharsets.UTF_8);
+			int cut = responseLength - responseBytes.length;
+			return cut > 0 ? body + "... [" + cut + " more bytes]" : body;
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder();
+			sb.append(method).append(' ').append(uri).append(" -> ").append(statusCode).append(" (")
+					.append(elapsedMillis).append(" ms)\n");
+			if (requestBody != null) {
+				sb.append("  request : ").append(requestBody).append('\n');
+			}
+			sb.append("  response: ").append(responseBody()).append('\n');
+			return sb.toString();
+		}
+	}
+
+	/**
+	 * Appends an exchange to the calling thread's ring.
+	 *
+	 * @param responseBody the raw response body; only its first
+	 *                     <code>capture.body.limit</code> bytes are copied
+	 */
+	public static void record(String method, String uri, int statusCode, long elapsedMillis, Object requestBody,
+			byte[] responseBody) {
+		byte[] body = responseBody == null ? new byte[0] : responseBody;
+		byte[] kept = BODY_LIMIT > 0 && body.length > BODY_LIMIT ? Arrays.copyOf(body, BODY_LIMIT) : body.clone();
+		current.get().add(new Exchange(System.currentTimeMillis(), method, uri, statusCode, elapsedMillis,
+				requestBody == null ? null : truncate(String.valueOf(requestBody)), kept, body.length));
+	}
+
+	/**
+	 * Drops everything captured on the calling thread. Called when a test starts
+	 * so a failure only reports its own traffic.
+	 */
+	public static void reset() {
+		current.get().clear();
+	}
+
+	/**
+	 * @return number of threads with a capture ring
+	 */
+	public static int ringCount() {
+		return rings.size();
+	}
+
+	/**
+	 * Returns the exchanges captured on the calling thread, oldest first.
+	 */
+	public static List<Exchange> snapshot() {
+		return current.get().entries();
+	}
+
+	/**
+	 * Formats the calling thread's ring. When <code>includeOtherThreads</code> is
+	 * set (test timeouts, where TestNG ran the method on a worker thread), entries
+	 * from every thread captured at or after <code>sinceMillis</code> are added.
+	 *
+	 * @param sinceMillis         lower time bound for entries from other threads
+	 * @param includeOtherThreads whether to scan the rings of other threads
+	 * @return the formatted dump, or an empty string if nothing was captured
+	 */
+	public static String dump(long sinceMillis, boolean includeOtherThreads) {
+		StringBuilder sb = new StringBuilder();
+		ResponseCapture own = current.get();
+		appendRing(sb, own, 0);
+		if (includeOtherThreads) {
+			List<ResponseCapture> others;
+			synchronized (rings) {
+				others = new ArrayList<>(rings.values());
+			}
+			for (ResponseCapture ring : others) {
+				if (ring != own) {
+					appendRing(sb, ring, sinceMillis);
+				}
+			}
+		}
+		return sb.toString();
+	}
+
+	private static void appendRing(StringBuilder sb, ResponseCapture ring, long sinceMillis) {
+		List<Exchange> exchanges = ring.entries();
+		boolean header = false;
+		for (Exchange exchange : exchanges) {
+			if (exchange.timestamp < sinceMillis) {
+				continue;
+			}
+			if (!header) {
+				sb.append("---- last API calls on ").append(ring.threadName).append(" ----\n");
+				header = true;
+			}
+			sb.append(exchange);
+		}
+	}
+
+	private static String truncate(String value) {
+		if (value == null || BODY_LIMIT <= 0 || value.length() <= BODY_LIMIT) {
+			return value;
+		}
+		return value.substring(0, BODY_LIMIT) + "... [" + (value.length() - BODY_LIMIT) + " more chars]";
+	}
+
+	private synchronized void add(Exchange exchange) {
+		entries[next] = exchange;
+		next = (next + 1) % entries.length;
+		if (count < entries.length) {
+			count++;
+		}
+	}
+
+	private synchronized void clear() {
+		for (int i = 0; i < entries.length; i++) {
+			entries[i] = null;
+		}
+		next = 0;
+		count = 0;
+	}
+
+	private synchronized List<Exchange> entries() {
+		List<Exchange> list = new ArrayList<>(count);
+		int start = (next - count + entries.length) % entries.length;
+		for (int i = 0; i < count; i++) {
+			list.add(entries[(start + i) % entries.length]);
+		}
+		return list;
+	}
+}
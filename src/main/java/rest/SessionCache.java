@@ -0,0 +1,223 @@
+package rest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.AclEntry;
+import java.nio.file.attribute.AclEntryFlag;
+import java.nio.file.attribute.AclEntryPermission;
+import java.nio.file.attribute.AclEntryType;
+import java.nio.file.attribute.AclFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Properties;
+
+import io.restassured.RestAssured;
+import io.restassured.response.Response;
+
+import coreUtilities.utils.Log;
+import restConfig.ConfigManager;
+
+/**
+ * Session cookies kept on disk between runs, so a run started shortly after
+ * the previous one reuses its sessions instead of logging in again.
+ *
+ * <p>
+ * The cookies of a {@link SessionPool} are stored under a hash of the base URL
+ * and username in <code>session.cache.file</code> (default
+ * <code>~/.orangehrm-api-tests/sessions.properties</code>), each with the time
+ * it logged in. Only the owner can read the file, and the directory when the
+ * cache creates it; an existing directory is left as it is. A cached cookie is
+ * used only after a cheap
+ * authenticated call, GET <code>session.cache.check.path</code>, has
+ * succeeded with it. Nothing is cached in replay and stub mode, whose
+ * sessions do not outlive the run; <code>session.cache.enabled=false</code>
+ * turns the cache off.
+ */
+public final class SessionCache {
+
+	static final String DEFAULT_CHECK_PATH = "/web/index.php/api/v2/pim/employees/count";
+
+	private final Path file;
+	private final String key;
+	private final String checkUrl;
+
+	/**
+	 * A cached cookie and when its session logged in.
+	 */
+	public static final class Entry {
+		public final String cookie;
+		public final long loggedInMillis;
+
+		public Entry(String cookie, long loggedInMillis) {
+			this.cookie = cookie;
+			this.loggedInMillis = loggedInMillis;
+		}
+	}
+
+	private SessionCache(Path file, String baseUrl, String username) {
+		this.file = file;
+		this.key = key(baseUrl, username);
+		this.checkUrl = baseUrl + ConfigManager.getProperty("session.cache.check.path", DEFAULT_CHECK_PATH);
+	}
+
+	/**
+	 * @return the cache for the base URL and user, or <code>null</code> when it
+	 *         is turned off or the API runs against a local server
+	 */
+	public static SessionCache forUser(String baseUrl, String username) {
+		if (!ConfigManager.getBooleanProperty("session.cache.enabled", true) || ApiMode.current().isOffline()) {
+			return null;
+		}
+		String configured = ConfigManager.getProperty("session.cache.file", "").trim();
+		Path file = configured.isEmpty()
+				? Paths.get(System.getProperty("user.home"), ".orangehrm-api-tests", "sessions.properties")
+				: Paths.get(configured);
+		return new SessionCache(file, baseUrl, username);
+	}
+
+	/**
+	 * @return the cookies stored for this base URL and user, possibly expired;
+	 *         a cookie stored without its login time counts as logged in at 0
+	 */
+	public List<Entry> load() {
+		Properties cached = read();
+		String cookies = cached.getProperty(key, "").trim();
+		if (cookies.isEmpty()) {
+			return Collections.emptyList();
+		}
+		List<Entry> list = new ArrayList<>();
+		for (String stored : cookies.split(",")) {
+			// cookie;loggedInMillis - neither character occurs in a cookie value
+			String[] parts = stored.trim().split(";", 2);
+			if (parts[0].isEmpty()) {
+				continue;
+			}
+			long loggedIn = 0;
+			if (parts.length > 1) {
+				try {
+					loggedIn = Long.parseLong(parts[1].trim());
+				} catch (NumberFormatException e) {
+					// treated as logged in long ago
+				}
+			}
+			list.add(new Entry(parts[0], loggedIn));
+		}
+		return list;
+	}
+
+	/**
+	 * Replaces the cookies stored for this base URL and user.
+	 */
+	public synchronized void store(List<Entry> entries) {
+		Properties cached = read();
+		StringBuilder cookies = new StringBuilder();
+		for (Entry entry : entries) {
+			if (cookies.length() > 0) {
+				cookies.append(',');
+			}
+			cookies.append(entry.cookie).append(';').append(entry.loggedInMillis);
+		}
+		cached.setProperty(key, cookies.toString());
+		try {
+			Path directory = file.toAbsolutePath().getParent();
+			if (!Files.isDirectory(directory)) {
+				// Only a directory made for the cache is restricted, never one that
+				// was already there
+				Files.createDirectories(directory.getParent());
+				Files.createDirectory(directory);
+				restrict(directory, true);
+			}
+			Path temp = Files.createTempFile(directory, "sessions", ".tmp");
+			restrict(temp, false);
+			try (OutputStream out = Files.newOutputStream(temp)) {
+				cached.store(out, "orangehrm session cookies per base URL and user; delete to log in again");
+			}
+			try {
+				Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException e) {
+			Log.warn("⚠️ Could not write session cache {}: {}", file, e.getMessage());
+		}
+	}
+
+	/**
+	 * @return whether an authenticated call with the cookie succeeds
+	 */
+	public boolean isValid(String cookie) {
+		try {
+			// SessionFilter would log an expired session in again and hide the answer
+			Response response = RestAssured.given().noFiltersOfType(SessionFilter.class).relaxedHTTPSValidation()
+					.redirects().follow(false).cookie(HttpLogin.COOKIE, cookie).get(checkUrl);
+			return response.getStatusCode() == 200 && !SessionPool.isLoggedOut(response);
+		} catch (Exception e) {
+			// RestAssured rethrows checked exceptions such as ConnectException as they are
+			Log.warn("⚠️ Could not check cached session: {}", e.toString());
+			return false;
+		}
+	}
+
+	private Properties read() {
+		Properties cached = new Properties();
+		if (Files.isRegularFile(file)) {
+			try (InputStream in = Files.newInputStream(file)) {
+				cached.load(in);
+			} catch (IOException e) {
+				Log.warn("⚠️ Could not read session cache {}: {}", file, e.getMessage());
+			}
+		}
+		return cached;
+	}
+
+	// Owner only: POSIX permissions, or on Windows an ACL with the owner as the
+	// only entry, which also drops the entries inherited from the parent
+	private static void restrict(Path path, boolean directory) throws IOException {
+		if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+			Files.setPosixFilePermissions(path, PosixFilePermissions.fromString(directory ? "rwx------" : "rw-------"));
+			return;
+		}
+		AclFileAttributeView acl = Files.getFileAttributeView(path, AclFileAttributeView.class);
+		if (acl != null) {
+			AclEntry.Builder owner = AclEntry.newBuilder().setType(AclEntryType.ALLOW).setPrincipal(acl.getOwner())
+					.setPermissions(EnumSet.allOf(AclEntryPermission.class));
+			if (directory) {
+				owner.setFlags(AclEntryFlag.FILE_INHERIT, AclEntryFlag.DIRECTORY_INHERIT);
+			}
+			acl.setAcl(Collections.singletonList(owner.build()));
+			return;
+		}
+		path.toFile().setReadable(false, false);
+		path.toFile().setReadable(true, true);
+		path.toFile().setWritable(false, false);
+		path.toFile().setWritable(true, true);
+	}
+
+	// The file names neither the server nor the user
+	private static String key(String baseUrl, String username) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256")
+					.digest((baseUrl + "\n" + username).getBytes(StandardCharsets.UTF_8));
+			StringBuilder hex = new StringBuilder(64);
+			for (byte b : digest) {
+				hex.append(String.format("%02x", b));
+			}
+			return hex.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package rest;
+
+import java.util.concurrent.CompletionException;
+
+import io.restassured.RestAssured;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.http.Cookie;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import io.restassured.specification.RequestSpecification;
+
+import coreUtilities.utils.Log;
+
+/**
+ * RestAssured filter that keeps calls made with a {@link SessionPool} cookie
+ * logged in: an earlier cookie of a session is replaced by its current one,
+ * and a call the server rejects as logged out is repeated once with a fresh
+ * session.
+ *
+ * <p>
+ * Registered globally by {@link ApiUtil}. The repeated call is a new
+ * RestAssured request with the same method, URI, headers, cookies and body,
+ * sent without any filters: the filters this one runs inside, such as
+ * {@link CaptureFilter} and {@link TraceFilter}, see its response as that of
+ * the original call, and its <code>traceparent</code> header is the one
+ * TraceFilter already set.
+ */
+public class SessionFilter implements Filter {
+
+	// null for the shared pool
+	private final SessionPool pool;
+
+	public SessionFilter() {
+		this(null);
+	}
+
+	/**
+	 * @param pool the pool whose cookies to keep logged in instead of the shared
+	 *             one
+	 */
+	SessionFilter(SessionPool pool) {
+		this.pool = pool;
+	}
+
+	@Override
+	public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+			FilterContext ctx) {
+		SessionPool pool = this.pool != null ? this.pool : SessionPool.shared();
+		String sent = pool == null ? null : requestSpec.getCookies().getValue(HttpLogin.COOKIE);
+		SessionPool.Session session = pool == null ? null : pool.find(sent);
+		if (session == null) {
+			return ctx.next(requestSpec, responseSpec);
+		}
+		String current = session.cookie;
+		if (!current.equals(sent)) {
+			requestSpec.replaceCookie(HttpLogin.COOKIE, current);
+		}
+		Response response = ctx.next(requestSpec, responseSpec);
+		if (!SessionPool.isLoggedOut(response)) {
+			return response;
+		}
+
+		Log.warn("⚠️ Session {} was logged out on {} {}; logging in again", session.index, requestSpec.getMethod(),
+				requestSpec.getDerivedPath());
+		String fresh;
+		try {
+			fresh = pool.relogin(session, current).join();
+		} catch (CompletionException e) {
+			Log.error("❌ Could not log session {} in again: {}", session.index, e.getCause());
+			return response;
+		}
+		return repeat(requestSpec, fresh);
+	}
+
+	private static Response repeat(FilterableRequestSpecification requestSpec, String cookie) {
+		RequestSpecification request = RestAssured.given().noFilters().config(requestSpec.getConfig())
+				.urlEncodingEnabled(false).headers(requestSpec.getHeaders());
+		for (Cookie sent : requestSpec.getCookies()) {
+			if (!HttpLogin.COOKIE.equals(sent.getName())) {
+				request.cookie(sent);
+			}
+		}
+		request.cookie(HttpLogin.COOKIE, cookie);
+		if (requestSpec.getContentType() != null) {
+			request.contentType(requestSpec.getContentType());
+		}
+		Object body = requestSpec.getBody();
+		if (body != null) {
+			request.body(body);
+		}
+		if (!requestSpec.getFormParams().isEmpty()) {
+			request.formParams(requestSpec.getFormParams());
+		}
+		return request.request(requestSpec.getMethod(), requestSpec.getURI());
+	}
+}
@@ -0,0 +1,279 @@
+package rest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.restassured.response.Response;
+
+import coreUtilities.utils.Log;
+import restConfig.ConfigManager;
+
+/**
+ * Logged in OrangeHRM sessions shared by the test threads, so parallel tests
+ * do not all run on one server session and one expired session does not fail
+ * the whole suite.
+ *
+ * <p>
+ * {@link #start} logs in <code>session.pool.size</code> sessions (default 5,
+ * the suite's thread count) in parallel through {@link HttpLogin}. Each thread
+ * is given one of them on first use and keeps it: {@link #cookie()} returns the
+ * cookie of the calling thread's session. Cookies left in the
+ * {@link SessionCache} by an earlier run are checked first and reused while
+ * they are still logged in, and the cache is updated whenever a session logs
+ * in.
+ *
+ * <p>
+ * {@link SessionFilter} watches every call made with a pool cookie. When the
+ * server answers with a 401 or sends the call to the login page, the session is
+ * logged in again on a background thread, once however many threads notice,
+ * and the call is repeated with the new cookie, so the test does not see the
+ * expiry. Sessions older than <code>session.pool.max.age.minutes</code>
+ * (default 20, 0 = never) are logged in again in the background before the
+ * server expires them. Calls still made with an earlier cookie of a session
+ * are sent with its current one.
+ */
+public final class SessionPool {
+
+	private static volatile SessionPool shared;
+
+	private final String baseUrl;
+	private final String username;
+	private final String password;
+	private final List<Session> sessions;
+	// Current and earlier cookies of every session
+	private final Map<String, Session> byCookie = new ConcurrentHashMap<>();
+	private final ThreadLocal<Session> affinity = new ThreadLocal<>();
+	private final AtomicInteger nextSession = new AtomicInteger();
+	private final AtomicLong relogins = new AtomicLong();
+	private final ScheduledExecutorService executor;
+	private final SessionCache cache;
+	private final AtomicInteger reused = new AtomicInteger();
+	private final AtomicInteger opened = new AtomicInteger();
+
+	/**
+	 * One logged in session.
+	 */
+	static final class Session {
+		final int index;
+		volatile String cookie;
+		volatile long loggedInNanos;
+		// The same instant on the wall clock, which outlives the run in the cache
+		volatile long loggedInMillis;
+		// The login in progress, guarded by the session
+		private CompletableFuture<String> relogin;
+
+		Session(int index) {
+			this.index = index;
+		}
+	}
+
+	SessionPool(String baseUrl, String username, String password, int size, long maxAgeMinutes) {
+		this.baseUrl = baseUrl;
+		this.username = username;
+		this.password = password;
+		this.cache = SessionCache.forUser(baseUrl, username);
+		List<SessionCache.Entry> cached = cache == null ? Collections.emptyList() : cache.load();
+		AtomicInteger threads = new AtomicInteger();
+		this.executor = Executors.newScheduledThreadPool(Math.min(size, 4), runnable -> {
+			Thread thread = new Thread(runnable, "session-login-" + threads.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		List<Session> created = new ArrayList<>();
+		List<CompletableFuture<String>> logins = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			Session session = new Session(i);
+			created.add(session);
+			SessionCache.Entry entry = i < cached.size() ? cached.get(i) : null;
+			logins.add(CompletableFuture.supplyAsync(() -> reuseOrLogin(session, entry), executor));
+		}
+		this.sessions = Collections.unmodifiableList(created);
+		try {
+			CompletableFuture.allOf(logins.toArray(new CompletableFuture<?>[0])).join();
+		} catch (CompletionException e) {
+			executor.shutdownNow();
+			throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+		}
+		persist();
+		if (maxAgeMinutes > 0) {
+			executor.scheduleWithFixedDelay(() -> rotate(TimeUnit.MINUTES.toNanos(maxAgeMinutes)), 1, 1,
+					TimeUnit.MINUTES);
+		}
+	}
+
+	/**
+	 * Logs in a new pool and makes it the one {@link #shared()} returns; the
+	 * previous pool stops rotating.
+	 *
+	 * @throws IllegalStateException if a login fails
+	 */
+	public static synchronized SessionPool start(String baseUrl, String username, String password) {
+		int size = Math.max(1, ConfigManager.getIntProperty("session.pool.size", 5));
+		long maxAge = ConfigManager.getIntProperty("session.pool.max.age.minutes", 20);
+		long start = System.nanoTime();
+		SessionPool pool = new SessionPool(baseUrl, username, password, size, maxAge);
+		if (shared != null) {
+			shared.close();
+		}
+		shared = pool;
+		Log.info("Started {} sessions, {} of them from the cache, in {} ms", size, pool.reused.get(),
+				TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		return pool;
+	}
+
+	/**
+	 * @return the pool started last, or <code>null</code>
+	 */
+	public static SessionPool shared() {
+		return shared;
+	}
+
+	/**
+	 * @return the cookie of this thread's session
+	 */
+	public String cookie() {
+		Session session = affinity.get();
+		if (session == null) {
+			session = sessions.get(Math.floorMod(nextSession.getAndIncrement(), sessions.size()));
+			affinity.set(session);
+		}
+		return session.cookie;
+	}
+
+	/**
+	 * Logs in a session of its own for one caller, e.g. a virtual user of a load
+	 * run, instead of sharing one of the pool's. It is logged in again when it
+	 * expires, like the pool's sessions, but {@link #cookie()} never hands it
+	 * out and it is neither rotated nor cached.
+	 *
+	 * @return the cookie of the new session
+	 * @throws IllegalStateException if the login fails
+	 */
+	public String open() {
+		return login(new Session(sessions.size() + opened.getAndIncrement()));
+	}
+
+	public int size() {
+		return sessions.size();
+	}
+
+	/**
+	 * Stops rotating the sessions and logging them in again.
+	 */
+	void close() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * @return how many times sessions were logged in again after the start
+	 */
+	public long getReloginCount() {
+		return relogins.get();
+	}
+
+	/**
+	 * @return the session the cookie belongs or belonged to, or
+	 *         <code>null</code> if it is not from this pool
+	 */
+	Session find(String cookie) {
+		return cookie == null ? null : byCookie.get(cookie);
+	}
+
+	/**
+	 * Logs the session in again on a background thread, unless its cookie has
+	 * already changed since <code>staleCookie</code> or a login is in progress.
+	 *
+	 * @return the session's new cookie
+	 */
+	CompletableFuture<String> relogin(Session session, String staleCookie) {
+		synchronized (session) {
+			if (!session.cookie.equals(staleCookie)) {
+				return CompletableFuture.completedFuture(session.cookie);
+			}
+			if (session.relogin == null || session.relogin.isDone()) {
+				session.relogin = CompletableFuture.supplyAsync(() -> {
+					String cookie = login(session);
+					relogins.incrementAndGet();
+					persist();
+					return cookie;
+				}, executor);
+			}
+			return session.relogin;
+		}
+	}
+
+	/**
+	 * @return whether the response says the session is no longer logged in: a
+	 *         401, a redirect to the login page, or the login page itself when
+	 *         the redirect was followed
+	 */
+	static boolean isLoggedOut(Response response) {
+		int status = response.getStatusCode();
+		if (status == 401) {
+			return true;
+		}
+		if (status / 100 == 3) {
+			String location = response.getHeader("Location");
+			return location != null && location.contains(HttpLogin.LOGIN_PATH);
+		}
+		String contentType = response.getContentType();
+		return status == 200 && contentType != null && contentType.contains("html")
+				&& response.asString().contains("<auth-login");
+	}
+
+	private String reuseOrLogin(Session session, SessionCache.Entry cached) {
+		if (cached != null && cache.isValid(cached.cookie)) {
+			reused.incrementAndGet();
+			// A reused session is as old as its login, not the run
+			return adopt(session, cached.cookie, cached.loggedInMillis);
+		}
+		return login(session);
+	}
+
+	private String login(Session session) {
+		return adopt(session, HttpLogin.login(baseUrl, username, password), System.currentTimeMillis());
+	}
+
+	private String adopt(Session session, String cookie, long loggedInMillis) {
+		byCookie.put(cookie, session);
+		long age = Math.max(0, System.currentTimeMillis() - loggedInMillis);
+		session.loggedInMillis = loggedInMillis;
+		session.loggedInNanos = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(age);
+		session.cookie = cookie;
+		return cookie;
+	}
+
+	private void persist() {
+		if (cache == null) {
+			return;
+		}
+		List<SessionCache.Entry> entries = new ArrayList<>();
+		for (Session session : sessions) {
+			entries.add(new SessionCache.Entry(session.cookie, session.loggedInMillis));
+		}
+		cache.store(entries);
+	}
+
+	private void rotate(long maxAgeNanos) {
+		for (Session session : sessions) {
+			if (System.nanoTime() - session.loggedInNanos >= maxAgeNanos) {
+				Log.info("Session {} is older than {} minutes, logging in again", session.index,
+						TimeUnit.NANOSECONDS.toMinutes(maxAgeNanos));
+				relogin(session, session.cookie).exceptionally(e -> {
+					Log.warn("⚠️ Could not renew session {}: {}", session.index, e.getMessage());
+					return null;
+				});
+			}
+		}
+	}
+}
@@ -0,0 +1,107 @@
+package rest;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Bytes allocated and CPU time used by the current thread since this snapshot
+ * was taken, read from the {@link ThreadMXBean}.
+ *
+ * <p>
+ * Allocation needs the HotSpot extension of the bean and is reported as 0 on
+ * JVMs without it, as CPU time is where thread CPU time is not supported. Both
+ * are per thread, so a snapshot must be read on the thread that took it.
+ */
+public final class ThreadCost {
+
+	private static final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+	private static final com.sun.management.ThreadMXBean allocations = allocationBean();
+	private static final boolean CPU_SUPPORTED = cpuSupported();
+
+	private final long startAllocated;
+	private final long startCpuNanos;
+	private long excludedAllocated;
+	private long excludedCpuNanos;
+
+	private ThreadCost() {
+		this.startAllocated = currentAllocatedBytes();
+		this.startCpuNanos = currentCpuNanos();
+	}
+
+	/**
+	 * @return a snapshot of the current thread
+	 */
+	public static ThreadCost start() {
+		return new ThreadCost();
+	}
+
+	/**
+	 * @return bytes the current thread allocated since the snapshot, less what
+	 *         was {@link #exclude excluded}
+	 */
+	public long allocatedBytes() {
+		return Math.max(0, currentAllocatedBytes() - startAllocated - excludedAllocated);
+	}
+
+	/**
+	 * @return CPU time, user and system, the current thread used since the
+	 *         snapshot, less what was {@link #exclude excluded}
+	 */
+	public long cpuNanos() {
+		return Math.max(0, currentCpuNanos() - startCpuNanos - excludedCpuNanos);
+	}
+
+	/**
+	 * Leaves out of this measurement what the thread used since a later
+	 * snapshot, such as bookkeeping that is not part of the measured work.
+	 *
+	 * @param span snapshot taken on this thread at the start of the work to
+	 *             leave out
+	 */
+	public void exclude(ThreadCost span) {
+		excludedAllocated += span.allocatedBytes();
+		excludedCpuNanos += span.cpuNanos();
+	}
+
+	/**
+	 * @return whether allocation can be measured on this JVM
+	 */
+	public static boolean isAllocationSupported() {
+		return allocations != null;
+	}
+
+	private static long currentAllocatedBytes() {
+		return allocations == null ? 0 : allocations.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	private static long currentCpuNanos() {
+		return CPU_SUPPORTED ? threads.getCurrentThreadCpuTime() : 0;
+	}
+
+	private static com.sun.management.ThreadMXBean allocationBean() {
+		try {
+			if (threads instanceof com.sun.management.ThreadMXBean) {
+				com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threads;
+				if (bean.isThreadAllocatedMemorySupported()) {
+					bean.setThreadAllocatedMemoryEnabled(true);
+					return bean;
+				}
+			}
+		} catch (UnsupportedOperationException | SecurityException | NoClassDefFoundError e) {
+			// not a HotSpot bean
+		}
+		return null;
+	}
+
+	private static boolean cpuSupported() {
+		try {
+			if (threads.isCurrentThreadCpuTimeSupported()) {
+				threads.setThreadCpuTimeEnabled(true);
+				return true;
+			}
+		} catch (UnsupportedOperationException | SecurityException e) {
+			// fall through
+		}
+		return false;
+	}
+}
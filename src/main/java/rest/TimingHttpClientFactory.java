@@ -0,0 +1,172 @@
+package rest;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+
+import org.apache.http.HttpHost;
+import org.apache.http.client.HttpClient;
+import org.apache.http.conn.ClientConnectionOperator;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.conn.HttpInetSocketAddress;
+import org.apache.http.conn.OperatedClientConnection;
+import org.apache.http.conn.scheme.Scheme;
+import org.apache.http.conn.scheme.SchemeLayeredSocketFactory;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.conn.scheme.SchemeSocketFactory;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.BasicClientConnectionManager;
+import org.apache.http.impl.conn.DefaultClientConnectionOperator;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+
+import io.restassured.config.HttpClientConfig;
+
+/**
+ * Creates the same HttpClient RestAssured uses by default, with hooks that time
+ * the connection phases of every request into {@link RequestPhases}:
+ * <ul>
+ * <li><b>DNS</b> - host name resolution by the connection operator</li>
+ * <li><b>connect</b> - the TCP connect</li>
+ * <li><b>TLS</b> - the handshake on top of the connected socket</li>
+ * <li><b>TTFB</b> - from sending the request until the response head has been
+ * read (request interceptor to response interceptor)</li>
+ * </ul>
+ * Socket factories are wrapped when a connection is opened, so schemes that
+ * RestAssured registers per request, e.g. for
+ * <code>relaxedHTTPSValidation()</code>, are timed too.
+ */
+@SuppressWarnings("deprecation")
+public class TimingHttpClientFactory implements HttpClientConfig.HttpClientFactory {
+
+	@Override
+	public HttpClient createHttpClient() {
+		DefaultHttpClient client = new DefaultHttpClient(
+				new BasicClientConnectionManager(SchemeRegistryFactory.createDefault()) {
+					@Override
+					protected ClientConnectionOperator createConnectionOperator(SchemeRegistry schemes) {
+						return new TimingConnectionOperator(schemes);
+					}
+				});
+		client.addRequestInterceptor(
+				(request, context) -> RequestPhases.current().requestSending(System.nanoTime()));
+		client.addResponseInterceptor(
+				(response, context) -> RequestPhases.current().headersReceived(System.nanoTime()));
+		return client;
+	}
+
+	private static class TimingConnectionOperator extends DefaultClientConnectionOperator {
+
+		TimingConnectionOperator(SchemeRegistry schemes) {
+			super(schemes);
+		}
+
+		@Override
+		public void openConnection(OperatedClientConnection conn, HttpHost target, InetAddress local,
+				HttpContext context, HttpParams params) throws IOException {
+			synchronized (schemeRegistry) {
+				for (String name : schemeRegistry.getSchemeNames()) {
+					Scheme scheme = schemeRegistry.get(name);
+					SchemeSocketFactory factory = scheme.getSchemeSocketFactory();
+					if (!(factory instanceof TimingSocketFactory)) {
+						schemeRegistry.register(new Scheme(name, scheme.getDefaultPort(),
+								factory instanceof SchemeLayeredSocketFactory
+										? new TimingLayeredSocketFactory((SchemeLayeredSocketFactory) factory)
+										: new TimingSocketFactory(factory)));
+					}
+				}
+			}
+			super.openConnection(conn, target, local, context, params);
+		}
+
+		@Override
+		protected InetAddress[] resolveHostname(String host) throws UnknownHostException {
+			long start = System.nanoTime();
+			try {
+				return super.resolveHostname(host);
+			} finally {
+				RequestPhases.current().dnsNanos += System.nanoTime() - start;
+			}
+		}
+	}
+
+	private static class TimingSocketFactory implements SchemeSocketFactory {
+		final SchemeSocketFactory delegate;
+
+		TimingSocketFactory(SchemeSocketFactory delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public Socket createSocket(HttpParams params) throws IOException {
+			return delegate.createSocket(params);
+		}
+
+		@Override
+		public Socket connectSocket(Socket socket, InetSocketAddress remote, InetSocketAddress local,
+				HttpParams params) throws IOException {
+			long start = System.nanoTime();
+			try {
+				return delegate.connectSocket(socket, remote, local, params);
+			} finally {
+				RequestPhases.current().connectNanos += System.nanoTime() - start;
+			}
+		}
+
+		@Override
+		public boolean isSecure(Socket socket) {
+			return delegate.isSecure(socket);
+		}
+	}
+
+	/**
+	 * Does the TCP connect itself, as SSLSocketFactory.connectSocket would, so
+	 * it can be timed apart from the handshake that follows.
+	 */
+	private static class TimingLayeredSocketFactory extends TimingSocketFactory
+			implements SchemeLayeredSocketFactory {
+
+		TimingLayeredSocketFactory(SchemeLayeredSocketFactory delegate) {
+			super(delegate);
+		}
+
+		@Override
+		public Socket connectSocket(Socket socket, InetSocketAddress remote, InetSocketAddress local,
+				HttpParams params) throws IOException {
+			Socket plain = socket != null ? socket : new Socket();
+			if (local != null) {
+				plain.setReuseAddress(HttpConnectionParams.getSoReuseaddr(params));
+				plain.bind(local);
+			}
+			long start = System.nanoTime();
+			try {
+				plain.connect(remote, HttpConnectionParams.getConnectionTimeout(params));
+			} catch (SocketTimeoutException e) {
+				throw new ConnectTimeoutException("Connect to " + remote + " timed out");
+			} finally {
+				RequestPhases.current().connectNanos += System.nanoTime() - start;
+			}
+			plain.setSoTimeout(HttpConnectionParams.getSoTimeout(params));
+			String host = remote instanceof HttpInetSocketAddress
+					? ((HttpInetSocketAddress) remote).getHttpHost().getHostName()
+					: remote.getHostName();
+			return createLayeredSocket(plain, host, remote.getPort(), params);
+		}
+
+		@Override
+		public Socket createLayeredSocket(Socket socket, String target, int port, HttpParams params)
+				throws IOException {
+			long start = System.nanoTime();
+			try {
+				return ((SchemeLayeredSocketFactory) delegate).createLayeredSocket(socket, target, port, params);
+			} finally {
+				RequestPhases.current().tlsNanos += System.nanoTime() - start;
+			}
+		}
+	}
+}
@@ -0,0 +1,300 @@
+package rest;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import coreUtilities.utils.Log;
+import restConfig.ConfigManager;
+
+/**
+ * Bearer tokens for {@link AuthUtil}, fetched from a {@link Provider} and kept
+ * in memory with their expiry.
+ *
+ * <p>
+ * Callers get the cached token and do not wait for the provider while it is
+ * valid. A refresh starts on a background thread once
+ * <code>auth.token.refresh.ahead.seconds</code> (default 60, at most half the
+ * token's lifetime) are left, both on a timer and when a caller notices, so a
+ * token is normally replaced before it expires. Only one refresh runs at a
+ * time however many threads ask for it. A failed refresh is retried with
+ * backoff while the old token is still valid. A caller waits only when there
+ * is no valid token at all: before the first token arrives, or after every
+ * refresh failed until expiry.
+ *
+ * <p>
+ * <code>auth.token.provider</code> selects the provider:
+ * <ul>
+ * <li><b>config</b> (default) - the fixed <code>auth.bearer.token</code>,
+ * which never expires, or <code>null</code> when it is not set</li>
+ * <li><b>client-credentials</b> - the OAuth 2 client credentials grant (see
+ * {@link ClientCredentialsProvider})</li>
+ * <li>otherwise - the class name of a {@link Provider} with a public
+ * no-argument constructor</li>
+ * </ul>
+ */
+public final class TokenManager {
+
+	private static final long FIRST_RETRY_NANOS = TimeUnit.SECONDS.toNanos(1);
+	private static final long MAX_RETRY_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+	private static TokenManager shared;
+
+	private final Provider provider;
+	private final long refreshAheadNanos;
+	private final ScheduledExecutorService executor;
+	private volatile Token current;
+	// The refresh in progress, guarded by this
+	private CompletableFuture<Token> refreshing;
+	// Only touched on the refresh thread
+	private long retryNanos;
+	// Set while a retry after a failed refresh is scheduled
+	private volatile boolean retrying;
+	private final AtomicLong refreshes = new AtomicLong();
+	private final AtomicLong failures = new AtomicLong();
+	private final AtomicLong waits = new AtomicLong();
+
+	/**
+	 * Source of new tokens, called on the refresh thread.
+	 */
+	public interface Provider {
+		/**
+		 * @return a new token
+		 * @throws RuntimeException if no token could be obtained
+		 */
+		Token fetch();
+	}
+
+	/**
+	 * A token and when it expires.
+	 */
+	public static final class Token {
+		private final String value;
+		private final long issuedNanos;
+		private final long lifetimeNanos;
+
+		/**
+		 * @param expiresIn lifetime from now, 0 or less for a token that does not
+		 *                  expire
+		 */
+		public Token(String value, long expiresIn, TimeUnit unit) {
+			this.value = value;
+			this.issuedNanos = System.nanoTime();
+			this.lifetimeNanos = expiresIn > 0 ? unit.toNanos(expiresIn) : 0;
+		}
+
+		public String getValue() {
+			return value;
+		}
+
+		public boolean expires() {
+			return lifetimeNanos > 0;
+		}
+
+		boolean isExpired(long nowNanos) {
+			return expires() && nowNanos - (issuedNanos + lifetimeNanos) >= 0;
+		}
+	}
+
+	private TokenManager(Provider provider, long refreshAheadNanos) {
+		this.provider = provider;
+		this.refreshAheadNanos = refreshAheadNanos;
+		this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "token-refresh");
+			thread.setDaemon(true);
+			return thread;
+		});
+		// Fetch the first token while the suite starts up
+		refresh();
+	}
+
+	/**
+	 * Starts a manager for the provider and makes it the one {@link #shared()}
+	 * returns; the previous manager stops refreshing.
+	 */
+	public static synchronized TokenManager start(Provider provider) {
+		TokenManager manager = create(provider,
+				ConfigManager.getIntProperty("auth.token.refresh.ahead.seconds", 60), TimeUnit.SECONDS);
+		if (shared != null) {
+			shared.close();
+		}
+		shared = manager;
+		return manager;
+	}
+
+	/**
+	 * Starts a manager that is not shared, e.g. for a second API; {@link #close}
+	 * it when done.
+	 *
+	 * @param refreshAhead how long before expiry a refresh starts, at most half
+	 *                     the token's lifetime
+	 */
+	public static TokenManager create(Provider provider, long refreshAhead, TimeUnit unit) {
+		return new TokenManager(provider, unit.toNanos(refreshAhead));
+	}
+
+	/**
+	 * @return the manager started last, started from the
+	 *         <code>auth.token.*</code> settings on first use
+	 */
+	public static synchronized TokenManager shared() {
+		if (shared == null) {
+			shared = start(providerFromConfig());
+		}
+		return shared;
+	}
+
+	/**
+	 * @return a valid token, waiting for the provider only if there is none
+	 * @throws RuntimeException from the provider if no valid token could be
+	 *                          obtained
+	 */
+	public String token() {
+		Token token = current;
+		long now = System.nanoTime();
+		if (token != null && !token.isExpired(now)) {
+			if (!retrying && isDue(token, now)) {
+				refresh(token);
+			}
+			return token.getValue();
+		}
+		waits.incrementAndGet();
+		try {
+			return refresh(token).join().getValue();
+		} catch (CompletionException e) {
+			throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+		}
+	}
+
+	/**
+	 * Fetches a new token on the refresh thread, unless a fetch is already in
+	 * progress.
+	 *
+	 * @return the fetch in progress
+	 */
+	public CompletableFuture<Token> refresh() {
+		return refresh(current);
+	}
+
+	/**
+	 * @return how many tokens were fetched
+	 */
+	public long getRefreshCount() {
+		return refreshes.get();
+	}
+
+	/**
+	 * @return how many fetches failed
+	 */
+	public long getFailureCount() {
+		return failures.get();
+	}
+
+	/**
+	 * @return how many times a caller had to wait for a token
+	 */
+	public long getWaitCount() {
+		return waits.get();
+	}
+
+	/**
+	 * Stops refreshing; {@link #token()} keeps returning the last token.
+	 */
+	public void close() {
+		executor.shutdownNow();
+	}
+
+	// A caller that read a token which has been replaced since gets the new one
+	private synchronized CompletableFuture<Token> refresh(Token seen) {
+		if (refreshing != null && !refreshing.isDone()) {
+			return refreshing;
+		}
+		Token token = current;
+		if (token != seen) {
+			return CompletableFuture.completedFuture(token);
+		}
+		refreshing = CompletableFuture.supplyAsync(this::fetch, executor);
+		return refreshing;
+	}
+
+	private Token fetch() {
+		long start = System.nanoTime();
+		Token token;
+		try {
+			token = provider.fetch();
+		} catch (RuntimeException e) {
+			failures.incrementAndGet();
+			retryLater(e);
+			throw e;
+		}
+		current = token;
+		refreshes.incrementAndGet();
+		retryNanos = 0;
+		retrying = false;
+		if (token.expires()) {
+			long delay = Math.max(0, refreshAt(token) - System.nanoTime());
+			executor.schedule(this::refreshIfDue, delay, TimeUnit.NANOSECONDS);
+			Log.info("Fetched bearer token valid for {} s in {} ms",
+					TimeUnit.NANOSECONDS.toSeconds(token.lifetimeNanos), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		} else {
+			Log.info("Fetched bearer token without expiry in {} ms",
+					TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		}
+		return token;
+	}
+
+	private void retryLater(RuntimeException e) {
+		Token token = current;
+		long now = System.nanoTime();
+		if (token == null || token.isExpired(now)) {
+			// The waiting callers get the error; the next call tries again
+			Log.error("❌ Could not fetch a bearer token: {}", e.getMessage());
+			return;
+		}
+		retryNanos = Math.min(Math.max(FIRST_RETRY_NANOS, retryNanos * 2), MAX_RETRY_NANOS);
+		// The last try is when the token expires
+		long delay = token.expires() ? Math.min(retryNanos, token.issuedNanos + token.lifetimeNanos - now)
+				: retryNanos;
+		Log.warn("⚠️ Could not refresh the bearer token, trying again in {} ms while the current one is valid: {}",
+				TimeUnit.NANOSECONDS.toMillis(delay), e.getMessage());
+		retrying = true;
+		executor.schedule(() -> refresh(), delay, TimeUnit.NANOSECONDS);
+	}
+
+	// A refresh started by a caller in the meantime makes the timer redundant
+	private void refreshIfDue() {
+		Token token = current;
+		if (token != null && isDue(token, System.nanoTime())) {
+			refresh();
+		}
+	}
+
+	private boolean isDue(Token token, long nowNanos) {
+		return token.expires() && nowNanos - refreshAt(token) >= 0;
+	}
+
+	private long refreshAt(Token token) {
+		return token.issuedNanos + token.lifetimeNanos - Math.min(refreshAheadNanos, token.lifetimeNanos / 2);
+	}
+
+	private static Provider providerFromConfig() {
+		String name = ConfigManager.getProperty("auth.token.provider", "config").trim();
+		switch (name) {
+		case "config":
+			String value = ConfigManager.getProperty("auth.bearer.token");
+			return () -> new Token(value, 0, TimeUnit.SECONDS);
+		case "client-credentials":
+			return ClientCredentialsProvider.fromConfig();
+		default:
+			try {
+				return (Provider) Class.forName(name).getConstructor().newInstance();
+			} catch (ReflectiveOperationException | ClassCastException e) {
+				throw new IllegalStateException("Unknown auth.token.provider '" + name
+						+ "', expected config, client-credentials or a TokenManager.Provider class", e);
+			}
+		}
+	}
+}
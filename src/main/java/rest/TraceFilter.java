@@ -0,0 +1,87 @@
+package rest;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Scope;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import coreUtilities.tracing.Tracing;
+
+/**
+ * RestAssured filter that runs every request in a client span and sends the
+ * span as W3C <code>traceparent</code>, so server-side traces join the test's
+ * trace. When the exchange is over, a parse span is started under the test; it
+ * ends when ApiUtil has built the CustomResponse, and calls that never build
+ * one leave no parse span.
+ *
+ * <p>
+ * Registered globally by {@link ApiUtil} ahead of the other filters, so the
+ * header is in place before the request is captured or recorded.
+ */
+public class TraceFilter implements Filter {
+
+	// The parse span of this thread's last exchange
+	private static final ThreadLocal<Span> parsing = new ThreadLocal<>();
+
+	@Override
+	public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+			FilterContext ctx) {
+		parsing.remove();
+		String method = requestSpec.getMethod().toUpperCase();
+		String route = ApiMetrics.template(requestSpec.getURI());
+		Span span = Tracing.startSpan(method + " " + route, SpanKind.CLIENT);
+		span.setAttribute("http.method", method);
+		span.setAttribute("http.url", requestSpec.getURI());
+		span.setAttribute("http.route", route);
+		String traceparent = Tracing.traceparent(span);
+		if (traceparent != null) {
+			requestSpec.header("traceparent", traceparent);
+		}
+
+		Response response;
+		Scope scope = span.makeCurrent();
+		try {
+			response = ctx.next(requestSpec, responseSpec);
+		} catch (RuntimeException e) {
+			span.recordException(e);
+			span.setStatus(StatusCode.ERROR, e.getClass().getSimpleName());
+			span.end();
+			throw e;
+		} finally {
+			scope.close();
+		}
+		int status = response.getStatusCode();
+		span.setAttribute("http.status_code", status);
+		String length = response.getHeader("Content-Length");
+		if (length != null && length.trim().matches("\\d+")) {
+			span.setAttribute("http.response_content_length", Long.parseLong(length.trim()));
+		}
+		if (status >= 400) {
+			span.setStatus(StatusCode.ERROR, response.getStatusLine());
+		}
+		span.end();
+
+		Span parse = Tracing.startSpan("parse " + method + " " + route, SpanKind.INTERNAL);
+		if (parse.isRecording()) {
+			parsing.set(parse);
+		}
+		return response;
+	}
+
+	/**
+	 * Ends the parse span of this thread's last exchange; called by ApiUtil
+	 * once it has built a {@link CustomResponse}.
+	 */
+	static void responseBuilt() {
+		Span parse = parsing.get();
+		if (parse != null) {
+			parsing.remove();
+			parse.end();
+		}
+	}
+}
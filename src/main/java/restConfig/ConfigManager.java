@@ -4,12 +4,13 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.Properties;
 
+import coreUtilities.utils.Log;
+
 public class ConfigManager {
 	private static Properties props = new Properties();
 
 	static {
-		try {
-			FileInputStream fis = new FileInputStream("src/main/resources/config.properties");
+		try (FileInputStream fis = new FileInputStream("src/main/resources/config.properties")) {
 			props.load(fis);
 		} catch (IOException e) {
 			e.printStackTrace();
@@ -19,4 +20,40 @@ public class ConfigManager {
 	public static String getProperty(String key) {
 		return props.getProperty(key);
 	}
+
+	// Lookup order: -Dkey system property, config.properties, then the default
+	public static String getProperty(String key, String defaultValue) {
+		return System.getProperty(key, props.getProperty(key, defaultValue));
+	}
+
+	public static int getIntProperty(String key, int defaultValue) {
+		String value = getProperty(key, null);
+		if (value == null || value.trim().isEmpty()) {
+			return defaultValue;
+		}
+		try {
+			return Integer.parseInt(value.trim());
+		} catch (NumberFormatException e) {
+			Log.warn("⚠️ Invalid integer for '{}': {}, using {}", key, value, defaultValue);
+			return defaultValue;
+		}
+	}
+
+	public static double getDoubleProperty(String key, double defaultValue) {
+		String value = getProperty(key, null);
+		if (value == null || value.trim().isEmpty()) {
+			return defaultValue;
+		}
+		try {
+			return Double.parseDouble(value.trim());
+		} catch (NumberFormatException e) {
+			Log.warn("⚠️ Invalid number for '{}': {}, using {}", key, value, defaultValue);
+			return defaultValue;
+		}
+	}
+
+	public static boolean getBooleanProperty(String key, boolean defaultValue) {
+		String value = getProperty(key, null);
+		return value == null || value.trim().isEmpty() ? defaultValue : Boolean.parseBoolean(value.trim());
+	}
 }
@@ -0,0 +1,105 @@
+package coreUtilities.load;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * CapacitySearch's ramp, SLO breaches and knee on stages that return made-up
+ * results instead of calling the API.
+ */
+public class CapacitySearchTests {
+	private static final int SECONDS = 10;
+
+	@Test(groups = { "capacity" }, description = "1. Ramp 10, 15, 22.5 ... calls/s with p99 rising to 3x the first level, then falling back, then breaking the SLO\n"
+			+ "2. Assert the search stops at the breach, the knee is the last level within 2x and the later fast level does not move it")
+	public void kneeIsTheLastLevelBeforeLatencyDoubles() {
+		Map<Double, Double> p99 = new HashMap<>();
+		p99.put(10.0, 100.0);
+		p99.put(15.0, 110.0);
+		p99.put(22.5, 150.0);
+		p99.put(33.75, 300.0);
+		p99.put(50.625, 180.0);
+		p99.put(75.9375, 3000.0);
+		CapacitySearch search = new CapacitySearch((name, level) -> result(name, level, p99.get(level), 0, 0),
+				"calls/s", true).steps(10, 1.5, 10).slo(2000, 0.01);
+
+		CapacitySearch.Result result = search.run("ramp");
+
+		List<CapacitySearch.Level> levels = result.getLevels();
+		Assert.assertEquals(levels.size(), 6, "Levels run");
+		Assert.assertTrue(levels.get(5).breach.startsWith("p99 3"), levels.get(5).breach);
+		Assert.assertEquals(result.getKnee().level, 22.5);
+		Assert.assertEquals(result.getMaxSustainable().level, 50.625);
+	}
+
+	@Test(groups = { "capacity" }, description = "1. Run a stage whose first level already has 5% errors\n"
+			+ "2. Assert the search stops there with neither a maximum nor a knee")
+	public void firstLevelBreachLeavesNoCapacity() {
+		CapacitySearch.Result result = new CapacitySearch((name, level) -> result(name, level, 100, 0.05, 0),
+				"calls/s", true).steps(10, 1.5, 10).slo(2000, 0.01).run("errors");
+
+		Assert.assertEquals(result.getLevels().size(), 1);
+		Assert.assertTrue(result.getLevels().get(0).breach.startsWith("error rate 5.00%"),
+				result.getLevels().get(0).breach);
+		Assert.assertNull(result.getMaxSustainable());
+		Assert.assertNull(result.getKnee());
+	}
+
+	@Test(groups = { "capacity" }, description = "1. Run an open-model stage that achieves 80% of the offered rate\n"
+			+ "2. Run one whose worker queue grows over three intervals\n"
+			+ "3. Assert both levels break the SLO although their latency is fine")
+	public void levelsThatCannotKeepUpBreak() {
+		CapacitySearch.Result slow = new CapacitySearch((name, level) -> result(name, level * 0.8, 100, 0, 0),
+				"calls/s", true).steps(10, 1.5, 10).run("behind");
+		Assert.assertEquals(slow.getLevels().get(0).breach, "achieved 8.0 of 10.0 calls/s");
+
+		CapacitySearch.Result queued = new CapacitySearch((name, level) -> result(name, level, 100, 0, 3),
+				"users", false).steps(10, 1.5, 10).run("queue");
+		Assert.assertEquals(queued.getLevels().get(0).breach, "worker queue kept growing");
+	}
+
+	@Test(groups = { "capacity" }, description = "1. Ramp a closed model from 2.5 users by a factor of 1.2 for five steps\n"
+			+ "2. Assert the user counts are whole and grow by at least one each step")
+	public void usersAreWholeAndAlwaysGrow() {
+		CapacitySearch.Result result = new CapacitySearch((name, level) -> result(name, level, 100, 0, 0), "users",
+				false).steps(2.5, 1.2, 5).run("users");
+
+		double[] expected = { 3, 4, 5, 6, 8 };
+		Assert.assertEquals(result.getLevels().size(), expected.length);
+		for (int i = 0; i < expected.length; i++) {
+			Assert.assertEquals(result.getLevels().get(i).level, expected[i]);
+		}
+		Assert.assertEquals(result.getKnee().level, 8.0);
+	}
+
+	/**
+	 * A run of {@value #SECONDS} seconds at the given throughput where every call
+	 * took the same time.
+	 *
+	 * @param growingIntervals number of intervals with a growing queue, 0 for one
+	 *                         interval with an empty queue
+	 */
+	private static LoadResult result(String name, double throughput, double latencyMillis, double errorRate,
+			int growingIntervals) {
+		LoadResult result = new LoadResult(name, Collections.singletonMap("op", 1.0), throughput, 0);
+		OperationStats stats = new OperationStats("op");
+		result.addOperation(stats);
+		long calls = Math.round(throughput * SECONDS);
+		long errors = Math.round(calls * errorRate);
+		long latencyNanos = (long) (latencyMillis * 1_000_000);
+		for (long i = 0; i < calls; i++) {
+			stats.record(0, 0, latencyNanos, i < errors ? "IOException" : null);
+		}
+		long start = System.nanoTime();
+		for (int queue = growingIntervals == 0 ? 0 : 1; queue <= growingIntervals; queue++) {
+			result.sampleInterval(start, start, queue);
+		}
+		result.finish(SECONDS, 0);
+		return result;
+	}
+}
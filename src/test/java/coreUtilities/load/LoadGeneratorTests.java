@@ -0,0 +1,76 @@
+package coreUtilities.load;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.HdrHistogram.Histogram;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import rest.CustomResponse;
+
+/**
+ * LoadGenerator's arrivals and latencies with an operation that sleeps instead
+ * of calling the API.
+ */
+public class LoadGeneratorTests {
+
+	@Test(groups = { "load" }, description = "1. Offer 20 calls/s for 1s to one worker whose calls take 100ms\n"
+			+ "2. Assert service times stay near 100ms while response times include the growing wait for the worker")
+	public void responseTimeCountsTheWaitForAWorker() {
+		LoadGenerator generator = new LoadGenerator(mix("slow", new AtomicInteger(), 100), null, null).rate(20)
+				.poisson(false).duration(1, TimeUnit.SECONDS).warmup(0, TimeUnit.SECONDS).maxConcurrency(1);
+
+		LoadResult result = generator.run("omission");
+
+		OperationStats stats = result.getOperations().get("slow");
+		Histogram service = stats.getServiceTime();
+		Histogram response = stats.getResponseTime();
+		Assert.assertEquals(result.getTotalCount(), 20, "Calls");
+		Assert.assertTrue(service.getMaxValue() < 150_000, "Service max " + service.getMaxValue() + "us");
+		// The 20th call is due at 950ms but a worker is only free at 1900ms
+		Assert.assertTrue(response.getMaxValue() >= 1_000_000, "Response max " + response.getMaxValue() + "us");
+		Assert.assertTrue(response.getValueAtPercentile(50) > service.getValueAtPercentile(50) * 3,
+				"Response p50 " + response.getValueAtPercentile(50) + "us");
+	}
+
+	@Test(groups = { "load" }, description = "1. Offer 100 calls/s at constant spacing for 0.5s after a 0.5s warm-up\n"
+			+ "2. Assert all 100 calls ran, only the 50 after the warm-up were recorded and none waited")
+	public void warmupCallsRunButAreNotRecorded() {
+		AtomicInteger executed = new AtomicInteger();
+		LoadGenerator generator = new LoadGenerator(mix("fast", executed, 0), null, null).rate(100).poisson(false)
+				.duration(500, TimeUnit.MILLISECONDS).warmup(500, TimeUnit.MILLISECONDS).maxConcurrency(4);
+
+		LoadResult result = generator.run("warmup");
+
+		Assert.assertEquals(executed.get(), 100, "Calls run");
+		Assert.assertEquals(result.getTotalCount(), 50, "Calls recorded");
+		Assert.assertEquals(result.getTotalErrors(), 0);
+		Assert.assertEquals(result.getThroughput(), 100, 0.001);
+		Assert.assertTrue(result.getCombinedResponseTime().getValueAtPercentile(50) < 10_000,
+				"Response p50 " + result.getCombinedResponseTime().getValueAtPercentile(50) + "us");
+	}
+
+	@Test(groups = { "load" }, description = "1. Offer 200 calls/s with Poisson arrivals for 1s\n"
+			+ "2. Assert the number of calls is within four standard deviations of 200")
+	public void poissonArrivalsAverageTheRate() {
+		AtomicInteger executed = new AtomicInteger();
+		LoadGenerator generator = new LoadGenerator(mix("fast", executed, 0), null, null).rate(200).poisson(true)
+				.duration(1, TimeUnit.SECONDS).warmup(0, TimeUnit.SECONDS).maxConcurrency(4);
+
+		generator.run("poisson");
+
+		Assert.assertTrue(executed.get() > 200 - 4 * Math.sqrt(200) && executed.get() < 200 + 4 * Math.sqrt(200),
+				executed.get() + " calls");
+	}
+
+	private static WorkloadMix mix(String name, AtomicInteger executed, long sleepMillis) {
+		LoadOperation operation = new LoadOperation(name, (api, cookieValue) -> {
+			executed.incrementAndGet();
+			Thread.sleep(sleepMillis);
+			return new CustomResponse(null, 200, "HTTP/1.1 200 OK", 1, name);
+		}, response -> response.getStatusCode() == 200);
+		return new WorkloadMix(Collections.singletonMap(operation, 1.0));
+	}
+}
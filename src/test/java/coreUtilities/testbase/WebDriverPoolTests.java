@@ -0,0 +1,256 @@
+package coreUtilities.testbase;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+/**
+ * WebDriverPool with fake browsers: a {@link WebDriver} proxy that remembers
+ * what the pool did to it and can be made to stop answering, so no real
+ * browser is started.
+ */
+public class WebDriverPoolTests {
+
+	private final List<FakeBrowser> browsers = Collections.synchronizedList(new ArrayList<>());
+	private WebDriverPool pool;
+
+	@AfterMethod(alwaysRun = true)
+	public void tearDown() {
+		if (pool != null) {
+			pool.close();
+			pool = null;
+		}
+		browsers.clear();
+	}
+
+	@Test(groups = { "webdriver" }, description = "1. Create a pool with two warm browsers\n"
+			+ "2. Borrow both, release them and borrow again\n"
+			+ "3. Assert no browser was started on borrow, each was reset on release and the last released comes back first")
+	public void warmBrowsersAreResetAndReused() {
+		pool = new WebDriverPool("test", this::start, 2, 4, 50, 5);
+		Assert.assertEquals(pool.getStartedCount(), 2, "Warm browsers");
+
+		WebDriver first = pool.borrow();
+		WebDriver second = pool.borrow();
+		Assert.assertNotSame(first, second);
+		pool.release(first);
+		pool.release(second);
+
+		Assert.assertSame(pool.borrow(), second, "Most recently released");
+		Assert.assertEquals(pool.getStartedCount(), 2, "Browsers started");
+		FakeBrowser reset = fake(first);
+		Assert.assertEquals(reset.cookieClears.get(), 1, "Cookie clears");
+		Assert.assertEquals(reset.url, "about:blank");
+		Assert.assertEquals(reset.windows.size(), 1, "Windows left open");
+	}
+
+	@Test(groups = { "webdriver" }, description = "1. Borrow the only browser of a pool that waits one second\n"
+			+ "2. Assert a second borrower times out, and a third one gets the browser once it is released")
+	public void borrowersWaitForAFreeBrowser() throws Exception {
+		pool = new WebDriverPool("test", this::start, 1, 1, 50, 1);
+		WebDriver only = pool.borrow();
+
+		long start = System.nanoTime();
+		try {
+			pool.borrow();
+			Assert.fail("A second browser was handed out");
+		} catch (IllegalStateException e) {
+			Assert.assertTrue(e.getMessage().startsWith("No browser of pool test became free"), e.getMessage());
+			Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(900), "Waited");
+		}
+
+		CompletableFuture<WebDriver> waiting = CompletableFuture.supplyAsync(pool::borrow);
+		Thread.sleep(100);
+		pool.release(only);
+		Assert.assertSame(waiting.get(5, TimeUnit.SECONDS), only);
+		Assert.assertEquals(pool.getStartedCount(), 1, "Browsers started");
+	}
+
+	@Test(groups = { "webdriver" }, description = "1. Let an idle browser stop answering and borrow\n"
+			+ "2. Let a borrowed browser stop answering and release it\n"
+			+ "3. Assert both were quit and replaced by new browsers")
+	public void deadBrowsersAreQuitAndReplaced() {
+		pool = new WebDriverPool("test", this::start, 1, 2, 50, 5);
+		FakeBrowser idle = browsers.get(0);
+		idle.alive = false;
+
+		WebDriver replacement = pool.borrow();
+		Assert.assertNotSame(replacement, idle.driver);
+		Assert.assertEquals(idle.quits.get(), 1, "Quits of the idle browser");
+
+		fake(replacement).alive = false;
+		pool.release(replacement);
+		Assert.assertEquals(fake(replacement).quits.get(), 1, "Quits of the released browser");
+		Assert.assertEquals(pool.getRecycledCount(), 2);
+		Assert.assertTrue(pool.summary().contains("2 recycled (1 unhealthy, 1 reset failed, 0 worn out)"),
+				pool.summary());
+	}
+
+	@Test(groups = { "webdriver" }, description = "1. Borrow and release a browser of a pool with two uses per browser twice\n"
+			+ "2. Assert the browser is quit after its second use and a new one is started in the background")
+	public void browsersAreRetiredAfterMaxUses() {
+		pool = new WebDriverPool("test", this::start, 1, 1, 2, 5);
+		WebDriver first = pool.borrow();
+		pool.release(first);
+		Assert.assertSame(pool.borrow(), first);
+		pool.release(first);
+
+		Assert.assertEquals(fake(first).quits.get(), 1, "Quits");
+		WebDriver next = pool.borrow();
+		Assert.assertNotSame(next, first);
+		Assert.assertEquals(pool.getStartedCount(), 2, "Browsers started");
+		Assert.assertTrue(pool.summary().contains("1 worn out"), pool.summary());
+	}
+
+	@Test(groups = { "webdriver" }, description = "1. Let the browser start fail on a pool of one browser\n"
+			+ "2. Assert the borrow fails, the place is freed and the next borrow starts a browser")
+	public void failedStartFreesItsPlace() {
+		AtomicInteger attempts = new AtomicInteger();
+		pool = new WebDriverPool("test", () -> {
+			if (attempts.incrementAndGet() == 1) {
+				throw new WebDriverException("driver did not start");
+			}
+			return start();
+		}, 0, 1, 50, 1);
+
+		try {
+			pool.borrow();
+			Assert.fail("The failed start was not reported");
+		} catch (WebDriverException e) {
+			Assert.assertEquals(e.getRawMessage(), "driver did not start");
+		}
+		Assert.assertNotNull(pool.borrow());
+		Assert.assertEquals(pool.getStartedCount(), 1, "Browsers started");
+	}
+
+	@Test(groups = { "webdriver" }, description = "1. Release a browser the pool did not hand out, then close the pool with one browser borrowed and one idle\n"
+			+ "2. Assert every one of them was quit")
+	public void foreignAndRemainingBrowsersAreQuit() {
+		pool = new WebDriverPool("test", this::start, 2, 2, 50, 5);
+		FakeBrowser foreign = new FakeBrowser();
+		pool.release(foreign.driver);
+		Assert.assertEquals(foreign.quits.get(), 1, "Quits of the foreign browser");
+
+		pool.borrow();
+		pool.close();
+		pool = null;
+		for (FakeBrowser browser : browsers) {
+			Assert.assertEquals(browser.quits.get(), 1, "Quits");
+		}
+	}
+
+	private WebDriver start() {
+		FakeBrowser browser = new FakeBrowser();
+		browsers.add(browser);
+		return browser.driver;
+	}
+
+	private FakeBrowser fake(WebDriver driver) {
+		synchronized (browsers) {
+			for (FakeBrowser browser : browsers) {
+				if (browser.driver == driver) {
+					return browser;
+				}
+			}
+		}
+		throw new IllegalArgumentException("Not a browser of this test");
+	}
+
+	/**
+	 * A browser with two windows that answers the calls the pool makes.
+	 */
+	private static final class FakeBrowser {
+		final WebDriver driver;
+		final AtomicInteger quits = new AtomicInteger();
+		final AtomicInteger cookieClears = new AtomicInteger();
+		final LinkedHashSet<String> windows = new LinkedHashSet<>();
+		volatile boolean alive = true;
+		volatile String url = "https://orangehrm.example/web/index.php/dashboard/index";
+		private String current = "main";
+
+		FakeBrowser() {
+			windows.add("main");
+			windows.add("popup");
+			driver = proxy(WebDriver.class, (proxy, method, args) -> {
+				// The pool keys borrowed browsers by identity, dead or not
+				switch (method.getName()) {
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "equals":
+					return proxy == args[0];
+				case "toString":
+					return "FakeBrowser@" + Integer.toHexString(System.identityHashCode(proxy));
+				case "quit":
+					quits.incrementAndGet();
+					return null;
+				default:
+					answer();
+				}
+				switch (method.getName()) {
+				case "getWindowHandle":
+					return current;
+				case "getWindowHandles":
+					return new LinkedHashSet<>(windows);
+				case "getCurrentUrl":
+					return url;
+				case "get":
+					url = (String) args[0];
+					return null;
+				case "close":
+					windows.remove(current);
+					return null;
+				case "executeScript":
+					return null;
+				case "manage":
+					return proxy(WebDriver.Options.class, (options, call, none) -> {
+						answer();
+						if ("deleteAllCookies".equals(call.getName())) {
+							cookieClears.incrementAndGet();
+							return null;
+						}
+						throw new UnsupportedOperationException(call.getName());
+					});
+				case "switchTo":
+					return proxy(WebDriver.TargetLocator.class, (locator, call, window) -> {
+						answer();
+						if ("window".equals(call.getName())) {
+							current = (String) window[0];
+							return proxy;
+						}
+						throw new UnsupportedOperationException(call.getName());
+					});
+				default:
+					throw new UnsupportedOperationException(method.getName());
+				}
+			});
+		}
+
+		private void answer() {
+			if (!alive) {
+				throw new NoSuchSessionException("Session is gone");
+			}
+		}
+
+		private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+			Object proxy = Proxy.newProxyInstance(WebDriverPoolTests.class.getClassLoader(),
+					type == WebDriver.class ? new Class<?>[] { WebDriver.class, JavascriptExecutor.class }
+							: new Class<?>[] { type },
+					handler);
+			return type.cast(proxy);
+		}
+	}
+}
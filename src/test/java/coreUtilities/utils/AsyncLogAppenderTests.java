@@ -0,0 +1,168 @@
+package coreUtilities.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.simple.SimpleLogger;
+import org.apache.logging.log4j.util.PropertiesUtil;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * AsyncLogAppender's ring: ordering across producers, flush and the loss
+ * policy when the ring is full. Events go to a log4j logger that prints each
+ * level and message into a buffer.
+ */
+public class AsyncLogAppenderTests {
+
+	@Test(groups = { "log" }, description = "1. Create appenders asking for 1, 5 and 8 slots\n"
+			+ "2. Assert the capacity is rounded up to a power of two")
+	public void capacityIsAPowerOfTwo() {
+		Assert.assertEquals(capacity(1), 2);
+		Assert.assertEquals(capacity(5), 8);
+		Assert.assertEquals(capacity(8), 8);
+	}
+
+	@Test(groups = { "log" }, description = "1. Append 2000 events from each of four threads into a ring of 64, retrying dropped ones\n"
+			+ "2. Flush and assert every event was written exactly once and in order per thread\n"
+			+ "3. Assert the dropped count matches the appends that returned false")
+	public void eventsOfEachThreadAreWrittenInOrder() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		AsyncLogAppender appender = new AsyncLogAppender(64, logger(out), false);
+		int threads = 4;
+		int perThread = 2000;
+		LongAdder refused = new LongAdder();
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		List<Future<?>> producers = new ArrayList<>();
+		try {
+			for (int t = 0; t < threads; t++) {
+				int producer = t;
+				producers.add(pool.submit(() -> {
+					for (int i = 0; i < perThread; i++) {
+						while (!appender.append(event(Level.INFO, "p" + producer + " " + i))) {
+							refused.increment();
+							Thread.yield();
+						}
+					}
+				}));
+			}
+			for (Future<?> future : producers) {
+				future.get(30, TimeUnit.SECONDS);
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+		appender.flush(5000);
+
+		int[] nextExpected = new int[threads];
+		List<String> messages = messages(out);
+		Assert.assertEquals(messages.size(), threads * perThread, "Lines written");
+		for (String message : messages) {
+			String[] parts = message.split(" ");
+			int producer = Integer.parseInt(parts[0].substring(1));
+			Assert.assertEquals(Integer.parseInt(parts[1]), nextExpected[producer]++, "Event of producer " + producer);
+		}
+		Assert.assertEquals(appender.getDroppedCount(), refused.sum());
+		appender.shutdown(1000);
+	}
+
+	@Test(groups = { "log" }, description = "1. Block the writer on its first event and fill a ring of 2\n"
+			+ "2. Assert a further INFO event is dropped and counted while a WARN event is written by the caller\n"
+			+ "3. Release the writer and assert everything but the dropped event was written")
+	public void fullRingDropsInfoButWritesWarn() throws Exception {
+		CountDownLatch writing = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		OutputStream blocking = new OutputStream() {
+			@Override
+			public void write(int b) throws IOException {
+				writing.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				out.write(b);
+			}
+		};
+		AsyncLogAppender appender = new AsyncLogAppender(2, logger(blocking), false);
+
+		Assert.assertTrue(appender.append(event(Level.INFO, "first")));
+		Assert.assertTrue(writing.await(5, TimeUnit.SECONDS), "The writer took the first event");
+		Assert.assertTrue(appender.append(event(Level.INFO, "second")));
+		Assert.assertTrue(appender.append(event(Level.INFO, "third")));
+		Assert.assertFalse(appender.append(event(Level.INFO, "dropped")));
+		Assert.assertEquals(appender.getDroppedCount(), 1);
+
+		ExecutorService caller = Executors.newSingleThreadExecutor();
+		try {
+			Future<Boolean> warn = caller.submit(() -> appender.append(event(Level.WARN, "warning")));
+			release.countDown();
+			Assert.assertTrue(warn.get(5, TimeUnit.SECONDS));
+		} finally {
+			caller.shutdownNow();
+		}
+		appender.flush(5000);
+
+		List<String> messages = messages(out);
+		Assert.assertEquals(messages.size(), 4, messages.toString());
+		Assert.assertTrue(messages.containsAll(Arrays.asList("first", "second", "third", "warning")),
+				messages.toString());
+		Assert.assertEquals(appender.backlog(), 0);
+		appender.shutdown(1000);
+	}
+
+	@Test(groups = { "log" }, description = "1. Append events and shut the appender down at once\n"
+			+ "2. Assert the queued events were written before the writer stopped")
+	public void shutdownDrainsTheRing() {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		AsyncLogAppender appender = new AsyncLogAppender(16, logger(out), false);
+		for (int i = 0; i < 10; i++) {
+			appender.append(event(Level.INFO, "event " + i));
+		}
+
+		appender.shutdown(5000);
+
+		Assert.assertEquals(messages(out).size(), 10);
+		Assert.assertEquals(appender.backlog(), 0);
+	}
+
+	private static int capacity(int requested) {
+		AsyncLogAppender appender = new AsyncLogAppender(requested, null, false);
+		appender.shutdown(1000);
+		return appender.getCapacity();
+	}
+
+	private static LogEvent event(Level level, String message) {
+		return new LogEvent(level, null, message, null, null);
+	}
+
+	// Prints the level and the message, one event per line
+	private static SimpleLogger logger(OutputStream out) {
+		return new SimpleLogger("test", Level.ALL, false, false, false, false, null, null,
+				PropertiesUtil.getProperties(), new PrintStream(out, true));
+	}
+
+	private static List<String> messages(ByteArrayOutputStream out) {
+		List<String> messages = new ArrayList<>();
+		for (String line : new String(out.toByteArray(), StandardCharsets.UTF_8).split("\r?\n")) {
+			if (!line.trim().isEmpty()) {
+				messages.add(line.trim().split(" +", 2)[1]);
+			}
+		}
+		return messages;
+	}
+}
@@ -0,0 +1,119 @@
+package coreUtilities.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Poll's checks, pauses and failures with probes that count their calls.
+ */
+public class PollTests {
+	private static final String[] SETTINGS = { "wait.interval.ms", "wait.max.interval.ms", "wait.backoff.factor",
+			"wait.jitter" };
+
+	@AfterMethod(alwaysRun = true)
+	public void clearSettings() {
+		for (String setting : SETTINGS) {
+			System.clearProperty(setting);
+		}
+	}
+
+	@Test(groups = { "poll" }, description = "1. Poll a counter until it reaches 3\n"
+			+ "2. Assert the wait returns 3 after exactly three checks")
+	public void returnsTheFirstValueThatHolds() {
+		AtomicInteger checks = new AtomicInteger();
+
+		int value = Poll.of("counter to reach 3", checks::incrementAndGet).backoff(1, 1, TimeUnit.MILLISECONDS, 1)
+				.until(count -> count >= 3);
+
+		Assert.assertEquals(value, 3);
+		Assert.assertEquals(checks.get(), 3, "Checks");
+	}
+
+	@Test(groups = { "poll" }, description = "1. Poll a value that never holds with a 100 ms timeout\n"
+			+ "2. Assert an AssertionError names the condition and the last value")
+	public void timeoutNamesTheConditionAndLastValue() {
+		try {
+			Poll.of("the answer", () -> 41).timeout(100, TimeUnit.MILLISECONDS)
+					.backoff(10, 10, TimeUnit.MILLISECONDS, 1).until(value -> value == 42);
+			Assert.fail("The wait did not time out");
+		} catch (AssertionError e) {
+			Assert.assertTrue(e.getMessage().contains("waiting for the answer; last value: 41"), e.getMessage());
+		}
+	}
+
+	@Test(groups = { "poll" }, description = "1. Set wait.interval.ms=0 and wait.backoff.factor=0\n"
+			+ "2. Poll a condition that never holds for 200 ms\n"
+			+ "3. Assert the checks are paced at 1 ms at least instead of spinning")
+	public void zeroIntervalDoesNotSpin() {
+		System.setProperty("wait.interval.ms", "0");
+		System.setProperty("wait.max.interval.ms", "0");
+		System.setProperty("wait.backoff.factor", "0");
+		AtomicInteger checks = new AtomicInteger();
+
+		try {
+			Poll.of("nothing", checks::incrementAndGet).timeout(200, TimeUnit.MILLISECONDS).jitter(0)
+					.until(count -> false);
+			Assert.fail("The wait did not time out");
+		} catch (AssertionError e) {
+			Assert.assertTrue(checks.get() <= 201, checks.get() + " checks in 200 ms");
+		}
+	}
+
+	@Test(groups = { "poll" }, description = "1. Set the backoff factor and jitter to values that are not numbers\n"
+			+ "2. Assert a wait still runs with the default settings")
+	public void invalidSettingsFallBackToDefaults() {
+		System.setProperty("wait.backoff.factor", "fast");
+		System.setProperty("wait.jitter", "some");
+		AtomicInteger checks = new AtomicInteger();
+
+		Assert.assertEquals((int) Poll.of("second check", checks::incrementAndGet).until(count -> count == 2), 2);
+	}
+
+	@Test(groups = { "poll" }, description = "1. Poll with pauses of 10 ms doubling up to 40 ms and no jitter\n"
+			+ "2. Assert each pause is at least as long as the backoff asks for")
+	public void pausesGrowByTheFactorUpToTheMaximum() {
+		List<Long> times = new ArrayList<>();
+
+		Poll.of("five checks", () -> {
+			times.add(System.nanoTime());
+			return times.size();
+		}).backoff(10, 40, TimeUnit.MILLISECONDS, 2).jitter(0).until(count -> count == 5);
+
+		long[] expected = { 10, 20, 40, 40 };
+		for (int i = 0; i < expected.length; i++) {
+			long pause = TimeUnit.NANOSECONDS.toMillis(times.get(i + 1) - times.get(i));
+			Assert.assertTrue(pause >= expected[i], "Pause " + (i + 1) + " was " + pause + " ms");
+		}
+	}
+
+	@Test(groups = { "poll" }, description = "1. Poll a probe that throws twice before it answers\n"
+			+ "2. Assert ignored exceptions are checked again and others end the wait at once")
+	public void onlyIgnoredExceptionsAreRetried() {
+		AtomicInteger checks = new AtomicInteger();
+		String value = Poll.of("a ready probe", () -> {
+			if (checks.incrementAndGet() < 3) {
+				throw new IllegalStateException("not ready");
+			}
+			return "ready";
+		}).backoff(1, 1, TimeUnit.MILLISECONDS, 1).ignoring(IllegalStateException.class).until("ready"::equals);
+		Assert.assertEquals(value, "ready");
+		Assert.assertEquals(checks.get(), 3, "Checks");
+
+		AtomicInteger failing = new AtomicInteger();
+		try {
+			Poll.of("a broken probe", () -> {
+				failing.incrementAndGet();
+				throw new UnsupportedOperationException("broken");
+			}).ignoring(IllegalStateException.class).until(anything -> true);
+			Assert.fail("The exception was swallowed");
+		} catch (UnsupportedOperationException e) {
+			Assert.assertEquals(failing.get(), 1, "Checks");
+		}
+	}
+}
@@ -0,0 +1,116 @@
+package coreUtilities.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * StringInterner's pooling, its cap and the counters it reports, each on a
+ * fresh table.
+ */
+public class StringInternerTests {
+
+	@Test(groups = { "intern" }, description = "1. Intern two equal strings that are different instances\n"
+			+ "2. Assert both calls return the first instance and count one miss and one hit")
+	public void equalValuesShareOneInstance() {
+		StringInterner interner = new StringInterner(16);
+		String first = new String("Full Day");
+		String second = new String("Full Day");
+
+		Assert.assertSame(interner.intern(first), first);
+		Assert.assertSame(interner.intern(second), first);
+		Assert.assertEquals(interner.getMissCount(), 1);
+		Assert.assertEquals(interner.getHitCount(), 1);
+		Assert.assertEquals(interner.hitRatio(), 0.5, 1e-9);
+	}
+
+	@Test(groups = { "intern" }, description = "1. Intern null, a long string and non-string JSON values\n"
+			+ "2. Assert they are returned as they are and nothing is pooled")
+	public void onlyShortStringsArePooled() {
+		StringInterner interner = new StringInterner(16);
+		char[] chars = new char[65];
+		Arrays.fill(chars, 'a');
+		String longValue = new String(chars);
+
+		Assert.assertNull(interner.intern(null));
+		Assert.assertSame(interner.intern(longValue), longValue);
+		Assert.assertEquals(interner.internValue(Boolean.TRUE), Boolean.TRUE);
+		Assert.assertEquals(interner.internValue(42), 42);
+		Assert.assertEquals(interner.size(), 0);
+	}
+
+	@Test(groups = { "intern" }, description = "1. Intern a list of strings, booleans and nulls\n"
+			+ "2. Assert the copy holds the pooled strings and the other values in order")
+	public void internAllCopiesTheList() {
+		StringInterner interner = new StringInterner(16);
+		String pooled = interner.intern(new String("CAN"));
+		List<Object> values = Collections.unmodifiableList(Arrays.asList(new String("CAN"), true, null));
+
+		List<Object> interned = interner.internAll(values);
+
+		Assert.assertNotSame(interned, values);
+		Assert.assertSame(interned.get(0), pooled);
+		Assert.assertEquals(interned.get(1), Boolean.TRUE);
+		Assert.assertNull(interned.get(2));
+		Assert.assertNull(interner.internAll(null));
+	}
+
+	@Test(groups = { "intern" }, description = "1. Intern three values into a table capped at two\n"
+			+ "2. Assert the third is returned unpooled and counted as rejected")
+	public void valuesBeyondTheCapAreRejected() {
+		StringInterner interner = new StringInterner(2);
+		interner.intern("a");
+		interner.intern("b");
+		String third = new String("c");
+
+		Assert.assertSame(interner.intern(third), third);
+		Assert.assertNotSame(interner.intern(new String("c")), third);
+		Assert.assertEquals(interner.size(), 2);
+		Assert.assertEquals(interner.getRejectedCount(), 2);
+
+		interner.clear();
+		Assert.assertSame(interner.intern(third), third);
+		Assert.assertEquals(interner.size(), 1);
+	}
+
+	@Test(groups = { "intern" }, description = "1. Intern 2000 distinct values from eight threads at once into a table capped at 100\n"
+			+ "2. Assert the table never holds more than 100 entries")
+	public void capHoldsUnderContention() throws Exception {
+		StringInterner interner = new StringInterner(100);
+		int threads = 8;
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> workers = new ArrayList<>();
+		try {
+			for (int t = 0; t < threads; t++) {
+				int offset = t;
+				workers.add(pool.submit(() -> {
+					start.await();
+					for (int i = 0; i < 250; i++) {
+						interner.intern("value-" + (i * threads + offset));
+						Assert.assertTrue(interner.size() <= 100, interner.size() + " entries");
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> worker : workers) {
+				worker.get(30, TimeUnit.SECONDS);
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+
+		Assert.assertEquals(interner.size(), 100);
+		Assert.assertEquals(interner.getRejectedCount(), 1900);
+	}
+}
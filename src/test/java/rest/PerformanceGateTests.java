@@ -0,0 +1,129 @@
+package rest;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.HdrHistogram.Histogram;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * PerformanceGate's statistics on made-up histograms: the order-statistic
+ * bounds of a percentile, the normal quantile and the verdicts of
+ * {@link PerformanceGate#compare}.
+ */
+public class PerformanceGateTests {
+	private static final String ENDPOINT = "GET /pim/employees";
+	private static final double Z_95 = 1.959964;
+
+	@Test(groups = { "perf" }, description = "1. Ask for the normal quantiles of common confidence levels\n"
+			+ "2. Assert they match the tables to four decimals")
+	public void zScoreMatchesTheNormalTable() {
+		Assert.assertEquals(PerformanceGate.zScore(0.90), 1.6449, 1e-4);
+		Assert.assertEquals(PerformanceGate.zScore(0.95), 1.9600, 1e-4);
+		Assert.assertEquals(PerformanceGate.zScore(0.99), 2.5758, 1e-4);
+	}
+
+	@Test(groups = { "perf" }, description = "1. Record 1 to 1000 ms once each\n"
+			+ "2. Take the 95% interval of the median and of p99\n"
+			+ "3. Assert they sit at ranks np -/+ z*sqrt(np(1-p)) and p99 of 10 calls has no interval")
+	public void boundsAreTheOrderStatisticsAroundThePercentile() {
+		Histogram histogram = latencies(1000, 1);
+
+		// Median: 500 -/+ 1.96 * sqrt(250) = 469..531, plus one for the upper rank
+		double[] median = PerformanceGate.bounds(histogram, 0.5, Z_95);
+		Assert.assertEquals(median[0], 469, 1);
+		Assert.assertEquals(median[1], 532, 1);
+		// p99: 990 -/+ 1.96 * sqrt(9.9) = 983..997
+		double[] p99 = PerformanceGate.bounds(histogram, 0.99, Z_95);
+		Assert.assertEquals(p99[0], 983, 1);
+		Assert.assertEquals(p99[1], 998, 1);
+
+		Assert.assertNull(PerformanceGate.bounds(latencies(10, 1), 0.99, Z_95), "p99 of 10 calls");
+	}
+
+	@Test(groups = { "perf" }, description = "1. Compare a run with a baseline of the same calls\n"
+			+ "2. Assert every percentile is OK")
+	public void sameLatenciesAreOk() {
+		List<PerformanceGate.Finding> findings = compare(latencies(1000, 1), latencies(1000, 1));
+
+		Assert.assertEquals(findings.size(), PerformanceGate.PERCENTILES.length);
+		for (PerformanceGate.Finding finding : findings) {
+			Assert.assertEquals(finding.verdict, PerformanceGate.Verdict.OK, finding.toString());
+			Assert.assertEquals(finding.metric, "latency ms");
+		}
+	}
+
+	@Test(groups = { "perf" }, description = "1. Compare a run 50% slower than the baseline\n"
+			+ "2. Assert every percentile regressed beyond the 10% tolerance")
+	public void slowerRunRegresses() {
+		for (PerformanceGate.Finding finding : compare(latencies(1000, 1), latencies(1000, 1.5))) {
+			Assert.assertEquals(finding.verdict, PerformanceGate.Verdict.REGRESSED, finding.toString());
+		}
+	}
+
+	@Test(groups = { "perf" }, description = "1. Compare a run 5% slower than the baseline\n"
+			+ "2. Assert the tolerance and the intervals absorb it")
+	public void slowdownWithinToleranceIsOk() {
+		for (PerformanceGate.Finding finding : compare(latencies(1000, 1), latencies(1000, 1.05))) {
+			Assert.assertEquals(finding.verdict, PerformanceGate.Verdict.OK, finding.toString());
+		}
+	}
+
+	@Test(groups = { "perf" }, description = "1. Compare a run twice as fast as the baseline\n"
+			+ "2. Assert every percentile improved")
+	public void fasterRunImproves() {
+		for (PerformanceGate.Finding finding : compare(latencies(1000, 1), latencies(1000, 0.5))) {
+			Assert.assertEquals(finding.verdict, PerformanceGate.Verdict.IMPROVED, finding.toString());
+		}
+	}
+
+	@Test(groups = { "perf" }, description = "1. Compare a run of one call per endpoint, like the functional suite\n"
+			+ "2. Assert no percentile gets a verdict, however slow the call")
+	public void singleCallIsInsufficient() {
+		List<PerformanceGate.Finding> findings = compare(latencies(1000, 1), latencies(1, 100));
+
+		Assert.assertEquals(findings.size(), PerformanceGate.PERCENTILES.length);
+		for (PerformanceGate.Finding finding : findings) {
+			Assert.assertEquals(finding.verdict, PerformanceGate.Verdict.INSUFFICIENT, finding.toString());
+			Assert.assertNull(finding.current);
+		}
+	}
+
+	@Test(groups = { "perf" }, description = "1. Compare an endpoint the baseline does not have\n"
+			+ "2. Assert it is skipped")
+	public void newEndpointIsNotCompared() {
+		Map<String, PerformanceGate.Recorded> current = Collections.singletonMap("GET /admin/job-titles",
+				recorded(latencies(1000, 1)));
+
+		Assert.assertTrue(PerformanceGate
+				.compare(Collections.singletonMap(ENDPOINT, recorded(latencies(1000, 1))), current, 0.1, Z_95)
+				.isEmpty());
+	}
+
+	private static List<PerformanceGate.Finding> compare(Histogram baseline, Histogram current) {
+		return PerformanceGate.compare(Collections.singletonMap(ENDPOINT, recorded(baseline)),
+				Collections.singletonMap(ENDPOINT, recorded(current)), 0.1, Z_95);
+	}
+
+	/**
+	 * @return calls of 1, 2, ... n ms, each multiplied by the factor
+	 */
+	private static Histogram latencies(int calls, double factor) {
+		Histogram histogram = ApiMetrics.newHistogram();
+		for (int i = 1; i <= calls; i++) {
+			histogram.recordValue(Math.round(i * 1000 * factor));
+		}
+		return histogram;
+	}
+
+	// Latency only; an empty allocation histogram is not compared
+	private static PerformanceGate.Recorded recorded(Histogram total) {
+		PerformanceGate.Recorded recorded = new PerformanceGate.Recorded();
+		recorded.total = total;
+		recorded.server = total.copy();
+		recorded.allocated = ApiMetrics.newBytesHistogram();
+		return recorded;
+	}
+}
@@ -0,0 +1,139 @@
+package rest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import coreUtilities.mock.FaultProfile;
+import coreUtilities.mock.OrangeHrmStub;
+import coreUtilities.mock.StubHttpServer;
+import coreUtilities.mock.SyntheticDataset;
+
+/**
+ * SessionCache on a file in a temporary directory: what is stored is loaded
+ * back per base URL and user, the file is private, and a cookie is only valid
+ * while a local {@link OrangeHrmStub} accepts it.
+ */
+public class SessionCacheTests {
+	private static final String BASE_URL = "https://orangehrm.example";
+	private static final String[] SETTINGS = { "api.mode", "session.cache.enabled", "session.cache.file" };
+
+	private Path directory;
+	private Path file;
+
+	@BeforeMethod(alwaysRun = true)
+	public void setUp() throws IOException {
+		directory = Files.createTempDirectory("session-cache");
+		file = directory.resolve("cache").resolve("sessions.properties");
+		System.setProperty("api.mode", "live");
+		System.setProperty("session.cache.file", file.toString());
+	}
+
+	@AfterMethod(alwaysRun = true)
+	public void tearDown() throws IOException {
+		for (String setting : SETTINGS) {
+			System.clearProperty(setting);
+		}
+		try (Stream<Path> paths = Files.walk(directory)) {
+			paths.sorted(Collections.reverseOrder()).forEach(path -> path.toFile().delete());
+		}
+	}
+
+	@Test(groups = { "session" }, description = "1. Store two cookies for one user and one for another user of the same server\n"
+			+ "2. Store one cookie again for the first user\n"
+			+ "3. Assert each user loads back only its own cookies, the latest ones, with their login times")
+	public void storedCookiesLoadBackPerUser() {
+		SessionCache admin = SessionCache.forUser(BASE_URL, "Admin");
+		SessionCache other = SessionCache.forUser(BASE_URL, "Other");
+		admin.store(Arrays.asList(new SessionCache.Entry("a1", 1000), new SessionCache.Entry("a2", 2000)));
+		other.store(Collections.singletonList(new SessionCache.Entry("o1", 3000)));
+
+		List<SessionCache.Entry> loaded = SessionCache.forUser(BASE_URL, "Admin").load();
+		Assert.assertEquals(loaded.size(), 2);
+		Assert.assertEquals(loaded.get(0).cookie, "a1");
+		Assert.assertEquals(loaded.get(0).loggedInMillis, 1000);
+		Assert.assertEquals(loaded.get(1).cookie, "a2");
+		Assert.assertEquals(loaded.get(1).loggedInMillis, 2000);
+
+		admin.store(Collections.singletonList(new SessionCache.Entry("a3", 4000)));
+		Assert.assertEquals(admin.load().size(), 1);
+		Assert.assertEquals(admin.load().get(0).cookie, "a3");
+		Assert.assertEquals(other.load().get(0).cookie, "o1");
+		Assert.assertTrue(SessionCache.forUser("https://other.example", "Admin").load().isEmpty());
+	}
+
+	@Test(groups = { "session" }, description = "1. Write a cache entry by hand with a cookie without a login time, one with a bad time and an empty one\n"
+			+ "2. Assert both cookies load as logged in at 0 and the empty one is skipped")
+	public void cookiesWithoutLoginTimeCountAsOld() throws IOException {
+		SessionCache cache = SessionCache.forUser(BASE_URL, "Admin");
+		cache.store(Collections.singletonList(new SessionCache.Entry("placeholder", 1)));
+		Properties stored = new Properties();
+		try (InputStream in = Files.newInputStream(file)) {
+			stored.load(in);
+		}
+		String key = stored.stringPropertyNames().iterator().next();
+		stored.setProperty(key, "plain, ,timed;soon");
+		try (OutputStream out = Files.newOutputStream(file)) {
+			stored.store(out, null);
+		}
+
+		List<SessionCache.Entry> loaded = cache.load();
+		Assert.assertEquals(loaded.size(), 2);
+		Assert.assertEquals(loaded.get(0).cookie, "plain");
+		Assert.assertEquals(loaded.get(0).loggedInMillis, 0);
+		Assert.assertEquals(loaded.get(1).cookie, "timed");
+		Assert.assertEquals(loaded.get(1).loggedInMillis, 0);
+	}
+
+	@Test(groups = { "session" }, description = "1. Store a cookie into a directory that does not exist yet\n"
+			+ "2. Assert the file names neither server nor user and only the owner can read it and its directory")
+	public void cacheFileIsPrivate() throws IOException {
+		SessionCache.forUser(BASE_URL, "Admin").store(Collections.singletonList(new SessionCache.Entry("a1", 1)));
+
+		String content = new String(Files.readAllBytes(file), "UTF-8");
+		Assert.assertFalse(content.contains("example") || content.contains("Admin"), content);
+		if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+			Assert.assertEquals(PosixFilePermissions.toString(Files.getPosixFilePermissions(file)), "rw-------");
+			Assert.assertEquals(PosixFilePermissions.toString(Files.getPosixFilePermissions(file.getParent())),
+					"rwx------");
+		}
+	}
+
+	@Test(groups = { "session" }, description = "1. Ask for a cache with session.cache.enabled=false and in stub mode\n"
+			+ "2. Assert there is none")
+	public void noCacheWhenDisabledOrOffline() {
+		System.setProperty("session.cache.enabled", "false");
+		Assert.assertNull(SessionCache.forUser(BASE_URL, "Admin"));
+
+		System.clearProperty("session.cache.enabled");
+		System.setProperty("api.mode", "stub");
+		Assert.assertNull(SessionCache.forUser(BASE_URL, "Admin"));
+	}
+
+	@Test(groups = { "session" }, description = "1. Check a cookie and a missing one against the stub\n"
+			+ "2. Assert only the call with a cookie counts as logged in, and an unreachable server does not throw")
+	public void cookieIsValidWhileTheServerAcceptsIt() throws IOException {
+		try (StubHttpServer server = OrangeHrmStub
+				.start(new OrangeHrmStub(new SyntheticDataset(10, 42), FaultProfile.none()))) {
+			SessionCache cache = SessionCache.forUser(server.getBaseUrl(), "Admin");
+
+			Assert.assertTrue(cache.isValid("accepted"));
+			Assert.assertFalse(cache.isValid(""));
+		}
+		Assert.assertFalse(SessionCache.forUser("http://127.0.0.1:1", "Admin").isValid("accepted"));
+	}
+}
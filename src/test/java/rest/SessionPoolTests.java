@@ -0,0 +1,155 @@
+package rest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+
+import coreUtilities.mock.FaultProfile;
+import coreUtilities.mock.OrangeHrmStub;
+import coreUtilities.mock.StubHttpServer;
+import coreUtilities.mock.SyntheticDataset;
+import coreUtilities.utils.Poll;
+import restConfig.ConfigManager;
+
+/**
+ * SessionPool and SessionFilter against a local {@link OrangeHrmStub} whose
+ * sessions expire after two seconds. Each test logs in a pool of its own and
+ * calls through a filter bound to it, so the shared pool is left alone.
+ */
+public class SessionPoolTests {
+	private static final String EMPLOYEES = HttpLogin.LOGIN_PATH.replace("auth/login", "api/v2/pim/employees");
+	private static final String[] SETTINGS = { "stub.session.ttl.seconds", "session.cache.enabled", "password" };
+
+	private final String username = ConfigManager.getProperty("username", "");
+	private final String password = ConfigManager.getProperty("password", "");
+	private StubHttpServer server;
+	private SessionPool pool;
+
+	@AfterMethod(alwaysRun = true)
+	public void tearDown() {
+		if (pool != null) {
+			pool.close();
+			pool = null;
+		}
+		if (server != null) {
+			server.close();
+			server = null;
+		}
+		for (String setting : SETTINGS) {
+			System.clearProperty(setting);
+		}
+	}
+
+	@Test(groups = { "session" }, description = "1. Log in a pool of one session and let it expire\n"
+			+ "2. Call the API with the expired cookie from 8 threads at once\n"
+			+ "3. Assert every call succeeds after a single login and the pool hands out the new cookie")
+	public void expiredSessionIsLoggedInAgainOnce() throws Exception {
+		startPool(1);
+		SessionFilter filter = new SessionFilter(pool);
+		String expired = pool.cookie();
+		Assert.assertEquals(call(filter, expired).getStatusCode(), 200);
+		awaitExpiry(expired);
+
+		int threads = 8;
+		ExecutorService callers = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Integer>> statuses = new ArrayList<>();
+		try {
+			for (int i = 0; i < threads; i++) {
+				statuses.add(callers.submit(() -> {
+					start.await();
+					return call(filter, expired).getStatusCode();
+				}));
+			}
+			start.countDown();
+			for (Future<Integer> status : statuses) {
+				Assert.assertEquals((int) status.get(30, TimeUnit.SECONDS), 200);
+			}
+		} finally {
+			callers.shutdownNow();
+		}
+
+		Assert.assertEquals(pool.getReloginCount(), 1, "Logins after the start");
+		Assert.assertNotEquals(pool.cookie(), expired);
+		Assert.assertEquals(call(filter, expired).getStatusCode(), 200, "Call with the earlier cookie");
+		Assert.assertEquals(pool.getReloginCount(), 1, "Logins after the start");
+	}
+
+	@Test(groups = { "session" }, description = "1. Log in a pool and open three sessions of its own for virtual users\n"
+			+ "2. Assert every session has its own cookie and an opened one is logged in again when it expires")
+	public void openedSessionsAreSeparateAndKeptLoggedIn() throws IOException {
+		startPool(2);
+		Set<String> cookies = new HashSet<>();
+		cookies.add(pool.cookie());
+		String opened = pool.open();
+		cookies.add(opened);
+		cookies.add(pool.open());
+		cookies.add(pool.open());
+
+		Assert.assertEquals(cookies.size(), 4, "Distinct cookies");
+		awaitExpiry(opened);
+		Assert.assertEquals(call(new SessionFilter(pool), opened).getStatusCode(), 200);
+		Assert.assertEquals(pool.getReloginCount(), 1, "Logins after the start");
+	}
+
+	@Test(groups = { "session" }, description = "1. Log in a pool, change the password and let the session expire\n"
+			+ "2. Assert the call returns the server's 401 instead of failing on the login")
+	public void failedLoginLeavesTheOriginalResponse() throws IOException {
+		startPool(1);
+		String expired = pool.cookie();
+		System.setProperty("password", password + "-changed");
+		awaitExpiry(expired);
+
+		Assert.assertEquals(call(new SessionFilter(pool), expired).getStatusCode(), 401);
+		Assert.assertEquals(pool.getReloginCount(), 0, "Logins after the start");
+	}
+
+	@Test(groups = { "session" }, description = "1. Get a 401, a redirect to the login page, the login page and an API list from the stub\n"
+			+ "2. Assert only the API list counts as logged in")
+	public void loggedOutResponsesAreRecognised() throws IOException {
+		startPool(1);
+		String base = server.getBaseUrl();
+
+		Response unauthorized = RestAssured.given().noFilters().get(base + EMPLOYEES);
+		Response redirect = RestAssured.given().noFilters().redirects().follow(false).cookie(HttpLogin.COOKIE, "x")
+				.contentType(ContentType.URLENC).formParam("username", "nobody").post(base + HttpLogin.VALIDATE_PATH);
+		Response loginPage = RestAssured.given().noFilters().get(base + HttpLogin.LOGIN_PATH);
+
+		Assert.assertTrue(SessionPool.isLoggedOut(unauthorized), "401");
+		Assert.assertTrue(SessionPool.isLoggedOut(redirect), "Redirect to " + redirect.getHeader("Location"));
+		Assert.assertTrue(SessionPool.isLoggedOut(loginPage), "Login page");
+		Assert.assertFalse(SessionPool.isLoggedOut(call(null, pool.cookie())), "Employee list");
+	}
+
+	private void startPool(int size) throws IOException {
+		System.setProperty("stub.session.ttl.seconds", "2");
+		System.setProperty("session.cache.enabled", "false");
+		server = OrangeHrmStub.start(new OrangeHrmStub(new SyntheticDataset(10, 42), FaultProfile.none()));
+		pool = new SessionPool(server.getBaseUrl(), username, password, size, 0);
+	}
+
+	private Response call(SessionFilter filter, String cookie) {
+		return (filter == null ? RestAssured.given().noFilters() : RestAssured.given().noFilters().filter(filter))
+				.cookie(HttpLogin.COOKIE, cookie).get(server.getBaseUrl() + EMPLOYEES);
+	}
+
+	private void awaitExpiry(String cookie) {
+		Poll.of("the session to expire", () -> call(null, cookie).getStatusCode()).timeout(5, TimeUnit.SECONDS)
+				.until(status -> status == 401);
+	}
+}
@@ -0,0 +1,130 @@
+package testcases;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import coreUtilities.load.CapacitySearch;
+import coreUtilities.load.LoadGenerator;
+import coreUtilities.load.LoadReport;
+import coreUtilities.load.LoadResult;
+import coreUtilities.load.OperationCatalog;
+import coreUtilities.load.SessionFactory;
+import coreUtilities.load.SoakRunner;
+import coreUtilities.load.Transaction;
+import coreUtilities.load.VirtualUserRunner;
+import coreUtilities.load.WorkloadMix;
+import rest.ApiMode;
+import rest.ApiUtil;
+import restConfig.ConfigManager;
+
+/**
+ * Load scenarios built from the same ApiUtil calls and checks as
+ * RestAssured_TestCases. Run them with <code>testng-load.xml</code>; settings
+ * are the <code>load.*</code> keys in config.properties or <code>-D</code>
+ * overrides.
+ *
+ * <p>
+ * Against a live server the scenarios log in with the configured credentials,
+ * and every virtual user gets a session of its own; <code>-Dload.cookie=...</code>
+ * uses an existing session instead. In replay or stub mode no login is needed.
+ */
+public class LoadScenarios {
+	private ApiUtil apiUtil;
+	private String cookieValue;
+	private OperationCatalog catalog;
+
+	@BeforeClass(alwaysRun = true)
+	public void setUp() {
+		apiUtil = new ApiUtil();
+		apiUtil.getBaseUrl();
+		cookieValue = ApiMode.current().isOffline() ? ApiMode.current().name().toLowerCase()
+				: ConfigManager.getProperty("load.cookie", "");
+		if (cookieValue.isEmpty()) {
+			cookieValue = SessionFactory.sharedPool().cookie();
+		}
+		catalog = OperationCatalog.standard();
+		catalog.prepare(apiUtil, cookieValue);
+	}
+
+	@Test(groups = { "load" }, description = "1. Build the weighted operation mix from 'load.mix'\n"
+			+ "2. Drive it at 'load.rate' calls per second with open-model arrivals\n"
+			+ "3. Write the JSON and Extent reports with per-operation percentiles\n"
+			+ "4. Assert the error rate stays within 'load.max.error.rate'")
+	public void openModelMix() {
+		WorkloadMix mix = WorkloadMix.parse(
+				ConfigManager.getProperty("load.mix", "GetEmpData:60,GetVacancies:20,PostCandidate:20"), catalog);
+		LoadResult result = new LoadGenerator(mix, apiUtil, cookieValue).configure().run("open-model-mix");
+		LoadReport.publish(result);
+
+		double maxErrorRate = Double.parseDouble(ConfigManager.getProperty("load.max.error.rate", "0.01"));
+		Assert.assertTrue(result.getTotalCount() > 0, "No calls completed during the load run.");
+		Assert.assertTrue(result.getErrorRate() <= maxErrorRate,
+				String.format("Error rate %.2f%% exceeds %.2f%%", result.getErrorRate() * 100, maxErrorRate * 100));
+	}
+
+	@Test(groups = { "load" }, description = "1. Build the transaction mix from 'load.lifecycle.mix'\n"
+			+ "2. For each count in 'load.lifecycle.vus', run that many virtual users, each with its own session\n"
+			+ "3. Report end-to-end and per-step latency and transactions per second for every run\n"
+			+ "4. Assert the transaction error rate stays within 'load.max.error.rate' at every level")
+	public void crudLifecycleScaling() {
+		double maxErrorRate = Double.parseDouble(ConfigManager.getProperty("load.max.error.rate", "0.01"));
+		List<LoadResult> results = new ArrayList<>();
+		for (String level : ConfigManager.getProperty("load.lifecycle.vus", "10,100,1000").split(",")) {
+			int virtualUsers = Integer.parseInt(level.trim());
+			VirtualUserRunner runner = new VirtualUserRunner(VirtualUserRunner.parseMix(
+					ConfigManager.getProperty("load.lifecycle.mix", "employee:70,candidate:30"), Transaction.standard()),
+					SessionFactory.fromConfig()).configure();
+			LoadResult result = runner.run("crud-lifecycle-" + virtualUsers + "vu", virtualUsers);
+			LoadReport.publish(result);
+			results.add(result);
+		}
+		LoadReport.addScalingSummary("crud-lifecycle-scaling", results);
+
+		for (LoadResult result : results) {
+			Assert.assertTrue(result.getTotalCount() > 0, "No transactions completed with " + result.getVirtualUsers()
+					+ " virtual users.");
+			Assert.assertTrue(result.getErrorRate() <= maxErrorRate,
+					String.format("Error rate %.2f%% with %d virtual users exceeds %.2f%%", result.getErrorRate() * 100,
+							result.getVirtualUsers(), maxErrorRate * 100));
+		}
+	}
+
+	@Test(groups = { "capacity" }, description = "1. Build the operation mix from 'load.mix'\n"
+			+ "2. Ramp the arrival rate ('capacity.mode=rate') or user count ('concurrency') in steps\n"
+			+ "3. Hold each step and stop at the first that breaks 'load.slo.p99.ms' or 'load.slo.error.rate'\n"
+			+ "4. Report the highest sustainable throughput and the knee")
+	public void capacitySearch() {
+		WorkloadMix mix = WorkloadMix.parse(
+				ConfigManager.getProperty("load.mix", "GetEmpData:60,GetVacancies:20,PostCandidate:20"), catalog);
+		CapacitySearch search = "concurrency".equalsIgnoreCase(ConfigManager.getProperty("capacity.mode", "rate"))
+				? CapacitySearch.forConcurrency(mix, SessionFactory.fromConfig())
+				: CapacitySearch.forRate(mix, apiUtil, cookieValue);
+		CapacitySearch.Result result = search.configure().run("capacity");
+		for (CapacitySearch.Level level : result.getLevels()) {
+			LoadReport.publish(level.result);
+		}
+		LoadReport.publish(result);
+
+		Assert.assertNotNull(result.getMaxSustainable(), "The first capacity level already breaks the SLO.");
+	}
+
+	@Test(groups = { "soak" }, description = "1. Build the operation mix from 'load.mix'\n"
+			+ "2. Loop it for 'soak.duration.minutes' (or 'soak.iterations' calls)\n"
+			+ "3. Every 'soak.sample.every' calls sample heap after GC, file descriptors, sockets and threads\n"
+			+ "4. Report resources that kept growing and fail if 'soak.fail.on.leak' is set")
+	public void soak() {
+		WorkloadMix mix = WorkloadMix.parse(
+				ConfigManager.getProperty("load.mix", "GetEmpData:60,GetVacancies:20,PostCandidate:20"), catalog);
+		SoakRunner.Result result = new SoakRunner(mix, apiUtil, cookieValue).configure().run("soak");
+		LoadReport.publish(result);
+
+		Assert.assertTrue(result.getLoad().getTotalCount() > 0, "No calls completed during the soak run.");
+		if (ConfigManager.getBooleanProperty("soak.fail.on.leak", true)) {
+			Assert.assertTrue(result.getFindings().isEmpty(), "Resources kept growing: " + result.getFindings());
+		}
+	}
+}
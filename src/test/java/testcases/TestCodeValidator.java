@@ -11,7 +11,15 @@ import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.io.BufferedReader;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+
+import coreUtilities.jfr.ValidationEvent;
+import coreUtilities.tracing.Tracing;
+import rest.ApiMetrics;
 import rest.CustomResponse;
+import rest.ThreadCost;
 
 public class TestCodeValidator {
 	// Method to validate if specific keywords are used in the method's source code
@@ -81,7 +89,37 @@ public class TestCodeValidator {
 		return methodBody.toString();
 	}
 
+	// Records the allocation and CPU time of each validation in ApiMetrics, emits
+	// it as a Flight Recorder event and traces it under the running test
 	public static boolean validateResponseFields(String methodName, CustomResponse customResponse) {
+		ThreadCost cost = ThreadCost.start();
+		ValidationEvent event = new ValidationEvent();
+		event.begin();
+		Span span = Tracing.startSpan("validate " + methodName, SpanKind.INTERNAL);
+		boolean valid = false;
+		try {
+			valid = checkResponseFields(methodName, customResponse);
+			return valid;
+		} finally {
+			ApiMetrics.validated(customResponse, cost);
+			span.setAttribute("validation.check", methodName);
+			span.setAttribute("validation.valid", valid);
+			span.end();
+			event.end();
+			if (event.shouldCommit()) {
+				event.check = methodName;
+				event.valid = valid;
+				if (customResponse != null && customResponse.getResponse() != null) {
+					event.endpoint = customResponse.getEndpoint();
+					event.status = customResponse.getResponse().getStatusCode();
+					event.payloadBytes = customResponse.getResponse().asByteArray().length;
+				}
+				event.commit();
+			}
+		}
+	}
+
+	private static boolean checkResponseFields(String methodName, CustomResponse customResponse) {
 		boolean isValid = true;
 
 		switch (methodName) {
@@ -242,7 +280,6 @@ public class TestCodeValidator {
 				System.out.println("'data' section is missing or empty in the response.");
 				return false;
 			}
-			System.out.println(leaveTypeList);
 			List<String> leaveFields = List.of("id", "name", "deleted", "situational");
 
 			for (int i = 0; i < leaveTypeList.size(); i++) {
@@ -271,7 +308,6 @@ public class TestCodeValidator {
 				System.out.println("'data' section is missing or empty in the response.");
 				return false;
 			}
-			System.out.println(jobtitleList);
 			List<String> jobFields = List.of("id", "title", "description", "note", "jobSpecification");
 
 			for (int i = 0; i < jobtitleList.size(); i++) {
@@ -0,0 +1,141 @@
+package testcases;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import coreUtilities.mock.StubHttpServer;
+import coreUtilities.mock.TokenEndpointStub;
+import coreUtilities.utils.Poll;
+import rest.ClientCredentialsProvider;
+import rest.TokenManager;
+
+/**
+ * TokenManager against a local {@link TokenEndpointStub}: one fetch however
+ * many callers, refresh before expiry and retries with backoff. Each test
+ * starts its own endpoint and manager, so the shared one is left alone.
+ */
+public class TokenManagerTests {
+	private static final String CLIENT_ID = "token-tests";
+	private static final String CLIENT_SECRET = "secret";
+
+	private StubHttpServer server;
+	private TokenManager manager;
+
+	@AfterMethod(alwaysRun = true)
+	public void tearDown() {
+		if (manager != null) {
+			manager.close();
+			manager = null;
+		}
+		if (server != null) {
+			server.close();
+			server = null;
+		}
+	}
+
+	@Test(groups = { "token" }, description = "1. Start the token endpoint with a 300 ms latency\n"
+			+ "2. Ask for a token from 16 threads at once before the first one arrived\n"
+			+ "3. Assert every thread got the same valid token from a single request")
+	public void concurrentCallersShareOneFetch() throws Exception {
+		TokenEndpointStub stub = new TokenEndpointStub(CLIENT_ID, CLIENT_SECRET, 60, 300);
+		manager = TokenManager.create(endpoint(stub), 10, TimeUnit.SECONDS);
+
+		int threads = 16;
+		ExecutorService callers = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<String>> tokens = new ArrayList<>();
+		try {
+			for (int i = 0; i < threads; i++) {
+				tokens.add(callers.submit(() -> {
+					start.await();
+					return manager.token();
+				}));
+			}
+			start.countDown();
+			Set<String> distinct = new HashSet<>();
+			for (Future<String> token : tokens) {
+				distinct.add(token.get(10, TimeUnit.SECONDS));
+			}
+			Assert.assertEquals(distinct.size(), 1, "Callers got different tokens: " + distinct);
+			Assert.assertTrue(stub.isValid(distinct.iterator().next()), "The token was not issued by the endpoint");
+		} finally {
+			callers.shutdownNow();
+		}
+		Assert.assertEquals(stub.getRequestCount(), 1, "Token endpoint requests");
+		Assert.assertEquals(manager.getRefreshCount(), 1, "Tokens fetched");
+	}
+
+	@Test(groups = { "token" }, description = "1. Issue tokens valid for 4 s and refresh 2 s ahead\n"
+			+ "2. Wait until the manager holds a second token\n"
+			+ "3. Assert it arrived while the first was still valid and no caller waited for it")
+	public void tokenIsReplacedBeforeItExpires() throws IOException {
+		TokenEndpointStub stub = new TokenEndpointStub(CLIENT_ID, CLIENT_SECRET, 4, 100);
+		manager = TokenManager.create(endpoint(stub), 2, TimeUnit.SECONDS);
+
+		String first = manager.token();
+		long firstAt = System.nanoTime();
+		String second = Poll.of("a new bearer token", manager::token).timeout(3, TimeUnit.SECONDS)
+				.backoff(50, 200, TimeUnit.MILLISECONDS, 2).until(token -> !token.equals(first));
+		long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - firstAt);
+
+		Assert.assertTrue(elapsedMillis >= 1500, "Refreshed after " + elapsedMillis + " ms, expected about 2 s");
+		Assert.assertTrue(stub.isValid(first), "The old token expired before it was replaced");
+		Assert.assertTrue(stub.isValid(second), "The new token was not issued by the endpoint");
+		Assert.assertEquals(manager.getRefreshCount(), 2, "Tokens fetched");
+		Assert.assertEquals(manager.getWaitCount(), 1, "Callers that waited (only for the first token)");
+	}
+
+	@Test(groups = { "token" }, description = "1. Issue tokens valid for 10 s and refresh 5 s ahead\n"
+			+ "2. Fail the first two refreshes\n"
+			+ "3. Assert callers keep the old token, the retries back off and the third try succeeds")
+	public void failedRefreshIsRetriedWithBackoff() throws IOException {
+		TokenEndpointStub stub = new TokenEndpointStub(CLIENT_ID, CLIENT_SECRET, 10, 0);
+		ClientCredentialsProvider endpoint = endpoint(stub);
+		AtomicInteger calls = new AtomicInteger();
+		List<Long> attempts = Collections.synchronizedList(new ArrayList<>());
+		manager = TokenManager.create(() -> {
+			attempts.add(System.nanoTime());
+			// The first fetch succeeds, the next two fail
+			int call = calls.incrementAndGet();
+			if (call == 2 || call == 3) {
+				throw new IllegalStateException("token endpoint unavailable (" + call + ")");
+			}
+			return endpoint.fetch();
+		}, 5, TimeUnit.SECONDS);
+
+		String first = manager.token();
+		String second = Poll.of("a token after two failed refreshes", manager::token).timeout(12, TimeUnit.SECONDS)
+				.backoff(100, 250, TimeUnit.MILLISECONDS, 2).until(token -> !token.equals(first));
+
+		Assert.assertTrue(stub.isValid(first), "The old token expired while the refresh was retried");
+		Assert.assertTrue(stub.isValid(second), "The new token was not issued by the endpoint");
+		Assert.assertEquals(manager.getFailureCount(), 2, "Failed fetches");
+		Assert.assertEquals(manager.getRefreshCount(), 2, "Tokens fetched");
+		Assert.assertEquals(manager.getWaitCount(), 1, "Callers that waited (only for the first token)");
+		Assert.assertEquals(attempts.size(), 4, "Fetch attempts");
+		long firstRetry = TimeUnit.NANOSECONDS.toMillis(attempts.get(2) - attempts.get(1));
+		long secondRetry = TimeUnit.NANOSECONDS.toMillis(attempts.get(3) - attempts.get(2));
+		Assert.assertTrue(firstRetry >= 900, "First retry after " + firstRetry + " ms, expected 1 s");
+		Assert.assertTrue(secondRetry >= 1900, "Second retry after " + secondRetry + " ms, expected 2 s");
+	}
+
+	private ClientCredentialsProvider endpoint(TokenEndpointStub stub) throws IOException {
+		server = TokenEndpointStub.start(stub);
+		return new ClientCredentialsProvider(server.getBaseUrl() + TokenEndpointStub.PATH, CLIENT_ID, CLIENT_SECRET,
+				"");
+	}
+}